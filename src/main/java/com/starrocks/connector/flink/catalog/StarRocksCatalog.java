@@ -35,8 +35,14 @@ import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Statement;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 
 /** Responsible for reading and writing metadata such as database/table from StarRocks. */
@@ -46,6 +52,10 @@ public class StarRocksCatalog implements Serializable {
 
     private static final Logger LOG = LoggerFactory.getLogger(StarRocksCatalog.class);
 
+    // `DISTRIBUTED BY HASH(`k1`, `k2`) BUCKETS 8` in the result of `SHOW CREATE TABLE`, and the buckets may be absent
+    private static final Pattern HASH_DISTRIBUTION_PATTERN =
+            Pattern.compile("DISTRIBUTED\\s+BY\\s+HASH\\s*\\(([^)]*)\\)(\\s+BUCKETS\\s+(\\d+))?", Pattern.CASE_INSENSITIVE);
+
     private final String jdbcUrl;
     private final String username;
     private final String password;
@@ -235,6 +245,75 @@ public class StarRocksCatalog implements Serializable {
         return Optional.ofNullable(starRocksTable);
     }
 
+    /**
+     * Returns the {@link StarRocksTable} with the distribution keys and the number of buckets parsed from
+     * `SHOW CREATE TABLE`. The distribution keys are empty if the table is not distributed by hash. If the
+     * number of buckets is decided automatically, it's the one of the partitions if they all have the same
+     * number, otherwise it's null.
+     *
+     * @param databaseName Name of the database
+     * @param tableName Name of the table
+     * @return an optional of the requested table. null if the table does not exist.
+     * @throws StarRocksCatalogException in case of any runtime exception
+     */
+    public Optional<StarRocksTable> getTableWithDistribution(String databaseName, String tableName)
+            throws StarRocksCatalogException {
+        Optional<StarRocksTable> table = getTable(databaseName, tableName);
+        if (!table.isPresent()) {
+            return table;
+        }
+
+        List<String> distributionKeys = Collections.emptyList();
+        Integer numBuckets = null;
+        String quotedName = String.format("`%s`.`%s`", databaseName, tableName);
+        try (Connection connection = getConnection();
+             Statement statement = connection.createStatement()) {
+            String createTableSql = "";
+            try (ResultSet resultSet = statement.executeQuery("SHOW CREATE TABLE " + quotedName)) {
+                if (resultSet.next()) {
+                    createTableSql = resultSet.getString(2);
+                }
+            }
+            Matcher matcher = HASH_DISTRIBUTION_PATTERN.matcher(createTableSql);
+            if (matcher.find()) {
+                distributionKeys = Arrays.stream(matcher.group(1).split(","))
+                        .map(key -> key.trim().replace("`", ""))
+                        .collect(Collectors.toList());
+                if (matcher.group(3) != null) {
+                    numBuckets = Integer.parseInt(matcher.group(3));
+                }
+            }
+            if (!distributionKeys.isEmpty() && numBuckets == null) {
+                Set<Integer> partitionBuckets = new HashSet<>();
+                try (ResultSet resultSet = statement.executeQuery("SHOW PARTITIONS FROM " + quotedName)) {
+                    while (resultSet.next()) {
+                        partitionBuckets.add(resultSet.getInt("Buckets"));
+                    }
+                }
+                if (partitionBuckets.size() == 1) {
+                    numBuckets = partitionBuckets.iterator().next();
+                }
+            }
+        } catch (Exception e) {
+            throw new StarRocksCatalogException(
+                    String.format("Failed to get the distribution of table %s.%s", databaseName, tableName), e);
+        }
+
+        StarRocksTable starRocksTable = table.get();
+        return Optional.of(
+                new StarRocksTable.Builder()
+                        .setDatabaseName(starRocksTable.getDatabaseName())
+                        .setTableName(starRocksTable.getTableName())
+                        .setTableType(starRocksTable.getTableType())
+                        .setColumns(starRocksTable.getColumns())
+                        .setTableKeys(starRocksTable.getTableKeys().orElse(null))
+                        .setDistributionKeys(distributionKeys)
+                        .setNumBuckets(numBuckets)
+                        .setComment(starRocksTable.getComment().orElse(null))
+                        .setTableProperties(starRocksTable.getProperties())
+                        .build());
+    }
+
     /**
      * check if a table exists in this databse.
      */
@@ -21,9 +21,15 @@
 package com.starrocks.connector.flink.manager;
 
 import com.starrocks.connector.flink.table.sink.StarRocksSinkOptions;
+import com.starrocks.data.load.stream.DefaultStreamLoader;
 import com.starrocks.data.load.stream.StreamLoadResponse;
+import com.starrocks.data.load.stream.StreamLoader;
+import com.starrocks.data.load.stream.http.HttpClientPool;
+import com.starrocks.data.load.stream.LoadMetrics;
 import com.starrocks.data.load.stream.v2.StreamLoadListener;
+import com.starrocks.data.load.stream.v2.StreamLoadManagerV2;
 import org.apache.flink.metrics.Counter;
+import org.apache.flink.metrics.Gauge;
 import org.apache.flink.metrics.Histogram;
 import org.apache.flink.metrics.MetricGroup;
 import org.apache.flink.runtime.metrics.DescriptiveStatisticsHistogram;
@@ -64,6 +70,52 @@ public class StarRocksStreamLoadListener implements StreamLoadListener {
         loadTimeMs = metricGroup.histogram(HISTOGRAM_LOAD_TIME_MS, new DescriptiveStatisticsHistogram(sinkOptions.getSinkHistogramWindowSize()));
     }
 
+    public void registerHttpClientPoolGauges(MetricGroup metricGroup, StreamLoader streamLoader) {
+        if (!(streamLoader instanceof DefaultStreamLoader)) {
+            return;
+        }
+        DefaultStreamLoader loader = (DefaultStreamLoader) streamLoader;
+        metricGroup.gauge(GAUGE_HTTP_LEASED_CONNECTIONS, (Gauge<Integer>) () -> {
+            HttpClientPool pool = loader.getHttpClientPool();
+            return pool == null ? 0 : pool.getLeasedConnections();
+        });
+        metricGroup.gauge(GAUGE_HTTP_AVAILABLE_CONNECTIONS, (Gauge<Integer>) () -> {
+            HttpClientPool pool = loader.getHttpClientPool();
+            return pool == null ? 0 : pool.getAvailableConnections();
+        });
+        metricGroup.gauge(GAUGE_HTTP_PENDING_CONNECTIONS, (Gauge<Integer>) () -> {
+            HttpClientPool pool = loader.getHttpClientPool();
+            return pool == null ? 0 : pool.getPendingConnections();
+        });
+        metricGroup.gauge(GAUGE_HTTP_MAX_CONNECTIONS, (Gauge<Integer>) () -> {
+            HttpClientPool pool = loader.getHttpClientPool();
+            return pool == null ? 0 : pool.getMaxConnections();
+        });
+    }
+
+    public void registerAdaptiveFlushGauges(MetricGroup metricGroup, StreamLoadManagerV2 manager, StarRocksSinkOptions sinkOptions) {
+        if (!sinkOptions.isAdaptiveFlush()) {
+            return;
+        }
+        metricGroup.gauge(GAUGE_ADAPTIVE_CHUNK_BYTES, (Gauge<Long>) manager::getAverageAdaptiveChunkBytes);
+        metricGroup.gauge(GAUGE_ADAPTIVE_CHUNK_GROW_TIMES, (Gauge<Long>) () -> {
+            LoadMetrics loadMetrics = manager.getLoadMetrics();
+            return loadMetrics == null ? 0 : loadMetrics.getNumberAdaptiveChunkGrow();
+        });
+        metricGroup.gauge(GAUGE_ADAPTIVE_CHUNK_SHRINK_TIMES, (Gauge<Long>) () -> {
+            LoadMetrics loadMetrics = manager.getLoadMetrics();
+            return loadMetrics == null ? 0 : loadMetrics.getNumberAdaptiveChunkShrink();
+        });
+    }
+
+    public void registerCompressionGauges(MetricGroup metricGroup, StreamLoadManagerV2 manager, StarRocksSinkOptions sinkOptions) {
+        if (!sinkOptions.getSinkStreamLoadProperties().containsKey("compression")) {
+            return;
+        }
+        metricGroup.gauge(GAUGE_COMPRESSION_RATIO, (Gauge<Double>) () -> manager.getCompressionStats().getCompressionRatio());
+        metricGroup.gauge(GAUGE_COMPRESSION_TIME_NS, (Gauge<Long>) () -> manager.getCompressionStats().getCompressTimeNs());
+    }
+
     @Override
     public void onResponse(StreamLoadResponse response) {
         if (response.getException() != null) {
@@ -138,4 +190,19 @@ public class StarRocksStreamLoadListener implements StreamLoadListener {
     private static final String HISTOGRAM_READ_DATA_TIME_MS = "readDataTimeMs";
     private static final String HISTOGRAM_WRITE_DATA_TIME_MS = "writeDataTimeMs";
     private static final String HISTOGRAM_LOAD_TIME_MS = "loadTimeMs";
+
+    // from http client pool
+    private static final String GAUGE_HTTP_LEASED_CONNECTIONS = "httpLeasedConnections";
+    private static final String GAUGE_HTTP_AVAILABLE_CONNECTIONS = "httpAvailableConnections";
+    private static final String GAUGE_HTTP_PENDING_CONNECTIONS = "httpPendingConnections";
+    private static final String GAUGE_HTTP_MAX_CONNECTIONS = "httpMaxConnections";
+
+    // from adaptive flush
+    private static final String GAUGE_ADAPTIVE_CHUNK_BYTES = "adaptiveChunkBytes";
+    private static final String GAUGE_ADAPTIVE_CHUNK_GROW_TIMES = "totalAdaptiveChunkGrowTimes";
+    private static final String GAUGE_ADAPTIVE_CHUNK_SHRINK_TIMES = "totalAdaptiveChunkShrinkTimes";
+
+    // from compression
+    private static final String GAUGE_COMPRESSION_RATIO = "compressionRatio";
+    private static final String GAUGE_COMPRESSION_TIME_NS = "totalCompressionTimeNs";
 }
@@ -0,0 +1,203 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.starrocks.connector.flink.row.sink;
+
+import com.starrocks.connector.flink.table.StarRocksDataType;
+import org.apache.flink.table.data.RowData;
+import org.apache.flink.table.data.StringData;
+import org.apache.flink.table.data.binary.BinaryStringData;
+import org.apache.flink.table.types.logical.LocalZonedTimestampType;
+import org.apache.flink.table.types.logical.LogicalType;
+import org.apache.flink.table.types.logical.TimestampType;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Encodes {@link RowData} to csv bytes directly, which is equivalent to {@link StarRocksTableRowTransformer}
+ * followed by {@link StarRocksCsvSerializer}.
+ *
+ * <p>If `enclose` is set in the stream load properties, string fields are enclosed, and the enclose
+ * characters inside are escaped with `escape`, or doubled if `escape` is not set. If only `escape` is set,
+ * it's put before the column separator, the row delimiter and itself inside string fields. Null is
+ * written as \N.
+ */
+public class StarRocksCsvRowDataEncoder extends StarRocksRowDataEncoder {
+
+    private static final long serialVersionUID = 1L;
+
+    private static final byte[] NULL_VALUE = "\\N".getBytes(StandardCharsets.UTF_8);
+
+    private final byte[] columnSeparator;
+    private final byte[] rowDelimiter;
+    // -1 if not set
+    private final int enclose;
+    private final int escape;
+
+    private transient byte[] textBuffer;
+
+    public StarRocksCsvRowDataEncoder(
+            String[] columnNames,
+            LogicalType[] columnTypes,
+            Map<String, StarRocksDataType> columns,
+            String columnSeparator,
+            String rowDelimiter,
+            String enclose,
+            String escape,
+            boolean supportUpsertDelete,
+            StarRocksTableRowTransformer rowTransformer) {
+        super(columnNames, columnTypes, columns, supportUpsertDelete, rowTransformer);
+        this.columnSeparator = StarRocksDelimiterParser.parse(columnSeparator, "\t").getBytes(StandardCharsets.UTF_8);
+        this.rowDelimiter = StarRocksDelimiterParser.parse(rowDelimiter, "\n").getBytes(StandardCharsets.UTF_8);
+        this.enclose = parseSingleByte("enclose", enclose);
+        this.escape = parseSingleByte("escape", escape);
+    }
+
+    @Override
+    public ByteBuffer encode(RowData record) {
+        if (textBuffer == null) {
+            textBuffer = new byte[buffer.length];
+        }
+        position = 0;
+        for (int i = 0; i < writers.length; i++) {
+            if (i > 0) {
+                writeBytes(columnSeparator);
+            }
+            if (record.isNullAt(i)) {
+                writeBytes(NULL_VALUE);
+            } else {
+                writers[i].write(record, i);
+            }
+        }
+        if (supportUpsertDelete) {
+            // set `__op` column
+            if (writers.length > 0) {
+                writeBytes(columnSeparator);
+            }
+            writeLong(StarRocksSinkOP.parse(record.getRowKind()).ordinal());
+        }
+        return finish();
+    }
+
+    @Override
+    protected FieldWriter createWriter(LogicalType type, boolean jsonColumn) {
+        FieldWriter numberWriter = createNumberWriter(type);
+        if (numberWriter != null) {
+            return numberWriter;
+        }
+        switch (type.getTypeRoot()) {
+            case FLOAT:
+                return (record, pos) -> writeAscii(Float.toString(record.getFloat(pos)));
+            case DOUBLE:
+                return (record, pos) -> writeAscii(Double.toString(record.getDouble(pos)));
+            case CHAR:
+            case VARCHAR:
+                return (record, pos) -> writeString(record.getString(pos), jsonColumn);
+            case DATE:
+                return (record, pos) -> writeDate(record.getInt(pos));
+            case TIMESTAMP_WITHOUT_TIME_ZONE: {
+                final int precision = ((TimestampType) type).getPrecision();
+                return (record, pos) -> writeTimestamp(record.getTimestamp(pos, precision));
+            }
+            case TIMESTAMP_WITH_LOCAL_TIME_ZONE: {
+                final int precision = ((LocalZonedTimestampType) type).getPrecision();
+                return (record, pos) -> writeTimestamp(record.getTimestamp(pos, precision));
+            }
+            default:
+                // nested types are converted to java objects first, and unsupported types will fail there
+                return (record, pos) -> writeObject(rowTransformer.convertField(record, pos));
+        }
+    }
+
+    private void writeString(StringData data, boolean jsonColumn) {
+        BinaryStringData str = (BinaryStringData) data;
+        str.ensureMaterialized();
+        int len = str.getSizeInBytes();
+        boolean jsonString = isJsonString(str, jsonColumn);
+        if (enclose < 0 && escape < 0 && !jsonString) {
+            ensureCapacity(len);
+            copyString(str, buffer, position);
+            position += len;
+            return;
+        }
+        if (textBuffer.length < len) {
+            textBuffer = new byte[Math.max(textBuffer.length * 2, len)];
+        }
+        copyString(str, textBuffer, 0);
+        if (jsonString && (!rawJson || !StarRocksRawJson.isValid(textBuffer, 0, len))) {
+            // normalize the json string as StarRocksTableRowTransformer does
+            writeObject(jsonWrapper.parse(str.toString()));
+            return;
+        }
+        // the raw json is written as a string field, and enclosed or escaped as others
+        writeText(textBuffer, 0, len);
+    }
+
+    private void writeObject(Object value) {
+        if (value == null) {
+            writeBytes(NULL_VALUE);
+            return;
+        }
+        String str = (value instanceof Map || value instanceof List) ? jsonWrapper.toJSONString(value) : value.toString();
+        byte[] bytes = str.getBytes(StandardCharsets.UTF_8);
+        writeText(bytes, 0, bytes.length);
+    }
+
+    // write the bytes of a string field, and enclose or escape it if needed
+    private void writeText(byte[] data, int off, int len) {
+        if (enclose < 0 && escape < 0) {
+            ensureCapacity(len);
+            System.arraycopy(data, off, buffer, position, len);
+            position += len;
+            return;
+        }
+
+        // at most one extra byte for each byte and two enclose bytes
+        ensureCapacity(len * 2 + 2);
+        if (enclose >= 0) {
+            buffer[position++] = (byte) enclose;
+        }
+        for (int i = off; i < off + len; i++) {
+            byte b = data[i];
+            if (needEscape(b)) {
+                buffer[position++] = (byte) (escape >= 0 ? escape : enclose);
+            }
+            buffer[position++] = b;
+        }
+        if (enclose >= 0) {
+            buffer[position++] = (byte) enclose;
+        }
+    }
+
+    private boolean needEscape(byte b) {
+        if (enclose >= 0) {
+            return b == (byte) enclose || (escape >= 0 && b == (byte) escape);
+        }
+        return b == (byte) escape || b == columnSeparator[0] || b == rowDelimiter[0];
+    }
+
+    private static int parseSingleByte(String name, String value) {
+        if (value == null || value.isEmpty()) {
+            return -1;
+        }
+        byte[] bytes = StarRocksDelimiterParser.parse(value, null).getBytes(StandardCharsets.UTF_8);
+        if (bytes.length != 1) {
+            throw new IllegalArgumentException(String.format("%s `%s` set failed, must be a single byte", name, value));
+        }
+        return bytes[0] & 0xff;
+    }
+}
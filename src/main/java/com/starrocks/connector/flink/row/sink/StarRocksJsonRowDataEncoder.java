@@ -0,0 +1,256 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.starrocks.connector.flink.row.sink;
+
+import com.starrocks.connector.flink.table.StarRocksDataType;
+import org.apache.flink.table.data.RowData;
+import org.apache.flink.table.data.StringData;
+import org.apache.flink.table.data.binary.BinaryStringData;
+import org.apache.flink.table.types.logical.LocalZonedTimestampType;
+import org.apache.flink.table.types.logical.LogicalType;
+import org.apache.flink.table.types.logical.TimestampType;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+/**
+ * Encodes {@link RowData} to a json object directly, which is equivalent to {@link StarRocksTableRowTransformer}
+ * followed by {@link StarRocksJsonSerializer}. The bytes of the field names are built once, and the fields are
+ * written in the order of the schema. Null fields are omitted as fastjson does for the row map.
+ */
+public class StarRocksJsonRowDataEncoder extends StarRocksRowDataEncoder {
+
+    private static final long serialVersionUID = 1L;
+
+    private static final byte[] HEX_DIGITS = "0123456789abcdef".getBytes(StandardCharsets.UTF_8);
+    private static final byte[] NULL_VALUE = "null".getBytes(StandardCharsets.UTF_8);
+
+    // `"name":` of each column
+    private final byte[][] fieldPrefixes;
+    private final byte[] opFieldPrefix;
+
+    private transient byte[] textBuffer;
+
+    public StarRocksJsonRowDataEncoder(
+            String[] columnNames,
+            LogicalType[] columnTypes,
+            Map<String, StarRocksDataType> columns,
+            boolean supportUpsertDelete,
+            StarRocksTableRowTransformer rowTransformer) {
+        super(columnNames, columnTypes, columns, supportUpsertDelete, rowTransformer);
+        this.fieldPrefixes = new byte[columnNames.length][];
+        for (int i = 0; i < columnNames.length; i++) {
+            fieldPrefixes[i] = toFieldPrefix(columnNames[i]);
+        }
+        this.opFieldPrefix = toFieldPrefix(StarRocksSinkOP.COLUMN_KEY);
+    }
+
+    @Override
+    public ByteBuffer encode(RowData record) {
+        if (textBuffer == null) {
+            textBuffer = new byte[buffer.length];
+        }
+        position = 0;
+        writeByte('{');
+        boolean first = true;
+        for (int i = 0; i < writers.length; i++) {
+            if (record.isNullAt(i)) {
+                continue;
+            }
+            if (!first) {
+                writeByte(',');
+            }
+            first = false;
+            writeBytes(fieldPrefixes[i]);
+            writers[i].write(record, i);
+        }
+        if (supportUpsertDelete) {
+            if (!first) {
+                writeByte(',');
+            }
+            writeBytes(opFieldPrefix);
+            writeLong(StarRocksSinkOP.parse(record.getRowKind()).ordinal());
+        }
+        writeByte('}');
+        return finish();
+    }
+
+    @Override
+    protected FieldWriter createWriter(LogicalType type, boolean jsonColumn) {
+        FieldWriter numberWriter = createNumberWriter(type);
+        if (numberWriter != null) {
+            return numberWriter;
+        }
+        switch (type.getTypeRoot()) {
+            case FLOAT:
+                return (record, pos) -> writeFloatingPoint(record.getFloat(pos));
+            case DOUBLE:
+                return (record, pos) -> writeFloatingPoint(record.getDouble(pos));
+            case CHAR:
+            case VARCHAR:
+                return (record, pos) -> writeString(record.getString(pos), jsonColumn);
+            case DATE:
+                return (record, pos) -> {
+                    writeByte('"');
+                    writeDate(record.getInt(pos));
+                    writeByte('"');
+                };
+            case TIMESTAMP_WITHOUT_TIME_ZONE: {
+                final int precision = ((TimestampType) type).getPrecision();
+                return (record, pos) -> {
+                    writeByte('"');
+                    writeTimestamp(record.getTimestamp(pos, precision));
+                    writeByte('"');
+                };
+            }
+            case TIMESTAMP_WITH_LOCAL_TIME_ZONE: {
+                final int precision = ((LocalZonedTimestampType) type).getPrecision();
+                return (record, pos) -> {
+                    writeByte('"');
+                    writeTimestamp(record.getTimestamp(pos, precision));
+                    writeByte('"');
+                };
+            }
+            default:
+                // nested types are converted to java objects first, and unsupported types will fail there
+                return (record, pos) -> writeJson(rowTransformer.convertField(record, pos));
+        }
+    }
+
+    // NaN and infinity are not valid json numbers, and fastjson writes them as null
+    private void writeFloatingPoint(double value) {
+        if (Double.isNaN(value) || Double.isInfinite(value)) {
+            writeBytes(NULL_VALUE);
+        } else {
+            writeAscii(Double.toString(value));
+        }
+    }
+
+    private void writeFloatingPoint(float value) {
+        if (Float.isNaN(value) || Float.isInfinite(value)) {
+            writeBytes(NULL_VALUE);
+        } else {
+            writeAscii(Float.toString(value));
+        }
+    }
+
+    private void writeString(StringData data, boolean jsonColumn) {
+        BinaryStringData str = (BinaryStringData) data;
+        str.ensureMaterialized();
+        int len = str.getSizeInBytes();
+        if (isJsonString(str, jsonColumn)) {
+            if (rawJson) {
+                // splice the json into the output verbatim if it passes the light validation
+                ensureCapacity(len);
+                copyString(str, buffer, position);
+                if (StarRocksRawJson.isValid(buffer, position, len)) {
+                    position += len;
+                    return;
+                }
+            }
+            // write the json string as a json value rather than a string as StarRocksTableRowTransformer does
+            writeJson(jsonWrapper.parse(str.toString()));
+            return;
+        }
+        ensureCapacity(len + 2);
+        buffer[position++] = '"';
+        copyString(str, buffer, position);
+        int end = position + len;
+        int escapeStart = position;
+        while (escapeStart < end && !needEscape(buffer[escapeStart])) {
+            escapeStart++;
+        }
+        if (escapeStart == end) {
+            // most strings have nothing to escape, and they are copied as a whole
+            position = end;
+        } else {
+            int escapeLen = end - escapeStart;
+            if (textBuffer.length < escapeLen) {
+                textBuffer = new byte[Math.max(textBuffer.length * 2, escapeLen)];
+            }
+            System.arraycopy(buffer, escapeStart, textBuffer, 0, escapeLen);
+            position = escapeStart;
+            writeEscaped(textBuffer, 0, escapeLen);
+        }
+        writeByte('"');
+    }
+
+    private void writeJson(Object value) {
+        writeBytes(jsonWrapper.toJSONString(value).getBytes(StandardCharsets.UTF_8));
+    }
+
+    private void writeEscaped(byte[] data, int off, int len) {
+        // at most 6 bytes for each byte
+        ensureCapacity(len * 6);
+        for (int i = off; i < off + len; i++) {
+            byte b = data[i];
+            if (!needEscape(b)) {
+                buffer[position++] = b;
+                continue;
+            }
+            buffer[position++] = '\\';
+            switch (b) {
+                case '"':
+                case '\\':
+                    buffer[position++] = b;
+                    break;
+                case '\b':
+                    buffer[position++] = 'b';
+                    break;
+                case '\f':
+                    buffer[position++] = 'f';
+                    break;
+                case '\n':
+                    buffer[position++] = 'n';
+                    break;
+                case '\r':
+                    buffer[position++] = 'r';
+                    break;
+                case '\t':
+                    buffer[position++] = 't';
+                    break;
+                default:
+                    buffer[position++] = 'u';
+                    buffer[position++] = '0';
+                    buffer[position++] = '0';
+                    buffer[position++] = HEX_DIGITS[(b >> 4) & 0xf];
+                    buffer[position++] = HEX_DIGITS[b & 0xf];
+            }
+        }
+    }
+
+    // bytes of multi-byte utf-8 characters are negative, and they are not escaped
+    private static boolean needEscape(byte b) {
+        return (b >= 0 && b < 0x20) || b == '"' || b == '\\';
+    }
+
+    private static byte[] toFieldPrefix(String name) {
+        StringBuilder sb = new StringBuilder(name.length() + 3);
+        sb.append('"');
+        for (int i = 0; i < name.length(); i++) {
+            char c = name.charAt(i);
+            if (c == '"' || c == '\\') {
+                sb.append('\\').append(c);
+            } else if (c < 0x20) {
+                sb.append(String.format("\\u%04x", (int) c));
+            } else {
+                sb.append(c);
+            }
+        }
+        sb.append("\":");
+        return sb.toString().getBytes(StandardCharsets.UTF_8);
+    }
+}
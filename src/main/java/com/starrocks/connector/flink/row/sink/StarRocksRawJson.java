@@ -0,0 +1,162 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.starrocks.connector.flink.row.sink;
+
+import com.alibaba.fastjson.JSONAware;
+
+import java.io.Serializable;
+
+/**
+ * A json string which is passed through to StarRocks verbatim. fastjson writes it as is via
+ * {@link JSONAware#toJSONString()}, and {@link StarRocksCsvSerializer} writes it via {@link #toString()},
+ * so the json is not parsed and serialized again.
+ *
+ * <p>Only the strings passing {@link #isValid} should be wrapped. It's a light validation in one pass, which
+ * checks that the brackets and quotes are balanced, the characters outside strings can appear in a json, and
+ * there are no control characters. It does not check the grammar completely, and StarRocks will reject the
+ * invalid ones. The strings failing it are normalized by fastjson as before, which also accepts the json
+ * that is not standard, such as single quotes.
+ */
+public final class StarRocksRawJson implements JSONAware, Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    // the brackets deeper than this are not validated, and fall back to normalization
+    private static final int MAX_DEPTH = 64;
+
+    private final String json;
+
+    public StarRocksRawJson(String json) {
+        this.json = json;
+    }
+
+    @Override
+    public String toJSONString() {
+        return json;
+    }
+
+    @Override
+    public String toString() {
+        return json;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return o instanceof StarRocksRawJson && json.equals(((StarRocksRawJson) o).json);
+    }
+
+    @Override
+    public int hashCode() {
+        return json.hashCode();
+    }
+
+    /**
+     * Validate the json string. Only spaces are allowed between tokens, and line breaks are not
+     * because they may conflict with the row delimiter.
+     */
+    public static boolean isValid(String json) {
+        Validator validator = new Validator();
+        for (int i = 0; i < json.length(); i++) {
+            if (!validator.accept(json.charAt(i))) {
+                return false;
+            }
+        }
+        return validator.isComplete();
+    }
+
+    /**
+     * Same as {@link #isValid(String)} for the utf-8 bytes of a json string.
+     */
+    public static boolean isValid(byte[] json, int off, int len) {
+        Validator validator = new Validator();
+        for (int i = off; i < off + len; i++) {
+            if (!validator.accept(json[i] & 0xff)) {
+                return false;
+            }
+        }
+        return validator.isComplete();
+    }
+
+    private static final class Validator {
+
+        // bit i is set if the bracket at depth i is '['
+        private long arrayBits;
+        private int depth;
+        private boolean started;
+        private boolean inString;
+        private boolean escaped;
+
+        boolean accept(int c) {
+            if (inString) {
+                if (c < 0x20) {
+                    return false;
+                }
+                if (escaped) {
+                    escaped = false;
+                } else if (c == '\\') {
+                    escaped = true;
+                } else if (c == '"') {
+                    inString = false;
+                }
+                return true;
+            }
+
+            // nothing but spaces after the top level value
+            if (started && depth == 0) {
+                return c == ' ';
+            }
+
+            switch (c) {
+                case '{':
+                case '[':
+                    if (depth == MAX_DEPTH) {
+                        return false;
+                    }
+                    if (c == '[') {
+                        arrayBits |= 1L << depth;
+                    } else {
+                        arrayBits &= ~(1L << depth);
+                    }
+                    depth++;
+                    started = true;
+                    return true;
+                case '}':
+                case ']':
+                    if (depth == 0 || (c == ']') != ((arrayBits & (1L << (depth - 1))) != 0)) {
+                        return false;
+                    }
+                    depth--;
+                    return true;
+                case '"':
+                    inString = started;
+                    return started;
+                case ',':
+                case ':':
+                case '-':
+                case '+':
+                case '.':
+                case ' ':
+                    return true;
+                default:
+                    // digits, and the letters of numbers and true/false/null
+                    return (c >= '0' && c <= '9') || "eEtrufalsn".indexOf(c) >= 0;
+            }
+        }
+
+        boolean isComplete() {
+            return started && depth == 0 && !inString;
+        }
+    }
+}
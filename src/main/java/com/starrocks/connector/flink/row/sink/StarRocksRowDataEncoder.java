@@ -0,0 +1,338 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.starrocks.connector.flink.row.sink;
+
+import com.starrocks.connector.flink.table.StarRocksDataType;
+import com.starrocks.connector.flink.tools.JsonWrapper;
+import org.apache.flink.table.data.DecimalData;
+import org.apache.flink.table.data.RowData;
+import org.apache.flink.table.data.TimestampData;
+import org.apache.flink.table.data.binary.BinarySegmentUtils;
+import org.apache.flink.table.data.binary.BinaryStringData;
+import org.apache.flink.table.types.logical.DecimalType;
+import org.apache.flink.table.types.logical.LogicalType;
+
+import javax.annotation.Nullable;
+
+import java.io.Serializable;
+import java.nio.ByteBuffer;
+import java.sql.Date;
+import java.text.SimpleDateFormat;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Map;
+
+/**
+ * Base class of the encoders which write {@link RowData} to bytes directly. A writer is created for each
+ * column according to the schema once, and each field is written to a reusable byte buffer without boxing
+ * it or building a String. The result is equivalent to {@link StarRocksTableRowTransformer} followed by
+ * the serializer of the format. Nested types (ARRAY, MAP, ROW) are still converted by the row transformer.
+ */
+public abstract class StarRocksRowDataEncoder implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private static final int INITIAL_BUFFER_SIZE = 1024;
+    // BigDecimal#toString uses the scientific notation if the adjusted exponent is less than this
+    private static final int MIN_PLAIN_EXPONENT = -6;
+
+    protected final LogicalType[] columnTypes;
+    // whether the string of the column should be parsed as json if it looks like a json
+    protected final boolean[] jsonColumns;
+    protected final boolean supportUpsertDelete;
+    protected final StarRocksTableRowTransformer rowTransformer;
+    // not null if the rows are compacted by the primary key in the sink buffer
+    @Nullable
+    private StarRocksRowKeyEncoder keyEncoder;
+
+    protected transient FieldWriter[] writers;
+    protected transient JsonWrapper jsonWrapper;
+    // whether to write the json strings of JSON columns verbatim, same as the row transformer
+    protected transient boolean rawJson;
+    protected transient byte[] buffer;
+    protected transient int position;
+    private transient SimpleDateFormat dateFormatter;
+    private transient ByteBuffer output;
+
+    protected StarRocksRowDataEncoder(
+            String[] columnNames,
+            LogicalType[] columnTypes,
+            Map<String, StarRocksDataType> columns,
+            boolean supportUpsertDelete,
+            StarRocksTableRowTransformer rowTransformer) {
+        this.columnTypes = columnTypes;
+        this.jsonColumns = new boolean[columnTypes.length];
+        for (int i = 0; i < columnTypes.length; i++) {
+            if (columns != null) {
+                StarRocksDataType type = columns.getOrDefault(columnNames[i], StarRocksDataType.UNKNOWN);
+                jsonColumns[i] = type == StarRocksDataType.JSON || type == StarRocksDataType.UNKNOWN;
+            }
+        }
+        this.supportUpsertDelete = supportUpsertDelete;
+        this.rowTransformer = rowTransformer;
+    }
+
+    public void open(JsonWrapper jsonWrapper) {
+        this.jsonWrapper = jsonWrapper;
+        this.rawJson = rowTransformer.isRawJson();
+        this.dateFormatter = new SimpleDateFormat("yyyy-MM-dd");
+        this.buffer = new byte[INITIAL_BUFFER_SIZE];
+        this.output = ByteBuffer.wrap(buffer);
+        this.writers = new FieldWriter[columnTypes.length];
+        for (int i = 0; i < columnTypes.length; i++) {
+            writers[i] = createWriter(columnTypes[i], jsonColumns[i]);
+        }
+        if (keyEncoder != null) {
+            keyEncoder.open(jsonWrapper);
+        }
+    }
+
+    public void setKeyEncoder(@Nullable StarRocksRowKeyEncoder keyEncoder) {
+        this.keyEncoder = keyEncoder;
+    }
+
+    /**
+     * Encode the primary key of the row, or return null if the rows should not be compacted.
+     */
+    @Nullable
+    public byte[] encodeKey(RowData record) {
+        return keyEncoder == null ? null : keyEncoder.encode(record);
+    }
+
+    /**
+     * Encode the row. The returned buffer is reused, and is only valid until the next call.
+     */
+    public abstract ByteBuffer encode(RowData record);
+
+    protected abstract FieldWriter createWriter(LogicalType type, boolean jsonColumn);
+
+    // the buffer of the row which is written from the beginning of the byte buffer to the position
+    protected ByteBuffer finish() {
+        if (output.array() != buffer) {
+            output = ByteBuffer.wrap(buffer);
+        }
+        output.clear();
+        output.limit(position);
+        return output;
+    }
+
+    /**
+     * Create the writer for the types which are written as numbers in both csv and json,
+     * or return null for other types.
+     */
+    protected FieldWriter createNumberWriter(LogicalType type) {
+        switch (type.getTypeRoot()) {
+            case BOOLEAN:
+                return (record, pos) -> writeByte(record.getBoolean(pos) ? '1' : '0');
+            case TINYINT:
+                return (record, pos) -> writeLong(record.getByte(pos));
+            case SMALLINT:
+                return (record, pos) -> writeLong(record.getShort(pos));
+            case INTEGER:
+                return (record, pos) -> writeLong(record.getInt(pos));
+            case BIGINT:
+                return (record, pos) -> writeLong(record.getLong(pos));
+            case DECIMAL: {
+                final int precision = ((DecimalType) type).getPrecision();
+                final int scale = ((DecimalType) type).getScale();
+                return (record, pos) -> writeDecimal(record.getDecimal(pos, precision, scale), precision);
+            }
+            case BINARY:
+                return (record, pos) -> {
+                    byte[] bts = record.getBinary(pos);
+                    long value = 0;
+                    for (int i = 0; i < bts.length; i++) {
+                        value += (bts[bts.length - i - 1] & 0xffL) << (8 * i);
+                    }
+                    writeLong(value);
+                };
+            default:
+                return null;
+        }
+    }
+
+    // whether the string should be normalized as json as StarRocksTableRowTransformer does
+    protected static boolean isJsonString(BinaryStringData str, boolean jsonColumn) {
+        if (!jsonColumn || str.getSizeInBytes() == 0) {
+            return false;
+        }
+        byte first = str.byteAt(0);
+        return first == '{' || first == '[';
+    }
+
+    // copy the bytes of the string to the array from the offset
+    protected static void copyString(BinaryStringData str, byte[] target, int offset) {
+        BinarySegmentUtils.copyToBytes(str.getSegments(), str.getOffset(), target, offset, str.getSizeInBytes());
+    }
+
+
+    // same as SimpleDateFormat("yyyy-MM-dd") used by StarRocksTableRowTransformer
+    protected void writeDate(int epochDay) {
+        LocalDate date = LocalDate.ofEpochDay(epochDay);
+        if (date.getYear() < 1 || date.getYear() > 9999) {
+            writeAscii(dateFormatter.format(Date.valueOf(date)));
+            return;
+        }
+        writeLocalDate(date);
+    }
+
+    // same as LocalDateTime#toString
+    protected void writeTimestamp(TimestampData timestamp) {
+        long millis = timestamp.getMillisecond();
+        LocalDate date = LocalDate.ofEpochDay(Math.floorDiv(millis, 86400000L));
+        if (date.getYear() < 0 || date.getYear() > 9999) {
+            writeAscii(timestamp.toLocalDateTime().toString());
+            return;
+        }
+        writeLocalDate(date);
+        writeByte('T');
+        int millisOfDay = (int) Math.floorMod(millis, 86400000L);
+        int secondOfDay = millisOfDay / 1000;
+        int nano = (millisOfDay % 1000) * 1000000 + timestamp.getNanoOfMillisecond();
+        writePadded(secondOfDay / 3600, 2);
+        writeByte(':');
+        writePadded(secondOfDay / 60 % 60, 2);
+        int second = secondOfDay % 60;
+        if (second > 0 || nano > 0) {
+            writeByte(':');
+            writePadded(second, 2);
+            if (nano > 0) {
+                writeByte('.');
+                if (nano % 1000000 == 0) {
+                    writePadded(nano / 1000000, 3);
+                } else if (nano % 1000 == 0) {
+                    writePadded(nano / 1000, 6);
+                } else {
+                    writePadded(nano, 9);
+                }
+            }
+        }
+    }
+
+    private void writeLocalDate(LocalDate date) {
+        writePadded(date.getYear(), 4);
+        writeByte('-');
+        writePadded(date.getMonthValue(), 2);
+        writeByte('-');
+        writePadded(date.getDayOfMonth(), 2);
+    }
+
+    // same as BigDecimal#toString
+    protected void writeDecimal(DecimalData decimal, int precision) {
+        int scale = decimal.scale();
+        if (!DecimalData.isCompact(precision) || scale < 0) {
+            writeAscii(decimal.toBigDecimal().toString());
+            return;
+        }
+        long unscaled = decimal.toUnscaledLong();
+        long abs = Math.abs(unscaled);
+        int digits = numDigits(abs);
+        if (digits - 1 - scale < MIN_PLAIN_EXPONENT) {
+            writeAscii(decimal.toBigDecimal().toString());
+            return;
+        }
+        if (unscaled < 0) {
+            writeByte('-');
+        }
+        if (scale == 0) {
+            writeLong(abs);
+        } else if (digits > scale) {
+            long pow = pow10(scale);
+            writeLong(abs / pow);
+            writeByte('.');
+            writePadded(abs % pow, scale);
+        } else {
+            writeByte('0');
+            writeByte('.');
+            writePadded(abs, scale);
+        }
+    }
+
+    protected void writeLong(long value) {
+        if (value == Long.MIN_VALUE) {
+            writeAscii(Long.toString(value));
+            return;
+        }
+        ensureCapacity(20);
+        if (value < 0) {
+            buffer[position++] = '-';
+            value = -value;
+        }
+        int digits = numDigits(value);
+        for (int i = position + digits - 1; i >= position; i--) {
+            buffer[i] = (byte) ('0' + value % 10);
+            value /= 10;
+        }
+        position += digits;
+    }
+
+    // write the non-negative value with leading zeros
+    protected void writePadded(long value, int width) {
+        int digits = Math.max(numDigits(value), width);
+        ensureCapacity(digits);
+        for (int i = position + digits - 1; i >= position; i--) {
+            buffer[i] = (byte) ('0' + value % 10);
+            value /= 10;
+        }
+        position += digits;
+    }
+
+    protected void writeAscii(String str) {
+        int len = str.length();
+        ensureCapacity(len);
+        for (int i = 0; i < len; i++) {
+            buffer[position++] = (byte) str.charAt(i);
+        }
+    }
+
+    protected void writeByte(char b) {
+        ensureCapacity(1);
+        buffer[position++] = (byte) b;
+    }
+
+    protected void writeBytes(byte[] bytes) {
+        ensureCapacity(bytes.length);
+        System.arraycopy(bytes, 0, buffer, position, bytes.length);
+        position += bytes.length;
+    }
+
+    protected void ensureCapacity(int len) {
+        if (position + len > buffer.length) {
+            buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, position + len));
+        }
+    }
+
+    private static int numDigits(long value) {
+        int digits = 1;
+        while (value >= 10) {
+            value /= 10;
+            digits++;
+        }
+        return digits;
+    }
+
+    private static long pow10(int n) {
+        long value = 1;
+        for (int i = 0; i < n; i++) {
+            value *= 10;
+        }
+        return value;
+    }
+
+    @FunctionalInterface
+    protected interface FieldWriter {
+        void write(RowData record, int pos);
+    }
+}
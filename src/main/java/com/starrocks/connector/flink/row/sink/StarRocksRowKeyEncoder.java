@@ -0,0 +1,62 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.starrocks.connector.flink.row.sink;
+
+import com.starrocks.connector.flink.tools.JsonWrapper;
+import org.apache.flink.table.data.RowData;
+import org.apache.flink.table.data.utils.ProjectedRowData;
+import org.apache.flink.table.types.logical.LogicalType;
+
+import java.io.Serializable;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * Encodes the primary key columns of {@link RowData} to bytes which identify the row in a primary key
+ * table, and they are used to compact the rows of the same key in the sink buffer. The key columns are
+ * encoded as csv with enclosed strings, so that different keys always have different bytes.
+ */
+public class StarRocksRowKeyEncoder implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private final int[] keyIndexes;
+    private final StarRocksCsvRowDataEncoder encoder;
+
+    private transient ProjectedRowData keyRow;
+
+    public StarRocksRowKeyEncoder(String[] columnNames, LogicalType[] columnTypes, int[] keyIndexes,
+                                  StarRocksTableRowTransformer rowTransformer) {
+        this.keyIndexes = keyIndexes;
+        String[] keyNames = new String[keyIndexes.length];
+        LogicalType[] keyTypes = new LogicalType[keyIndexes.length];
+        for (int i = 0; i < keyIndexes.length; i++) {
+            keyNames[i] = columnNames[keyIndexes[i]];
+            keyTypes[i] = columnTypes[keyIndexes[i]];
+        }
+        this.encoder = new StarRocksCsvRowDataEncoder(
+                keyNames, keyTypes, null, null, null, "\"", "\\", false, rowTransformer);
+    }
+
+    public void open(JsonWrapper jsonWrapper) {
+        encoder.open(jsonWrapper);
+        this.keyRow = ProjectedRowData.from(keyIndexes);
+    }
+
+    public byte[] encode(RowData record) {
+        ByteBuffer key = encoder.encode(keyRow.replaceRow(record));
+        return Arrays.copyOfRange(key.array(), 0, key.limit());
+    }
+}
@@ -14,10 +14,24 @@
 
 package com.starrocks.connector.flink.row.sink;
 
+import com.starrocks.connector.flink.table.StarRocksDataType;
 import com.starrocks.connector.flink.table.sink.StarRocksSinkOptions;
+import org.apache.flink.table.api.TableSchema;
+import org.apache.flink.table.api.constraints.UniqueConstraint;
+import org.apache.flink.table.types.DataType;
+import org.apache.flink.table.types.logical.LogicalType;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
 
 public class StarRocksSerializerFactory {
 
+    private static final Logger LOG = LoggerFactory.getLogger(StarRocksSerializerFactory.class);
+
     private StarRocksSerializerFactory() {}
 
     public static StarRocksISerializer createSerializer(StarRocksSinkOptions sinkOptions, String[] fieldNames) {
@@ -35,5 +49,71 @@ public class StarRocksSerializerFactory {
         }
         throw new RuntimeException("Failed to create row serializer, unsupported `format` from stream load properties.");
     }
+
+    /**
+     * Create an encoder which writes the RowData to bytes in the format directly. Return null if the direct
+     * encoding is disabled, or the rows are not transformed by {@link StarRocksTableRowTransformer}.
+     */
+    public static StarRocksRowDataEncoder createRowDataEncoder(StarRocksSinkOptions sinkOptions, TableSchema schema,
+            Map<String, StarRocksDataType> fieldMapping, StarRocksIRowTransformer<?> rowTransformer) {
+        if (!sinkOptions.isDirectEncoding() || !(rowTransformer instanceof StarRocksTableRowTransformer)) {
+            return null;
+        }
+        LogicalType[] columnTypes = Arrays.stream(schema.getFieldDataTypes())
+                .map(DataType::getLogicalType).toArray(LogicalType[]::new);
+        StarRocksRowDataEncoder encoder = createRowDataEncoder(
+                sinkOptions, schema, columnTypes, fieldMapping, (StarRocksTableRowTransformer) rowTransformer);
+        if (encoder != null) {
+            encoder.setKeyEncoder(createRowKeyEncoder(
+                    sinkOptions, schema, columnTypes, (StarRocksTableRowTransformer) rowTransformer));
+        }
+        return encoder;
+    }
+
+    private static StarRocksRowDataEncoder createRowDataEncoder(StarRocksSinkOptions sinkOptions, TableSchema schema,
+            LogicalType[] columnTypes, Map<String, StarRocksDataType> fieldMapping,
+            StarRocksTableRowTransformer rowTransformer) {
+        if (StarRocksSinkOptions.StreamLoadFormat.CSV.equals(sinkOptions.getStreamLoadFormat())) {
+            Map<String, String> loadProperties = sinkOptions.getSinkStreamLoadProperties();
+            return new StarRocksCsvRowDataEncoder(
+                    schema.getFieldNames(),
+                    columnTypes,
+                    fieldMapping,
+                    loadProperties.get("column_separator"),
+                    loadProperties.get("row_delimiter"),
+                    loadProperties.get("enclose"),
+                    loadProperties.get("escape"),
+                    sinkOptions.supportUpsertDelete(),
+                    rowTransformer);
+        }
+        if (StarRocksSinkOptions.StreamLoadFormat.JSON.equals(sinkOptions.getStreamLoadFormat())) {
+            return new StarRocksJsonRowDataEncoder(
+                    schema.getFieldNames(),
+                    columnTypes,
+                    fieldMapping,
+                    sinkOptions.supportUpsertDelete(),
+                    rowTransformer);
+        }
+        return null;
+    }
+
+    // Create the key encoder if the rows of the primary key table can be compacted. The compaction only keeps
+    // the last row of a key, which is not the same as loading all of them for partial and conditional updates
+    private static StarRocksRowKeyEncoder createRowKeyEncoder(StarRocksSinkOptions sinkOptions, TableSchema schema,
+            LogicalType[] columnTypes, StarRocksTableRowTransformer rowTransformer) {
+        Optional<UniqueConstraint> primaryKey = schema.getPrimaryKey();
+        if (!sinkOptions.isUpsertCompaction() || !sinkOptions.supportUpsertDelete() || !primaryKey.isPresent()) {
+            return null;
+        }
+        Map<String, String> loadProperties = sinkOptions.getSinkStreamLoadProperties();
+        if ("true".equalsIgnoreCase(loadProperties.get("partial_update")) || loadProperties.containsKey("merge_condition")) {
+            LOG.warn("Upsert compaction is disabled for the partial update or conditional update, db: {}, table: {}",
+                    sinkOptions.getDatabaseName(), sinkOptions.getTableName());
+            return null;
+        }
+        List<String> columnNames = Arrays.asList(schema.getFieldNames());
+        int[] keyIndexes = primaryKey.get().getColumns().stream().mapToInt(columnNames::indexOf).toArray();
+        return new StarRocksRowKeyEncoder(schema.getFieldNames(), columnTypes, keyIndexes, rowTransformer);
+    }
     
 }
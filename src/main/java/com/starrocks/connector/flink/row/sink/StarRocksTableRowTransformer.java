@@ -14,38 +14,30 @@
 
 package com.starrocks.connector.flink.row.sink;
 
-import com.google.common.collect.Lists;
-import com.google.common.collect.Maps;
 import com.starrocks.connector.flink.table.StarRocksDataType;
 import com.starrocks.connector.flink.tools.JsonWrapper;
 import org.apache.flink.api.common.functions.RuntimeContext;
 import org.apache.flink.api.common.typeinfo.TypeInformation;
 import org.apache.flink.table.api.TableSchema;
 import org.apache.flink.table.data.ArrayData;
-import org.apache.flink.table.data.GenericArrayData;
-import org.apache.flink.table.data.GenericMapData;
+import org.apache.flink.table.data.DecimalData;
 import org.apache.flink.table.data.MapData;
 import org.apache.flink.table.data.RowData;
-import org.apache.flink.table.data.binary.BinaryArrayData;
-import org.apache.flink.table.data.binary.BinaryMapData;
+import org.apache.flink.table.data.TimestampData;
 import org.apache.flink.table.types.DataType;
 import org.apache.flink.table.types.logical.ArrayType;
-import org.apache.flink.table.types.logical.DecimalType;
-import org.apache.flink.table.types.logical.LocalZonedTimestampType;
 import org.apache.flink.table.types.logical.LogicalType;
-import org.apache.flink.table.types.logical.LogicalTypeRoot;
 import org.apache.flink.table.types.logical.MapType;
 import org.apache.flink.table.types.logical.RowType;
-import org.apache.flink.table.types.logical.TimestampType;
 
 import java.sql.Date;
 import java.text.SimpleDateFormat;
 import java.time.LocalDate;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.function.Function;
-import java.util.stream.Collectors;
 
 public class StarRocksTableRowTransformer implements StarRocksIRowTransformer<RowData> {
 
@@ -56,9 +48,12 @@ public class StarRocksTableRowTransformer implements StarRocksIRowTransformer<Ro
     private String[] columnNames;
     private DataType[] columnDataTypes;
     private Map<String, StarRocksDataType> columns;
+    // whether to pass the json strings of JSON columns through without parsing them
+    private boolean rawJson;
     private final SimpleDateFormat dateFormatter = new SimpleDateFormat("yyyy-MM-dd");
 
     private transient JsonWrapper jsonWrapper;
+    private transient FieldConverter[] fieldConverters;
 
     public StarRocksTableRowTransformer(TypeInformation<RowData> rowDataTypeInfo) {
         this.rowDataTypeInfo = rowDataTypeInfo;
@@ -67,12 +62,23 @@ public class StarRocksTableRowTransformer implements StarRocksIRowTransformer<Ro
     @Override
     public void setStarRocksColumns(Map<String, StarRocksDataType> columns) {
         this.columns = columns;
+        this.fieldConverters = null;
     }
 
     @Override
     public void setTableSchema(TableSchema ts) {
         this.columnNames = ts.getFieldNames();
         this.columnDataTypes = ts.getFieldDataTypes();
+        this.fieldConverters = null;
+    }
+
+    public void setRawJson(boolean rawJson) {
+        this.rawJson = rawJson;
+        this.fieldConverters = null;
+    }
+
+    public boolean isRawJson() {
+        return rawJson;
     }
 
     @Override
@@ -90,10 +96,11 @@ public class StarRocksTableRowTransformer implements StarRocksIRowTransformer<Ro
     @Override
     public Object[] transform(RowData record, boolean supportUpsertDelete) {
         RowData transformRecord = valueTransform.apply(record);
-        Object[] values = new Object[columnDataTypes.length + (supportUpsertDelete ? 1 : 0)];
+        FieldConverter[] converters = getFieldConverters();
+        Object[] values = new Object[converters.length + (supportUpsertDelete ? 1 : 0)];
         int idx = 0;
-        for (DataType dataType : columnDataTypes) {
-            values[idx] = typeConvertion(dataType.getLogicalType(), transformRecord, idx);
+        for (FieldConverter converter : converters) {
+            values[idx] = converter.convert(transformRecord);
             idx++;
         }
         if (supportUpsertDelete) {
@@ -103,150 +110,197 @@ public class StarRocksTableRowTransformer implements StarRocksIRowTransformer<Ro
         return values;
     }
 
-    private Object typeConvertion(LogicalType type, RowData record, int pos) {
-        if (record.isNullAt(pos)) {
-            return null;
+    /**
+     * Convert the field of the column at the position. It's the same as the value at the position
+     * returned by {@link #transform(RowData, boolean)}.
+     */
+    Object convertField(RowData record, int pos) {
+        return getFieldConverters()[pos].convert(record);
+    }
+
+    // The converters are compiled from the schema once, so that the types are not dispatched for each value.
+    // They are created lazily because the schema, the columns and the json wrapper are set separately
+    private FieldConverter[] getFieldConverters() {
+        if (fieldConverters == null) {
+            FieldConverter[] converters = new FieldConverter[columnDataTypes.length];
+            for (int i = 0; i < columnDataTypes.length; i++) {
+                LogicalType type = columnDataTypes[i].getLogicalType();
+                RowData.FieldGetter getter = RowData.createFieldGetter(type, i);
+                ValueConverter converter = createColumnConverter(type, columnNames[i]);
+                converters[i] = row -> {
+                    Object value = getter.getFieldOrNull(row);
+                    return value == null ? null : converter.convert(value);
+                };
+            }
+            this.fieldConverters = converters;
         }
+        return fieldConverters;
+    }
+
+    // the converter of the top level columns, which also depends on the type of the StarRocks column
+    private ValueConverter createColumnConverter(LogicalType type, String columnName) {
+        StarRocksDataType starRocksDataType =
+                columns == null ? null : columns.getOrDefault(columnName, StarRocksDataType.UNKNOWN);
         switch (type.getTypeRoot()) {
-            case BOOLEAN: 
-                return record.getBoolean(pos) ? 1L : 0L;
+            case CHAR:
+            case VARCHAR:
+                if (starRocksDataType != StarRocksDataType.JSON && starRocksDataType != StarRocksDataType.UNKNOWN) {
+                    return Object::toString;
+                }
+                return value -> {
+                    String sValue = value.toString();
+                    if (!sValue.isEmpty() && (sValue.charAt(0) == '{' || sValue.charAt(0) == '[')) {
+                        if (rawJson && StarRocksRawJson.isValid(sValue)) {
+                            return new StarRocksRawJson(sValue);
+                        }
+                        // The json string need to be converted to a json object, and to the json string
+                        // again via JSON.toJSONString in StarRocksJsonSerializer#serialize. Otherwise,
+                        // the final json string in stream load will not be correct. For example, the received
+                        // string is "{"a": 1, "b": 2}", and if input it to JSON.toJSONString directly, the
+                        // result will be "{\"a\": 1, \"b\": 2}" which will not be recognized as a json in
+                        // StarRocks
+                        return jsonWrapper.parse(sValue);
+                    }
+                    return sValue;
+                };
+            case ROW:
+                ValueConverter rowConverter = createValueConverter(type);
+                if (starRocksDataType == StarRocksDataType.STRING) {
+                    return value -> jsonWrapper.toJSONString(rowConverter.convert(value));
+                }
+                return rowConverter;
+            default:
+                return createValueConverter(type);
+        }
+    }
+
+    // the converter of the fields in ROW and the top level columns
+    private ValueConverter createValueConverter(LogicalType type) {
+        switch (type.getTypeRoot()) {
+            case BOOLEAN:
+                return value -> (Boolean) value ? 1L : 0L;
             case TINYINT:
-                return record.getByte(pos);
             case SMALLINT:
-                return record.getShort(pos);
             case INTEGER:
-                return record.getInt(pos);
             case BIGINT:
-                return record.getLong(pos);
             case FLOAT:
-                return record.getFloat(pos);
             case DOUBLE:
-                return record.getDouble(pos);
+                return value -> value;
             case CHAR:
             case VARCHAR:
-                String sValue = record.getString(pos).toString();
-                if (columns == null) {
-                    return sValue;
-                }
-                StarRocksDataType starRocksDataType =
-                        columns.getOrDefault(columnNames[pos], StarRocksDataType.UNKNOWN);
-                if ((starRocksDataType == StarRocksDataType.JSON ||
-                        starRocksDataType == StarRocksDataType.UNKNOWN)
-                    && !sValue.isEmpty() && (sValue.charAt(0) == '{' || sValue.charAt(0) == '[')) {
-                    // The json string need to be converted to a json object, and to the json string
-                    // again via JSON.toJSONString in StarRocksJsonSerializer#serialize. Otherwise,
-                    // the final json string in stream load will not be correct. For example, the received
-                    // string is "{"a": 1, "b": 2}", and if input it to JSON.toJSONString directly, the
-                    // result will be "{\"a\": 1, \"b\": 2}" which will not be recognized as a json in
-                    // StarRocks
-                    return jsonWrapper.parse(sValue);
-                }
-                return sValue;
+                return Object::toString;
             case DATE:
-                return dateFormatter.format(Date.valueOf(LocalDate.ofEpochDay(record.getInt(pos))));
+                return value -> formatDate((Integer) value);
             case TIMESTAMP_WITHOUT_TIME_ZONE:
-                final int timestampPrecision =((TimestampType) type).getPrecision();
-                return record.getTimestamp(pos, timestampPrecision).toLocalDateTime().toString();
             case TIMESTAMP_WITH_LOCAL_TIME_ZONE:
-                int localZonedTimestampPrecision =((LocalZonedTimestampType) type).getPrecision();
-                return record.getTimestamp(pos, localZonedTimestampPrecision).toLocalDateTime().toString();
+                return value -> ((TimestampData) value).toLocalDateTime().toString();
             case DECIMAL: // for both largeint and decimal
-                final int decimalPrecision = ((DecimalType) type).getPrecision();
-                final int decimalScale = ((DecimalType) type).getScale();
-                return record.getDecimal(pos, decimalPrecision, decimalScale).toBigDecimal();
+                return value -> ((DecimalData) value).toBigDecimal();
             case BINARY:
-                final byte[] bts = record.getBinary(pos);
-                long value = 0;
-                for (int i = 0; i < bts.length; i++) {
-                    value += (bts[bts.length - i - 1] & 0xffL) << (8 * i);
-                }
-                return value;
+                return value -> {
+                    final byte[] bts = (byte[]) value;
+                    long result = 0;
+                    for (int i = 0; i < bts.length; i++) {
+                        result += (bts[bts.length - i - 1] & 0xffL) << (8 * i);
+                    }
+                    return result;
+                };
             case ARRAY:
-                return convertNestedArray(record.getArray(pos), type);
+                return createArrayConverter((ArrayType) type);
             case MAP:
-                return convertNestedMap(record.getMap(pos), type);
+                return createMapConverter((MapType) type);
             case ROW:
-                RowType rType = (RowType)type;
-                Map<String, Object> m = new HashMap<>();
-                RowData row = record.getRow(pos, rType.getFieldCount());
-                rType.getFields().parallelStream().forEach(f -> m.put(f.getName(), typeConvertion(f.getType(), row, rType.getFieldIndex(f.getName()))));
-                if (columns == null) {
-                    return m;
-                }
-                StarRocksDataType rStarRocksDataType =
-                        columns.getOrDefault(columnNames[pos], StarRocksDataType.UNKNOWN);
-                if (rStarRocksDataType == StarRocksDataType.STRING) {
-                    return jsonWrapper.toJSONString(m);
-                }
-                return m;
+                return createRowConverter((RowType) type);
             default:
-                throw new UnsupportedOperationException("Unsupported type:" + type);
+                return value -> {
+                    throw new UnsupportedOperationException("Unsupported type:" + type);
+                };
         }
     }
 
-    private List<Object> convertNestedArray(ArrayData arrData, LogicalType type) {
-        if (arrData instanceof GenericArrayData) {
-            return Lists.newArrayList(((GenericArrayData)arrData).toObjectArray());
-        }
-        if (arrData instanceof BinaryArrayData) {
-            LogicalType lt = ((ArrayType)type).getElementType();
-            List<Object> data = Lists.newArrayList(((BinaryArrayData)arrData).toObjectArray(lt));
-            if (LogicalTypeRoot.ROW.equals(lt.getTypeRoot())) {
-                RowType rType = (RowType)lt;
-                // parse nested row data
-                return data.parallelStream().map(row -> {
-                    Map<String, Object> m = Maps.newHashMap();
-                    rType.getFields().parallelStream().forEach(f -> m.put(f.getName(), typeConvertion(f.getType(), (RowData)row, rType.getFieldIndex(f.getName()))));
-                    return jsonWrapper.toJSONString(m);
-                }).collect(Collectors.toList());
-            }
-            if (LogicalTypeRoot.MAP.equals(lt.getTypeRoot())) {
-                // traversal of the nested map
-                return data.parallelStream().map(m -> convertNestedMap((MapData)m, lt)).collect(Collectors.toList());
-            }
-            if (LogicalTypeRoot.DATE.equals(lt.getTypeRoot())) {
-                return data.parallelStream().map(date -> dateFormatter.format(Date.valueOf(LocalDate.ofEpochDay((Integer)date)))).collect(Collectors.toList());
-            }
-            if (LogicalTypeRoot.ARRAY.equals(lt.getTypeRoot())) {
-                // traversal of the nested array
-                return data.parallelStream().map(arr -> convertNestedArray((ArrayData)arr, lt)).collect(Collectors.toList());
-            }
-            return data;
+    // the converter of the elements in ARRAY and the values in MAP. The internal data of the
+    // primitive types are kept, and they are serialized by JsonWrapper
+    private ValueConverter createElementConverter(LogicalType type) {
+        switch (type.getTypeRoot()) {
+            case DATE:
+                return value -> formatDate((Integer) value);
+            case ARRAY:
+                return createArrayConverter((ArrayType) type);
+            case MAP:
+                return createMapConverter((MapType) type);
+            case ROW:
+                ValueConverter rowConverter = createRowConverter((RowType) type);
+                return value -> jsonWrapper.toJSONString(rowConverter.convert(value));
+            default:
+                return value -> value;
         }
-        throw new UnsupportedOperationException(String.format("Unsupported array data: %s", arrData.getClass()));
     }
 
-    private Map<Object, Object> convertNestedMap(MapData mapData, LogicalType type) {
-        if (mapData instanceof GenericMapData) {
-            HashMap<Object, Object> m = Maps.newHashMap();
-            for (Object k : ((GenericArrayData)((GenericMapData)mapData).keyArray()).toObjectArray()) {
-                m.put(k, ((GenericMapData)mapData).get(k));
+    private ValueConverter createRowConverter(RowType type) {
+        int numFields = type.getFieldCount();
+        String[] names = type.getFieldNames().toArray(new String[0]);
+        RowData.FieldGetter[] getters = new RowData.FieldGetter[numFields];
+        ValueConverter[] converters = new ValueConverter[numFields];
+        for (int i = 0; i < numFields; i++) {
+            getters[i] = RowData.createFieldGetter(type.getTypeAt(i), i);
+            converters[i] = createValueConverter(type.getTypeAt(i));
+        }
+        return value -> {
+            RowData row = (RowData) value;
+            Map<String, Object> m = new HashMap<>();
+            for (int i = 0; i < numFields; i++) {
+                Object field = getters[i].getFieldOrNull(row);
+                m.put(names[i], field == null ? null : converters[i].convert(field));
             }
             return m;
-        }
-        if (mapData instanceof BinaryMapData) {
-            Map<Object, Object> result = Maps.newHashMap();
-            LogicalType valType = ((MapType)type).getValueType();
-            Map<?, ?> javaMap = ((BinaryMapData)mapData).toJavaMap(((MapType)type).getKeyType(), valType);
-            for (Map.Entry<?,?> en : javaMap.entrySet()) {
-                if (LogicalTypeRoot.MAP.equals(valType.getTypeRoot())) {
-                    // traversal of the nested map
-                    result.put(en.getKey().toString(), convertNestedMap((MapData)en.getValue(), valType));
-                    continue;
-                }
-                if (LogicalTypeRoot.DATE.equals(valType.getTypeRoot())) {
-                    result.put(en.getKey().toString(), dateFormatter.format(Date.valueOf(LocalDate.ofEpochDay((Integer)en.getValue()))));
-                    continue;
-                }
-                if (LogicalTypeRoot.ARRAY.equals(valType.getTypeRoot())) {
-                    result.put(en.getKey().toString(), convertNestedArray((ArrayData)en.getValue(), valType));
-                    continue;
-                }
-                result.put(en.getKey().toString(), en.getValue());
+        };
+    }
+
+    private ValueConverter createArrayConverter(ArrayType type) {
+        ArrayData.ElementGetter getter = ArrayData.createElementGetter(type.getElementType());
+        ValueConverter converter = createElementConverter(type.getElementType());
+        return value -> {
+            ArrayData array = (ArrayData) value;
+            List<Object> list = new ArrayList<>(array.size());
+            for (int i = 0; i < array.size(); i++) {
+                Object element = getter.getElementOrNull(array, i);
+                list.add(element == null ? null : converter.convert(element));
+            }
+            return list;
+        };
+    }
+
+    private ValueConverter createMapConverter(MapType type) {
+        ArrayData.ElementGetter keyGetter = ArrayData.createElementGetter(type.getKeyType());
+        ArrayData.ElementGetter valueGetter = ArrayData.createElementGetter(type.getValueType());
+        ValueConverter valueConverter = createElementConverter(type.getValueType());
+        return value -> {
+            MapData map = (MapData) value;
+            ArrayData keys = map.keyArray();
+            ArrayData values = map.valueArray();
+            Map<Object, Object> result = new HashMap<>();
+            for (int i = 0; i < map.size(); i++) {
+                Object key = keyGetter.getElementOrNull(keys, i);
+                Object val = valueGetter.getElementOrNull(values, i);
+                result.put(String.valueOf(key), val == null ? null : valueConverter.convert(val));
             }
             return result;
-        }
-        throw new UnsupportedOperationException(String.format("Unsupported map data: %s", mapData.getClass()));
+        };
+    }
+
+    private String formatDate(int epochDay) {
+        return dateFormatter.format(Date.valueOf(LocalDate.ofEpochDay(epochDay)));
+    }
+
+    // converts the field of a column in the row
+    @FunctionalInterface
+    private interface FieldConverter {
+        Object convert(RowData record);
+    }
+
+    // converts the internal data of Flink which is not null
+    @FunctionalInterface
+    private interface ValueConverter {
+        Object convert(Object value);
     }
-    
 }
@@ -20,11 +20,15 @@
 
 package com.starrocks.connector.flink.table.data;
 
+import java.nio.ByteBuffer;
+
 public class DefaultStarRocksRowData implements StarRocksRowData {
     private String uniqueKey;
     private String database;
     private String table;
     private String row;
+    private ByteBuffer rowBytes;
+    private byte[] key;
 
     public DefaultStarRocksRowData() {
 
@@ -61,6 +65,14 @@ public class DefaultStarRocksRowData implements StarRocksRowData {
         this.row = row;
     }
 
+    public void setRowBytes(ByteBuffer rowBytes) {
+        this.rowBytes = rowBytes;
+    }
+
+    public void setKey(byte[] key) {
+        this.key = key;
+    }
+
     @Override
     public String getUniqueKey() {
         return uniqueKey;
@@ -80,4 +92,14 @@ public class DefaultStarRocksRowData implements StarRocksRowData {
     public String getRow() {
         return row;
     }
+
+    @Override
+    public ByteBuffer getRowBytes() {
+        return rowBytes;
+    }
+
+    @Override
+    public byte[] getKey() {
+        return key;
+    }
 }
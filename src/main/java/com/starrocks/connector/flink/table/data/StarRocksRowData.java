@@ -20,6 +20,8 @@
 
 package com.starrocks.connector.flink.table.data;
 
+import java.nio.ByteBuffer;
+
 public interface StarRocksRowData {
 
     String getUniqueKey();
@@ -27,4 +29,18 @@ public interface StarRocksRowData {
     String getTable();
     String getRow();
 
+    /**
+     * The row encoded in UTF-8. If it's not null, it will be written instead of {@link #getRow()}.
+     */
+    default ByteBuffer getRowBytes() {
+        return null;
+    }
+
+    /**
+     * The primary key of the row bytes. If it's not null, the rows of the same key may be compacted.
+     */
+    default byte[] getKey() {
+        return null;
+    }
+
 }
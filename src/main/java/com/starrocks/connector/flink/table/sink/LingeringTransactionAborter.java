@@ -33,12 +33,30 @@ import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
 
-/** Abort lingering transactions according. */
+/**
+ * Abort lingering transactions according to the restored label generator snapshots.
+ *
+ * <p>The candidate labels of all (db, table, label prefix, subtask) sequences are discovered first by
+ * checking their status concurrently, and only the labels that are still pending are aborted, also
+ * concurrently. At most {@code parallelism} http requests are in flight at the same time. If
+ * {@code checkNumTxns} is negative, each sequence is probed in batches of {@link #DISCOVERY_BATCH_SIZE}
+ * labels until finding the first label that does not need abort.
+ */
 public class LingeringTransactionAborter {
 
     private static final Logger LOG = LoggerFactory.getLogger(LingeringTransactionAborter.class);
 
+    // number of labels to probe for a sequence in one round if checkNumTxns is negative. Usually
+    // there are only one or two lingering transactions for a sequence, so a small batch is enough
+    static final int DISCOVERY_BATCH_SIZE = 4;
+
     private final String currentLabelPrefix;
     private final long restoredCheckpointId;
     private final int subtaskIndex;
@@ -46,6 +64,7 @@ public class LingeringTransactionAborter {
     private final List<Tuple2<String, String>> dbTables;
     private final List<ExactlyOnceLabelGeneratorSnapshot> snapshots;
     private final StreamLoader streamLoader;
+    private final int parallelism;
 
     public LingeringTransactionAborter(
             String currentLabelPrefix,
@@ -55,6 +74,21 @@ public class LingeringTransactionAborter {
             List<Tuple2<String, String>> dbTables,
             List<ExactlyOnceLabelGeneratorSnapshot> snapshots,
             StreamLoader streamLoader) {
+        this(currentLabelPrefix, restoredCheckpointId, subtaskIndex, checkNumTxns, dbTables, snapshots, streamLoader, 1);
+    }
+
+    public LingeringTransactionAborter(
+            String currentLabelPrefix,
+            long restoredCheckpointId,
+            int subtaskIndex,
+            int checkNumTxns,
+            List<Tuple2<String, String>> dbTables,
+            List<ExactlyOnceLabelGeneratorSnapshot> snapshots,
+            StreamLoader streamLoader,
+            int parallelism) {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("parallelism `" + parallelism + "` set failed, must greater to 0");
+        }
         this.currentLabelPrefix = currentLabelPrefix;
         this.restoredCheckpointId = restoredCheckpointId;
         this.subtaskIndex = subtaskIndex;
@@ -62,9 +96,10 @@ public class LingeringTransactionAborter {
         this.dbTables = dbTables;
         this.snapshots = snapshots;
         this.streamLoader = streamLoader;
+        this.parallelism = parallelism;
         LOG.info("Create lingering transaction aborter, currentLabelPrefix: {}, restoredCheckpointId: {}, " +
-                "subtaskIndex: {}, checkNumTxns: {}, dbTables: {}, snapshots: {}",
-                currentLabelPrefix, restoredCheckpointId, subtaskIndex, checkNumTxns, dbTables, snapshots);
+                "subtaskIndex: {}, checkNumTxns: {}, parallelism: {}, dbTables: {}, snapshots: {}",
+                currentLabelPrefix, restoredCheckpointId, subtaskIndex, checkNumTxns, parallelism, dbTables, snapshots);
     }
 
     public void execute() throws Exception {
@@ -92,93 +127,181 @@ public class LingeringTransactionAborter {
         if (oldLabelPrefixes.size() > 1) {
             LOG.warn("There are multiple label prefix, {}", oldLabelPrefixes);
         }
-        abortSnapshotLabelPrefix(new ArrayList<>(map.values()));
+
+        List<LabelSequence> sequences = new ArrayList<>();
+        for (ExactlyOnceLabelGeneratorSnapshot snapshot : map.values()) {
+            sequences.add(new LabelSequence(snapshot.getDb(), snapshot.getTable(), snapshot.getLabelPrefix(),
+                    snapshot.getSubTaskIndex(), snapshot.getNextId(), "snapshot: " + snapshot));
+        }
 
         // If the current label prefix is not same as the previous, it's also possible
         // there are lingering transactions with this label prefix because the job maybe
         // fail before the first checkpoint is completed, so there is no snapshot for
         // the current label prefix
         if (currentLabelPrefix != null && !oldLabelPrefixes.contains(currentLabelPrefix)) {
-            abortCurrentLabelPrefix();
+            for (Tuple2<String, String> dbTable : dbTables) {
+                //TODO considering rescale
+                sequences.add(new LabelSequence(dbTable.f0, dbTable.f1, currentLabelPrefix, subtaskIndex,
+                        restoredCheckpointId + 1, String.format("db: %s, table: %s", dbTable.f0, dbTable.f1)));
+            }
+        }
+
+        if (sequences.isEmpty()) {
+            return;
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(parallelism, r -> {
+            Thread thread = new Thread(r, "StarRocks-Lingering-Txn-Aborter");
+            thread.setDaemon(true);
+            return thread;
+        });
+        try {
+            List<PendingLabel> pendingLabels = discoverPendingLabels(sequences, executor);
+            LOG.info("Find {} lingering transactions to abort in {} label sequences", pendingLabels.size(), sequences.size());
+            abortPendingLabels(pendingLabels, executor);
+        } finally {
+            executor.shutdownNow();
         }
     }
 
-    private void abortSnapshotLabelPrefix(List<ExactlyOnceLabelGeneratorSnapshot> snapshots) throws Exception {
-        for (ExactlyOnceLabelGeneratorSnapshot snapshot : snapshots) {
-            // if checkNumTxns is negative, execute until finding the first txn that does not need abort
-            long endId = checkNumTxns < 0 ? Long.MAX_VALUE : snapshot.getNextId() + checkNumTxns;
-            for (long id = snapshot.getNextId(); id < endId; id++) {
-                String label = ExactlyOnceLabelGenerator.genLabel(
-                        snapshot.getLabelPrefix(), snapshot.getTable(), snapshot.getSubTaskIndex(), id);
-                try {
-                    boolean result = tryAbortTransaction(snapshot.getDb(), snapshot.getTable(), label);
-                    if (result) {
-                        LOG.info("Successful to abort transaction, label: {}, snapshot: {}", label, snapshot);
-                    } else {
-                        LOG.info("Transaction does not need abort, label: {}, snapshot: {}, ", label, snapshot);
+    private List<PendingLabel> discoverPendingLabels(List<LabelSequence> sequences, ExecutorService executor)
+            throws Exception {
+        List<PendingLabel> pendingLabels = new ArrayList<>();
+        List<LabelSequence> activeSequences = sequences;
+        while (!activeSequences.isEmpty()) {
+            // if checkNumTxns is negative, probe a batch of labels for each sequence in a round until
+            // finding the first txn that does not need abort, otherwise probe all labels in one round
+            List<Callable<TransactionStatus>> probes = new ArrayList<>();
+            List<Integer> numProbes = new ArrayList<>(activeSequences.size());
+            for (LabelSequence sequence : activeSequences) {
+                long endId = sequence.nextId + (checkNumTxns < 0 ? DISCOVERY_BATCH_SIZE : checkNumTxns);
+                for (long id = sequence.nextId; id < endId; id++) {
+                    String label = sequence.genLabel(id);
+                    probes.add(() -> getTransactionStatus(sequence.db, sequence.table, label));
+                }
+                numProbes.add((int) (endId - sequence.nextId));
+            }
+            List<TransactionStatus> statuses = runAll(probes, executor);
+
+            List<LabelSequence> nextSequences = new ArrayList<>();
+            int index = 0;
+            for (int i = 0; i < activeSequences.size(); i++) {
+                LabelSequence sequence = activeSequences.get(i);
+                int endIndex = index + numProbes.get(i);
+                boolean finished = checkNumTxns >= 0;
+                for (long id = sequence.nextId; index < endIndex; index++, id++) {
+                    String label = sequence.genLabel(id);
+                    boolean needAbort;
+                    try {
+                        needAbort = needAbort(sequence, label, statuses.get(index));
+                    } catch (Exception e) {
+                        String errMsg = String.format("Failed to abort transactions with label %s, %s",
+                                label, sequence.description);
+                        LOG.error("{}", errMsg, e);
+                        throw new Exception(errMsg, e);
                     }
 
+                    if (needAbort) {
+                        pendingLabels.add(new PendingLabel(sequence, label));
+                        continue;
+                    }
+                    LOG.info("Transaction does not need abort, label: {}, {}", label, sequence.description);
                     // if checkNumTxns < 0, end up after finding the first transaction that does not need abort
-                    if (checkNumTxns < 0 && !result) {
+                    if (checkNumTxns < 0) {
+                        finished = true;
                         break;
                     }
-                } catch (Exception e) {
-                    String errMsg = String.format("Failed to abort transactions with label %s, the snapshot is %s",
-                            label, snapshot);
-                    LOG.error("{}", errMsg, e);
-                    throw new Exception(errMsg, e);
+                }
+                index = endIndex;
+                if (!finished) {
+                    sequence.nextId += DISCOVERY_BATCH_SIZE;
+                    nextSequences.add(sequence);
                 }
             }
+            activeSequences = nextSequences;
         }
+        return pendingLabels;
     }
 
-    private void abortCurrentLabelPrefix() throws Exception {
-        for (Tuple2<String, String> dbTable : dbTables) {
-            //TODO considering rescale
-            // if checkNumTxns is negative, execute until find the first txn that does not need abort
-            // The start checkpoint
-            long endId = checkNumTxns < 0 ? Long.MAX_VALUE : restoredCheckpointId + 1 + checkNumTxns;
-            for (long id = restoredCheckpointId + 1; id < endId; id++) {
-                String label = ExactlyOnceLabelGenerator.genLabel(currentLabelPrefix, dbTable.f1, subtaskIndex, id);
+    private void abortPendingLabels(List<PendingLabel> pendingLabels, ExecutorService executor) throws Exception {
+        List<Callable<Boolean>> aborts = new ArrayList<>(pendingLabels.size());
+        for (PendingLabel pendingLabel : pendingLabels) {
+            aborts.add(() -> {
+                LabelSequence sequence = pendingLabel.sequence;
                 try {
-                    boolean result = tryAbortTransaction(dbTable.f0, dbTable.f1, label);
-                    if (result) {
-                        LOG.info("Successful to abort transaction, label: {}, db: {}, table: {}", label, dbTable.f0, dbTable.f1);
-                    } else {
-                        LOG.info("Transaction does not need abort, label: {}, db: {}, table: {}", label, dbTable.f0, dbTable.f1);
-                    }
-
-                    // if checkNumTxns < 0, end up after finding the first transaction that does not need abort
-                    if (checkNumTxns < 0 && !result) {
-                        break;
-                    }
+                    abortTransaction(sequence.db, sequence.table, pendingLabel.label);
+                    LOG.info("Successful to abort transaction, label: {}, {}", pendingLabel.label, sequence.description);
+                    return true;
                 } catch (Exception e) {
-                    String errMsg = String.format("Failed to abort transactions with label %s, db: %s, table: %s",
-                            label, dbTable.f0, dbTable.f1);
+                    String errMsg = String.format("Failed to abort transactions with label %s, %s",
+                            pendingLabel.label, sequence.description);
                     LOG.error("{}", errMsg, e);
                     throw new Exception(errMsg, e);
                 }
+            });
+        }
+        runAll(aborts, executor);
+    }
+
+    // Run the tasks on the executor, and return the results in the same order as the tasks. After
+    // a task fails, the tasks that have not started are skipped, and the first failure is thrown.
+    private static <T> List<T> runAll(List<Callable<T>> tasks, ExecutorService executor) throws Exception {
+        AtomicBoolean failed = new AtomicBoolean(false);
+        List<Future<T>> futures = new ArrayList<>(tasks.size());
+        for (Callable<T> task : tasks) {
+            futures.add(executor.submit(() -> {
+                if (failed.get()) {
+                    return null;
+                }
+                try {
+                    return task.call();
+                } catch (Exception e) {
+                    failed.set(true);
+                    throw e;
+                }
+            }));
+        }
+
+        List<T> results = new ArrayList<>(tasks.size());
+        Exception firstException = null;
+        for (Future<T> future : futures) {
+            try {
+                results.add(future.get());
+            } catch (ExecutionException e) {
+                Exception cause = e.getCause() instanceof Exception ? (Exception) e.getCause() : e;
+                if (firstException == null) {
+                    firstException = cause;
+                } else {
+                    firstException.addSuppressed(cause);
+                }
+                results.add(null);
             }
         }
+        if (firstException != null) {
+            throw firstException;
+        }
+        return results;
     }
 
-    // Try to abort the transaction with the label. Return false if the transaction does
-    // not need abort, such as the transaction does not exist, or it's already been aborted,
-    // and return true if the label abort successfully. An exception will be thrown if the
-    // transaction need abort but fail.
-    private boolean tryAbortTransaction(String db, String table, String label) throws Exception {
-        TransactionStatus status;
+    private TransactionStatus getTransactionStatus(String db, String table, String label) throws Exception {
         try {
-            status = streamLoader.getLoadStatus(db, table, label);
+            TransactionStatus status = streamLoader.getLoadStatus(db, table, label);
             LOG.info("Transaction status for db: {}, table: {}, label: {}, status: {}",
                     db, table, label, status);
+            return status;
         } catch (Exception e) {
             String errMsg = String.format("Fail to get status of the label when trying to abort " +
                     "lingering transactions, db: %s, table: %s, label: %s", db, table, label);
             LOG.error(errMsg, e);
             throw new Exception(errMsg, e);
         }
+    }
 
+    // Check whether the transaction with the status need abort. Return false if the transaction does
+    // not need abort, such as the transaction does not exist, or it's already been aborted, and return
+    // true if the transaction is still pending. An exception will be thrown if the transaction can't
+    // be aborted.
+    private boolean needAbort(LabelSequence sequence, String label, TransactionStatus status) throws Exception {
         if (status == TransactionStatus.UNKNOWN || status == TransactionStatus.ABORTED) {
             return false;
         }
@@ -189,7 +312,7 @@ public class LingeringTransactionAborter {
             String errMsg = String.format("Try to abort a finished transactions, db: %s, table: %s, " +
                     "label: %s, status: %s. The reason may be that you are restoring from an earlier " +
                     "checkpoint rather than the newest, and you can use a new sink.label-prefix, or " +
-                    "report the issue", db, table, label, status);
+                    "report the issue", sequence.db, sequence.table, label, status);
             LOG.error(errMsg);
             throw new Exception(errMsg);
         }
@@ -197,11 +320,16 @@ public class LingeringTransactionAborter {
         if (status != TransactionStatus.PREPARE && status != TransactionStatus.PREPARED) {
             String errMsg = String.format("The status of the transaction is not supported when trying " +
                     "to abort lingering transactions, db: %s, table: %s, label: %s, status: %s",
-                    db, table, label, status);
+                    sequence.db, sequence.table, label, status);
             LOG.error(errMsg);
             throw new Exception(errMsg);
         }
+        return true;
+    }
 
+    // Abort the pending transaction with the label. An exception will be thrown if it fails
+    // to abort, and the transaction is still not aborted.
+    private void abortTransaction(String db, String table, String label) throws Exception {
         try {
             StreamLoadSnapshot.Transaction transaction = new StreamLoadSnapshot.Transaction(db, table, label);
             boolean result = streamLoader.rollback(transaction);
@@ -212,7 +340,6 @@ public class LingeringTransactionAborter {
             }
             LOG.info("Successful to abort the lingering transaction, db: {}, table: {}, label: {}",
                     db, table, label);
-            return true;
         } catch (Exception e) {
             // get the label status again to make sure whether the label has been aborted
             TransactionStatus newStatus = null;
@@ -234,7 +361,42 @@ public class LingeringTransactionAborter {
 
             LOG.info("Successful to abort the lingering transaction, db: {}, table: {}, label: {}, " +
                     "new status: {}, but there is an exception when abort it", db, table, label, newStatus, e);
-            return true;
+        }
+    }
+
+    // The labels generated for a (db, table, label prefix, subtask) starting from an id
+    private static class LabelSequence {
+
+        private final String db;
+        private final String table;
+        private final String labelPrefix;
+        private final int subtaskIndex;
+        private final String description;
+        // the first id that has not been probed
+        private long nextId;
+
+        LabelSequence(String db, String table, String labelPrefix, int subtaskIndex, long startId, String description) {
+            this.db = db;
+            this.table = table;
+            this.labelPrefix = labelPrefix;
+            this.subtaskIndex = subtaskIndex;
+            this.description = description;
+            this.nextId = startId;
+        }
+
+        String genLabel(long id) {
+            return ExactlyOnceLabelGenerator.genLabel(labelPrefix, table, subtaskIndex, id);
+        }
+    }
+
+    private static class PendingLabel {
+
+        private final LabelSequence sequence;
+        private final String label;
+
+        PendingLabel(LabelSequence sequence, String label) {
+            this.sequence = sequence;
+            this.label = label;
         }
     }
 }
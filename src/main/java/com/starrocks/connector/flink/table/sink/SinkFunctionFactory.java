@@ -144,7 +144,9 @@ public class SinkFunctionFactory {
                     sinkOptions.supportUpsertDelete(),
                     sinkOptions.getIgnoreUpdateBefore(),
                     serializer,
-                    rowTransformer);
+                    rowTransformer,
+                    StarRocksSerializerFactory.createRowDataEncoder(
+                            sinkOptions, schema, sinkTable.getFieldMapping(), rowTransformer));
             StreamLoadProperties streamLoadProperties = sinkOptions.getProperties(sinkTable);
             return new StarRocksSink<>(sinkOptions, serializationSchema, streamLoadProperties);
         }
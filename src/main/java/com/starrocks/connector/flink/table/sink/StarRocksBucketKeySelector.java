@@ -0,0 +1,294 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.starrocks.connector.flink.table.sink;
+
+import com.starrocks.connector.flink.catalog.StarRocksColumn;
+import com.starrocks.connector.flink.catalog.StarRocksTable;
+import org.apache.flink.api.java.functions.KeySelector;
+import org.apache.flink.table.api.TableSchema;
+import org.apache.flink.table.data.DecimalData;
+import org.apache.flink.table.data.RowData;
+import org.apache.flink.table.data.TimestampData;
+import org.apache.flink.table.types.logical.DecimalType;
+import org.apache.flink.table.types.logical.LogicalType;
+import org.apache.flink.table.types.logical.LogicalTypeRoot;
+import org.apache.flink.table.types.logical.TimestampType;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.math.RoundingMode;
+import java.util.List;
+import java.util.Optional;
+import java.util.zip.CRC32;
+
+/**
+ * Selects the bucket of a row in the StarRocks table which is distributed by hash. It follows how the
+ * tablet sink of StarRocks computes the bucket: the crc32 of the distribution key columns in their
+ * storage format modulo the number of buckets. So together with {@link StarRocksBucketPartitioner}, each
+ * sink subtask only writes the tablets of its own buckets in each partition.
+ *
+ * <p>The storage format depends on the type of the StarRocks column rather than the Flink type. Integers
+ * are little-endian with the width of the StarRocks type, strings are the UTF-8 bytes, DATE is the julian
+ * day in 4 bytes, DATETIME is the julian day shifted by 40 bits plus the microseconds of the day in 8 bytes,
+ * and DECIMAL is the unscaled value in 4, 8 or 16 bytes according to its precision. A null value is hashed as
+ * the int 0 in 4 bytes, which is the null marker of StarRocks.
+ */
+public class StarRocksBucketKeySelector implements KeySelector<RowData, Integer> {
+
+    private static final long serialVersionUID = 1L;
+
+    private static final Logger LOG = LoggerFactory.getLogger(StarRocksBucketKeySelector.class);
+
+    private static final int JULIAN_DAY_OF_EPOCH = 2440588;
+    private static final int TIMESTAMP_BITS = 40;
+    // StarRocks hashes a null value as this int, see HashUtil::zlib_crc_hash_null
+    private static final int NULL_MARKER = 0;
+
+    private final int[] keyIndexes;
+    private final LogicalType[] keyTypes;
+    // the type of each key column in StarRocks, and the precision and scale for decimal
+    private final String[] starRocksTypes;
+    private final int[] precisions;
+    private final int[] scales;
+    private final int numBuckets;
+
+    private transient FieldHasher[] hashers;
+    private transient CRC32 crc32;
+    private transient byte[] scratch;
+
+    private StarRocksBucketKeySelector(int[] keyIndexes, LogicalType[] keyTypes, String[] starRocksTypes,
+                                       int[] precisions, int[] scales, int numBuckets) {
+        this.keyIndexes = keyIndexes;
+        this.keyTypes = keyTypes;
+        this.starRocksTypes = starRocksTypes;
+        this.precisions = precisions;
+        this.scales = scales;
+        this.numBuckets = numBuckets;
+    }
+
+    /**
+     * Create the key selector for the table. Returns empty if the table is not distributed by hash, the
+     * number of buckets is unknown, or the type of a distribution key column is not supported.
+     */
+    public static Optional<StarRocksBucketKeySelector> create(TableSchema schema, StarRocksTable table) {
+        Optional<List<String>> distributionKeys = table.getDistributionKeys();
+        if (!distributionKeys.isPresent() || distributionKeys.get().isEmpty() || !table.getNumBuckets().isPresent()) {
+            LOG.info("Table {}.{} is not distributed by hash or the number of buckets is unknown, distributionKeys: {}, " +
+                    "numBuckets: {}", table.getDatabaseName(), table.getTableName(), distributionKeys, table.getNumBuckets());
+            return Optional.empty();
+        }
+
+        int numKeys = distributionKeys.get().size();
+        int[] keyIndexes = new int[numKeys];
+        LogicalType[] keyTypes = new LogicalType[numKeys];
+        String[] starRocksTypes = new String[numKeys];
+        int[] precisions = new int[numKeys];
+        int[] scales = new int[numKeys];
+        String[] fieldNames = schema.getFieldNames();
+        for (int i = 0; i < numKeys; i++) {
+            String key = distributionKeys.get().get(i);
+            keyIndexes[i] = -1;
+            for (int j = 0; j < fieldNames.length; j++) {
+                if (fieldNames[j].equalsIgnoreCase(key)) {
+                    keyIndexes[i] = j;
+                }
+            }
+            StarRocksColumn column = table.getColumns().stream()
+                    .filter(col -> col.getColumnName().equalsIgnoreCase(key)).findFirst().orElse(null);
+            if (keyIndexes[i] < 0 || column == null) {
+                LOG.warn("Distribution key {} of table {}.{} is not in the sink schema", key,
+                        table.getDatabaseName(), table.getTableName());
+                return Optional.empty();
+            }
+            keyTypes[i] = schema.getFieldDataTypes()[keyIndexes[i]].getLogicalType();
+            starRocksTypes[i] = column.getDataType().toLowerCase();
+            precisions[i] = column.getColumnSize().orElse(0);
+            scales[i] = column.getDecimalDigits().orElse(0);
+            if (!isSupported(keyTypes[i], starRocksTypes[i])) {
+                LOG.warn("Type of distribution key {} of table {}.{} is not supported, flink type: {}, starrocks type: {}",
+                        key, table.getDatabaseName(), table.getTableName(), keyTypes[i], starRocksTypes[i]);
+                return Optional.empty();
+            }
+        }
+        return Optional.of(new StarRocksBucketKeySelector(
+                keyIndexes, keyTypes, starRocksTypes, precisions, scales, table.getNumBuckets().get()));
+    }
+
+    public int getNumBuckets() {
+        return numBuckets;
+    }
+
+    @Override
+    public Integer getKey(RowData row) {
+        if (hashers == null) {
+            this.hashers = new FieldHasher[keyIndexes.length];
+            for (int i = 0; i < keyIndexes.length; i++) {
+                hashers[i] = createHasher(keyTypes[i], starRocksTypes[i], precisions[i], scales[i]);
+            }
+            this.crc32 = new CRC32();
+            this.scratch = new byte[16];
+        }
+        crc32.reset();
+        for (int i = 0; i < keyIndexes.length; i++) {
+            if (row.isNullAt(keyIndexes[i])) {
+                hashLong(NULL_MARKER, 4);
+            } else {
+                hashers[i].hash(row, keyIndexes[i]);
+            }
+        }
+        return (int) (crc32.getValue() % numBuckets);
+    }
+
+    private static boolean isSupported(LogicalType flinkType, String starRocksType) {
+        switch (starRocksType) {
+            case "boolean":
+            case "tinyint":
+            case "smallint":
+            case "int":
+            case "bigint":
+            case "largeint":
+                return isIntegral(flinkType);
+            case "char":
+            case "varchar":
+            case "string":
+                return isString(flinkType);
+            case "date":
+                return flinkType.getTypeRoot() == LogicalTypeRoot.DATE;
+            case "datetime":
+                return flinkType.getTypeRoot() == LogicalTypeRoot.TIMESTAMP_WITHOUT_TIME_ZONE;
+            case "decimal":
+                return flinkType.getTypeRoot() == LogicalTypeRoot.DECIMAL;
+            default:
+                return false;
+        }
+    }
+
+    private static boolean isIntegral(LogicalType type) {
+        switch (type.getTypeRoot()) {
+            case BOOLEAN:
+            case TINYINT:
+            case SMALLINT:
+            case INTEGER:
+            case BIGINT:
+                return true;
+            case DECIMAL:
+                // LARGEINT is mapped to DECIMAL(20, 0)
+                return ((DecimalType) type).getScale() == 0;
+            default:
+                return false;
+        }
+    }
+
+    private static boolean isString(LogicalType type) {
+        return type.getTypeRoot() == LogicalTypeRoot.CHAR || type.getTypeRoot() == LogicalTypeRoot.VARCHAR;
+    }
+
+    private FieldHasher createHasher(LogicalType flinkType, String starRocksType, int precision, int scale) {
+        switch (starRocksType) {
+            case "boolean":
+            case "tinyint":
+                return createIntegralHasher(flinkType, 1);
+            case "smallint":
+                return createIntegralHasher(flinkType, 2);
+            case "int":
+                return createIntegralHasher(flinkType, 4);
+            case "bigint":
+                return createIntegralHasher(flinkType, 8);
+            case "largeint":
+                return createIntegralHasher(flinkType, 16);
+            case "char":
+            case "varchar":
+            case "string":
+                return (row, pos) -> {
+                    byte[] bytes = row.getString(pos).toBytes();
+                    crc32.update(bytes, 0, bytes.length);
+                };
+            case "date":
+                return (row, pos) -> hashLong(row.getInt(pos) + JULIAN_DAY_OF_EPOCH, 4);
+            case "datetime": {
+                final int flinkPrecision = ((TimestampType) flinkType).getPrecision();
+                return (row, pos) -> {
+                    TimestampData timestamp = row.getTimestamp(pos, flinkPrecision);
+                    long millis = timestamp.getMillisecond();
+                    long julianDay = Math.floorDiv(millis, 86400000L) + JULIAN_DAY_OF_EPOCH;
+                    long micros = Math.floorMod(millis, 86400000L) * 1000 + timestamp.getNanoOfMillisecond() / 1000;
+                    hashLong((julianDay << TIMESTAMP_BITS) | micros, 8);
+                };
+            }
+            case "decimal": {
+                final int flinkPrecision = ((DecimalType) flinkType).getPrecision();
+                final int flinkScale = ((DecimalType) flinkType).getScale();
+                final int width = precision <= 9 ? 4 : precision <= 18 ? 8 : 16;
+                return (row, pos) -> {
+                    BigDecimal value = row.getDecimal(pos, flinkPrecision, flinkScale).toBigDecimal();
+                    hashBigInteger(value.setScale(scale, RoundingMode.HALF_UP).unscaledValue(), width);
+                };
+            }
+            default:
+                throw new UnsupportedOperationException("Unsupported starrocks type " + starRocksType);
+        }
+    }
+
+    private FieldHasher createIntegralHasher(LogicalType flinkType, int width) {
+        switch (flinkType.getTypeRoot()) {
+            case BOOLEAN:
+                return (row, pos) -> hashLong(row.getBoolean(pos) ? 1 : 0, width);
+            case TINYINT:
+                return (row, pos) -> hashLong(row.getByte(pos), width);
+            case SMALLINT:
+                return (row, pos) -> hashLong(row.getShort(pos), width);
+            case INTEGER:
+                return (row, pos) -> hashLong(row.getInt(pos), width);
+            case BIGINT:
+                return (row, pos) -> hashLong(row.getLong(pos), width);
+            default: {
+                final int flinkPrecision = ((DecimalType) flinkType).getPrecision();
+                return (row, pos) -> {
+                    DecimalData value = row.getDecimal(pos, flinkPrecision, 0);
+                    hashBigInteger(value.toBigDecimal().unscaledValue(), width);
+                };
+            }
+        }
+    }
+
+    // hash the little-endian bytes of the value in the width, and the value is sign-extended if the width is 16
+    private void hashLong(long value, int width) {
+        for (int i = 0; i < width; i++) {
+            scratch[i] = (byte) (i < 8 ? value >> (i * 8) : value >> 63);
+        }
+        crc32.update(scratch, 0, width);
+    }
+
+    private void hashBigInteger(BigInteger value, int width) {
+        if (width <= 8) {
+            hashLong(value.longValue(), width);
+            return;
+        }
+        // two's complement in big-endian, which is at most 16 bytes for the valid values
+        byte[] bytes = value.toByteArray();
+        byte sign = (byte) (value.signum() < 0 ? -1 : 0);
+        for (int i = 0; i < width; i++) {
+            scratch[i] = i < bytes.length ? bytes[bytes.length - 1 - i] : sign;
+        }
+        crc32.update(scratch, 0, width);
+    }
+
+    @FunctionalInterface
+    private interface FieldHasher {
+        void hash(RowData row, int pos);
+    }
+}
@@ -0,0 +1,33 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.starrocks.connector.flink.table.sink;
+
+import org.apache.flink.api.common.functions.Partitioner;
+
+/**
+ * Routes the buckets selected by {@link StarRocksBucketKeySelector} to the sink subtasks, so that each
+ * subtask owns a disjoint set of buckets, and a load only touches the tablets of those buckets. If there are
+ * fewer buckets than subtasks, some subtasks will not receive any row. Use it for a DataStream as
+ * {@code stream.partitionCustom(new StarRocksBucketPartitioner(), keySelector).sinkTo(sink)}.
+ */
+public class StarRocksBucketPartitioner implements Partitioner<Integer> {
+
+    private static final long serialVersionUID = 1L;
+
+    @Override
+    public int partition(Integer bucket, int numPartitions) {
+        return bucket % numPartitions;
+    }
+}
@@ -26,6 +26,7 @@ import com.starrocks.connector.flink.manager.StarRocksSinkTable;
 import com.starrocks.connector.flink.manager.StarRocksStreamLoadListener;
 import com.starrocks.connector.flink.row.sink.StarRocksIRowTransformer;
 import com.starrocks.connector.flink.row.sink.StarRocksISerializer;
+import com.starrocks.connector.flink.row.sink.StarRocksRowDataEncoder;
 import com.starrocks.connector.flink.row.sink.StarRocksSerializerFactory;
 import com.starrocks.connector.flink.table.data.StarRocksRowData;
 import com.starrocks.connector.flink.tools.EnvUtils;
@@ -48,6 +49,7 @@ import org.apache.flink.types.RowKind;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.nio.ByteBuffer;
 import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.Arrays;
@@ -69,6 +71,9 @@ public class StarRocksDynamicSinkFunctionV2<T> extends StarRocksDynamicSinkFunct
     private final StreamLoadManagerV2 sinkManager;
     private final StarRocksISerializer serializer;
     private final StarRocksIRowTransformer<T> rowTransformer;
+    // not null if the RowData is encoded to bytes directly
+    @Nullable
+    private final StarRocksRowDataEncoder rowDataEncoder;
 
     private transient volatile ListState<StarrocksSnapshotState> snapshotStates;
 
@@ -107,6 +112,8 @@ public class StarRocksDynamicSinkFunctionV2<T> extends StarRocksDynamicSinkFunct
         this.serializer = StarRocksSerializerFactory.createSerializer(sinkOptions, schema.getFieldNames());
         rowTransformer.setStarRocksColumns(sinkTable.getFieldMapping());
         rowTransformer.setTableSchema(schema);
+        this.rowDataEncoder = StarRocksSerializerFactory.createRowDataEncoder(
+                sinkOptions, schema, sinkTable.getFieldMapping(), rowTransformer);
         this.sinkManager = new StreamLoadManagerV2(sinkOptions.getProperties(sinkTable),
                 sinkOptions.getSemantic() == StarRocksSinkSemantic.AT_LEAST_ONCE);
     }
@@ -117,6 +124,7 @@ public class StarRocksDynamicSinkFunctionV2<T> extends StarRocksDynamicSinkFunct
                 sinkOptions.getSemantic() == StarRocksSinkSemantic.AT_LEAST_ONCE);
         this.serializer = null;
         this.rowTransformer = null;
+        this.rowDataEncoder = null;
     }
 
     @Override
@@ -161,6 +169,22 @@ public class StarRocksDynamicSinkFunctionV2<T> extends StarRocksDynamicSinkFunct
             }
         }
         flushLegacyData();
+        if (rowDataEncoder != null) {
+            ByteBuffer encodedValue = rowDataEncoder.encode((RowData) value);
+            totalReceivedRows += 1;
+            if (totalReceivedRows % 100 == 1 && log.isDebugEnabled()) {
+                log.debug("Received raw record: {}", value);
+                log.debug("Received serialized record: {}",
+                        new String(encodedValue.array(), 0, encodedValue.limit(), StandardCharsets.UTF_8));
+            }
+            byte[] key = rowDataEncoder.encodeKey((RowData) value);
+            if (key != null) {
+                sinkManager.write(null, sinkOptions.getDatabaseName(), sinkOptions.getTableName(), key, encodedValue);
+            } else {
+                sinkManager.write(null, sinkOptions.getDatabaseName(), sinkOptions.getTableName(), encodedValue);
+            }
+            return;
+        }
         String serializedValue = serializer.serialize(rowTransformer.transform(value, sinkOptions.supportUpsertDelete()));
         sinkManager.write(
                 null,
@@ -183,6 +207,9 @@ public class StarRocksDynamicSinkFunctionV2<T> extends StarRocksDynamicSinkFunct
         }
         this.streamLoadListener = new StarRocksStreamLoadListener(getRuntimeContext().getMetricGroup(), sinkOptions);
         sinkManager.setStreamLoadListener(streamLoadListener);
+        streamLoadListener.registerHttpClientPoolGauges(getRuntimeContext().getMetricGroup(), sinkManager.getStreamLoader());
+        streamLoadListener.registerAdaptiveFlushGauges(getRuntimeContext().getMetricGroup(), sinkManager, sinkOptions);
+        streamLoadListener.registerCompressionGauges(getRuntimeContext().getMetricGroup(), sinkManager, sinkOptions);
 
         LabelGeneratorFactory labelGeneratorFactory;
         String labelPrefix = sinkOptions.getLabelPrefix();
@@ -207,6 +234,9 @@ public class StarRocksDynamicSinkFunctionV2<T> extends StarRocksDynamicSinkFunct
             rowTransformer.setRuntimeContext(getRuntimeContext());
             rowTransformer.setFastJsonWrapper(getOrCreateJsonWrapper());
         }
+        if (rowDataEncoder != null) {
+            rowDataEncoder.open(getOrCreateJsonWrapper());
+        }
 
         if (sinkOptions.getSemantic() == StarRocksSinkSemantic.EXACTLY_ONCE) {
             openForExactlyOnce();
@@ -224,7 +254,8 @@ public class StarRocksDynamicSinkFunctionV2<T> extends StarRocksDynamicSinkFunct
                     sinkOptions.getAbortCheckNumTxns(),
                     sinkOptions.getDbTables(),
                     restoredGeneratorSnapshots,
-                    sinkManager.getStreamLoader());
+                    sinkManager.getStreamLoader(),
+                    sinkOptions.getAbortLingeringTxnParallelism());
             aborter.execute();
         }
 
@@ -380,9 +411,7 @@ public class StarRocksDynamicSinkFunctionV2<T> extends StarRocksDynamicSinkFunct
         }
 
         for (StarRocksSinkBufferEntity entity : legacyData) {
-            for (byte[] data : entity.getBuffer()) {
-                sinkManager.write(null, entity.getDatabase(), entity.getTable(), new String(data, StandardCharsets.UTF_8));
-            }
+            sinkManager.write(null, entity.getDatabase(), entity.getTable(), entity.getBuffer().toArray(new byte[0][]));
             log.info("Write {} legacy records from table '{}' of database '{}'",
                     entity.getBuffer().size(), entity.getDatabase(), entity.getTable());
         }
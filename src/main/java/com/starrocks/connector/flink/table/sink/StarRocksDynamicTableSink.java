@@ -14,18 +14,31 @@
 
 package com.starrocks.connector.flink.table.sink;
 
+import com.starrocks.connector.flink.catalog.StarRocksCatalog;
+import com.starrocks.connector.flink.catalog.StarRocksTable;
 import com.starrocks.connector.flink.row.sink.StarRocksTableRowTransformer;
 import com.starrocks.connector.flink.table.sink.v2.StarRocksSink;
 import org.apache.flink.api.common.typeinfo.TypeInformation;
+import org.apache.flink.streaming.api.datastream.DataStream;
+import org.apache.flink.streaming.api.datastream.DataStreamSink;
 import org.apache.flink.table.api.TableSchema;
 import org.apache.flink.table.connector.ChangelogMode;
+import org.apache.flink.table.connector.ProviderContext;
+import org.apache.flink.table.connector.sink.DataStreamSinkProvider;
 import org.apache.flink.table.connector.sink.DynamicTableSink;
 import org.apache.flink.table.connector.sink.SinkFunctionProvider;
 import org.apache.flink.table.connector.sink.SinkV2Provider;
 import org.apache.flink.table.data.RowData;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Optional;
+import java.util.function.Function;
  
 public class StarRocksDynamicTableSink implements DynamicTableSink {
 
+    private static final Logger LOG = LoggerFactory.getLogger(StarRocksDynamicTableSink.class);
+
     private transient TableSchema flinkSchema;
     private StarRocksSinkOptions sinkOptions;
  
@@ -43,24 +56,80 @@ public class StarRocksDynamicTableSink implements DynamicTableSink {
     @SuppressWarnings("unchecked")
     public SinkRuntimeProvider getSinkRuntimeProvider(Context context) {
         final TypeInformation<RowData> rowDataTypeInfo = context.createTypeInformation(flinkSchema.toRowDataType());
+        StarRocksTableRowTransformer rowTransformer = new StarRocksTableRowTransformer(rowDataTypeInfo);
+        rowTransformer.setRawJson(sinkOptions.isRawJson());
+        Optional<StarRocksBucketKeySelector> bucketKeySelector = createBucketKeySelector();
         if (sinkOptions.isUseUnifiedSinkApi()) {
             StarRocksSink<RowData> starRocksSink =
                     SinkFunctionFactory.createSink(
                         sinkOptions,
                         flinkSchema,
-                        new StarRocksTableRowTransformer(rowDataTypeInfo)
+                        rowTransformer
                     );
+            if (bucketKeySelector.isPresent()) {
+                return shuffleByBucket(bucketKeySelector.get(), stream -> stream.sinkTo(starRocksSink));
+            }
             return SinkV2Provider.of(starRocksSink, sinkOptions.getSinkParallelism());
         } else {
             StarRocksDynamicSinkFunctionBase<RowData> starrocksSinkFunction =
                     SinkFunctionFactory.createSinkFunction(
                         sinkOptions,
                         flinkSchema,
-                        new StarRocksTableRowTransformer(rowDataTypeInfo)
+                        rowTransformer
                     );
+            if (bucketKeySelector.isPresent()) {
+                return shuffleByBucket(bucketKeySelector.get(), stream -> stream.addSink(starrocksSinkFunction));
+            }
             return SinkFunctionProvider.of(starrocksSinkFunction, sinkOptions.getSinkParallelism());
         }
     }
+
+    // Returns empty if the bucket shuffle is disabled or not applicable to the table, and the rows
+    // will be forwarded or rebalanced to the sink as before
+    private Optional<StarRocksBucketKeySelector> createBucketKeySelector() {
+        if (!sinkOptions.isBucketShuffle()) {
+            return Optional.empty();
+        }
+        StarRocksCatalog catalog = new StarRocksCatalog(
+                sinkOptions.getJdbcUrl(), sinkOptions.getUsername(), sinkOptions.getPassword());
+        try {
+            catalog.open();
+            Optional<StarRocksTable> table = catalog.getTableWithDistribution(
+                    sinkOptions.getDatabaseName(), sinkOptions.getTableName());
+            if (!table.isPresent()) {
+                LOG.warn("Table {}.{} does not exist, and disable the bucket shuffle",
+                        sinkOptions.getDatabaseName(), sinkOptions.getTableName());
+                return Optional.empty();
+            }
+            Optional<StarRocksBucketKeySelector> keySelector = StarRocksBucketKeySelector.create(flinkSchema, table.get());
+            keySelector.ifPresent(selector -> LOG.info("Shuffle rows by {} buckets of table {}.{}",
+                    selector.getNumBuckets(), sinkOptions.getDatabaseName(), sinkOptions.getTableName()));
+            return keySelector;
+        } catch (Exception e) {
+            LOG.warn("Failed to get the distribution of table {}.{}, and disable the bucket shuffle",
+                    sinkOptions.getDatabaseName(), sinkOptions.getTableName(), e);
+            return Optional.empty();
+        } finally {
+            catalog.close();
+        }
+    }
+
+    private DataStreamSinkProvider shuffleByBucket(StarRocksBucketKeySelector keySelector,
+                                                   Function<DataStream<RowData>, DataStreamSink<?>> sinkFunction) {
+        final Integer parallelism = sinkOptions.getSinkParallelism();
+        return new DataStreamSinkProvider() {
+            @Override
+            public DataStreamSink<?> consumeDataStream(ProviderContext providerContext, DataStream<RowData> dataStream) {
+                DataStreamSink<?> sink = sinkFunction.apply(
+                        dataStream.partitionCustom(new StarRocksBucketPartitioner(), keySelector));
+                providerContext.generateUid("sink").ifPresent(sink::uid);
+                if (parallelism != null) {
+                    sink.setParallelism(parallelism);
+                }
+                return sink;
+            }
+        };
+    }
  
     @Override
     public DynamicTableSink copy() {
@@ -80,9 +80,35 @@ public class StarRocksDynamicTableSinkFactory implements DynamicTableSinkFactory
         optionalOptions.add(StarRocksSinkOptions.SINK_SOCKET_TIMEOUT);
         optionalOptions.add(StarRocksSinkOptions.SINK_WAIT_FOR_CONTINUE_TIMEOUT);
         optionalOptions.add(StarRocksSinkOptions.SINK_IO_THREAD_COUNT);
+        optionalOptions.add(StarRocksSinkOptions.SINK_IO_VIRTUAL_THREADS);
+        optionalOptions.add(StarRocksSinkOptions.SINK_IO_MAX_INFLIGHT_LOADS_PER_TABLE);
+        optionalOptions.add(StarRocksSinkOptions.SINK_IO_TRANSACTION_PARALLELISM);
+        optionalOptions.add(StarRocksSinkOptions.SINK_HTTP_MAX_CONNECTIONS_PER_ROUTE);
+        optionalOptions.add(StarRocksSinkOptions.SINK_HTTP_MAX_CONNECTIONS);
+        optionalOptions.add(StarRocksSinkOptions.SINK_HTTP_IDLE_CONNECTION_TIMEOUT);
+        optionalOptions.add(StarRocksSinkOptions.SINK_HTTP_VALIDATE_AFTER_INACTIVITY);
+        optionalOptions.add(StarRocksSinkOptions.SINK_HTTP_ASYNC);
+        optionalOptions.add(StarRocksSinkOptions.SINK_HTTP_ASYNC_IO_THREAD_COUNT);
+        optionalOptions.add(StarRocksSinkOptions.SINK_LOAD_URL_PROBE_INTERVAL);
+        optionalOptions.add(StarRocksSinkOptions.SINK_LOAD_URL_SELECT_POLICY);
+        optionalOptions.add(StarRocksSinkOptions.SINK_DIRECT_BE_ROUTING);
+        optionalOptions.add(StarRocksSinkOptions.SINK_ADAPTIVE_FLUSH);
+        optionalOptions.add(StarRocksSinkOptions.SINK_COMPRESSION_LEVEL);
+        optionalOptions.add(StarRocksSinkOptions.SINK_COMPRESSION_THREADS);
+        optionalOptions.add(StarRocksSinkOptions.SINK_COMPRESSION_MIN_RATIO);
+        optionalOptions.add(StarRocksSinkOptions.SINK_STREAMING_LOAD);
+        optionalOptions.add(StarRocksSinkOptions.SINK_STREAMING_SEGMENT_BYTES);
+        optionalOptions.add(StarRocksSinkOptions.SINK_BUFFER_TYPE);
+        optionalOptions.add(StarRocksSinkOptions.SINK_BUFFER_SLAB_SIZE);
+        optionalOptions.add(StarRocksSinkOptions.SINK_SPILL_DIRECTORY);
+        optionalOptions.add(StarRocksSinkOptions.SINK_SPILL_MAX_BYTES);
         optionalOptions.add(StarRocksSinkOptions.SINK_CHUNK_LIMIT);
         optionalOptions.add(StarRocksSinkOptions.SINK_SCAN_FREQUENCY);
         optionalOptions.add(StarRocksSinkOptions.SINK_IGNORE_UPDATE_BEFORE);
+        optionalOptions.add(StarRocksSinkOptions.SINK_DIRECT_ENCODING);
+        optionalOptions.add(StarRocksSinkOptions.SINK_RAW_JSON);
+        optionalOptions.add(StarRocksSinkOptions.SINK_UPSERT_COMPACTION);
+        optionalOptions.add(StarRocksSinkOptions.SINK_BUCKET_SHUFFLE);
         optionalOptions.add(StarRocksSinkOptions.SINK_ENABLE_EXACTLY_ONCE_LABEL_GEN);
         optionalOptions.add(StarRocksSinkOptions.SINK_ABORT_LINGERING_TXNS);
         optionalOptions.add(StarRocksSinkOptions.SINK_ABORT_CHECK_NUM_TXNS);
@@ -26,6 +26,8 @@ import org.apache.flink.util.Preconditions;
 import com.starrocks.connector.flink.manager.StarRocksSinkTable;
 import com.starrocks.connector.flink.row.sink.StarRocksDelimiterParser;
 import com.starrocks.data.load.stream.StreamLoadDataFormat;
+import com.starrocks.data.load.stream.compress.GzipCompressionCodec;
+import com.starrocks.data.load.stream.compress.ZstdCompressionCodec;
 import com.starrocks.data.load.stream.properties.StreamLoadProperties;
 import com.starrocks.data.load.stream.properties.StreamLoadTableProperties;
 import org.slf4j.Logger;
@@ -97,6 +99,85 @@ public class StarRocksSinkOptions implements Serializable {
             .intType().defaultValue(30000).withDescription("Timeout in millisecond to wait for 100-continue response for http client.");
     public static final ConfigOption<Integer> SINK_IO_THREAD_COUNT = ConfigOptions.key("sink.io.thread-count")
             .intType().defaultValue(2).withDescription("Stream load thread count");
+    public static final ConfigOption<Boolean> SINK_IO_VIRTUAL_THREADS = ConfigOptions.key("sink.io.virtual-threads.enabled")
+            .booleanType().defaultValue(false).withDescription("Whether to run the loads and transaction operations on virtual " +
+                    "threads instead of 'sink.io.thread-count' platform threads. Only takes effect on Java 21 or later, and falls " +
+                    "back to the platform threads on older versions.");
+    public static final ConfigOption<Integer> SINK_IO_MAX_INFLIGHT_LOADS_PER_TABLE = ConfigOptions.key("sink.io.max-inflight-loads-per-table")
+            .intType().defaultValue(1).withDescription("Max number of concurrent stream loads for one table. Each load has its own " +
+                    "label and is retried separately. Only takes effect for non-transactional stream load, and the order " +
+                    "of the rows in different loads is not guaranteed if it's larger than 1. The loads to primary key tables " +
+                    "and the loads with the '__op' column are always sent one by one to keep the order of upserts and deletes.");
+    public static final ConfigOption<Integer> SINK_IO_TRANSACTION_PARALLELISM = ConfigOptions.key("sink.io.transaction-parallelism")
+            .intType().defaultValue(-1).withDescription("Max number of transactions to prepare, commit or abort concurrently " +
+                    "in a checkpoint, and also the max number of lingering transactions to check or abort concurrently when the job " +
+                    "restores. The default value -1 means using the value of 'sink.io.thread-count'.");
+
+    public static final ConfigOption<Integer> SINK_HTTP_MAX_CONNECTIONS_PER_ROUTE = ConfigOptions.key("sink.http.max-connections-per-route")
+            .intType().defaultValue(-1).withDescription("Max number of pooled http connections to each FE/BE. The default value -1 " +
+                    "means using the value of 'sink.io.thread-count'.");
+    public static final ConfigOption<Integer> SINK_HTTP_MAX_CONNECTIONS = ConfigOptions.key("sink.http.max-connections")
+            .intType().defaultValue(-1).withDescription("Max number of pooled http connections in total. The default value -1 " +
+                    "means 4 times of 'sink.http.max-connections-per-route'.");
+    public static final ConfigOption<Long> SINK_HTTP_IDLE_CONNECTION_TIMEOUT = ConfigOptions.key("sink.http.idle-connection-timeout-ms")
+            .longType().defaultValue(60000L).withDescription("Timeout in milliseconds after which idle pooled http connections " +
+                    "are closed. A non-positive value disables the eviction.");
+    public static final ConfigOption<Integer> SINK_HTTP_VALIDATE_AFTER_INACTIVITY = ConfigOptions.key("sink.http.validate-after-inactivity-ms")
+            .intType().defaultValue(2000).withDescription("Period of inactivity in milliseconds after which pooled http connections " +
+                    "are validated before being reused.");
+    public static final ConfigOption<Boolean> SINK_HTTP_ASYNC = ConfigOptions.key("sink.http.async.enabled")
+            .booleanType().defaultValue(false).withDescription("Whether to send the loads with a non-blocking http client, so that " +
+                    "the loads in flight do not occupy the I/O threads. Takes effect only for the loads without transaction stream load, " +
+                    "and the loads fall back to the blocking client if the streaming load is enabled.");
+    public static final ConfigOption<Integer> SINK_HTTP_ASYNC_IO_THREAD_COUNT = ConfigOptions.key("sink.http.async.io-thread-count")
+            .intType().defaultValue(2).withDescription("Number of reactor threads of the non-blocking http client.");
+    public static final ConfigOption<Long> SINK_LOAD_URL_PROBE_INTERVAL = ConfigOptions.key("sink.load-url.probe-interval-ms")
+            .longType().defaultValue(5000L).withDescription("Interval in milliseconds to probe the health of the hosts in " +
+                    "'load-url' in background.");
+    public static final ConfigOption<String> SINK_LOAD_URL_SELECT_POLICY = ConfigOptions.key("sink.load-url.select-policy")
+            .stringType().defaultValue("power_of_two_choices").withDescription("Policy to choose a healthy host in 'load-url' " +
+                    "for each request. Options are 'round_robin', 'least_latency' and 'power_of_two_choices'.");
+    public static final ConfigOption<Boolean> SINK_DIRECT_BE_ROUTING = ConfigOptions.key("sink.direct-be-routing")
+            .booleanType().defaultValue(false).withDescription("Whether to send the loads directly to the BE that FE redirected " +
+                    "the previous load of the same transaction to. It goes back to FE if the load fails or the transaction " +
+                    "changes. It only takes effect for Transaction Stream Load.");
+    public static final ConfigOption<Boolean> SINK_ADAPTIVE_FLUSH = ConfigOptions.key("sink.adaptive-flush.enabled")
+            .booleanType().defaultValue(false).withDescription("Whether to size the chunks of each table according to the " +
+                    "load time reported by StarRocks. The chunk grows while the fixed overhead of a load dominates, and " +
+                    "shrinks when the latency of the rows goes past 'sink.buffer-flush.interval-ms'. The sealed chunks are " +
+                    "loaded immediately. The chunk size never exceeds 'sink.chunk-limit'.");
+    public static final ConfigOption<Integer> SINK_COMPRESSION_LEVEL = ConfigOptions.key("sink.compression.level")
+            .intType().noDefaultValue().withDescription("Compression level used when 'sink.properties.compression' is " +
+                    "'zstd' (1 to 22, 3 by default) or 'gzip' (1 to 9, 6 by default).");
+    public static final ConfigOption<Integer> SINK_COMPRESSION_THREADS = ConfigOptions.key("sink.compression.threads")
+            .intType().defaultValue(0).withDescription("Number of threads to compress the chunks in background as soon " +
+                    "as they are sealed. 0 means compressing the chunks while sending them.");
+    public static final ConfigOption<Double> SINK_COMPRESSION_MIN_RATIO = ConfigOptions.key("sink.compression.min-ratio")
+            .doubleType().defaultValue(1.1).withDescription("A chunk compressed in background is sent uncompressed if " +
+                    "its compression ratio is lower than this value. Only take effect if 'sink.compression.threads' is positive.");
+    public static final ConfigOption<Boolean> SINK_STREAMING_LOAD = ConfigOptions.key("sink.streaming-load.enabled")
+            .booleanType().defaultValue(false).withDescription("Whether to send the rows of each table in chunked transfer " +
+                    "encoding while they are being written, rather than buffering the whole chunk before the load. A load ends " +
+                    "when it reaches 'sink.chunk-limit', a flush is triggered, or it lasts longer than 'sink.buffer-flush.interval-ms' " +
+                    "or half of the stream load timeout. Not supported for compressed loads.");
+    public static final ConfigOption<Long> SINK_STREAMING_SEGMENT_BYTES = ConfigOptions.key("sink.streaming-load.segment-bytes")
+            .longType().defaultValue(1024 * 1024L).withDescription("Size of the segments sent in a streaming load. " +
+                    "Only take effect if 'sink.streaming-load.enabled' is true.");
+
+    public static final ConfigOption<String> SINK_BUFFER_TYPE = ConfigOptions.key("sink.buffer.type")
+            .stringType().defaultValue("heap").withDescription("How to buffer the rows in memory before they are loaded. " +
+                    "'heap' keeps each row as a separate byte array, 'slab' appends the rows to pooled fixed-size " +
+                    "byte arrays which reduces the per-row memory overhead and GC pressure, and 'direct' appends the rows to " +
+                    "pooled direct byte buffers out of the heap. Only valid for sink version V2.");
+    public static final ConfigOption<Integer> SINK_BUFFER_SLAB_SIZE = ConfigOptions.key("sink.buffer.slab-size")
+            .intType().defaultValue(64 * 1024).withDescription("Size in bytes of each slab or direct buffer if 'sink.buffer.type' is " +
+                    "'slab' or 'direct'.");
+    public static final ConfigOption<String> SINK_SPILL_DIRECTORY = ConfigOptions.key("sink.spill.directory")
+            .stringType().noDefaultValue().withDescription("Local directory to spill the sealed chunks to when the buffered " +
+                    "data reaches the write-blocking threshold. Spilling is disabled if not set, and the writer is blocked instead.");
+    public static final ConfigOption<Long> SINK_SPILL_MAX_BYTES = ConfigOptions.key("sink.spill.max-bytes")
+            .longType().defaultValue(10L * 1024 * 1024 * 1024).withDescription("Max bytes of the spilled data on local disk. " +
+                    "The writer is blocked if it's reached.");
 
     public static final ConfigOption<Long> SINK_CHUNK_LIMIT = ConfigOptions.key("sink.chunk-limit")
             .longType().defaultValue(3 * GIGA_BYTES_SCALE).withDescription("Data chunk size in a http request for stream load");
@@ -150,6 +231,30 @@ public class StarRocksSinkOptions implements Serializable {
                     "The number of transactions to check if they are lingering. -1 indicates that check until finding the first " +
                     "transaction that is not lingering.");
 
+    public static final ConfigOption<Boolean> SINK_DIRECT_ENCODING = ConfigOptions.key("sink.direct-encoding.enabled")
+            .booleanType().defaultValue(true).withDescription("Whether to encode the RowData of the Table API to csv or json " +
+                    "bytes directly with writers created for the schema once, instead of converting each row to an object array, " +
+                    "a map for json, and a String first. For csv, it also encloses and escapes the string fields according to " +
+                    "'sink.properties.enclose' and 'sink.properties.escape'.");
+
+    public static final ConfigOption<Boolean> SINK_RAW_JSON = ConfigOptions.key("sink.raw-json.enabled")
+            .booleanType().defaultValue(true).withDescription("Whether to pass the json strings of the columns mapped to " +
+                    "StarRocks JSON through to StarRocks verbatim instead of parsing and serializing them again. A json string " +
+                    "is passed through only if it passes a light validation, otherwise it's normalized by fastjson as before.");
+
+    public static final ConfigOption<Boolean> SINK_UPSERT_COMPACTION = ConfigOptions.key("sink.upsert-compaction.enabled")
+            .booleanType().defaultValue(false).withDescription("Whether to keep only the last row of each primary key " +
+                    "among the rows buffered between two flushes for a primary key table. Both upsert and delete rows " +
+                    "replace the previous one. It only works with 'sink.direct-encoding.enabled' and 'sink.version' V2, and " +
+                    "it's disabled for the partial update and conditional update.");
+
+    public static final ConfigOption<Boolean> SINK_BUCKET_SHUFFLE = ConfigOptions.key("sink.bucket-shuffle.enabled")
+            .booleanType().defaultValue(false).withDescription("Whether to shuffle the rows to the sink subtasks by the " +
+                    "hash buckets of the StarRocks table, so that each subtask only writes the tablets of its own buckets. " +
+                    "The distribution of the table is read through 'jdbc-url', and the rows are not shuffled if the table " +
+                    "is not distributed by hash, or the types of the distribution columns are not supported. It only works " +
+                    "for the Table API and SQL.");
+
     public static final ConfigOption<Boolean> SINK_USE_NEW_SINK_API = ConfigOptions.key("sink.use.new-sink-api")
             .booleanType().defaultValue(false).withDescription("Whether to use the implementation with the unified sink api " +
                     "described in Flink FLIP-191. There is no difference for users whether to enable this flag. This is just " +
@@ -292,6 +397,99 @@ public class StarRocksSinkOptions implements Serializable {
         return tableOptions.get(SINK_IO_THREAD_COUNT);
     }
 
+    public boolean isIoVirtualThreads() {
+        return tableOptions.get(SINK_IO_VIRTUAL_THREADS);
+    }
+
+    public int getIoMaxInflightLoadsPerTable() {
+        return tableOptions.get(SINK_IO_MAX_INFLIGHT_LOADS_PER_TABLE);
+    }
+
+    public int getIoTransactionParallelism() {
+        return tableOptions.get(SINK_IO_TRANSACTION_PARALLELISM);
+    }
+
+    public int getAbortLingeringTxnParallelism() {
+        int parallelism = getIoTransactionParallelism();
+        return parallelism > 0 ? parallelism : getIoThreadCount();
+    }
+
+    public int getHttpMaxConnectionsPerRoute() {
+        return tableOptions.get(SINK_HTTP_MAX_CONNECTIONS_PER_ROUTE);
+    }
+
+    public int getHttpMaxConnections() {
+        return tableOptions.get(SINK_HTTP_MAX_CONNECTIONS);
+    }
+
+    public long getHttpIdleConnectionTimeout() {
+        return tableOptions.get(SINK_HTTP_IDLE_CONNECTION_TIMEOUT);
+    }
+
+    public int getHttpValidateAfterInactivity() {
+        return tableOptions.get(SINK_HTTP_VALIDATE_AFTER_INACTIVITY);
+    }
+
+    public boolean isHttpAsync() {
+        return tableOptions.get(SINK_HTTP_ASYNC);
+    }
+
+    public int getHttpAsyncIoThreadCount() {
+        return tableOptions.get(SINK_HTTP_ASYNC_IO_THREAD_COUNT);
+    }
+
+    public long getLoadUrlProbeInterval() {
+        return tableOptions.get(SINK_LOAD_URL_PROBE_INTERVAL);
+    }
+
+    public String getLoadUrlSelectPolicy() {
+        return tableOptions.get(SINK_LOAD_URL_SELECT_POLICY);
+    }
+
+    public boolean isDirectBeRouting() {
+        return tableOptions.get(SINK_DIRECT_BE_ROUTING);
+    }
+
+    public boolean isAdaptiveFlush() {
+        return tableOptions.get(SINK_ADAPTIVE_FLUSH);
+    }
+
+    public Integer getCompressionLevel() {
+        return tableOptions.getOptional(SINK_COMPRESSION_LEVEL).orElse(null);
+    }
+
+    public int getCompressionThreads() {
+        return tableOptions.get(SINK_COMPRESSION_THREADS);
+    }
+
+    public double getCompressionMinRatio() {
+        return tableOptions.get(SINK_COMPRESSION_MIN_RATIO);
+    }
+
+    public boolean isStreamingLoad() {
+        return tableOptions.get(SINK_STREAMING_LOAD);
+    }
+
+    public long getStreamingSegmentBytes() {
+        return tableOptions.get(SINK_STREAMING_SEGMENT_BYTES);
+    }
+
+    public String getBufferType() {
+        return tableOptions.get(SINK_BUFFER_TYPE);
+    }
+
+    public int getBufferSlabSize() {
+        return tableOptions.get(SINK_BUFFER_SLAB_SIZE);
+    }
+
+    public String getSpillDirectory() {
+        return tableOptions.get(SINK_SPILL_DIRECTORY);
+    }
+
+    public long getSpillMaxBytes() {
+        return tableOptions.get(SINK_SPILL_MAX_BYTES);
+    }
+
     public long getChunkLimit() {
         return tableOptions.get(SINK_CHUNK_LIMIT);
     }
@@ -316,6 +514,22 @@ public class StarRocksSinkOptions implements Serializable {
         return tableOptions.get(SINK_IGNORE_UPDATE_BEFORE);
     }
 
+    public boolean isDirectEncoding() {
+        return tableOptions.get(SINK_DIRECT_ENCODING);
+    }
+
+    public boolean isRawJson() {
+        return tableOptions.get(SINK_RAW_JSON);
+    }
+
+    public boolean isUpsertCompaction() {
+        return tableOptions.get(SINK_UPSERT_COMPACTION);
+    }
+
+    public boolean isBucketShuffle() {
+        return tableOptions.get(SINK_BUCKET_SHUFFLE);
+    }
+
     public static Builder builder() {
         return new Builder();
     }
@@ -514,6 +728,16 @@ public class StarRocksSinkOptions implements Serializable {
                 .enableUpsertDelete(supportUpsertDelete())
                 .addCommonProperties(getSinkStreamLoadProperties());
 
+        Integer compressionLevel = getCompressionLevel();
+        if (compressionLevel != null) {
+            String compression = getSinkStreamLoadProperties().getOrDefault("compression", "");
+            if (ZstdCompressionCodec.NAME.equalsIgnoreCase(compression)) {
+                defaultTablePropertiesBuilder.setZstdLevel(compressionLevel);
+            } else if (GzipCompressionCodec.NAME.equalsIgnoreCase(compression)) {
+                defaultTablePropertiesBuilder.setGzipLevel(compressionLevel);
+            }
+        }
+
         if (hasColumnMappingProperty()) {
             defaultTablePropertiesBuilder.columns(streamLoadProps.get("columns"));
         } else if (getTableSchemaFieldNames() != null) {
@@ -560,10 +784,31 @@ public class StarRocksSinkOptions implements Serializable {
                 .jdbcUrl(getJdbcUrl())
                 .defaultTableProperties(defaultTablePropertiesBuilder.build())
                 .cacheMaxBytes(getSinkMaxBytes())
+                .chunkBufferType(getBufferType())
+                .slabSize(getBufferSlabSize())
+                .spillDirectory(getSpillDirectory())
+                .maxSpillBytes(getSpillMaxBytes())
                 .connectTimeout(getConnectTimeout())
                 .waitForContinueTimeoutMs(getWaitForContinueTimeout())
                 .socketTimeout(getSocketTimeout())
                 .ioThreadCount(getIoThreadCount())
+                .maxInflightLoadsPerTable(getIoMaxInflightLoadsPerTable())
+                .transactionParallelism(getIoTransactionParallelism())
+                .virtualThreads(isIoVirtualThreads())
+                .maxConnectionsPerRoute(getHttpMaxConnectionsPerRoute())
+                .maxConnections(getHttpMaxConnections())
+                .idleConnectionTimeoutMs(getHttpIdleConnectionTimeout())
+                .validateAfterInactivityMs(getHttpValidateAfterInactivity())
+                .asyncHttp(isHttpAsync())
+                .asyncHttpIoThreads(getHttpAsyncIoThreadCount())
+                .endpointProbeIntervalMs(getLoadUrlProbeInterval())
+                .endpointSelectPolicy(getLoadUrlSelectPolicy())
+                .directBeRouting(isDirectBeRouting())
+                .adaptiveFlush(isAdaptiveFlush())
+                .streamingLoad(isStreamingLoad())
+                .compressionThreads(getCompressionThreads())
+                .minCompressionRatio(getCompressionMinRatio())
+                .streamingSegmentBytes(getStreamingSegmentBytes())
                 .scanningFrequency(getScanFrequency())
                 .labelPrefix(getLabelPrefix())
                 .username(getUsername())
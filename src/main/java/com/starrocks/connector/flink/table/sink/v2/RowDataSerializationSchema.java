@@ -26,10 +26,13 @@ import org.apache.flink.types.RowKind;
 
 import com.starrocks.connector.flink.row.sink.StarRocksIRowTransformer;
 import com.starrocks.connector.flink.row.sink.StarRocksISerializer;
+import com.starrocks.connector.flink.row.sink.StarRocksRowDataEncoder;
 import com.starrocks.connector.flink.table.data.DefaultStarRocksRowData;
 import com.starrocks.connector.flink.table.data.StarRocksRowData;
 import com.starrocks.connector.flink.tools.JsonWrapper;
 
+import javax.annotation.Nullable;
+
 /** Serializer for the {@link RowData} record. */
 public class RowDataSerializationSchema implements RecordSerializationSchema<RowData> {
 
@@ -41,6 +44,9 @@ public class RowDataSerializationSchema implements RecordSerializationSchema<Row
     boolean ignoreUpdateBefore;
     private final StarRocksISerializer serializer;
     private final StarRocksIRowTransformer<RowData> rowTransformer;
+    // not null if the RowData is encoded to bytes directly
+    @Nullable
+    private final StarRocksRowDataEncoder rowDataEncoder;
     private transient DefaultStarRocksRowData reusableRowData;
 
     public RowDataSerializationSchema(
@@ -50,12 +56,24 @@ public class RowDataSerializationSchema implements RecordSerializationSchema<Row
             boolean ignoreUpdateBefore,
             StarRocksISerializer serializer,
             StarRocksIRowTransformer<RowData> rowTransformer) {
+        this(databaseName, tableName, supportUpsertDelete, ignoreUpdateBefore, serializer, rowTransformer, null);
+    }
+
+    public RowDataSerializationSchema(
+            String databaseName,
+            String tableName,
+            boolean supportUpsertDelete,
+            boolean ignoreUpdateBefore,
+            StarRocksISerializer serializer,
+            StarRocksIRowTransformer<RowData> rowTransformer,
+            @Nullable StarRocksRowDataEncoder rowDataEncoder) {
         this.databaseName = databaseName;
         this.tableName = tableName;
         this.supportUpsertDelete = supportUpsertDelete;
         this.ignoreUpdateBefore = ignoreUpdateBefore;
         this.serializer = serializer;
         this.rowTransformer = rowTransformer;
+        this.rowDataEncoder = rowDataEncoder;
     }
 
     @Override
@@ -64,6 +82,9 @@ public class RowDataSerializationSchema implements RecordSerializationSchema<Row
         this.serializer.open(new StarRocksISerializer.SerializerContext(jsonWrapper));
         this.rowTransformer.setRuntimeContext(null);
         this.rowTransformer.setFastJsonWrapper(jsonWrapper);
+        if (rowDataEncoder != null) {
+            rowDataEncoder.open(jsonWrapper);
+        }
         this.reusableRowData = new DefaultStarRocksRowData();
         reusableRowData.setDatabase(databaseName);
         reusableRowData.setTable(tableName);
@@ -79,6 +100,11 @@ public class RowDataSerializationSchema implements RecordSerializationSchema<Row
             // let go the UPDATE_AFTER and INSERT rows for tables who have a group of `unique` or `duplicate` keys.
             return null;
         }
+        if (rowDataEncoder != null) {
+            reusableRowData.setRowBytes(rowDataEncoder.encode(record));
+            reusableRowData.setKey(rowDataEncoder.encodeKey(record));
+            return reusableRowData;
+        }
         String serializedRow = serializer.serialize(rowTransformer.transform(record, supportUpsertDelete));
         reusableRowData.setRow(serializedRow);
         return reusableRowData;
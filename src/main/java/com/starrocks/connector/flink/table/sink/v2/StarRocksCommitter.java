@@ -23,21 +23,30 @@ package com.starrocks.connector.flink.table.sink.v2;
 import com.starrocks.connector.flink.table.sink.StarRocksSinkOptions;
 import com.starrocks.connector.flink.table.sink.StarRocksSinkSemantic;
 import com.starrocks.connector.flink.tools.EnvUtils;
+import com.starrocks.data.load.stream.StreamLoadManager;
+import com.starrocks.data.load.stream.StreamLoadSnapshot;
 import com.starrocks.data.load.stream.properties.StreamLoadProperties;
 import com.starrocks.data.load.stream.v2.StreamLoadManagerV2;
+import org.apache.flink.annotation.VisibleForTesting;
 import org.apache.flink.api.connector.sink2.Committer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.List;
+import java.util.stream.Collectors;
 
 public class StarRocksCommitter implements Committer<StarRocksCommittable> {
 
     private static final Logger LOG = LoggerFactory.getLogger(StarRocksCommitter.class);
 
+    private static final long RETRY_BACKOFF_MS = 1000L;
+    private static final long RETRY_MAX_BACKOFF_MS = 10000L;
+
     private final int maxRetries;
-    private final StreamLoadManagerV2 sinkManager;
+    private final StreamLoadManager sinkManager;
 
     public StarRocksCommitter(
             StarRocksSinkOptions sinkOptions,
@@ -60,30 +69,59 @@ public class StarRocksCommitter implements Committer<StarRocksCommittable> {
         LOG.info("Create StarRocksCommitter, maxRetries: {}. {}", maxRetries, EnvUtils.getGitInformation());
     }
 
+    @VisibleForTesting
+    StarRocksCommitter(int maxRetries, StreamLoadManager sinkManager) {
+        this.maxRetries = maxRetries;
+        this.sinkManager = sinkManager;
+    }
+
     @Override
     public void commit(Collection<CommitRequest<StarRocksCommittable>> committables)
             throws IOException, InterruptedException {
+        // commit the transactions of all committables in one snapshot, so that they are committed concurrently
+        List<StreamLoadSnapshot.Transaction> transactions = new ArrayList<>();
         for (CommitRequest<StarRocksCommittable> commitRequest : committables) {
-            StarRocksCommittable committable = commitRequest.getCommittable();
-            RuntimeException firstException = null;
-            for (int i = 0; i <= maxRetries; i++) {
-                try {
-                    boolean success = sinkManager.commit(committable.getLabelSnapshot());
-                    if (success) {
-                        break;
-                    }
-                    throw new RuntimeException("Please see the taskmanager log for the failure reason");
-                } catch (Exception e) {
-                    LOG.error("Fail to commit after {} retries, max retries: {}", i, maxRetries, e);
-                    if (firstException != null) {
-                        firstException = new RuntimeException("Failed to commit", e);
-                    }
-                }
+            transactions.addAll(commitRequest.getCommittable().getLabelSnapshot().getTransactions());
+        }
+        if (transactions.isEmpty()) {
+            return;
+        }
+        StreamLoadSnapshot snapshot = new StreamLoadSnapshot();
+        snapshot.setTransactions(transactions);
+
+        Exception lastException = null;
+        for (int i = 0; i <= maxRetries; i++) {
+            if (i > 0) {
+                // the transactions are already retried with backoff in the stream loader, so back off before
+                // the next round as well rather than retrying them at once
+                Thread.sleep(Math.min(RETRY_MAX_BACKOFF_MS, RETRY_BACKOFF_MS << Math.min(i - 1, 30)));
             }
-            if (firstException != null) {
-                throw firstException;
+            try {
+                // the committed transactions are skipped in the retries
+                if (sinkManager.commit(snapshot)) {
+                    return;
+                }
+                LOG.error("Fail to commit after {} retries, max retries: {}, please see the taskmanager log " +
+                        "for the failure reason", i, maxRetries);
+            } catch (Exception e) {
+                if (Thread.interrupted()) {
+                    // the transactions may still be in progress, so don't retry them
+                    InterruptedException ie = new InterruptedException("Interrupted while committing");
+                    ie.initCause(e);
+                    throw ie;
+                }
+                LOG.error("Fail to commit after {} retries, max retries: {}", i, maxRetries, e);
+                lastException = e;
             }
         }
+        List<String> failedLabels = transactions.stream()
+                .filter(transaction -> !transaction.isFinish())
+                .map(StreamLoadSnapshot.Transaction::getLabel)
+                .collect(Collectors.toList());
+        LOG.error("Failed to commit {} of {} transactions, labels: {}", failedLabels.size(), transactions.size(), failedLabels);
+        throw new RuntimeException(String.format("Failed to commit %s of %s transactions after %s retries, labels: %s. " +
+                "Please see the taskmanager log for the failure reason", failedLabels.size(), transactions.size(),
+                maxRetries, failedLabels), lastException);
     }
 
     @Override
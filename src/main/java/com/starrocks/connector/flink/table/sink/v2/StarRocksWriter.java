@@ -42,6 +42,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
@@ -94,6 +95,9 @@ public class StarRocksWriter<InputT>
         this.sinkManager = new StreamLoadManagerV2(streamLoadProperties,
                 sinkOptions.getSemantic() == StarRocksSinkSemantic.AT_LEAST_ONCE);
         sinkManager.setStreamLoadListener(streamLoadListener);
+        streamLoadListener.registerHttpClientPoolGauges(initContext.metricGroup(), sinkManager.getStreamLoader());
+        streamLoadListener.registerAdaptiveFlushGauges(initContext.metricGroup(), sinkManager, sinkOptions);
+        streamLoadListener.registerCompressionGauges(initContext.metricGroup(), sinkManager, sinkOptions);
         sinkManager.setLabelGeneratorFactory(labelGeneratorFactory);
         try {
             sinkManager.init();
@@ -117,7 +121,8 @@ public class StarRocksWriter<InputT>
                         sinkOptions.getAbortCheckNumTxns(),
                         sinkOptions.getDbTables(),
                         restoredGeneratorSnapshots,
-                        sinkManager.getStreamLoader());
+                        sinkManager.getStreamLoader(),
+                        sinkOptions.getAbortLingeringTxnParallelism());
 
                 aborter.execute();
             }
@@ -140,11 +145,19 @@ public class StarRocksWriter<InputT>
         if (rowData == null) {
             return;
         }
-        sinkManager.write(rowData.getUniqueKey(), rowData.getDatabase(), rowData.getTable(), rowData.getRow());
         totalReceivedRows += 1;
-        if (totalReceivedRows % 100 == 1) {
+        if (totalReceivedRows % 100 == 1 && LOG.isDebugEnabled()) {
             LOG.debug("Received raw record: {}", element);
-            LOG.debug("Received serialized record: {}", rowData.getRow());
+            LOG.debug("Received serialized record: {}", rowData.getRowBytes() == null ? rowData.getRow()
+                    : new String(rowData.getRowBytes().array(), 0, rowData.getRowBytes().limit(), StandardCharsets.UTF_8));
+        }
+        if (rowData.getRowBytes() != null && rowData.getKey() != null) {
+            sinkManager.write(rowData.getUniqueKey(), rowData.getDatabase(), rowData.getTable(),
+                    rowData.getKey(), rowData.getRowBytes());
+        } else if (rowData.getRowBytes() != null) {
+            sinkManager.write(rowData.getUniqueKey(), rowData.getDatabase(), rowData.getTable(), rowData.getRowBytes());
+        } else {
+            sinkManager.write(rowData.getUniqueKey(), rowData.getDatabase(), rowData.getTable(), rowData.getRow());
         }
     }
 
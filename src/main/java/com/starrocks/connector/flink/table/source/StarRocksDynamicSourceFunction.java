@@ -23,7 +23,6 @@ import org.apache.flink.streaming.api.functions.source.RichParallelSourceFunctio
 import org.apache.flink.table.api.TableSchema;
 import org.apache.flink.table.data.RowData;
 
-import com.google.common.base.Strings;
 import com.starrocks.connector.flink.table.source.struct.ColumnRichInfo;
 import com.starrocks.connector.flink.table.source.struct.QueryBeXTablets;
 import com.starrocks.connector.flink.table.source.struct.QueryInfo;
@@ -33,11 +32,9 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.util.ArrayList;
-import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.atomic.AtomicBoolean;
-import java.util.stream.Collectors;
 
 public class StarRocksDynamicSourceFunction extends RichParallelSourceFunction<RowData> implements ResultTypeQueryable<RowData> {
 
@@ -107,32 +104,7 @@ public class StarRocksDynamicSourceFunction extends RichParallelSourceFunction<R
     }
 
     private String genSQL(StarRocksSourceQueryType queryType, SelectColumn[] selectColumns, String filter, long limit) {
-        StringBuilder sqlSb = new StringBuilder("select ");
-        switch (queryType) {
-        case QueryCount:
-            sqlSb.append("count(*)");
-            break;
-        case QueryAllColumns:
-        case QuerySomeColumns:
-            String columns = Arrays.stream(selectColumns)
-                    .map(col -> "`" + col.getColumnName() + "`")
-                            .collect(Collectors.joining(","));
-            sqlSb.append(columns);
-            break;
-        }
-        sqlSb.append(" from ");
-        sqlSb.append("`").append(sourceOptions.getDatabaseName()).append("`");
-        sqlSb.append(".");
-        sqlSb.append("`").append(sourceOptions.getTableName()).append("`");
-        if (!Strings.isNullOrEmpty(filter)) {
-            sqlSb.append(" where ");
-            sqlSb.append(filter);
-        }
-        if (limit > 0) {
-            // (not support) SQL = SQL + " limit " + limit;
-            throw new RuntimeException("Read data from be not support limit now !");
-        }
-        return sqlSb.toString();
+        return StarRocksSourceCommonFunc.genSQL(sourceOptions, queryType, selectColumns, filter, limit);
     }
 
     @Override
@@ -152,6 +124,7 @@ public class StarRocksDynamicSourceFunction extends RichParallelSourceFunction<R
             lists.get(subTaskId).forEach(beXTablets -> {
                 StarRocksSourceBeReader beReader = new StarRocksSourceBeReader(beXTablets.getBeNode(), columnRichInfos, selectColumns, sourceOptions);
                 beReader.openScanner(beXTablets.getTabletIds(), queryInfo.getQueryPlan().getOpaqued_query_plan(), sourceOptions);
+                beReader.setPrefetchBatches(sourceOptions.getPrefetchBatches());
                 beReader.startToRead();
                 this.dataReaderList.add(beReader);
             });
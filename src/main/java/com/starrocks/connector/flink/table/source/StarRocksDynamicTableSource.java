@@ -21,6 +21,7 @@ import org.apache.flink.table.connector.source.DynamicTableSource;
 import org.apache.flink.table.connector.source.LookupTableSource;
 import org.apache.flink.table.connector.source.ScanTableSource;
 import org.apache.flink.table.connector.source.SourceFunctionProvider;
+import org.apache.flink.table.connector.source.SourceProvider;
 import org.apache.flink.table.connector.source.TableFunctionProvider;
 import org.apache.flink.table.connector.source.abilities.SupportsFilterPushDown;
 import org.apache.flink.table.connector.source.abilities.SupportsLimitPushDown;
@@ -30,6 +31,7 @@ import org.apache.flink.table.expressions.ResolvedExpression;
 import com.starrocks.connector.flink.table.source.struct.ColumnRichInfo;
 import com.starrocks.connector.flink.table.source.struct.PushDownHolder;
 import com.starrocks.connector.flink.table.source.struct.SelectColumn;
+import com.starrocks.connector.flink.table.source.v2.StarRocksSource;
 
 import java.util.ArrayList;
 import java.util.Arrays;
@@ -57,6 +59,15 @@ public class StarRocksDynamicTableSource implements ScanTableSource, LookupTable
 
     @Override
     public ScanRuntimeProvider getScanRuntimeProvider(ScanContext scanContext) {
+        if (options.isUseNewSourceApi() && this.pushDownHolder.getQueryType() != StarRocksSourceQueryType.QueryCount) {
+            StarRocksSource source = new StarRocksSource(
+                options, flinkSchema,
+                this.pushDownHolder.getFilter(),
+                this.pushDownHolder.getLimit(),
+                this.pushDownHolder.getSelectColumns(),
+                this.pushDownHolder.getQueryType());
+            return SourceProvider.of(source);
+        }
         StarRocksDynamicSourceFunction sourceFunction = new StarRocksDynamicSourceFunction(
             options, flinkSchema, 
             this.pushDownHolder.getFilter(), 
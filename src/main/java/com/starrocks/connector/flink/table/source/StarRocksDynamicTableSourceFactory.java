@@ -76,6 +76,9 @@ public final class StarRocksDynamicTableSourceFactory implements DynamicTableSou
         options.add(StarRocksSourceOptions.SCAN_MEM_LIMIT);
         options.add(StarRocksSourceOptions.SCAN_MAX_RETRIES);
         options.add(StarRocksSourceOptions.SCAN_BE_HOST_MAPPING_LIST);
+        options.add(StarRocksSourceOptions.SCAN_PREFETCH_BATCHES);
+        options.add(StarRocksSourceOptions.SCAN_USE_NEW_SOURCE_API);
+        options.add(StarRocksSourceOptions.SCAN_SPLIT_MAX_TABLETS);
         options.add(StarRocksSourceOptions.LOOKUP_CACHE_TTL_MS);
         options.add(StarRocksSourceOptions.LOOKUP_CACHE_MAX_ROWS);
         options.add(StarRocksSourceOptions.LOOKUP_MAX_RETRIES);
@@ -41,13 +41,19 @@ import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
 
 
 public class StarRocksSourceBeReader implements StarRocksSourceDataReader, Serializable {
 
     private static final Logger LOG = LoggerFactory.getLogger(StarRocksSourceBeReader.class);
 
+    // The thrift client is not thread-safe, so it has a single owner at a time: the prefetch thread until
+    // it exits if the batches are prefetched, otherwise the thread that reads the rows
     private TStarrocksExternalService.Client client;
+    private final TSocket socket;
+    private final int closeTimeoutMs;
     private final String IP;
     private final int PORT;
     private final List<ColumnRichInfo> columnRichInfos;
@@ -61,6 +67,13 @@ public class StarRocksSourceBeReader implements StarRocksSourceDataReader, Seria
     // Lazily initialized
     private final List<ArrowFieldConverter> fieldConverters = new ArrayList<>();
 
+    // the number of batches fetched and decoded ahead in the background, and 0 to fetch them on demand
+    private int prefetchBatches = 0;
+    private transient BlockingQueue<PrefetchedBatch> prefetchQueue;
+    private transient Thread prefetchThread;
+    // the client is out of sync with be after the transport fails, such as a read timeout, so it can't close the scanner
+    private transient volatile boolean prefetchTransportFailed;
+
     public StarRocksSourceBeReader(String beNodeInfo,
                                    List<ColumnRichInfo> columnRichInfos,
                                    SelectColumn[] selectColumns,
@@ -89,7 +102,8 @@ public class StarRocksSourceBeReader implements StarRocksSourceDataReader, Seria
         this.columnRichInfos = columnRichInfos;
         this.selectColumns = selectColumns;
         TBinaryProtocol.Factory factory = new TBinaryProtocol.Factory();
-        TSocket socket = new TSocket(IP, PORT, sourceOptions.getConnectTimeoutMs(), sourceOptions.getConnectTimeoutMs());
+        this.closeTimeoutMs = sourceOptions.getConnectTimeoutMs();
+        this.socket = new TSocket(IP, PORT, sourceOptions.getConnectTimeoutMs(), sourceOptions.getConnectTimeoutMs());
         try {
             socket.open();
         } catch (TTransportException e) {
@@ -138,7 +152,25 @@ public class StarRocksSourceBeReader implements StarRocksSourceDataReader, Seria
                 IP, PORT, contextId, tablets.size(), tablets);
     }
 
+    /**
+     * Set the number of batches to fetch and decode in a background thread before they are read. The thread
+     * waits when the batches are not read in time, so the scan follows the backpressure of the downstream.
+     * It must be called before {@link #startToRead()}.
+     */
+    public void setPrefetchBatches(int prefetchBatches) {
+        this.prefetchBatches = prefetchBatches;
+    }
+
     public void startToRead() {
+        StarRocksSourceFlinkRows flinkRows = prefetchBatches > 0 ? takePrefetchedBatch() : fetchNextBatch();
+        if (flinkRows != null) {
+            this.curFlinkRows = flinkRows;
+            this.curData = curFlinkRows.next();
+        }
+    }
+
+    // Returns null if there are no more batches
+    private StarRocksSourceFlinkRows fetchNextBatch() {
         TScanNextBatchParams params = new TScanNextBatchParams();
         params.setContext_id(this.contextId);
         params.setOffset(this.readerOffset);
@@ -151,11 +183,51 @@ public class StarRocksSourceBeReader implements StarRocksSourceDataReader, Seria
                                 + result.getStatus().getStatus_code() + " msg:" + result.getStatus().getError_msgs()
                 );
             }
-            if (!result.eos) {
-                handleResult(result);
-            }
         } catch (TException e) {
-            throw new RuntimeException(e.getMessage());
+            throw new RuntimeException(e.getMessage(), e);
+        }
+        return result.eos ? null : handleResult(result);
+    }
+
+    private StarRocksSourceFlinkRows takePrefetchedBatch() {
+        if (prefetchThread == null) {
+            this.prefetchQueue = new ArrayBlockingQueue<>(prefetchBatches);
+            this.prefetchThread = new Thread(this::prefetch, "starrocks-source-prefetch-" + contextId);
+            prefetchThread.setDaemon(true);
+            prefetchThread.start();
+        }
+        PrefetchedBatch batch;
+        try {
+            batch = prefetchQueue.take();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while waiting for the batch from be -> ip:[" + IP + "]", e);
+        }
+        if (batch.error != null) {
+            throw batch.error;
+        }
+        return batch.flinkRows;
+    }
+
+    // Runs in the prefetch thread which is the only one to use the client until it exits
+    private void prefetch() {
+        try {
+            StarRocksSourceFlinkRows flinkRows;
+            do {
+                flinkRows = fetchNextBatch();
+                prefetchQueue.put(new PrefetchedBatch(flinkRows, null));
+            } while (flinkRows != null);
+        } catch (InterruptedException e) {
+            LOG.info("Prefetch for {}:{} with context id {} is interrupted", IP, PORT, contextId);
+        } catch (RuntimeException e) {
+            prefetchTransportFailed = e.getCause() instanceof TTransportException;
+            LOG.error("Failed to prefetch from {}:{} with context id {}", IP, PORT, contextId, e);
+            try {
+                // the reader gets the error after the batches before it
+                prefetchQueue.put(new PrefetchedBatch(null, e));
+            } catch (InterruptedException ie) {
+                LOG.info("Prefetch for {}:{} with context id {} is interrupted", IP, PORT, contextId);
+            }
         }
     }
 
@@ -178,20 +250,33 @@ public class StarRocksSourceBeReader implements StarRocksSourceDataReader, Seria
         return preparedData;
     }
     
-    private void handleResult(TScanBatchResult result) {
+    private StarRocksSourceFlinkRows handleResult(TScanBatchResult result) {
+        StarRocksSourceFlinkRows flinkRows;
         try {
-            curFlinkRows = new StarRocksSourceFlinkRows(result, columnRichInfos, selectColumns);
-            curFlinkRows.init(fieldConverters);
+            flinkRows = new StarRocksSourceFlinkRows(result, columnRichInfos, selectColumns);
+            flinkRows.init(fieldConverters);
         } catch (IOException e) {
             throw new RuntimeException(e.getMessage());
         } 
-        this.readerOffset = curFlinkRows.getReadRowCount() + this.readerOffset;
-        this.curData = curFlinkRows.next();
+        this.readerOffset = flinkRows.getReadRowCount() + this.readerOffset;
+        return flinkRows;
     }
 
     @Override
     public void close() {
         LOG.info("Close reader for {}:{} with context id {}", IP, PORT, contextId);
+        if (prefetchThread != null) {
+            // the client can only be used to close the scanner after the prefetch thread exits
+            boolean exited = stopPrefetchThread();
+            // the reader may be closed by another thread, and end the one waiting for the batch
+            prefetchQueue.clear();
+            prefetchQueue.offer(new PrefetchedBatch(null, null));
+            if (!exited || prefetchTransportFailed) {
+                LOG.warn("Skip closing the scanner for {}:{} with context id {} because the client is not available " +
+                        "after the prefetch thread is stopped, and be releases it after the keep alive time", IP, PORT, contextId);
+                return;
+            }
+        }
         TScanCloseParams tScanCloseParams = new TScanCloseParams();
         tScanCloseParams.setContext_id(this.contextId);
         try {
@@ -201,4 +286,38 @@ public class StarRocksSourceBeReader implements StarRocksSourceDataReader, Seria
             throw new RuntimeException(e.getMessage());
         }
     }
+
+    // Returns whether the client can still be used after the prefetch thread exits. An interrupt only wakes up
+    // the thread waiting for the queue, so the transport is closed to unblock the thread reading from be if it
+    // does not exit in time
+    private boolean stopPrefetchThread() {
+        prefetchThread.interrupt();
+        try {
+            prefetchThread.join(closeTimeoutMs);
+            if (prefetchThread.isAlive()) {
+                LOG.warn("Prefetch thread for {}:{} with context id {} does not exit in {} ms, close the transport",
+                        IP, PORT, contextId, closeTimeoutMs);
+                socket.close();
+                prefetchThread.join(closeTimeoutMs);
+                return false;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            LOG.warn("Interrupted while waiting for the prefetch thread of {}:{} with context id {}",
+                    IP, PORT, contextId);
+        }
+        return !prefetchThread.isAlive();
+    }
+
+    private static class PrefetchedBatch {
+
+        // null if there are no more batches
+        private final StarRocksSourceFlinkRows flinkRows;
+        private final RuntimeException error;
+
+        PrefetchedBatch(StarRocksSourceFlinkRows flinkRows, RuntimeException error) {
+            this.flinkRows = flinkRows;
+            this.error = error;
+        }
+    }
 }
@@ -23,11 +23,13 @@ import com.starrocks.connector.flink.table.source.struct.QueryInfo;
 import com.starrocks.connector.flink.table.source.struct.SelectColumn;
 import com.starrocks.connector.flink.table.source.struct.ColumnRichInfo;
 
+import com.google.common.base.Strings;
 import org.apache.flink.table.api.TableColumn;
 import org.apache.flink.table.api.TableSchema;
 
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.HashMap;
@@ -199,6 +201,36 @@ public class StarRocksSourceCommonFunc {
         return selectedColumns.toArray(new SelectColumn[0]);
     }
 
+    public static String genSQL(StarRocksSourceOptions sourceOptions, StarRocksSourceQueryType queryType,
+                                SelectColumn[] selectColumns, String filter, long limit) {
+        StringBuilder sqlSb = new StringBuilder("select ");
+        switch (queryType) {
+        case QueryCount:
+            sqlSb.append("count(*)");
+            break;
+        case QueryAllColumns:
+        case QuerySomeColumns:
+            String columns = Arrays.stream(selectColumns)
+                    .map(col -> "`" + col.getColumnName() + "`")
+                            .collect(Collectors.joining(","));
+            sqlSb.append(columns);
+            break;
+        }
+        sqlSb.append(" from ");
+        sqlSb.append("`").append(sourceOptions.getDatabaseName()).append("`");
+        sqlSb.append(".");
+        sqlSb.append("`").append(sourceOptions.getTableName()).append("`");
+        if (!Strings.isNullOrEmpty(filter)) {
+            sqlSb.append(" where ");
+            sqlSb.append(filter);
+        }
+        if (limit > 0) {
+            // (not support) SQL = SQL + " limit " + limit;
+            throw new RuntimeException("Read data from be not support limit now !");
+        }
+        return sqlSb.toString();
+    }
+
     public static QueryInfo getQueryInfo(StarRocksSourceOptions sourceOptions, String SQL) {
         StarRocksQueryPlanVisitor starRocksQueryPlanVisitor = getStarRocksQueryPlanVisitor(sourceOptions);
         QueryInfo queryInfo = null;
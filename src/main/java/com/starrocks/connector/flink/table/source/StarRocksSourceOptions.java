@@ -18,6 +18,7 @@ import org.apache.flink.configuration.ConfigOption;
 import org.apache.flink.configuration.ConfigOptions;
 import org.apache.flink.configuration.Configuration;
 import org.apache.flink.configuration.ReadableConfig;
+import org.apache.flink.table.api.ValidationException;
 import org.apache.flink.util.Preconditions;
 
 import java.io.Serializable;
@@ -88,6 +89,24 @@ public class StarRocksSourceOptions implements Serializable {
 
     public static final ConfigOption<String> SCAN_BE_HOST_MAPPING_LIST = ConfigOptions.key("scan.be-host-mapping-list")
             .stringType().defaultValue("").withDescription("List of be host mapping");
+
+    public static final ConfigOption<Integer> SCAN_PREFETCH_BATCHES = ConfigOptions.key("scan.prefetch.batches")
+            .intType().defaultValue(0).withDescription("The number of batches each scanner fetches and decodes in a " +
+                    "background thread before they are read, so that the network transfer and decoding overlap with the " +
+                    "processing of the downstream. When the queue of prefetched batches is full, the background thread " +
+                    "blocks until a batch is read, so the scan still follows the backpressure. 0 means to fetch a batch " +
+                    "only after the previous one is read, without a background thread. It does not apply to the lookup.");
+
+    public static final ConfigOption<Boolean> SCAN_USE_NEW_SOURCE_API = ConfigOptions.key("scan.use.new-source-api")
+            .booleanType().defaultValue(false).withDescription("Whether to use the implementation with the unified source api " +
+                    "described in Flink FLIP-27. The tablets are split into groups, and handed out to the readers on demand, " +
+                    "so a reader that finishes early takes more splits rather than waiting for the slow ones. The finished " +
+                    "splits are not read again after failover. It does not work for the query of count(*).");
+
+    public static final ConfigOption<Integer> SCAN_SPLIT_MAX_TABLETS = ConfigOptions.key("scan.split.max-tablets")
+            .intType().defaultValue(4).withDescription("The max number of tablets of a split for 'scan.use.new-source-api'. " +
+                    "The tablets of a split are on the same be, and are read by one scanner. Smaller splits balance the readers " +
+                    "better and re-read less after failover, while larger ones open fewer scanners.");
     
     // lookup Options
     public static final ConfigOption<Long> LOOKUP_CACHE_MAX_ROWS = ConfigOptions.key("lookup.cache.max-rows")
@@ -110,6 +129,7 @@ public class StarRocksSourceOptions implements Serializable {
         this.tableOptionsMap = optionsMap;
         parseSourceProperties();
         this.validateRequired();
+        this.validateParamsRange();
     }
 
     private void parseSourceProperties() {
@@ -142,6 +162,23 @@ public class StarRocksSourceOptions implements Serializable {
                 "Either all or none of the following options should be provided:\n" + String.join("\n", propertyNames));
     }
 
+    private void validateParamsRange() {
+        tableOptions.getOptional(SCAN_PREFETCH_BATCHES).ifPresent(val -> {
+            if (val < 0) {
+                throw new ValidationException(
+                        String.format("Unsupported value '%d' for '%s'. Supported value range: [0, Integer.MAX_VALUE].",
+                                val, SCAN_PREFETCH_BATCHES.key()));
+            }
+        });
+        tableOptions.getOptional(SCAN_SPLIT_MAX_TABLETS).ifPresent(val -> {
+            if (val < 1) {
+                throw new ValidationException(
+                        String.format("Unsupported value '%d' for '%s'. Supported value range: [1, Integer.MAX_VALUE].",
+                                val, SCAN_SPLIT_MAX_TABLETS.key()));
+            }
+        });
+    }
+
     // required Options
     public String getScanUrl() {
         return tableOptions.get(SCAN_URL);
@@ -224,6 +261,18 @@ public class StarRocksSourceOptions implements Serializable {
         return tableOptions.get(SCAN_BE_HOST_MAPPING_LIST);
     }
 
+    public int getPrefetchBatches() {
+        return tableOptions.get(SCAN_PREFETCH_BATCHES);
+    }
+
+    public boolean isUseNewSourceApi() {
+        return tableOptions.get(SCAN_USE_NEW_SOURCE_API);
+    }
+
+    public int getSplitMaxTablets() {
+        return tableOptions.get(SCAN_SPLIT_MAX_TABLETS);
+    }
+
     public long getLookupCacheMaxRows() {
         return tableOptions.get(LOOKUP_CACHE_MAX_ROWS).longValue();
     }
@@ -0,0 +1,127 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.starrocks.connector.flink.table.source.v2;
+
+import com.starrocks.connector.flink.table.source.StarRocksSourceCommonFunc;
+import com.starrocks.connector.flink.table.source.StarRocksSourceOptions;
+import com.starrocks.connector.flink.table.source.StarRocksSourceQueryType;
+import com.starrocks.connector.flink.table.source.struct.ColumnRichInfo;
+import com.starrocks.connector.flink.table.source.struct.QueryInfo;
+import com.starrocks.connector.flink.table.source.struct.SelectColumn;
+import org.apache.flink.api.common.typeinfo.TypeHint;
+import org.apache.flink.api.common.typeinfo.TypeInformation;
+import org.apache.flink.api.connector.source.Boundedness;
+import org.apache.flink.api.connector.source.Source;
+import org.apache.flink.api.connector.source.SourceReader;
+import org.apache.flink.api.connector.source.SourceReaderContext;
+import org.apache.flink.api.connector.source.SplitEnumerator;
+import org.apache.flink.api.connector.source.SplitEnumeratorContext;
+import org.apache.flink.api.java.typeutils.ResultTypeQueryable;
+import org.apache.flink.configuration.Configuration;
+import org.apache.flink.core.io.SimpleVersionedSerializer;
+import org.apache.flink.metrics.Counter;
+import org.apache.flink.table.api.TableSchema;
+import org.apache.flink.table.data.RowData;
+import org.apache.flink.util.Preconditions;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A bounded source implemented with the unified source api described in Flink FLIP-27. The query plan is
+ * created when the source is built, and its tablets are split by {@link StarRocksSourceSplitEnumerator}.
+ * It does not support the query of count(*), which is read by
+ * {@link com.starrocks.connector.flink.table.source.StarRocksDynamicSourceFunction}.
+ */
+public class StarRocksSource implements Source<RowData, StarRocksSourceSplit, StarRocksSourceEnumState>,
+        ResultTypeQueryable<RowData> {
+
+    private static final long serialVersionUID = 1L;
+
+    private static final String TOTAL_SCANNED_ROWS = "totalScannedRows";
+
+    private final StarRocksSourceOptions sourceOptions;
+    private final List<ColumnRichInfo> columnRichInfos;
+    private final SelectColumn[] selectColumns;
+    private final QueryInfo queryInfo;
+
+    public StarRocksSource(StarRocksSourceOptions sourceOptions, TableSchema flinkSchema) {
+        this(sourceOptions, flinkSchema, sourceOptions.getFilter(), 0, null, null);
+    }
+
+    public StarRocksSource(StarRocksSourceOptions sourceOptions, TableSchema flinkSchema,
+                           String filter, long limit, SelectColumn[] selectColumns, StarRocksSourceQueryType queryType) {
+        Preconditions.checkArgument(queryType != StarRocksSourceQueryType.QueryCount,
+                "The query of count(*) is not supported by the new source api");
+        this.sourceOptions = sourceOptions;
+        Map<String, ColumnRichInfo> columnMap = StarRocksSourceCommonFunc.genColumnMap(flinkSchema);
+        this.columnRichInfos = StarRocksSourceCommonFunc.genColumnRichInfo(columnMap);
+        if (queryType == null) {
+            queryType = StarRocksSourceQueryType.QueryAllColumns;
+            this.selectColumns = StarRocksSourceCommonFunc.genSelectedColumns(columnMap, sourceOptions, columnRichInfos);
+        } else {
+            this.selectColumns = selectColumns;
+        }
+        String sql = StarRocksSourceCommonFunc.genSQL(sourceOptions, queryType, this.selectColumns, filter, limit);
+        this.queryInfo = StarRocksSourceCommonFunc.getQueryInfo(sourceOptions, sql);
+    }
+
+    @Override
+    public Boundedness getBoundedness() {
+        return Boundedness.BOUNDED;
+    }
+
+    @Override
+    public SourceReader<RowData, StarRocksSourceSplit> createReader(SourceReaderContext readerContext) {
+        Counter totalScannedRows = readerContext.metricGroup().counter(TOTAL_SCANNED_ROWS);
+        String opaquedQueryPlan = queryInfo.getQueryPlan().getOpaqued_query_plan();
+        return new StarRocksSourceReader(
+                () -> new StarRocksSourceSplitReader(sourceOptions, columnRichInfos, selectColumns, opaquedQueryPlan),
+                (row, output, split) -> {
+                    totalScannedRows.inc();
+                    output.collect(row);
+                },
+                new Configuration(),
+                readerContext);
+    }
+
+    @Override
+    public SplitEnumerator<StarRocksSourceSplit, StarRocksSourceEnumState> createEnumerator(
+            SplitEnumeratorContext<StarRocksSourceSplit> enumContext) {
+        return new StarRocksSourceSplitEnumerator(enumContext, StarRocksSourceSplitEnumerator.createSplits(
+                queryInfo.getBeXTablets(), sourceOptions.getSplitMaxTablets()));
+    }
+
+    @Override
+    public SplitEnumerator<StarRocksSourceSplit, StarRocksSourceEnumState> restoreEnumerator(
+            SplitEnumeratorContext<StarRocksSourceSplit> enumContext, StarRocksSourceEnumState checkpoint) {
+        return new StarRocksSourceSplitEnumerator(enumContext, checkpoint.getPendingSplits());
+    }
+
+    @Override
+    public SimpleVersionedSerializer<StarRocksSourceSplit> getSplitSerializer() {
+        return new StarRocksSourceSplitSerializer();
+    }
+
+    @Override
+    public SimpleVersionedSerializer<StarRocksSourceEnumState> getEnumeratorCheckpointSerializer() {
+        return new StarRocksSourceEnumStateSerializer();
+    }
+
+    @Override
+    public TypeInformation<RowData> getProducedType() {
+        return TypeInformation.of(new TypeHint<RowData>(){});
+    }
+}
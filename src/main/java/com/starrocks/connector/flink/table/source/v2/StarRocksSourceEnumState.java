@@ -0,0 +1,31 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.starrocks.connector.flink.table.source.v2;
+
+import java.util.List;
+
+/** The splits which have not been assigned to the readers. */
+public class StarRocksSourceEnumState {
+
+    private final List<StarRocksSourceSplit> pendingSplits;
+
+    public StarRocksSourceEnumState(List<StarRocksSourceSplit> pendingSplits) {
+        this.pendingSplits = pendingSplits;
+    }
+
+    public List<StarRocksSourceSplit> getPendingSplits() {
+        return pendingSplits;
+    }
+}
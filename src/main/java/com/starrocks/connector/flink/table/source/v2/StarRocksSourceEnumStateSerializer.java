@@ -0,0 +1,57 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.starrocks.connector.flink.table.source.v2;
+
+import org.apache.flink.core.io.SimpleVersionedSerializer;
+import org.apache.flink.core.memory.DataInputDeserializer;
+import org.apache.flink.core.memory.DataOutputSerializer;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+public class StarRocksSourceEnumStateSerializer implements SimpleVersionedSerializer<StarRocksSourceEnumState> {
+
+    private static final int VERSION = 1;
+
+    @Override
+    public int getVersion() {
+        return VERSION;
+    }
+
+    @Override
+    public byte[] serialize(StarRocksSourceEnumState state) throws IOException {
+        DataOutputSerializer out = new DataOutputSerializer(256);
+        out.writeInt(state.getPendingSplits().size());
+        for (StarRocksSourceSplit split : state.getPendingSplits()) {
+            StarRocksSourceSplitSerializer.serialize(split, out);
+        }
+        return out.getCopyOfBuffer();
+    }
+
+    @Override
+    public StarRocksSourceEnumState deserialize(int version, byte[] serialized) throws IOException {
+        if (version != VERSION) {
+            throw new IOException("Unknown version of StarRocksSourceEnumState: " + version);
+        }
+        DataInputDeserializer in = new DataInputDeserializer(serialized);
+        int numSplits = in.readInt();
+        List<StarRocksSourceSplit> pendingSplits = new ArrayList<>(numSplits);
+        for (int i = 0; i < numSplits; i++) {
+            pendingSplits.add(StarRocksSourceSplitSerializer.deserialize(in));
+        }
+        return new StarRocksSourceEnumState(pendingSplits);
+    }
+}
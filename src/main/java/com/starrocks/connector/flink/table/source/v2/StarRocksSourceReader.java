@@ -0,0 +1,73 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.starrocks.connector.flink.table.source.v2;
+
+import org.apache.flink.api.connector.source.SourceReaderContext;
+import org.apache.flink.configuration.Configuration;
+import org.apache.flink.connector.base.source.reader.RecordEmitter;
+import org.apache.flink.connector.base.source.reader.SingleThreadMultiplexSourceReaderBase;
+import org.apache.flink.connector.base.source.reader.splitreader.SplitReader;
+import org.apache.flink.metrics.Counter;
+import org.apache.flink.table.data.RowData;
+
+import java.util.Map;
+import java.util.function.Supplier;
+
+/** Requests a new split from the enumerator after it finishes one, and reports the progress of the splits. */
+public class StarRocksSourceReader
+        extends SingleThreadMultiplexSourceReaderBase<RowData, RowData, StarRocksSourceSplit, StarRocksSourceSplit> {
+
+    private static final String FINISHED_SPLITS = "finishedSplits";
+    private static final String FINISHED_TABLETS = "finishedTablets";
+
+    private final Counter finishedSplitsCounter;
+    private final Counter finishedTabletsCounter;
+
+    public StarRocksSourceReader(Supplier<SplitReader<RowData, StarRocksSourceSplit>> splitReaderSupplier,
+                                 RecordEmitter<RowData, RowData, StarRocksSourceSplit> recordEmitter,
+                                 Configuration config,
+                                 SourceReaderContext context) {
+        super(splitReaderSupplier, recordEmitter, config, context);
+        this.finishedSplitsCounter = context.metricGroup().counter(FINISHED_SPLITS);
+        this.finishedTabletsCounter = context.metricGroup().counter(FINISHED_TABLETS);
+    }
+
+    @Override
+    public void start() {
+        // the restored splits are read first
+        if (getNumberOfCurrentlyAssignedSplits() == 0) {
+            context.sendSplitRequest();
+        }
+    }
+
+    @Override
+    protected void onSplitFinished(Map<String, StarRocksSourceSplit> finishedSplitIds) {
+        for (StarRocksSourceSplit split : finishedSplitIds.values()) {
+            finishedSplitsCounter.inc();
+            finishedTabletsCounter.inc(split.getTabletIds().size());
+        }
+        context.sendSplitRequest();
+    }
+
+    @Override
+    protected StarRocksSourceSplit initializedState(StarRocksSourceSplit split) {
+        return split;
+    }
+
+    @Override
+    protected StarRocksSourceSplit toSplitType(String splitId, StarRocksSourceSplit splitState) {
+        return splitState;
+    }
+}
@@ -0,0 +1,78 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.starrocks.connector.flink.table.source.v2;
+
+import org.apache.flink.api.connector.source.SourceSplit;
+
+import java.io.Serializable;
+import java.util.List;
+import java.util.Objects;
+
+/** A group of tablets on the same be, which are read by one scanner. */
+public class StarRocksSourceSplit implements SourceSplit, Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private final String splitId;
+    private final String beNode;
+    private final List<Long> tabletIds;
+
+    public StarRocksSourceSplit(String splitId, String beNode, List<Long> tabletIds) {
+        this.splitId = splitId;
+        this.beNode = beNode;
+        this.tabletIds = tabletIds;
+    }
+
+    @Override
+    public String splitId() {
+        return splitId;
+    }
+
+    public String getBeNode() {
+        return beNode;
+    }
+
+    public List<Long> getTabletIds() {
+        return tabletIds;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        StarRocksSourceSplit that = (StarRocksSourceSplit) o;
+        return Objects.equals(splitId, that.splitId) &&
+                Objects.equals(beNode, that.beNode) &&
+                Objects.equals(tabletIds, that.tabletIds);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(splitId, beNode, tabletIds);
+    }
+
+    @Override
+    public String toString() {
+        return "StarRocksSourceSplit{" +
+                "splitId='" + splitId + '\'' +
+                ", beNode='" + beNode + '\'' +
+                ", tabletIds=" + tabletIds +
+                '}';
+    }
+}
@@ -0,0 +1,129 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.starrocks.connector.flink.table.source.v2;
+
+import com.starrocks.connector.flink.table.source.struct.QueryBeXTablets;
+import org.apache.flink.api.connector.source.SplitEnumerator;
+import org.apache.flink.api.connector.source.SplitEnumeratorContext;
+import org.apache.flink.metrics.Counter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.List;
+import javax.annotation.Nullable;
+
+/**
+ * Hands out the splits to the readers on demand. A reader requests a split when it starts and each time it
+ * finishes one, so the readers on the fast tablets take more splits rather than waiting for the slow ones.
+ */
+public class StarRocksSourceSplitEnumerator implements SplitEnumerator<StarRocksSourceSplit, StarRocksSourceEnumState> {
+
+    private static final Logger LOG = LoggerFactory.getLogger(StarRocksSourceSplitEnumerator.class);
+
+    private static final String PENDING_SPLITS = "pendingSplits";
+    private static final String ASSIGNED_SPLITS = "assignedSplits";
+
+    private final SplitEnumeratorContext<StarRocksSourceSplit> context;
+    private final Deque<StarRocksSourceSplit> pendingSplits;
+
+    private Counter assignedSplitsCounter;
+
+    public StarRocksSourceSplitEnumerator(SplitEnumeratorContext<StarRocksSourceSplit> context,
+                                          Collection<StarRocksSourceSplit> pendingSplits) {
+        this.context = context;
+        this.pendingSplits = new ArrayDeque<>(pendingSplits);
+    }
+
+    @Override
+    public void start() {
+        context.metricGroup().gauge(PENDING_SPLITS, pendingSplits::size);
+        this.assignedSplitsCounter = context.metricGroup().counter(ASSIGNED_SPLITS);
+        LOG.info("Start split enumerator with {} pending splits", pendingSplits.size());
+    }
+
+    @Override
+    public void handleSplitRequest(int subtaskId, @Nullable String requesterHostname) {
+        if (!context.registeredReaders().containsKey(subtaskId)) {
+            // the reader failed after sending the request
+            return;
+        }
+        StarRocksSourceSplit split = pendingSplits.poll();
+        if (split == null) {
+            LOG.info("No more splits for subtask {}", subtaskId);
+            context.signalNoMoreSplits(subtaskId);
+            return;
+        }
+        context.assignSplit(split, subtaskId);
+        assignedSplitsCounter.inc();
+        LOG.info("Assign split {} to subtask {}, and there are {} pending splits", split, subtaskId, pendingSplits.size());
+    }
+
+    @Override
+    public void addSplitsBack(List<StarRocksSourceSplit> splits, int subtaskId) {
+        LOG.info("Add back {} splits of subtask {}", splits.size(), subtaskId);
+        for (int i = splits.size() - 1; i >= 0; i--) {
+            pendingSplits.addFirst(splits.get(i));
+        }
+    }
+
+    @Override
+    public void addReader(int subtaskId) {
+        // the reader will request splits by itself
+    }
+
+    @Override
+    public StarRocksSourceEnumState snapshotState(long checkpointId) {
+        return new StarRocksSourceEnumState(new ArrayList<>(pendingSplits));
+    }
+
+    @Override
+    public void close() {
+    }
+
+    /**
+     * Split the tablets of each be into groups of at most maxTablets tablets. The splits of different bes are
+     * interleaved, so that the readers working at the same time spread over the bes.
+     */
+    public static List<StarRocksSourceSplit> createSplits(List<QueryBeXTablets> beXTabletsList, int maxTablets) {
+        List<Deque<List<Long>>> tabletGroups = new ArrayList<>();
+        for (QueryBeXTablets beXTablets : beXTabletsList) {
+            Deque<List<Long>> groups = new ArrayDeque<>();
+            List<Long> tabletIds = beXTablets.getTabletIds();
+            for (int start = 0; start < tabletIds.size(); start += maxTablets) {
+                groups.add(new ArrayList<>(tabletIds.subList(start, Math.min(start + maxTablets, tabletIds.size()))));
+            }
+            tabletGroups.add(groups);
+        }
+
+        List<StarRocksSourceSplit> splits = new ArrayList<>();
+        boolean remaining = true;
+        while (remaining) {
+            remaining = false;
+            for (int i = 0; i < beXTabletsList.size(); i++) {
+                List<Long> tabletIds = tabletGroups.get(i).poll();
+                if (tabletIds != null) {
+                    splits.add(new StarRocksSourceSplit(
+                            String.valueOf(splits.size()), beXTabletsList.get(i).getBeNode(), tabletIds));
+                    remaining = true;
+                }
+            }
+        }
+        return splits;
+    }
+}
@@ -0,0 +1,115 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.starrocks.connector.flink.table.source.v2;
+
+import com.starrocks.connector.flink.table.source.StarRocksSourceBeReader;
+import com.starrocks.connector.flink.table.source.StarRocksSourceOptions;
+import com.starrocks.connector.flink.table.source.struct.ColumnRichInfo;
+import com.starrocks.connector.flink.table.source.struct.SelectColumn;
+import org.apache.flink.connector.base.source.reader.RecordsBySplits;
+import org.apache.flink.connector.base.source.reader.RecordsWithSplitIds;
+import org.apache.flink.connector.base.source.reader.splitreader.SplitReader;
+import org.apache.flink.connector.base.source.reader.splitreader.SplitsAddition;
+import org.apache.flink.connector.base.source.reader.splitreader.SplitsChange;
+import org.apache.flink.table.data.RowData;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+
+/**
+ * Reads the splits one by one with {@link StarRocksSourceBeReader}. Each fetch returns at most
+ * `scan.params.batch-rows` rows, so that the fetcher thread can pick up the split changes in time.
+ */
+public class StarRocksSourceSplitReader implements SplitReader<RowData, StarRocksSourceSplit> {
+
+    private static final Logger LOG = LoggerFactory.getLogger(StarRocksSourceSplitReader.class);
+
+    private final StarRocksSourceOptions sourceOptions;
+    private final List<ColumnRichInfo> columnRichInfos;
+    private final SelectColumn[] selectColumns;
+    private final String opaquedQueryPlan;
+    private final Deque<StarRocksSourceSplit> pendingSplits;
+
+    private StarRocksSourceSplit currentSplit;
+    private StarRocksSourceBeReader currentReader;
+
+    public StarRocksSourceSplitReader(StarRocksSourceOptions sourceOptions, List<ColumnRichInfo> columnRichInfos,
+                                      SelectColumn[] selectColumns, String opaquedQueryPlan) {
+        this.sourceOptions = sourceOptions;
+        this.columnRichInfos = columnRichInfos;
+        this.selectColumns = selectColumns;
+        this.opaquedQueryPlan = opaquedQueryPlan;
+        this.pendingSplits = new ArrayDeque<>();
+    }
+
+    @Override
+    public RecordsWithSplitIds<RowData> fetch() {
+        RecordsBySplits.Builder<RowData> builder = new RecordsBySplits.Builder<>();
+        if (currentReader == null) {
+            currentSplit = pendingSplits.poll();
+            if (currentSplit == null) {
+                return builder.build();
+            }
+            LOG.info("Start to read split {}", currentSplit);
+            currentReader = new StarRocksSourceBeReader(
+                    currentSplit.getBeNode(), columnRichInfos, selectColumns, sourceOptions);
+            currentReader.openScanner(currentSplit.getTabletIds(), opaquedQueryPlan, sourceOptions);
+            currentReader.setPrefetchBatches(sourceOptions.getPrefetchBatches());
+            currentReader.startToRead();
+        }
+
+        int batchRows = sourceOptions.getBatchRows();
+        for (int i = 0; i < batchRows && currentReader.hasNext(); i++) {
+            builder.add(currentSplit, currentReader.getNext());
+        }
+        if (!currentReader.hasNext()) {
+            LOG.info("Finish to read split {}", currentSplit);
+            builder.addFinishedSplit(currentSplit.splitId());
+            closeCurrentReader();
+        }
+        return builder.build();
+    }
+
+    @Override
+    public void handleSplitsChanges(SplitsChange<StarRocksSourceSplit> splitsChanges) {
+        if (!(splitsChanges instanceof SplitsAddition)) {
+            throw new UnsupportedOperationException(String.format(
+                    "The SplitChange type of %s is not supported.", splitsChanges.getClass()));
+        }
+        pendingSplits.addAll(splitsChanges.splits());
+    }
+
+    @Override
+    public void wakeUp() {
+        // fetch() does not block except for waiting for a batch from the be
+    }
+
+    @Override
+    public void close() {
+        closeCurrentReader();
+    }
+
+    private void closeCurrentReader() {
+        if (currentReader != null) {
+            StarRocksSourceBeReader reader = currentReader;
+            currentReader = null;
+            currentSplit = null;
+            reader.close();
+        }
+    }
+}
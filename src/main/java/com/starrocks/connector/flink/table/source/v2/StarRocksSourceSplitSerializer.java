@@ -0,0 +1,70 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.starrocks.connector.flink.table.source.v2;
+
+import org.apache.flink.core.io.SimpleVersionedSerializer;
+import org.apache.flink.core.memory.DataInputDeserializer;
+import org.apache.flink.core.memory.DataInputView;
+import org.apache.flink.core.memory.DataOutputSerializer;
+import org.apache.flink.core.memory.DataOutputView;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+public class StarRocksSourceSplitSerializer implements SimpleVersionedSerializer<StarRocksSourceSplit> {
+
+    private static final int VERSION = 1;
+
+    @Override
+    public int getVersion() {
+        return VERSION;
+    }
+
+    @Override
+    public byte[] serialize(StarRocksSourceSplit split) throws IOException {
+        DataOutputSerializer out = new DataOutputSerializer(64);
+        serialize(split, out);
+        return out.getCopyOfBuffer();
+    }
+
+    @Override
+    public StarRocksSourceSplit deserialize(int version, byte[] serialized) throws IOException {
+        if (version != VERSION) {
+            throw new IOException("Unknown version of StarRocksSourceSplit: " + version);
+        }
+        return deserialize(new DataInputDeserializer(serialized));
+    }
+
+    static void serialize(StarRocksSourceSplit split, DataOutputView out) throws IOException {
+        out.writeUTF(split.splitId());
+        out.writeUTF(split.getBeNode());
+        out.writeInt(split.getTabletIds().size());
+        for (long tabletId : split.getTabletIds()) {
+            out.writeLong(tabletId);
+        }
+    }
+
+    static StarRocksSourceSplit deserialize(DataInputView in) throws IOException {
+        String splitId = in.readUTF();
+        String beNode = in.readUTF();
+        int numTablets = in.readInt();
+        List<Long> tabletIds = new ArrayList<>(numTablets);
+        for (int i = 0; i < numTablets; i++) {
+            tabletIds.add(in.readLong());
+        }
+        return new StarRocksSourceSplit(splitId, beNode, tabletIds);
+    }
+}
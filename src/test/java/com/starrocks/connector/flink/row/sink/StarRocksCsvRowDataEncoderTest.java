@@ -0,0 +1,158 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.starrocks.connector.flink.row.sink;
+
+import com.starrocks.connector.flink.table.StarRocksDataType;
+import com.starrocks.connector.flink.tools.JsonWrapper;
+import org.apache.flink.table.api.DataTypes;
+import org.apache.flink.table.api.TableSchema;
+import org.apache.flink.table.data.DecimalData;
+import org.apache.flink.table.data.GenericArrayData;
+import org.apache.flink.table.data.GenericRowData;
+import org.apache.flink.table.data.RowData;
+import org.apache.flink.table.data.StringData;
+import org.apache.flink.table.data.TimestampData;
+import org.apache.flink.table.types.DataType;
+import org.apache.flink.table.types.logical.LogicalType;
+import org.apache.flink.types.RowKind;
+import org.junit.Test;
+
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+
+public class StarRocksCsvRowDataEncoderTest {
+
+    private static final TableSchema SCHEMA = TableSchema.builder()
+            .field("c_boolean", DataTypes.BOOLEAN())
+            .field("c_tinyint", DataTypes.TINYINT())
+            .field("c_smallint", DataTypes.SMALLINT())
+            .field("c_int", DataTypes.INT())
+            .field("c_bigint", DataTypes.BIGINT())
+            .field("c_float", DataTypes.FLOAT())
+            .field("c_double", DataTypes.DOUBLE())
+            .field("c_decimal", DataTypes.DECIMAL(10, 3))
+            .field("c_big_decimal", DataTypes.DECIMAL(38, 6))
+            .field("c_date", DataTypes.DATE())
+            .field("c_datetime", DataTypes.TIMESTAMP(6))
+            .field("c_string", DataTypes.STRING())
+            .field("c_json", DataTypes.STRING())
+            .field("c_array", DataTypes.ARRAY(DataTypes.INT()))
+            .build();
+
+    @Test
+    public void testSameAsSerializer() {
+        Object[][] rows = {
+                {true, (byte) -1, (short) 300, 0, Long.MIN_VALUE, 1.5f, -0.001, "0.000", "12345678901234567890.123456",
+                        LocalDate.of(2024, 2, 29), LocalDateTime.of(2024, 1, 1, 0, 0), "starrocks", "{\"a\": 1, \"b\": [1, 2]}",
+                        new Integer[] {1, null, 3}},
+                {false, (byte) 127, (short) -32768, Integer.MIN_VALUE, Long.MAX_VALUE, Float.NaN, 1e20, "-0.001", "0.000001",
+                        LocalDate.of(1, 1, 1), LocalDateTime.of(1970, 1, 1, 0, 0, 1, 1000000), "中文,\"quote\"", "[1, 2]",
+                        new Integer[0]},
+                {null, null, null, null, null, null, null, "9999999.999", "-1.5", LocalDate.of(1969, 12, 31),
+                        LocalDateTime.of(1969, 12, 31, 23, 59, 59, 123456000), "", "not a json", null},
+                {true, (byte) 0, (short) 0, 42, 0L, -0.0f, Double.MIN_VALUE, "1", null, null,
+                        LocalDateTime.of(2000, 10, 10, 10, 10, 0, 100), null, null, new Integer[] {0}},
+        };
+        for (boolean supportUpsertDelete : new boolean[] {false, true}) {
+            Map<String, StarRocksDataType> columns = new HashMap<>();
+            columns.put("c_string", StarRocksDataType.STRING);
+            columns.put("c_json", StarRocksDataType.JSON);
+            StarRocksTableRowTransformer transformer = createTransformer(columns);
+            StarRocksCsvSerializer serializer = new StarRocksCsvSerializer(null);
+            JsonWrapper jsonWrapper = new JsonWrapper();
+            serializer.open(new StarRocksISerializer.SerializerContext(jsonWrapper));
+            StarRocksCsvRowDataEncoder encoder = createEncoder(transformer, columns, null, null, supportUpsertDelete);
+            encoder.open(jsonWrapper);
+            for (Object[] row : rows) {
+                GenericRowData rowData = createRowData(row);
+                rowData.setRowKind(RowKind.DELETE);
+                String expected = serializer.serialize(transformer.transform(rowData, supportUpsertDelete));
+                assertEquals(expected, toString(encoder.encode(rowData)));
+            }
+        }
+    }
+
+    @Test
+    public void testEncloseAndEscape() {
+        StarRocksTableRowTransformer transformer = createTransformer(null);
+        GenericRowData rowData = createRowData(new Object[] {true, null, null, 1, null, null, null, null, null, null, null,
+                "a,\"b\"\\c\nd", null, null});
+
+        StarRocksCsvRowDataEncoder encoder = createEncoder(transformer, null, "\"", "\\", false);
+        encoder.open(new JsonWrapper());
+        assertEquals("1\t\\N\t\\N\t1\t\\N\t\\N\t\\N\t\\N\t\\N\t\\N\t\\N\t\"a,\\\"b\\\"\\\\c\nd\"\t\\N\t\\N",
+                toString(encoder.encode(rowData)));
+
+        encoder = createEncoder(transformer, null, "\"", null, false);
+        encoder.open(new JsonWrapper());
+        assertEquals("\"a,\"\"b\"\"\\c\nd\"", toString(encoder.encode(rowData)).split("\t")[11]);
+
+        encoder = createEncoder(transformer, null, null, "\\", false);
+        encoder.open(new JsonWrapper());
+        assertEquals("a,\"b\"\\\\c\\\nd", toString(encoder.encode(rowData)).split("\t")[11]);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidEnclose() {
+        createEncoder(createTransformer(null), null, "ab", null, false);
+    }
+
+    private static StarRocksTableRowTransformer createTransformer(Map<String, StarRocksDataType> columns) {
+        StarRocksTableRowTransformer transformer = new StarRocksTableRowTransformer(null);
+        transformer.setTableSchema(SCHEMA);
+        transformer.setStarRocksColumns(columns);
+        transformer.setRuntimeContext(null);
+        transformer.setFastJsonWrapper(new JsonWrapper());
+        return transformer;
+    }
+
+    private static StarRocksCsvRowDataEncoder createEncoder(StarRocksTableRowTransformer transformer,
+            Map<String, StarRocksDataType> columns, String enclose, String escape, boolean supportUpsertDelete) {
+        LogicalType[] types = Arrays.stream(SCHEMA.getFieldDataTypes()).map(DataType::getLogicalType).toArray(LogicalType[]::new);
+        return new StarRocksCsvRowDataEncoder(SCHEMA.getFieldNames(), types, columns, null, null,
+                enclose, escape, supportUpsertDelete, transformer);
+    }
+
+    private static GenericRowData createRowData(Object[] row) {
+        GenericRowData rowData = new GenericRowData(row.length);
+        rowData.setField(0, row[0]);
+        rowData.setField(1, row[1]);
+        rowData.setField(2, row[2]);
+        rowData.setField(3, row[3]);
+        rowData.setField(4, row[4]);
+        rowData.setField(5, row[5]);
+        rowData.setField(6, row[6]);
+        rowData.setField(7, row[7] == null ? null : DecimalData.fromBigDecimal(new BigDecimal((String) row[7]), 10, 3));
+        rowData.setField(8, row[8] == null ? null : DecimalData.fromBigDecimal(new BigDecimal((String) row[8]), 38, 6));
+        rowData.setField(9, row[9] == null ? null : (int) ((LocalDate) row[9]).toEpochDay());
+        rowData.setField(10, row[10] == null ? null : TimestampData.fromLocalDateTime((LocalDateTime) row[10]));
+        rowData.setField(11, row[11] == null ? null : StringData.fromString((String) row[11]));
+        rowData.setField(12, row[12] == null ? null : StringData.fromString((String) row[12]));
+        rowData.setField(13, row[13] == null ? null : new GenericArrayData((Object[]) row[13]));
+        return rowData;
+    }
+
+    private static String toString(ByteBuffer buffer) {
+        return new String(buffer.array(), buffer.position(), buffer.remaining(), StandardCharsets.UTF_8);
+    }
+}
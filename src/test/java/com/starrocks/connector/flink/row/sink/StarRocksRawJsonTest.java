@@ -0,0 +1,101 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.starrocks.connector.flink.row.sink;
+
+import com.starrocks.connector.flink.table.StarRocksDataType;
+import com.starrocks.connector.flink.tools.JsonWrapper;
+import org.apache.flink.table.api.DataTypes;
+import org.apache.flink.table.api.TableSchema;
+import org.apache.flink.table.data.GenericRowData;
+import org.apache.flink.table.data.StringData;
+import org.apache.flink.table.types.DataType;
+import org.apache.flink.table.types.logical.LogicalType;
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class StarRocksRawJsonTest {
+
+    private static final TableSchema SCHEMA = TableSchema.builder()
+            .field("id", DataTypes.INT())
+            .field("c_json", DataTypes.STRING())
+            .build();
+
+    @Test
+    public void testValidate() {
+        String[] valid = {"{}", "[]", "{\"a\": 1, \"b\": [true, false, null, -1.5e+3]}", "[{\"a\": \"}]\\\"\"}]  ",
+                "{\"中文\":\"\\u0000\"}"};
+        for (String json : valid) {
+            assertTrue(json, StarRocksRawJson.isValid(json));
+            byte[] bytes = ("x" + json + "x").getBytes(StandardCharsets.UTF_8);
+            assertTrue(json, StarRocksRawJson.isValid(bytes, 1, bytes.length - 2));
+        }
+
+        String[] invalid = {"{", "[}", "{\"a\": 1}}", "{\"a\": 1} x", "{'a': 1}", "{\"a\": \"b}", "{\"a\":\n1}",
+                "{\"a\": \"\t\"}", "{key: 1}", "{\"a\": 1}{\"b\": 2}"};
+        for (String json : invalid) {
+            assertFalse(json, StarRocksRawJson.isValid(json));
+            byte[] bytes = json.getBytes(StandardCharsets.UTF_8);
+            assertFalse(json, StarRocksRawJson.isValid(bytes, 0, bytes.length));
+        }
+    }
+
+    @Test
+    public void testPassThrough() {
+        Map<String, StarRocksDataType> columns = Collections.singletonMap("c_json", StarRocksDataType.JSON);
+        StarRocksTableRowTransformer transformer = new StarRocksTableRowTransformer(null);
+        transformer.setTableSchema(SCHEMA);
+        transformer.setStarRocksColumns(columns);
+        transformer.setRuntimeContext(null);
+        transformer.setFastJsonWrapper(new JsonWrapper());
+        transformer.setRawJson(true);
+
+        LogicalType[] types = Arrays.stream(SCHEMA.getFieldDataTypes()).map(DataType::getLogicalType).toArray(LogicalType[]::new);
+        StarRocksJsonRowDataEncoder jsonEncoder = new StarRocksJsonRowDataEncoder(
+                SCHEMA.getFieldNames(), types, columns, false, transformer);
+        jsonEncoder.open(new JsonWrapper());
+        StarRocksCsvRowDataEncoder csvEncoder = new StarRocksCsvRowDataEncoder(
+                SCHEMA.getFieldNames(), types, columns, null, null, "\"", null, false, transformer);
+        csvEncoder.open(new JsonWrapper());
+        StarRocksJsonSerializer serializer = new StarRocksJsonSerializer(SCHEMA.getFieldNames());
+        serializer.open(new StarRocksISerializer.SerializerContext(new JsonWrapper()));
+
+        // kept verbatim, including the spaces and the order of the keys
+        String json = "{\"z\": 1, \"a\": [1, 2]}";
+        GenericRowData rowData = GenericRowData.of(1, StringData.fromString(json));
+        assertEquals(new StarRocksRawJson(json), transformer.transform(rowData, false)[1]);
+        assertTrue(serializer.serialize(transformer.transform(rowData, false)).contains("\"c_json\":" + json));
+        assertEquals("{\"id\":1,\"c_json\":" + json + "}", toString(jsonEncoder.encode(rowData)));
+        assertEquals("1\t\"{\"\"z\"\": 1, \"\"a\"\": [1, 2]}\"", toString(csvEncoder.encode(rowData)));
+
+        // normalized by fastjson if not passing the validation
+        rowData = GenericRowData.of(1, StringData.fromString("{'a':\n1}"));
+        assertTrue(serializer.serialize(transformer.transform(rowData, false)).contains("\"c_json\":{\"a\":1}"));
+        assertEquals("{\"id\":1,\"c_json\":{\"a\":1}}", toString(jsonEncoder.encode(rowData)));
+        assertEquals("1\t\"{\"\"a\"\":1}\"", toString(csvEncoder.encode(rowData)));
+    }
+
+    private static String toString(ByteBuffer buffer) {
+        return new String(buffer.array(), buffer.position(), buffer.remaining(), StandardCharsets.UTF_8);
+    }
+}
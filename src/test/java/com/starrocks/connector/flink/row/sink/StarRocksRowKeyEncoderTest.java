@@ -0,0 +1,61 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.starrocks.connector.flink.row.sink;
+
+import com.starrocks.connector.flink.tools.JsonWrapper;
+import org.apache.flink.table.api.DataTypes;
+import org.apache.flink.table.api.TableSchema;
+import org.apache.flink.table.data.GenericRowData;
+import org.apache.flink.table.data.StringData;
+import org.apache.flink.table.types.DataType;
+import org.apache.flink.table.types.logical.LogicalType;
+import org.junit.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+public class StarRocksRowKeyEncoderTest {
+
+    private static final TableSchema SCHEMA = TableSchema.builder()
+            .field("k1", DataTypes.STRING().notNull())
+            .field("v", DataTypes.STRING())
+            .field("k2", DataTypes.INT().notNull())
+            .primaryKey("k1", "k2")
+            .build();
+
+    @Test
+    public void testEncode() {
+        StarRocksTableRowTransformer transformer = new StarRocksTableRowTransformer(null);
+        transformer.setTableSchema(SCHEMA);
+        transformer.setRuntimeContext(null);
+        transformer.setFastJsonWrapper(new JsonWrapper());
+        LogicalType[] types = Arrays.stream(SCHEMA.getFieldDataTypes()).map(DataType::getLogicalType).toArray(LogicalType[]::new);
+        StarRocksRowKeyEncoder encoder = new StarRocksRowKeyEncoder(SCHEMA.getFieldNames(), types, new int[] {0, 2}, transformer);
+        encoder.open(new JsonWrapper());
+
+        byte[] key = encoder.encode(GenericRowData.of(StringData.fromString("a"), StringData.fromString("x"), 1));
+        assertEquals("\"a\"\t1", new String(key, StandardCharsets.UTF_8));
+        // the value columns are not part of the key
+        assertArrayEquals(key, encoder.encode(GenericRowData.of(StringData.fromString("a"), StringData.fromString("y"), 1)));
+        // the strings are enclosed, so the separator in a string will not make the keys same
+        assertFalse(Arrays.equals(
+                encoder.encode(GenericRowData.of(StringData.fromString("a\t1"), null, 2)),
+                encoder.encode(GenericRowData.of(StringData.fromString("a"), null, 12))));
+    }
+}
@@ -28,12 +28,22 @@ import static org.junit.Assert.assertTrue;
 import java.math.BigDecimal;
 import java.sql.Timestamp;
 import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 import com.alibaba.fastjson.JSON;
 import com.starrocks.connector.flink.StarRocksSinkBaseTest;
+import com.starrocks.connector.flink.tools.JsonWrapper;
+
+import org.apache.flink.table.api.DataTypes;
+import org.apache.flink.table.api.TableSchema;
 
 import org.apache.flink.table.data.DecimalData;
+import org.apache.flink.table.data.GenericArrayData;
+import org.apache.flink.table.data.GenericMapData;
 import org.apache.flink.table.data.GenericRowData;
 import org.apache.flink.table.data.RowData;
 import org.apache.flink.table.data.StringData;
@@ -65,6 +75,54 @@ public class StarRocksTableRowTransformerTest extends StarRocksSinkBaseTest {
         }
     }
 
+    @SuppressWarnings("unchecked")
+    @Test
+    public void testNestedTypes() {
+        TableSchema schema = TableSchema.builder()
+                .field("r", DataTypes.ROW(
+                        DataTypes.FIELD("b", DataTypes.BOOLEAN()),
+                        DataTypes.FIELD("s", DataTypes.STRING()),
+                        DataTypes.FIELD("d", DataTypes.DATE()),
+                        DataTypes.FIELD("a", DataTypes.ARRAY(DataTypes.INT()))))
+                .field("a", DataTypes.ARRAY(DataTypes.ARRAY(DataTypes.DATE())))
+                .field("m", DataTypes.MAP(DataTypes.STRING(), DataTypes.ROW(DataTypes.FIELD("x", DataTypes.INT()))))
+                .build();
+        StarRocksTableRowTransformer rowTransformer = new StarRocksTableRowTransformer(null);
+        rowTransformer.setRuntimeContext(null);
+        rowTransformer.setTableSchema(schema);
+        rowTransformer.setFastJsonWrapper(new JsonWrapper());
+
+        int epochDay = (int) LocalDate.of(2023, 5, 6).toEpochDay();
+        GenericRowData row = GenericRowData.of(true, StringData.fromString("str"), epochDay,
+                new GenericArrayData(new Integer[] {1, null, 3}));
+        Map<StringData, RowData> map = new HashMap<>();
+        map.put(StringData.fromString("k"), GenericRowData.of(7));
+        GenericRowData rowData = GenericRowData.of(
+                row,
+                new GenericArrayData(new Object[] {new GenericArrayData(new Object[] {epochDay}), null}),
+                new GenericMapData(map));
+
+        Object[] values = rowTransformer.transform(rowData, false);
+        assertEquals(3, values.length);
+
+        Map<String, Object> rowValue = (Map<String, Object>) values[0];
+        assertEquals(1L, rowValue.get("b"));
+        assertEquals("str", rowValue.get("s"));
+        assertEquals("2023-05-06", rowValue.get("d"));
+        assertEquals(Arrays.asList(1, null, 3), rowValue.get("a"));
+
+        List<Object> arrayValue = (List<Object>) values[1];
+        assertEquals(Arrays.asList(Collections.singletonList("2023-05-06"), null), arrayValue);
+
+        Map<String, Object> mapValue = (Map<String, Object>) values[2];
+        assertEquals(1, mapValue.size());
+        assertEquals(Collections.singletonMap("x", 7), JSON.parse((String) mapValue.get("k")));
+
+        for (int i = 0; i < values.length; i++) {
+            assertEquals(values[i], rowTransformer.convertField(rowData, i));
+        }
+    }
+
     private GenericRowData createRowData() {
         GenericRowData genericRowData = new GenericRowData(TABLE_SCHEMA.getFieldCount());
         genericRowData.setField(0, (byte)20);
@@ -183,6 +183,59 @@ public class LingeringTransactionAborterTest {
         assertEquals(0, streamLoader.getNumUnknownTxnToAbort());
     }
 
+    @Test
+    public void testParallelAbort() throws Exception {
+        String oldLabelPrefix = "test_label_old";
+        String labelPrefix = "test_label";
+        int numberOfSubtasks = 10;
+        int subtaskIndex = 1;
+        long restoreCheckpointId = 10;
+
+        List<Tuple2<String, String>> dbTables = new ArrayList<>();
+        List<ExactlyOnceLabelGeneratorSnapshot> snapshots = new ArrayList<>();
+        MockStreamLoader streamLoader = new MockStreamLoader();
+
+        for (int dbId = 0; dbId < 3; dbId++) {
+            for (int tblId = 0; tblId < 5; tblId++) {
+                String dbName = "db" + dbId;
+                String tblName = "tbl" + tblId;
+                dbTables.add(Tuple2.of(dbName, tblName));
+                long nextId = tblId + 1;
+                snapshots.add(new ExactlyOnceLabelGeneratorSnapshot(
+                        restoreCheckpointId, dbName, tblName, oldLabelPrefix, numberOfSubtasks, subtaskIndex, nextId));
+                // the number of lingering transactions crosses the discovery batch
+                for (int i = 0; i < tblId * 3; i++) {
+                    streamLoader.addLabelStatus(dbName, tblName, ExactlyOnceLabelGenerator.genLabel(
+                            oldLabelPrefix, tblName, subtaskIndex, i + nextId), TransactionStatus.PREPARED);
+                }
+                // the transaction after the first one that does not need abort should not be aborted
+                String skippedLabel = ExactlyOnceLabelGenerator.genLabel(
+                        oldLabelPrefix, tblName, subtaskIndex, nextId + tblId * 3 + 1);
+                streamLoader.addLabelStatus(dbName, tblName, skippedLabel, TransactionStatus.PREPARED);
+
+                for (int i = 0; i < dbId + 1; i++) {
+                    streamLoader.addLabelStatus(dbName, tblName, ExactlyOnceLabelGenerator.genLabel(
+                            labelPrefix, tblName, subtaskIndex, i + restoreCheckpointId + 1), TransactionStatus.PREPARED);
+                }
+            }
+        }
+
+        LingeringTransactionAborter aborter = new LingeringTransactionAborter(labelPrefix,
+                restoreCheckpointId, subtaskIndex, -1, dbTables, snapshots, streamLoader, 4);
+        aborter.execute();
+
+        for (Map.Entry<Tuple3<String, String, String>, TransactionStatus> entry : streamLoader.getAllStatus().entrySet()) {
+            String tblName = entry.getKey().f1;
+            int tblId = Integer.parseInt(tblName.substring(3));
+            String skippedLabel = ExactlyOnceLabelGenerator.genLabel(
+                    oldLabelPrefix, tblName, subtaskIndex, tblId + 1 + tblId * 3 + 1);
+            TransactionStatus expected = entry.getKey().f2.equals(skippedLabel)
+                    ? TransactionStatus.PREPARED : TransactionStatus.ABORTED;
+            assertEquals(entry.getKey().toString(), expected, entry.getValue());
+        }
+        assertEquals(0, streamLoader.getNumUnknownTxnToAbort());
+    }
+
     @Test
     public void testAbortSnapshotFailed() throws Exception {
         String labelPrefix = "test_label";
@@ -396,7 +449,7 @@ public class LingeringTransactionAborterTest {
         }
 
         @Override
-        public TransactionStatus getLoadStatus(String db, String table, String label) throws Exception {
+        public synchronized TransactionStatus getLoadStatus(String db, String table, String label) throws Exception {
             Tuple3<String, String, String> tuple = Tuple3.of(db, table, label);
             TransactionStatus status = labelStatus.get(tuple);
             List<TransactionStatus> list = transitStatusMap.get(tuple);
@@ -408,7 +461,7 @@ public class LingeringTransactionAborterTest {
         }
 
         @Override
-        public boolean rollback(StreamLoadSnapshot.Transaction transaction) {
+        public synchronized boolean rollback(StreamLoadSnapshot.Transaction transaction) {
             Tuple3<String, String, String> tuple = Tuple3.of(
                     transaction.getDatabase(), transaction.getTable(), transaction.getLabel());
             Boolean fail = labelAbortBehaviours.get(tuple);
@@ -0,0 +1,128 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.starrocks.connector.flink.table.sink;
+
+import com.starrocks.connector.flink.catalog.StarRocksColumn;
+import com.starrocks.connector.flink.catalog.StarRocksTable;
+import org.apache.flink.table.api.DataTypes;
+import org.apache.flink.table.api.TableSchema;
+import org.apache.flink.table.data.GenericRowData;
+import org.apache.flink.table.data.StringData;
+import org.junit.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.zip.CRC32;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/** Tests for {@link StarRocksBucketKeySelector}. */
+public class StarRocksBucketKeySelectorTest {
+
+    private static final TableSchema SCHEMA = TableSchema.builder()
+            .field("id", DataTypes.INT().notNull())
+            .field("name", DataTypes.STRING())
+            .field("dt", DataTypes.DATE())
+            .field("score", DataTypes.DOUBLE())
+            .build();
+
+    private static final List<StarRocksColumn> COLUMNS = Arrays.asList(
+            new StarRocksColumn.Builder().setColumnName("id").setOrdinalPosition(0).setDataType("int").build(),
+            new StarRocksColumn.Builder().setColumnName("name").setOrdinalPosition(1).setDataType("varchar").build(),
+            new StarRocksColumn.Builder().setColumnName("dt").setOrdinalPosition(2).setDataType("date").build(),
+            new StarRocksColumn.Builder().setColumnName("score").setOrdinalPosition(3).setDataType("double").build());
+
+    @Test
+    public void testSelectBucket() {
+        StarRocksBucketKeySelector keySelector = createKeySelector(Arrays.asList("ID", "name"), 16).get();
+        assertEquals(16, keySelector.getNumBuckets());
+
+        CRC32 crc32 = new CRC32();
+        crc32.update(new byte[] {(byte) 0x78, (byte) 0x56, (byte) 0x34, (byte) 0x12});
+        crc32.update("starrocks".getBytes(StandardCharsets.UTF_8));
+        GenericRowData row = GenericRowData.of(0x12345678, StringData.fromString("starrocks"), 1, 1.0);
+        assertEquals((int) (crc32.getValue() % 16), (int) keySelector.getKey(row));
+
+        // null is hashed as the int 0
+        crc32.reset();
+        crc32.update(new byte[] {(byte) 0x78, (byte) 0x56, (byte) 0x34, (byte) 0x12, 0, 0, 0, 0});
+        row = GenericRowData.of(0x12345678, null, 1, 1.0);
+        assertEquals((int) (crc32.getValue() % 16), (int) keySelector.getKey(row));
+        assertEquals(8, (int) keySelector.getKey(row));
+    }
+
+    @Test
+    public void testSelectNullKeyBucket() {
+        // StarRocks puts the rows with a null distribution key into the bucket crc32(0x00000000) % numBuckets,
+        // and crc32 of the 4 zero bytes is 0x2144DF1C
+        GenericRowData row = GenericRowData.of(1, null, null, 1.0);
+        assertEquals(12, (int) createKeySelector(Collections.singletonList("name"), 16).get().getKey(row));
+        assertEquals(4, (int) createKeySelector(Collections.singletonList("dt"), 7).get().getKey(row));
+    }
+
+    @Test
+    public void testSelectDateBucket() {
+        StarRocksBucketKeySelector keySelector = createKeySelector(Collections.singletonList("dt"), 7).get();
+        // 1970-01-02 is the julian day 2440589
+        int julianDay = 2440589;
+        CRC32 crc32 = new CRC32();
+        crc32.update(new byte[] {(byte) julianDay, (byte) (julianDay >> 8), (byte) (julianDay >> 16), 0});
+        GenericRowData row = GenericRowData.of(1, null, 1, 1.0);
+        assertEquals((int) (crc32.getValue() % 7), (int) keySelector.getKey(row));
+    }
+
+    @Test
+    public void testBucketRange() {
+        StarRocksBucketKeySelector keySelector = createKeySelector(Collections.singletonList("id"), 5).get();
+        StarRocksBucketPartitioner partitioner = new StarRocksBucketPartitioner();
+        boolean[] selected = new boolean[5];
+        for (int i = 0; i < 1000; i++) {
+            int bucket = keySelector.getKey(GenericRowData.of(i, null, null, null));
+            assertTrue(bucket >= 0 && bucket < 5);
+            selected[bucket] = true;
+            int partition = partitioner.partition(bucket, 3);
+            assertTrue(partition >= 0 && partition < 3);
+        }
+        for (boolean b : selected) {
+            assertTrue(b);
+        }
+    }
+
+    @Test
+    public void testUnsupported() {
+        assertFalse(createKeySelector(Collections.singletonList("score"), 16).isPresent());
+        assertFalse(createKeySelector(Collections.singletonList("unknown"), 16).isPresent());
+        assertFalse(createKeySelector(Collections.singletonList("id"), null).isPresent());
+        assertFalse(createKeySelector(null, 16).isPresent());
+    }
+
+    private static Optional<StarRocksBucketKeySelector> createKeySelector(List<String> distributionKeys, Integer numBuckets) {
+        StarRocksTable table = new StarRocksTable.Builder()
+                .setDatabaseName("test_db")
+                .setTableName("test_table")
+                .setTableType(StarRocksTable.TableType.DUPLICATE_KEY)
+                .setColumns(COLUMNS)
+                .setDistributionKeys(distributionKeys)
+                .setNumBuckets(numBuckets)
+                .build();
+        return StarRocksBucketKeySelector.create(SCHEMA, table);
+    }
+}
@@ -0,0 +1,219 @@
+/*
+ * Copyright 2021-present StarRocks, Inc. All rights reserved.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.starrocks.connector.flink.table.sink.v2;
+
+import com.starrocks.data.load.stream.StreamLoadManager;
+import com.starrocks.data.load.stream.StreamLoadResponse;
+import com.starrocks.data.load.stream.StreamLoadSnapshot;
+import org.apache.flink.api.connector.sink2.Committer;
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Predicate;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/** Tests for {@link StarRocksCommitter}. */
+public class StarRocksCommitterTest {
+
+    @Test
+    public void testCommit() throws Exception {
+        MockManager manager = new MockManager(transaction -> true);
+        List<StreamLoadSnapshot.Transaction> transactions = genTransactions(3);
+        new StarRocksCommitter(1, manager).commit(toRequests(transactions));
+        assertEquals(1, manager.numCommits.get());
+        for (StreamLoadSnapshot.Transaction transaction : transactions) {
+            assertTrue(transaction.isFinish());
+        }
+    }
+
+    @Test
+    public void testThrowAfterRetries() throws Exception {
+        // label-1 always fails
+        MockManager manager = new MockManager(transaction -> !transaction.getLabel().equals("label-1"));
+        List<StreamLoadSnapshot.Transaction> transactions = genTransactions(3);
+        try {
+            new StarRocksCommitter(1, manager).commit(toRequests(transactions));
+            fail();
+        } catch (RuntimeException e) {
+            assertTrue(e.getMessage(), e.getMessage().contains("Failed to commit 1 of 3 transactions"));
+            assertTrue(e.getMessage(), e.getMessage().contains("label-1"));
+        }
+        assertEquals(2, manager.numCommits.get());
+    }
+
+    @Test
+    public void testNoRetryAfterInterrupt() throws Exception {
+        MockManager manager = new MockManager(transaction -> {
+            // the stream loader restores the interrupt flag and throws
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while running commit for the transactions");
+        });
+        try {
+            new StarRocksCommitter(3, manager).commit(toRequests(genTransactions(3)));
+            fail();
+        } catch (InterruptedException e) {
+            // expected
+        }
+        assertEquals(1, manager.numCommits.get());
+    }
+
+    private static List<StreamLoadSnapshot.Transaction> genTransactions(int num) {
+        List<StreamLoadSnapshot.Transaction> transactions = new ArrayList<>();
+        for (int i = 0; i < num; i++) {
+            transactions.add(new StreamLoadSnapshot.Transaction("db", "tbl-" + i, "label-" + i));
+        }
+        return transactions;
+    }
+
+    // one committable for the first transaction, and another one for the rest
+    private static Collection<Committer.CommitRequest<StarRocksCommittable>> toRequests(
+            List<StreamLoadSnapshot.Transaction> transactions) {
+        List<Committer.CommitRequest<StarRocksCommittable>> requests = new ArrayList<>();
+        for (List<StreamLoadSnapshot.Transaction> part : Arrays.asList(
+                transactions.subList(0, 1), transactions.subList(1, transactions.size()))) {
+            StreamLoadSnapshot snapshot = new StreamLoadSnapshot();
+            snapshot.setTransactions(new ArrayList<>(part));
+            requests.add(new MockCommitRequest(new StarRocksCommittable(snapshot)));
+        }
+        return requests;
+    }
+
+    private static class MockManager implements StreamLoadManager {
+
+        private final Predicate<StreamLoadSnapshot.Transaction> commitAction;
+        private final AtomicInteger numCommits = new AtomicInteger();
+
+        MockManager(Predicate<StreamLoadSnapshot.Transaction> commitAction) {
+            this.commitAction = commitAction;
+        }
+
+        @Override
+        public boolean commit(StreamLoadSnapshot snapshot) {
+            numCommits.incrementAndGet();
+            boolean success = true;
+            for (StreamLoadSnapshot.Transaction transaction : snapshot.getTransactions()) {
+                if (transaction.isFinish()) {
+                    continue;
+                }
+                if (commitAction.test(transaction)) {
+                    transaction.setFinish(true);
+                } else {
+                    success = false;
+                }
+            }
+            return success;
+        }
+
+        @Override
+        public void init() {
+        }
+
+        @Override
+        public void write(String uniqueKey, String database, String table, String... rows) {
+        }
+
+        @Override
+        public void write(String uniqueKey, String database, String table, byte[]... rows) {
+        }
+
+        @Override
+        public void write(String uniqueKey, String database, String table, ByteBuffer row) {
+        }
+
+        @Override
+        public void callback(StreamLoadResponse response) {
+        }
+
+        @Override
+        public void callback(Throwable e) {
+        }
+
+        @Override
+        public void flush() {
+        }
+
+        @Override
+        public StreamLoadSnapshot snapshot() {
+            return null;
+        }
+
+        @Override
+        public boolean prepare(StreamLoadSnapshot snapshot) {
+            return true;
+        }
+
+        @Override
+        public boolean abort(StreamLoadSnapshot snapshot) {
+            return true;
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+
+    private static class MockCommitRequest implements Committer.CommitRequest<StarRocksCommittable> {
+
+        private final StarRocksCommittable committable;
+
+        MockCommitRequest(StarRocksCommittable committable) {
+            this.committable = committable;
+        }
+
+        @Override
+        public StarRocksCommittable getCommittable() {
+            return committable;
+        }
+
+        @Override
+        public int getNumberOfRetries() {
+            return 0;
+        }
+
+        @Override
+        public void signalFailedWithKnownReason(Throwable t) {
+        }
+
+        @Override
+        public void signalFailedWithUnknownReason(Throwable t) {
+        }
+
+        @Override
+        public void retryLater() {
+        }
+
+        @Override
+        public void updateAndRetryLater(StarRocksCommittable committable) {
+        }
+
+        @Override
+        public void signalAlreadyCommitted() {
+        }
+    }
+}
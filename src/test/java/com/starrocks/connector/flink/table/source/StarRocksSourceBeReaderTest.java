@@ -0,0 +1,299 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.starrocks.connector.flink.table.source;
+
+import org.apache.flink.table.api.DataTypes;
+import org.apache.flink.table.data.GenericRowData;
+
+import com.starrocks.connector.flink.table.source.struct.ColumnRichInfo;
+import com.starrocks.connector.flink.table.source.struct.SelectColumn;
+import com.starrocks.shade.org.apache.thrift.TException;
+import com.starrocks.shade.org.apache.thrift.protocol.TBinaryProtocol;
+import com.starrocks.shade.org.apache.thrift.server.TServer;
+import com.starrocks.shade.org.apache.thrift.server.TThreadPoolServer;
+import com.starrocks.shade.org.apache.thrift.transport.TServerSocket;
+import com.starrocks.shade.org.apache.thrift.transport.TTransportFactory;
+import com.starrocks.thrift.TScanBatchResult;
+import com.starrocks.thrift.TScanCloseParams;
+import com.starrocks.thrift.TScanCloseResult;
+import com.starrocks.thrift.TScanNextBatchParams;
+import com.starrocks.thrift.TScanOpenParams;
+import com.starrocks.thrift.TScanOpenResult;
+import com.starrocks.thrift.TStarrocksExternalService;
+import com.starrocks.thrift.TStatus;
+import com.starrocks.thrift.TStatusCode;
+import org.apache.arrow.memory.RootAllocator;
+import org.apache.arrow.vector.IntVector;
+import org.apache.arrow.vector.VectorSchemaRoot;
+import org.apache.arrow.vector.ipc.ArrowStreamWriter;
+import org.apache.arrow.vector.types.pojo.ArrowType;
+import org.apache.arrow.vector.types.pojo.Field;
+import org.apache.arrow.vector.types.pojo.Schema;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class StarRocksSourceBeReaderTest {
+
+    private static final int ROWS_PER_BATCH = 3;
+    private static final int CLOSE_TIMEOUT_MS = 1000;
+
+    private StubExternalService service;
+    private ServerSocket thriftSocket;
+    private TServer thriftServer;
+    private StarRocksSourceBeReader reader;
+
+    @Before
+    public void setUp() throws Exception {
+        service = new StubExternalService();
+        thriftSocket = new ServerSocket(0);
+        TThreadPoolServer.Args args = new TThreadPoolServer.Args(new TServerSocket(thriftSocket));
+        args.processor(new TStarrocksExternalService.Processor<>(service));
+        args.protocolFactory(new TBinaryProtocol.Factory());
+        args.transportFactory(new TTransportFactory());
+        args.minWorkerThreads(2);
+        args.maxWorkerThreads(4);
+        thriftServer = new TThreadPoolServer(args);
+        Thread serverThread = new Thread(thriftServer::serve, "starrocks-source-be-reader-test-server");
+        serverThread.setDaemon(true);
+        serverThread.start();
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        service.blockLatch.countDown();
+        if (thriftServer != null) {
+            thriftServer.stop();
+        }
+        if (thriftSocket != null) {
+            thriftSocket.close();
+        }
+    }
+
+    @Test
+    public void testReadInOrder() {
+        for (int prefetchBatches : new int[] {0, 1, 2}) {
+            service.reset();
+            service.numBatches = 5;
+            openReader(prefetchBatches);
+            List<Integer> values = readAll();
+            reader.close();
+
+            List<Integer> expected = new ArrayList<>();
+            for (int i = 0; i < 5 * ROWS_PER_BATCH; i++) {
+                expected.add(i);
+            }
+            assertEquals("prefetch batches " + prefetchBatches, expected, values);
+            List<Long> expectedOffsets = new ArrayList<>();
+            for (int i = 0; i <= 5; i++) {
+                expectedOffsets.add((long) i * ROWS_PER_BATCH);
+            }
+            assertEquals("prefetch batches " + prefetchBatches, expectedOffsets, service.offsets);
+            assertEquals(1, service.closeCount.get());
+        }
+    }
+
+    @Test
+    public void testPrefetchFollowsBackpressure() throws Exception {
+        service.numBatches = 10;
+        openReader(2);
+        // one batch is taken, two are in the queue, and one waits for the space in the queue
+        waitFor(() -> service.offsets.size() >= 4);
+        Thread.sleep(200);
+        assertEquals(4, service.offsets.size());
+        reader.close();
+    }
+
+    @Test
+    public void testErrorFromPrefetch() {
+        service.numBatches = 5;
+        service.failedBatch = 2;
+        openReader(2);
+        List<Integer> values = new ArrayList<>();
+        try {
+            while (reader.hasNext()) {
+                values.add(reader.getNext().getInt(0));
+            }
+            fail("Should fail to read the failed batch");
+        } catch (RuntimeException e) {
+            assertTrue(e.getMessage(), e.getMessage().contains("injected failure"));
+        }
+        // the rows before the failed batch are read in order, and the error is thrown when the last row
+        // of the batch before it is read
+        assertEquals(2 * ROWS_PER_BATCH - 1, values.size());
+        for (int i = 0; i < values.size(); i++) {
+            assertEquals(i, (int) values.get(i));
+        }
+        reader.close();
+    }
+
+    @Test
+    public void testCloseWhenFetchIsBlocked() throws Exception {
+        service.numBatches = 5;
+        service.blockedBatch = 1;
+        openReader(2);
+        waitFor(() -> service.blockedCount.get() > 0);
+
+        long startTime = System.currentTimeMillis();
+        reader.close();
+        long elapsed = System.currentTimeMillis() - startTime;
+        assertTrue("close takes " + elapsed + " ms", elapsed < 3 * CLOSE_TIMEOUT_MS);
+        // the client is not usable after the fetch is stopped or times out, so the scanner is left to be released by be
+        assertEquals(0, service.closeCount.get());
+    }
+
+    private void openReader(int prefetchBatches) {
+        StarRocksSourceOptions options = StarRocksSourceOptions.builder()
+                .withProperty("scan-url", "127.0.0.1:8030")
+                .withProperty("jdbc-url", "jdbc:mysql://127.0.0.1:9030")
+                .withProperty("username", "root")
+                .withProperty("password", "")
+                .withProperty("table-name", "tbl")
+                .withProperty("database-name", "db")
+                .withProperty("scan.connect.timeout-ms", String.valueOf(CLOSE_TIMEOUT_MS))
+                .build();
+        List<ColumnRichInfo> columnRichInfos = Collections.singletonList(new ColumnRichInfo("id", 0, DataTypes.INT()));
+        SelectColumn[] selectColumns = new SelectColumn[] {new SelectColumn("id", 0)};
+        reader = new StarRocksSourceBeReader(
+                "127.0.0.1:" + thriftSocket.getLocalPort(), columnRichInfos, selectColumns, options);
+        reader.openScanner(Collections.singletonList(1L), "plan", options);
+        reader.setPrefetchBatches(prefetchBatches);
+        reader.startToRead();
+    }
+
+    private List<Integer> readAll() {
+        List<Integer> values = new ArrayList<>();
+        while (reader.hasNext()) {
+            GenericRowData row = reader.getNext();
+            values.add(row.getInt(0));
+        }
+        return values;
+    }
+
+    private static void waitFor(Condition condition) throws Exception {
+        long deadline = System.currentTimeMillis() + 10000;
+        while (!condition.test()) {
+            if (System.currentTimeMillis() > deadline) {
+                fail("Timeout to wait for the condition");
+            }
+            Thread.sleep(10);
+        }
+    }
+
+    private interface Condition {
+        boolean test();
+    }
+
+    private static byte[] createArrowBatch(int startValue, int numRows) {
+        Schema schema = new Schema(Collections.singletonList(Field.nullable("id", new ArrowType.Int(32, true))));
+        try (RootAllocator allocator = new RootAllocator(Integer.MAX_VALUE);
+             VectorSchemaRoot root = VectorSchemaRoot.create(schema, allocator)) {
+            IntVector vector = (IntVector) root.getVector("id");
+            vector.allocateNew(numRows);
+            for (int i = 0; i < numRows; i++) {
+                vector.set(i, startValue + i);
+            }
+            vector.setValueCount(numRows);
+            root.setRowCount(numRows);
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            try (ArrowStreamWriter writer = new ArrowStreamWriter(root, null, out)) {
+                writer.start();
+                writer.writeBatch();
+                writer.end();
+            }
+            return out.toByteArray();
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    // Returns the batches of ROWS_PER_BATCH rows with the values increasing from 0, and the batch to return
+    // is decided by the offset in the request, so the order of the requests is verified by the values
+    private static class StubExternalService implements TStarrocksExternalService.Iface {
+
+        volatile int numBatches;
+        volatile int failedBatch = -1;
+        volatile int blockedBatch = -1;
+        final CountDownLatch blockLatch = new CountDownLatch(1);
+        final AtomicInteger blockedCount = new AtomicInteger();
+        final AtomicInteger closeCount = new AtomicInteger();
+        final List<Long> offsets = new CopyOnWriteArrayList<>();
+
+        void reset() {
+            offsets.clear();
+            closeCount.set(0);
+        }
+
+        @Override
+        public TScanOpenResult open_scanner(TScanOpenParams params) throws TException {
+            TScanOpenResult result = new TScanOpenResult();
+            result.setStatus(new TStatus(TStatusCode.OK));
+            result.setContext_id("context-id");
+            return result;
+        }
+
+        @Override
+        public TScanBatchResult get_next(TScanNextBatchParams params) throws TException {
+            offsets.add(params.getOffset());
+            int batch = (int) (params.getOffset() / ROWS_PER_BATCH);
+            if (batch == blockedBatch) {
+                blockedCount.incrementAndGet();
+                try {
+                    blockLatch.await(60, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            TScanBatchResult result = new TScanBatchResult();
+            if (batch == failedBatch) {
+                TStatus status = new TStatus(TStatusCode.INTERNAL_ERROR);
+                status.setError_msgs(Collections.singletonList("injected failure"));
+                result.setStatus(status);
+                return result;
+            }
+            result.setStatus(new TStatus(TStatusCode.OK));
+            if (batch >= numBatches) {
+                result.setEos(true);
+                return result;
+            }
+            result.setRows(createArrowBatch(batch * ROWS_PER_BATCH, ROWS_PER_BATCH));
+            result.setEos(false);
+            return result;
+        }
+
+        @Override
+        public TScanCloseResult close_scanner(TScanCloseParams params) throws TException {
+            closeCount.incrementAndGet();
+            TScanCloseResult result = new TScanCloseResult();
+            result.setStatus(new TStatus(TStatusCode.OK));
+            return result;
+        }
+    }
+}
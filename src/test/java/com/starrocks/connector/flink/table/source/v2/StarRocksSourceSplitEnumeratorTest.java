@@ -0,0 +1,98 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.starrocks.connector.flink.table.source.v2;
+
+import com.starrocks.connector.flink.table.source.struct.QueryBeXTablets;
+import org.apache.flink.api.connector.source.ReaderInfo;
+import org.apache.flink.api.connector.source.SplitsAssignment;
+import org.apache.flink.api.connector.source.mocks.MockSplitEnumeratorContext;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/** Tests for {@link StarRocksSourceSplitEnumerator}. */
+public class StarRocksSourceSplitEnumeratorTest {
+
+    private static final List<QueryBeXTablets> BE_X_TABLETS = Arrays.asList(
+            new QueryBeXTablets("be0:9060", Arrays.asList(1L, 2L, 3L, 4L, 5L)),
+            new QueryBeXTablets("be1:9060", Arrays.asList(6L, 7L)),
+            new QueryBeXTablets("be2:9060", Collections.singletonList(8L)));
+
+    @Test
+    public void testCreateSplits() {
+        List<StarRocksSourceSplit> splits = StarRocksSourceSplitEnumerator.createSplits(BE_X_TABLETS, 2);
+        List<StarRocksSourceSplit> expected = Arrays.asList(
+                new StarRocksSourceSplit("0", "be0:9060", Arrays.asList(1L, 2L)),
+                new StarRocksSourceSplit("1", "be1:9060", Arrays.asList(6L, 7L)),
+                new StarRocksSourceSplit("2", "be2:9060", Collections.singletonList(8L)),
+                new StarRocksSourceSplit("3", "be0:9060", Arrays.asList(3L, 4L)),
+                new StarRocksSourceSplit("4", "be0:9060", Collections.singletonList(5L)));
+        assertEquals(expected, splits);
+    }
+
+    @Test
+    public void testAssignSplitsOnDemand() throws Exception {
+        try (MockSplitEnumeratorContext<StarRocksSourceSplit> context = new MockSplitEnumeratorContext<>(2)) {
+            List<StarRocksSourceSplit> splits = StarRocksSourceSplitEnumerator.createSplits(BE_X_TABLETS, 4);
+            StarRocksSourceSplitEnumerator enumerator = new StarRocksSourceSplitEnumerator(context, splits);
+            enumerator.start();
+            context.registerReader(new ReaderInfo(0, "host0"));
+            context.registerReader(new ReaderInfo(1, "host1"));
+
+            // the fast reader takes more splits
+            enumerator.handleSplitRequest(0, "host0");
+            enumerator.handleSplitRequest(0, "host0");
+            assertEquals(splits.subList(2, 4), enumerator.snapshotState(1L).getPendingSplits());
+            enumerator.handleSplitRequest(1, "host1");
+            List<SplitsAssignment<StarRocksSourceSplit>> assignments = context.getSplitsAssignmentSequence();
+            assertEquals(3, assignments.size());
+            assertEquals(Collections.singletonList(splits.get(0)), assignments.get(0).assignment().get(0));
+            assertEquals(Collections.singletonList(splits.get(1)), assignments.get(1).assignment().get(0));
+            assertEquals(Collections.singletonList(splits.get(2)), assignments.get(2).assignment().get(1));
+
+            // the splits of a failed reader are assigned again before the others
+            enumerator.addSplitsBack(Collections.singletonList(splits.get(2)), 1);
+            assertEquals(splits.subList(2, 4), enumerator.snapshotState(2L).getPendingSplits());
+            enumerator.handleSplitRequest(0, "host0");
+            assertEquals(Collections.singletonList(splits.get(2)), assignments.get(3).assignment().get(0));
+            enumerator.handleSplitRequest(0, "host0");
+            assertEquals(Collections.singletonList(splits.get(3)), assignments.get(4).assignment().get(0));
+
+            assertFalse(context.hasNoMoreSplits(0));
+            enumerator.handleSplitRequest(0, "host0");
+            assertTrue(context.hasNoMoreSplits(0));
+        }
+    }
+
+    @Test
+    public void testSerializeState() throws Exception {
+        List<StarRocksSourceSplit> splits = StarRocksSourceSplitEnumerator.createSplits(BE_X_TABLETS, 3);
+        StarRocksSourceEnumStateSerializer stateSerializer = new StarRocksSourceEnumStateSerializer();
+        StarRocksSourceEnumState state = stateSerializer.deserialize(stateSerializer.getVersion(),
+                stateSerializer.serialize(new StarRocksSourceEnumState(splits)));
+        assertEquals(splits, state.getPendingSplits());
+
+        StarRocksSourceSplitSerializer splitSerializer = new StarRocksSourceSplitSerializer();
+        for (StarRocksSourceSplit split : splits) {
+            assertEquals(split, splitSerializer.deserialize(splitSerializer.getVersion(), splitSerializer.serialize(split)));
+        }
+    }
+}
@@ -0,0 +1,225 @@
+/*
+ * Copyright 2021-present StarRocks, Inc. All rights reserved.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.starrocks.data.load.stream;
+
+import com.starrocks.data.load.stream.exception.StreamLoadFailException;
+import com.starrocks.data.load.stream.properties.StreamLoadProperties;
+import com.starrocks.data.load.stream.v2.AsyncChunkHttpEntity;
+import com.starrocks.data.load.stream.v2.ChunkHttpEntity;
+import org.apache.http.Header;
+import org.apache.http.HttpEntity;
+import org.apache.http.HttpResponse;
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.client.methods.HttpPut;
+import org.apache.http.client.protocol.HttpClientContext;
+import org.apache.http.concurrent.FutureCallback;
+import org.apache.http.impl.client.DefaultRedirectStrategy;
+import org.apache.http.impl.nio.client.CloseableHttpAsyncClient;
+import org.apache.http.impl.nio.client.HttpAsyncClients;
+import org.apache.http.impl.nio.reactor.IOReactorConfig;
+import org.apache.http.util.EntityUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A {@link DefaultStreamLoader} that sends the loads with a non-blocking http client, so that a
+ * few reactor threads keep all loads in flight, and the I/O threads are only used to prepare the
+ * requests and handle the responses. The chunks are written from their buffers without copying,
+ * and spilled chunks are streamed from the spill files. The entities that can only be streamed
+ * once, such as streaming load, are still sent with the blocking client.
+ */
+public class AsyncStreamLoader extends DefaultStreamLoader {
+
+    private static final Logger log = LoggerFactory.getLogger(AsyncStreamLoader.class);
+
+    private volatile CloseableHttpAsyncClient asyncHttpClient;
+
+    @Override
+    public synchronized void start(StreamLoadProperties properties, StreamLoadManager manager) {
+        if (asyncHttpClient != null) {
+            return;
+        }
+        super.start(properties, manager);
+        this.asyncHttpClient = HttpAsyncClients.custom()
+                .setDefaultIOReactorConfig(IOReactorConfig.custom()
+                        .setIoThreadCount(properties.getAsyncHttpIoThreads())
+                        .setConnectTimeout(properties.getConnectTimeout())
+                        .setSoTimeout(properties.getSocketTimeout())
+                        .build())
+                .setDefaultRequestConfig(RequestConfig.custom()
+                        .setConnectTimeout(properties.getConnectTimeout())
+                        .setSocketTimeout(properties.getSocketTimeout())
+                        .setExpectContinueEnabled(true)
+                        .setRedirectsEnabled(true)
+                        .build())
+                .setMaxConnTotal(properties.getMaxConnections())
+                .setMaxConnPerRoute(properties.getMaxConnectionsPerRoute())
+                .setRedirectStrategy(new DefaultRedirectStrategy() {
+                    @Override
+                    protected boolean isRedirectable(String method) {
+                        return true;
+                    }
+                })
+                .build();
+        asyncHttpClient.start();
+        log.info("Async stream loader start, io threads: {}", properties.getAsyncHttpIoThreads());
+    }
+
+    @Override
+    public synchronized void close() {
+        super.close();
+        if (asyncHttpClient != null) {
+            try {
+                asyncHttpClient.close();
+            } catch (Exception e) {
+                log.warn("Failed to close async http client", e);
+            }
+            asyncHttpClient = null;
+            log.info("Async stream loader closed");
+        }
+    }
+
+    @Override
+    public Future<StreamLoadResponse> send(TableRegion region) {
+        return send(region, 0);
+    }
+
+    @Override
+    public Future<StreamLoadResponse> send(TableRegion region, int delayMs) {
+        if (asyncHttpClient == null) {
+            log.warn("Stream load not start");
+        }
+        if (begin(region)) {
+            CompletableFuture<StreamLoadResponse> future = new CompletableFuture<>();
+            executorService.schedule(() -> sendAsync(region, future), delayMs, TimeUnit.MILLISECONDS);
+            return future;
+        } else {
+            region.fail(new StreamLoadFailException("Transaction start failed, db : " + region.getDatabase()));
+        }
+
+        return null;
+    }
+
+    /**
+     * Send the load with the non-blocking http client, and complete the future after the region is
+     * completed or failed. Fall back to {@link #sendToSR(TableRegion)} if the entity is not repeatable.
+     */
+    protected void sendAsync(TableRegion region, CompletableFuture<StreamLoadResponse> future) {
+        String host = null;
+        String routeKey = null;
+        Chunk pinnedChunk = null;
+        try {
+            HttpEntity entity = region.getHttpEntity();
+            if (!entity.isRepeatable()) {
+                future.complete(sendToSR(region));
+                return;
+            }
+
+            if (properties.isDirectBeRouting()) {
+                routeKey = getRouteKey(region);
+            }
+            host = getLoadHost(routeKey);
+            String sendUrl = getSendUrl(host, region.getDatabase(), region.getTable());
+            String label = region.getLabel();
+
+            if (entity instanceof ChunkHttpEntity) {
+                ChunkHttpEntity chunkEntity = (ChunkHttpEntity) entity;
+                Chunk chunk = chunkEntity.getChunk();
+                pinnedChunk = chunk;
+                entity = new AsyncChunkHttpEntity(chunkEntity.getTableUniqueKey(), chunk, chunk.pinBuffers());
+            }
+            HttpPut httpPut = new HttpPut(sendUrl);
+            httpPut.setEntity(entity);
+            httpPut.setHeaders(getLoadHeaders(region, label).toArray(new Header[0]));
+
+            log.info("Stream loading asynchronously, label : {}, region : {}, request : {}, size : {}",
+                    label, region.getUniqueKey(), httpPut, entity.getContentLength());
+            long startNanoTime = System.nanoTime();
+            HttpClientContext context = HttpClientContext.create();
+            CompletableFuture<HttpResponse> responseFuture = new CompletableFuture<>();
+            asyncHttpClient.execute(httpPut, context, new FutureCallback<HttpResponse>() {
+                @Override
+                public void completed(HttpResponse response) {
+                    responseFuture.complete(response);
+                }
+
+                @Override
+                public void failed(Exception e) {
+                    responseFuture.completeExceptionally(e);
+                }
+
+                @Override
+                public void cancelled() {
+                    responseFuture.completeExceptionally(new CancellationException("Stream load is cancelled"));
+                }
+            });
+
+            String finalHost = host;
+            String finalRouteKey = routeKey;
+            Chunk finalPinnedChunk = pinnedChunk;
+            pinnedChunk = null;
+            // handle the response on the I/O threads rather than the reactor threads
+            responseFuture.whenCompleteAsync((response, throwable) -> {
+                if (finalPinnedChunk != null) {
+                    finalPinnedChunk.unpin();
+                }
+                try {
+                    if (throwable != null) {
+                        throw throwable;
+                    }
+                    checkHttpStatus("load", region.getDatabase(), region.getTable(), label,
+                            response.getStatusLine().getStatusCode(), String.valueOf(response.getStatusLine()));
+                    if (response.getEntity() == null) {
+                        throw new StreamLoadFailException(String.format("Request load failed because response " +
+                                "entity is null. db: %s, table: %s, label: %s, response status line: %s",
+                                region.getDatabase(), region.getTable(), label, response.getStatusLine()));
+                    }
+                    String responseBody = EntityUtils.toString(response.getEntity());
+                    if (finalRouteKey != null) {
+                        cacheRedirectTarget(finalRouteKey, context.getRedirectLocations());
+                    }
+                    log.info("Stream load completed, label : {}, database : {}, table : {}, body : {}",
+                            label, region.getDatabase(), region.getTable(), responseBody);
+                    future.complete(handleLoadResponse(region, label, responseBody, startNanoTime));
+                } catch (StreamLoadFailException e) {
+                    handleSendFailure(region, finalHost, finalRouteKey, e);
+                    future.complete(null);
+                } catch (Throwable e) {
+                    String errorMsg = String.format("Stream load failed because of unknown exception, db: %s, table: %s, " +
+                            "label: %s", region.getDatabase(), region.getTable(), label);
+                    handleSendFailure(region, finalHost, finalRouteKey, new StreamLoadFailException(errorMsg, e));
+                    future.complete(null);
+                }
+            }, executorService);
+        } catch (Exception e) {
+            if (pinnedChunk != null) {
+                pinnedChunk.unpin();
+            }
+            handleSendFailure(region, host, routeKey, e);
+            future.complete(null);
+        }
+    }
+}
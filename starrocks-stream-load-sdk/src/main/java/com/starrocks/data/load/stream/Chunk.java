@@ -20,9 +20,19 @@
 
 package com.starrocks.data.load.stream;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.Iterator;
 import java.util.LinkedList;
+import java.util.List;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
 
 /**
  * A chunk is the http body that will be sent in one http request. Multiple rows
@@ -35,6 +45,17 @@ public class Chunk {
     private final LinkedList<byte[]> buffer;
     private final AtomicLong rowBytes;
     private final AtomicLong chunkBytes;
+    private volatile int numRows;
+
+    // protect the chunk from being spilled while it's written to the http body
+    private final ReentrantLock lock = new ReentrantLock();
+    // not null if the chunk has been spilled to disk
+    private volatile ChunkSpiller.SpillFile spillFile;
+    private volatile boolean released;
+    // number of non-blocking writes holding the buffers of the chunk, guarded by the lock
+    private int numPins;
+    // time when the first row is added, only set when sizing the chunks adaptively
+    private volatile long firstRowTimeMs;
 
     public Chunk(StreamLoadDataFormat format) {
         this.format = format;
@@ -49,10 +70,19 @@ public class Chunk {
         rowBytes.addAndGet(data.length);
         chunkBytes.addAndGet(data.length + (buffer.isEmpty() ?  0 : format.delimiter().length));
         buffer.add(data);
+        numRows += 1;
+    }
+
+    /**
+     * Add the bytes in the range of the array as a row. The array may be reused by the caller
+     * after this returns, so the bytes are copied.
+     */
+    public void addRow(byte[] data, int off, int len) {
+        addRow(Arrays.copyOfRange(data, off, off + len));
     }
 
     public int numRows() {
-        return buffer.size();
+        return numRows;
     }
 
     public long rowBytes() {
@@ -63,14 +93,213 @@ public class Chunk {
         return chunkBytes.get();
     }
 
+    public long getFirstRowTimeMs() {
+        return firstRowTimeMs;
+    }
+
+    public void setFirstRowTimeMs(long firstRowTimeMs) {
+        this.firstRowTimeMs = firstRowTimeMs;
+    }
+
     public long estimateChunkSize(byte[] data) {
-        return chunkBytes.get() + data.length + format.delimiter().length;
+        return estimateChunkSize(data.length);
+    }
+
+    public long estimateChunkSize(int rowBytes) {
+        return chunkBytes.get() + rowBytes + format.delimiter().length;
     }
 
     public Iterator<byte[]> iterator() {
+        ChunkSpiller.SpillFile file = spillFile;
+        if (file != null) {
+            try {
+                return Collections.singletonList(file.readAll()).iterator();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+        return bufferIterator();
+    }
+
+    // iterates the rows and delimiters in memory
+    protected Iterator<byte[]> bufferIterator() {
         return new DataIterator();
     }
 
+    /**
+     * Write the chunk including rows and delimiters to the output stream without
+     * copying them to an intermediate buffer. If the chunk has been spilled, it's
+     * streamed from the spill file.
+     */
+    public void writeTo(OutputStream outputStream) throws IOException {
+        lock.lock();
+        try {
+            if (spillFile != null) {
+                spillFile.writeTo(outputStream);
+            } else {
+                writeBufferTo(outputStream);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Write the rows and delimiters to the output stream without format.first() and
+     * format.end(), so that the contents of multiple chunks can be concatenated.
+     */
+    public void writeContentTo(OutputStream outputStream) throws IOException {
+        lock.lock();
+        try {
+            if (spillFile != null) {
+                spillFile.writeTo(outputStream, format.first().length,
+                        chunkBytes() - format.first().length - format.end().length);
+            } else {
+                writeBufferContentTo(outputStream);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // write the rows and delimiters in memory to the output stream without format.first() and format.end()
+    protected void writeBufferContentTo(OutputStream outputStream) throws IOException {
+        boolean first = true;
+        for (byte[] row : buffer) {
+            if (!first) {
+                outputStream.write(format.delimiter());
+            }
+            outputStream.write(row);
+            first = false;
+        }
+    }
+
+    // write the rows and delimiters in memory to the output stream
+    protected void writeBufferTo(OutputStream outputStream) throws IOException {
+        Iterator<byte[]> iterator = bufferIterator();
+        while (iterator.hasNext()) {
+            outputStream.write(iterator.next());
+        }
+    }
+
+    /**
+     * Get the chunk including rows and delimiters as byte buffers without copying them, so that
+     * it can be written by a non-blocking http client. The chunk can't be spilled until
+     * {@link #unpin()} is called, so the buffers stay valid while they are being written.
+     * Returns null if the chunk has been spilled, and it should be streamed from
+     * {@link #openSpillFile()} instead of being read into memory.
+     */
+    public List<ByteBuffer> pinBuffers() {
+        lock.lock();
+        try {
+            if (released) {
+                throw new IllegalStateException("Can't pin a released chunk");
+            }
+            numPins += 1;
+            return spillFile != null ? null : bufferToByteBuffers();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Open the spill file of a pinned chunk to read the chunk including rows and delimiters.
+     * The caller should close the channel.
+     */
+    public FileChannel openSpillFile() throws IOException {
+        ChunkSpiller.SpillFile file = spillFile;
+        if (file == null) {
+            throw new IllegalStateException("The chunk is not spilled");
+        }
+        return file.open();
+    }
+
+    public void unpin() {
+        lock.lock();
+        try {
+            numPins -= 1;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // wrap the rows and delimiters in memory as byte buffers
+    protected List<ByteBuffer> bufferToByteBuffers() {
+        List<ByteBuffer> buffers = new ArrayList<>();
+        Iterator<byte[]> iterator = bufferIterator();
+        while (iterator.hasNext()) {
+            buffers.add(ByteBuffer.wrap(iterator.next()));
+        }
+        return buffers;
+    }
+
+    /**
+     * Bytes of memory allocated to hold the data of this chunk.
+     */
+    public long allocatedBytes() {
+        return spillFile != null || released ? 0 : rowBytes.get();
+    }
+
+    /**
+     * Spill the chunk to disk and release its memory. The chunk should be sealed, that's,
+     * no more row will be added. Returns the row bytes which have been moved out of the
+     * memory, and 0 if the chunk can't be spilled, such as it's being written, already
+     * spilled, or the spiller reaches the size limit.
+     */
+    public long spill(ChunkSpiller spiller) throws IOException {
+        if (!lock.tryLock()) {
+            return 0;
+        }
+        try {
+            if (released || spillFile != null || numRows() == 0 || numPins > 0) {
+                return 0;
+            }
+            ChunkSpiller.SpillFile file = spiller.spill(this::writeBufferTo, chunkBytes(), rowBytes());
+            if (file == null) {
+                return 0;
+            }
+            spillFile = file;
+            releaseBuffer();
+            return rowBytes();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public boolean isSpilled() {
+        return spillFile != null;
+    }
+
+    protected boolean isReleased() {
+        return released;
+    }
+
+    /**
+     * Release the memory or spill file held by this chunk after the chunk is loaded
+     * successfully. The chunk should not be used anymore after released.
+     */
+    public void release() {
+        lock.lock();
+        try {
+            if (released) {
+                return;
+            }
+            released = true;
+            if (spillFile != null) {
+                spillFile.delete();
+            } else {
+                releaseBuffer();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // release the memory holding the rows
+    protected void releaseBuffer() {
+        buffer.clear();
+    }
+
     enum ItemType {
         NONE,
         FIRST,
@@ -0,0 +1,65 @@
+/*
+ * Copyright 2021-present StarRocks, Inc. All rights reserved.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.starrocks.data.load.stream;
+
+import com.starrocks.data.load.stream.properties.StreamLoadProperties;
+
+/**
+ * Allocates the {@link Chunk}s to buffer the rows of a table before they are loaded.
+ */
+public interface ChunkAllocator {
+
+    enum Type {
+        // each row is kept as a separate byte array in the heap
+        HEAP,
+        // rows are appended to the pooled fixed-size byte arrays in the heap
+        SLAB,
+        // rows are appended to the pooled fixed-size direct byte buffers out of the heap
+        DIRECT
+    }
+
+    ChunkAllocator HEAP = Chunk::new;
+
+    Chunk allocate(StreamLoadDataFormat format);
+
+    /**
+     * Whether the memory budget of the allocator is used up. Writers should wait for the
+     * chunks to be loaded and released before writing more rows.
+     */
+    default boolean isExhausted() {
+        return false;
+    }
+
+    default void close() {
+    }
+
+    static ChunkAllocator create(StreamLoadProperties properties) {
+        switch (properties.getChunkBufferType()) {
+            // the same budget as StreamLoadManagerV2 blocks the write
+            case SLAB:
+                return new SlabPool(properties.getSlabSize(), 2 * properties.getMaxCacheBytes());
+            case DIRECT:
+                return DirectSegmentPool.acquire(properties.getSlabSize(), 2 * properties.getMaxCacheBytes());
+            default:
+                return HEAP;
+        }
+    }
+}
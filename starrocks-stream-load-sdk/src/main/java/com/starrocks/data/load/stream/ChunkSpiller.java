@@ -0,0 +1,186 @@
+/*
+ * Copyright 2021-present StarRocks, Inc. All rights reserved.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.starrocks.data.load.stream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Comparator;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+/**
+ * Spills the sealed {@link Chunk}s to the files in a local directory so that the writers need not to
+ * block when the memory cache is full. The spilled chunks are streamed back from the files when they
+ * are loaded, and the files are deleted after the chunks are released. The total size of the files is
+ * limited by {@code maxSpillBytes}, and no more chunk will be spilled after reaching the limit.
+ */
+public class ChunkSpiller implements Closeable {
+
+    private static final Logger LOG = LoggerFactory.getLogger(ChunkSpiller.class);
+
+    private static final int WRITE_BUFFER_SIZE = 64 * 1024;
+
+    interface ContentWriter {
+        void writeTo(OutputStream outputStream) throws IOException;
+    }
+
+    private final Path directory;
+    private final long maxSpillBytes;
+    private final AtomicLong spillBytes = new AtomicLong();
+    private final AtomicLong spillRowBytes = new AtomicLong();
+    private final AtomicLong numSpillFiles = new AtomicLong();
+    private final AtomicLong fileId = new AtomicLong();
+
+    public ChunkSpiller(String baseDirectory, long maxSpillBytes) throws IOException {
+        Path basePath = Paths.get(baseDirectory);
+        Files.createDirectories(basePath);
+        this.directory = Files.createTempDirectory(basePath, "starrocks-sink-spill-");
+        this.maxSpillBytes = maxSpillBytes;
+        LOG.info("Create chunk spiller, directory: {}, maxSpillBytes: {}", directory, maxSpillBytes);
+    }
+
+    public Path getDirectory() {
+        return directory;
+    }
+
+    /**
+     * Total size of the spill files.
+     */
+    public long getSpillBytes() {
+        return spillBytes.get();
+    }
+
+    /**
+     * Total bytes of the rows in the spill files, which can be compared with the cache bytes.
+     */
+    public long getSpillRowBytes() {
+        return spillRowBytes.get();
+    }
+
+    public long getNumSpillFiles() {
+        return numSpillFiles.get();
+    }
+
+    /**
+     * Write the content to a new spill file. Returns null if the total size will exceed the limit.
+     */
+    SpillFile spill(ContentWriter writer, long size, long rowBytes) throws IOException {
+        if (spillBytes.addAndGet(size) > maxSpillBytes) {
+            spillBytes.addAndGet(-size);
+            return null;
+        }
+
+        Path path = directory.resolve("chunk-" + fileId.incrementAndGet() + ".spill");
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+                OutputStream outputStream = new BufferedOutputStream(Channels.newOutputStream(channel), WRITE_BUFFER_SIZE)) {
+            writer.writeTo(outputStream);
+        } catch (IOException e) {
+            spillBytes.addAndGet(-size);
+            Files.deleteIfExists(path);
+            throw e;
+        }
+        spillRowBytes.addAndGet(rowBytes);
+        numSpillFiles.incrementAndGet();
+        return new SpillFile(path, size, rowBytes);
+    }
+
+    @Override
+    public void close() {
+        try (Stream<Path> paths = Files.walk(directory)) {
+            paths.sorted(Comparator.reverseOrder()).forEach(path -> {
+                try {
+                    Files.deleteIfExists(path);
+                } catch (IOException e) {
+                    LOG.warn("Failed to delete spill file {}", path, e);
+                }
+            });
+        } catch (IOException e) {
+            LOG.warn("Failed to delete spill directory {}", directory, e);
+        }
+        LOG.info("Close chunk spiller, directory: {}", directory);
+    }
+
+    class SpillFile {
+
+        private final Path path;
+        private final long size;
+        private final long rowBytes;
+
+        SpillFile(Path path, long size, long rowBytes) {
+            this.path = path;
+            this.size = size;
+            this.rowBytes = rowBytes;
+        }
+
+        void writeTo(OutputStream outputStream) throws IOException {
+            writeTo(outputStream, 0, size);
+        }
+
+        void writeTo(OutputStream outputStream, long offset, long length) throws IOException {
+            try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+                WritableByteChannel target = Channels.newChannel(outputStream);
+                long pos = offset;
+                long end = offset + length;
+                while (pos < end) {
+                    pos += channel.transferTo(pos, end - pos, target);
+                }
+            }
+        }
+
+        FileChannel open() throws IOException {
+            return FileChannel.open(path, StandardOpenOption.READ);
+        }
+
+        byte[] readAll() throws IOException {
+            try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+                ByteBuffer buffer = ByteBuffer.allocate((int) size);
+                while (buffer.hasRemaining() && channel.read(buffer) >= 0) {
+                    // read until full
+                }
+                return buffer.array();
+            }
+        }
+
+        void delete() {
+            try {
+                Files.deleteIfExists(path);
+            } catch (IOException e) {
+                LOG.warn("Failed to delete spill file {}", path, e);
+            }
+            spillBytes.addAndGet(-size);
+            spillRowBytes.addAndGet(-rowBytes);
+            numSpillFiles.decrementAndGet();
+        }
+    }
+}
@@ -0,0 +1,178 @@
+/*
+ * Copyright 2021-present StarRocks, Inc. All rights reserved.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.starrocks.data.load.stream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Predicate;
+
+/**
+ * Runs an operation, such as prepare, commit or rollback, on the transactions of a snapshot concurrently.
+ * At most {@code parallelism} transactions are in progress at the same time. An attempt that returns false
+ * is retried after an exponential backoff, which is scheduled on the executor so that no thread is blocked
+ * while waiting. An attempt that throws is not retried, and the first exception is thrown after all
+ * transactions are done. If the caller is interrupted while waiting, the run is cancelled: the attempts
+ * in progress finish, but no new transaction or retry is started.
+ */
+public class ConcurrentTransactionRunner {
+
+    private static final Logger LOG = LoggerFactory.getLogger(ConcurrentTransactionRunner.class);
+
+    private final ScheduledExecutorService executor;
+    private final int parallelism;
+    private final int maxAttempts;
+    private final long initialBackoffMs;
+    private final long maxBackoffMs;
+
+    public ConcurrentTransactionRunner(ScheduledExecutorService executor, int parallelism, int maxAttempts,
+                                       long initialBackoffMs, long maxBackoffMs) {
+        this.executor = executor;
+        this.parallelism = parallelism;
+        this.maxAttempts = maxAttempts;
+        this.initialBackoffMs = initialBackoffMs;
+        this.maxBackoffMs = maxBackoffMs;
+    }
+
+    /**
+     * Run the operation on the transactions and wait for all of them.
+     *
+     * @return the transactions that still fail after all attempts
+     */
+    public List<StreamLoadSnapshot.Transaction> run(String operation, List<StreamLoadSnapshot.Transaction> transactions,
+                                                    Predicate<StreamLoadSnapshot.Transaction> action) throws InterruptedException {
+        if (transactions.isEmpty()) {
+            return Collections.emptyList();
+        }
+        long startTime = System.nanoTime();
+        Run run = new Run(operation, transactions, action);
+        int numLanes = Math.min(parallelism, transactions.size());
+        for (int i = 0; i < numLanes; i++) {
+            try {
+                executor.execute(run::runNext);
+            } catch (RejectedExecutionException e) {
+                run.runNext();
+            }
+        }
+        try {
+            run.done.await();
+        } catch (InterruptedException e) {
+            run.cancelled = true;
+            LOG.warn("Interrupted while waiting to {} {} transactions, {} are not finished", operation,
+                    transactions.size(), run.done.getCount());
+            throw e;
+        }
+        LOG.info("Finish to {} {} transactions, failed: {}, parallelism: {}, time: {} ms", operation, transactions.size(),
+                run.failed.size(), numLanes, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startTime));
+        if (run.exception != null) {
+            throw run.exception;
+        }
+        return new ArrayList<>(run.failed);
+    }
+
+    private class Run {
+
+        private final String operation;
+        private final List<StreamLoadSnapshot.Transaction> transactions;
+        private final Predicate<StreamLoadSnapshot.Transaction> action;
+        private final AtomicInteger nextIndex = new AtomicInteger();
+        private final List<StreamLoadSnapshot.Transaction> failed = Collections.synchronizedList(new ArrayList<>());
+        private final CountDownLatch done;
+        private volatile RuntimeException exception;
+        private volatile boolean cancelled;
+
+        Run(String operation, List<StreamLoadSnapshot.Transaction> transactions,
+            Predicate<StreamLoadSnapshot.Transaction> action) {
+            this.operation = operation;
+            this.transactions = transactions;
+            this.action = action;
+            this.done = new CountDownLatch(transactions.size());
+        }
+
+        // run the transactions one by one in this lane until a retry is scheduled
+        void runNext() {
+            int index;
+            while (!cancelled && (index = nextIndex.getAndIncrement()) < transactions.size()) {
+                if (!attempt(transactions.get(index), 0)) {
+                    return;
+                }
+            }
+        }
+
+        // return false if a retry is scheduled, and the lane will continue after the retry
+        boolean attempt(StreamLoadSnapshot.Transaction transaction, int numAttempts) {
+            boolean succeed;
+            try {
+                succeed = action.test(transaction);
+            } catch (RuntimeException e) {
+                LOG.error("Failed to {} transaction {}", operation, transaction, e);
+                addException(e);
+                finish(transaction, false);
+                return true;
+            }
+
+            if (succeed || numAttempts + 1 >= maxAttempts || cancelled) {
+                if (!succeed) {
+                    LOG.warn("Failed to {} transaction {} after {} attempts", operation, transaction, numAttempts + 1);
+                }
+                finish(transaction, succeed);
+                return true;
+            }
+
+            long backoffMs = Math.min(maxBackoffMs, initialBackoffMs << Math.min(numAttempts, 30));
+            try {
+                executor.schedule(() -> {
+                    if (attempt(transaction, numAttempts + 1)) {
+                        runNext();
+                    }
+                }, backoffMs, TimeUnit.MILLISECONDS);
+                return false;
+            } catch (RejectedExecutionException e) {
+                LOG.warn("Failed to retry to {} transaction {} because the executor is closed", operation, transaction);
+                finish(transaction, false);
+                return true;
+            }
+        }
+
+        private void finish(StreamLoadSnapshot.Transaction transaction, boolean succeed) {
+            if (!succeed) {
+                failed.add(transaction);
+            }
+            done.countDown();
+        }
+
+        private synchronized void addException(RuntimeException e) {
+            if (exception == null) {
+                exception = e;
+            } else {
+                exception.addSuppressed(e);
+            }
+        }
+    }
+}
@@ -26,6 +26,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.Serializable;
+import java.nio.ByteBuffer;
 import java.nio.charset.StandardCharsets;
 import java.util.HashMap;
 import java.util.Iterator;
@@ -246,33 +247,57 @@ public class DefaultStreamLoadManager implements StreamLoadManager, Serializable
                         uniqueKey == null ? "null" : uniqueKey, database, table, row);
             }
             int bytes = region.write(row.getBytes(StandardCharsets.UTF_8));
-            long cachedBytes = currentCacheBytes.addAndGet(bytes);
-            if (cachedBytes >= maxWriteBlockCacheBytes) {
-                lock.lock();
-                try {
-                    int idx = 0;
-                    while (currentCacheBytes.get() >= maxWriteBlockCacheBytes) {
-                        AssertNotException();
-                        log.info("Cache full, wait flush, currentBytes: {}, maxWriteBlockCacheBytes: {}",
-                                currentCacheBytes.get(), maxWriteBlockCacheBytes);
-                        flushable.signal();
-                        writable.await(Math.min(++idx, 5), TimeUnit.SECONDS);
-                    }
-                } catch (InterruptedException ex) {
-                    this.e = ex;
-                    throw new RuntimeException(ex);
-                } finally {
-                    lock.unlock();
-                }
-            } else if (cachedBytes >= maxCacheBytes && writeTriggerFlush.compareAndSet(false, true)) {
-                lock.lock();
-                try {
+            afterWrite(bytes);
+        }
+    }
+
+    @Override
+    public void write(String uniqueKey, String database, String table, byte[]... rows) {
+        AssertNotException();
+        TableRegion region = getCacheRegion(uniqueKey, database, table);
+        long bytes = 0;
+        for (byte[] row : rows) {
+            bytes += region.write(row);
+        }
+        afterWrite(bytes);
+    }
+
+    @Override
+    public void write(String uniqueKey, String database, String table, ByteBuffer row) {
+        AssertNotException();
+        TableRegion region = getCacheRegion(uniqueKey, database, table);
+        byte[] data = new byte[row.remaining()];
+        row.get(data);
+        afterWrite(region.write(data));
+    }
+
+    private void afterWrite(long bytes) {
+        long cachedBytes = currentCacheBytes.addAndGet(bytes);
+        if (cachedBytes >= maxWriteBlockCacheBytes) {
+            lock.lock();
+            try {
+                int idx = 0;
+                while (currentCacheBytes.get() >= maxWriteBlockCacheBytes) {
+                    AssertNotException();
+                    log.info("Cache full, wait flush, currentBytes: {}, maxWriteBlockCacheBytes: {}",
+                            currentCacheBytes.get(), maxWriteBlockCacheBytes);
                     flushable.signal();
-                } finally {
-                    lock.unlock();
+                    writable.await(Math.min(++idx, 5), TimeUnit.SECONDS);
                 }
-                LOG.info("Trigger flush, currentBytes: {}, maxCacheBytes: {}", cachedBytes, maxCacheBytes);
+            } catch (InterruptedException ex) {
+                this.e = ex;
+                throw new RuntimeException(ex);
+            } finally {
+                lock.unlock();
+            }
+        } else if (cachedBytes >= maxCacheBytes && writeTriggerFlush.compareAndSet(false, true)) {
+            lock.lock();
+            try {
+                flushable.signal();
+            } finally {
+                lock.unlock();
             }
+            LOG.info("Trigger flush, currentBytes: {}, maxCacheBytes: {}", cachedBytes, maxCacheBytes);
         }
     }
 
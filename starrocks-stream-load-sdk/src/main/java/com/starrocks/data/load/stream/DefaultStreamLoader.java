@@ -24,6 +24,8 @@ import com.fasterxml.jackson.databind.DeserializationFeature;
 import com.fasterxml.jackson.databind.MapperFeature;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.starrocks.data.load.stream.exception.StreamLoadFailException;
+import com.starrocks.data.load.stream.http.EndpointHealthRegistry;
+import com.starrocks.data.load.stream.http.HttpClientPool;
 import com.starrocks.data.load.stream.properties.StreamLoadProperties;
 import org.apache.http.Header;
 import org.apache.http.HttpEntity;
@@ -32,10 +34,9 @@ import org.apache.http.client.config.RequestConfig;
 import org.apache.http.client.methods.CloseableHttpResponse;
 import org.apache.http.client.methods.HttpGet;
 import org.apache.http.client.methods.HttpPut;
+import org.apache.http.client.protocol.HttpClientContext;
 import org.apache.http.impl.client.CloseableHttpClient;
 import org.apache.http.impl.client.DefaultRedirectStrategy;
-import org.apache.http.impl.client.HttpClientBuilder;
-import org.apache.http.impl.client.HttpClients;
 import org.apache.http.message.BasicHeader;
 import org.apache.http.protocol.HttpRequestExecutor;
 import org.apache.http.util.EntityUtils;
@@ -43,19 +44,24 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.Serializable;
-import java.net.HttpURLConnection;
-import java.net.URL;
+import java.net.URI;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.TreeSet;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Future;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.ScheduledThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
 
 import static com.starrocks.data.load.stream.StreamLoadConstants.RESULT_STATUS_FAILED;
 
@@ -65,17 +71,26 @@ public class DefaultStreamLoader implements StreamLoader, Serializable {
 
     private static final int ERROR_LOG_MAX_LENGTH = 3000;
 
+    // retry the transaction operations after 1s, 2s, ...
+    private static final int TRANSACTION_MAX_ATTEMPTS = 3;
+    private static final long TRANSACTION_RETRY_BACKOFF_MS = 1000L;
+    private static final long TRANSACTION_MAX_RETRY_BACKOFF_MS = 10000L;
+
     protected StreamLoadProperties properties;
     private StreamLoadManager manager;
 
-    private HttpClientBuilder clientBuilder;
+    private HttpClientPool httpClientPool;
+    private CloseableHttpClient httpClient;
+    private EndpointHealthRegistry endpointRegistry;
     private Header[] defaultHeaders;
 
-    private ScheduledExecutorService executorService;
+    protected ScheduledExecutorService executorService;
+    private ConcurrentTransactionRunner transactionRunner;
 
     private boolean enableTransaction = false;
 
-    private volatile long availableHostPos;
+    // route key -> the BE that FE redirected the load to, only used if direct BE routing is enabled
+    private final Map<String, String> redirectTargets = new ConcurrentHashMap<>();
 
     private final AtomicBoolean start = new AtomicBoolean(false);
 
@@ -99,25 +114,41 @@ public class DefaultStreamLoader implements StreamLoader, Serializable {
 
             initDefaultHeaders(properties);
 
-            this.clientBuilder  = HttpClients.custom()
+            this.endpointRegistry = EndpointHealthRegistry.acquire(properties);
+            this.httpClientPool = new HttpClientPool(properties);
+            this.httpClient = httpClientPool.newClientBuilder()
                     .setRequestExecutor(new HttpRequestExecutor(properties.getWaitForContinueTimeoutMs()))
                     .setRedirectStrategy(new DefaultRedirectStrategy() {
                         @Override
                         protected boolean isRedirectable(String method) {
                             return true;
                         }
-                    });
-            this.executorService = new ScheduledThreadPoolExecutor(
-                    properties.getIoThreadCount(),
-                    r -> {
-                        Thread thread = new Thread(null, r, "I/O client dispatch - " + UUID.randomUUID());
-                        thread.setDaemon(true);
-                        thread.setUncaughtExceptionHandler((t, e) -> {
-                            log.error("Stream loader " + Thread.currentThread().getName() + " error", e);
-                            manager.callback(e);
+                    })
+                    .build();
+            Thread.UncaughtExceptionHandler exceptionHandler = (t, e) -> {
+                log.error("Stream loader " + Thread.currentThread().getName() + " error", e);
+                manager.callback(e);
+            };
+            if (properties.isVirtualThreads()) {
+                this.executorService = VirtualThreadScheduledExecutor.create("I/O client dispatch (virtual) - ", exceptionHandler);
+                if (executorService == null) {
+                    log.warn("Virtual threads are not supported by java {}, fall back to {} platform threads",
+                            System.getProperty("java.version"), properties.getIoThreadCount());
+                }
+            }
+            if (executorService == null) {
+                this.executorService = new ScheduledThreadPoolExecutor(
+                        properties.getIoThreadCount(),
+                        r -> {
+                            Thread thread = new Thread(null, r, "I/O client dispatch - " + UUID.randomUUID());
+                            thread.setDaemon(true);
+                            thread.setUncaughtExceptionHandler(exceptionHandler);
+                            return thread;
                         });
-                        return thread;
-                    });
+            }
+            this.transactionRunner = new ConcurrentTransactionRunner(executorService,
+                    properties.getTransactionParallelism(), TRANSACTION_MAX_ATTEMPTS,
+                    TRANSACTION_RETRY_BACKOFF_MS, TRANSACTION_MAX_RETRY_BACKOFF_MS);
 
             String propertiesStr = "";
             String headerStr = "";
@@ -137,10 +168,25 @@ public class DefaultStreamLoader implements StreamLoader, Serializable {
     public void close() {
         if (start.compareAndSet(true, false)) {
             executorService.shutdownNow();
+            try {
+                httpClient.close();
+            } catch (Exception e) {
+                log.warn("Failed to close http client", e);
+            }
+            httpClientPool.close();
+            endpointRegistry.release();
             log.info("Default Stream loader closed");
         }
     }
 
+    public HttpClientPool getHttpClientPool() {
+        return httpClientPool;
+    }
+
+    public EndpointHealthRegistry getEndpointRegistry() {
+        return endpointRegistry;
+    }
+
     @Override
     public ExecutorService getExecutorService() {
         return executorService;
@@ -197,77 +243,49 @@ public class DefaultStreamLoader implements StreamLoader, Serializable {
 
     @Override
     public boolean prepare(StreamLoadSnapshot snapshot) {
-        boolean succeed = true;
-        for (StreamLoadSnapshot.Transaction transaction : snapshot.getTransactions()) {
-            boolean prepared = false;
-            for (int i = 0; i < 3; i++) {
-                try {
-                    Thread.sleep(i * 1000);
-                } catch (InterruptedException e) {
-                    log.warn("prepare interrupted");
-                    return false;
-                }
-                if (prepare(transaction)) {
-                    prepared = true;
-                    break;
-                }
-            }
-            if (!prepared) {
-                succeed = false;
-                break;
-            }
-        }
-
-        return succeed;
+        return runTransactions("prepare", snapshot.getTransactions(), this::prepare);
     }
 
     @Override
     public boolean commit(StreamLoadSnapshot snapshot) {
-        boolean committed = true;
-        for (StreamLoadSnapshot.Transaction transaction : snapshot.getTransactions()) {
-            if (transaction.isFinish()) {
-                continue;
+        List<StreamLoadSnapshot.Transaction> transactions = snapshot.getTransactions().stream()
+                .filter(transaction -> !transaction.isFinish())
+                .collect(Collectors.toList());
+        return runTransactions("commit", transactions, transaction -> {
+            if (commit(transaction)) {
+                transaction.setFinish(true);
+                return true;
             }
-            for (int i = 0; i < 3; i++) {
-                try {
-                    Thread.sleep(i * 1000);
-                } catch (InterruptedException e) {
-                    log.warn("commit interrupted");
-                    return false;
-                }
-                if (commit(transaction)) {
-                    transaction.setFinish(true);
-                    break;
-                }
-            }
-            if (!transaction.isFinish()) {
-                committed = false;
-            }
-        }
-
-        return committed;
+            return false;
+        });
     }
 
     @Override
     public boolean rollback(StreamLoadSnapshot snapshot) {
-        boolean rollback = true;
-        for (StreamLoadSnapshot.Transaction transaction : snapshot.getTransactions()) {
-            if (transaction.isFinish()) {
-                continue;
+        List<StreamLoadSnapshot.Transaction> transactions = snapshot.getTransactions().stream()
+                .filter(transaction -> !transaction.isFinish())
+                .collect(Collectors.toList());
+        return runTransactions("rollback", transactions, transaction -> {
+            if (rollback(transaction)) {
+                transaction.setFinish(true);
+                return true;
             }
-            for (int i = 0; i < 3; i++) {
-                if (rollback(transaction)) {
-                    transaction.setFinish(true);
-                    break;
-                }
-                if (!transaction.isFinish()) {
-                    rollback = false;
-                }
-            }
-        }
-        return rollback;
+            return false;
+        });
     }
 
+    // The interrupt is propagated rather than reported as a failure, so that the caller does not retry
+    // the transactions which may still be in progress
+    private boolean runTransactions(String operation, List<StreamLoadSnapshot.Transaction> transactions,
+                                    Predicate<StreamLoadSnapshot.Transaction> action) {
+        try {
+            return transactionRunner.run(operation, transactions, action).isEmpty();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            log.warn("{} interrupted", operation);
+            throw new RuntimeException("Interrupted while running " + operation + " for the transactions", e);
+        }
+    }
 
     protected void initDefaultHeaders(StreamLoadProperties properties) {
         Map<String, String> headers = new HashMap<>(properties.getHeaders());
@@ -282,8 +300,13 @@ public class DefaultStreamLoader implements StreamLoader, Serializable {
     }
 
     protected StreamLoadResponse sendToSR(TableRegion region) {
+        String host = null;
+        String routeKey = null;
         try {
-            String host = getAvailableHost();
+            if (properties.isDirectBeRouting()) {
+                routeKey = getRouteKey(region);
+            }
+            host = getLoadHost(routeKey);
             String sendUrl = getSendUrl(host, region.getDatabase(), region.getTable());
             String label = region.getLabel();
 
@@ -294,59 +317,23 @@ public class DefaultStreamLoader implements StreamLoader, Serializable {
                         .setRedirectsEnabled(true)
                         .build());
             httpPut.setEntity(region.getHttpEntity());
-
-            httpPut.setHeaders(defaultHeaders);
-            for (Map.Entry<String, String> entry : region.getHeaders().entrySet()) {
-                httpPut.removeHeaders(entry.getKey());
-                httpPut.addHeader(entry.getKey(), entry.getValue());
-            }
-
-            httpPut.addHeader("label", label);
+            httpPut.setHeaders(getLoadHeaders(region, label).toArray(new Header[0]));
 
             log.info("Stream loading, label : {}, region : {}, request : {}", label, region.getUniqueKey(), httpPut);
-            try (CloseableHttpClient client = clientBuilder.build()) {
+            try {
                 long startNanoTime = System.nanoTime();
                 String responseBody;
-                try (CloseableHttpResponse response = client.execute(httpPut)) {
+                HttpClientContext context = HttpClientContext.create();
+                try (CloseableHttpResponse response = httpClient.execute(httpPut, context)) {
                     responseBody = parseHttpResponse("load", region.getDatabase(), region.getTable(), label, response);
                 }
+                if (routeKey != null) {
+                    cacheRedirectTarget(routeKey, context.getRedirectLocations());
+                }
 
                 log.info("Stream load completed, label : {}, database : {}, table : {}, body : {}",
                         label, region.getDatabase(), region.getTable(), responseBody);
-
-                StreamLoadResponse streamLoadResponse = new StreamLoadResponse();
-                StreamLoadResponse.StreamLoadResponseBody streamLoadBody =
-                        objectMapper.readValue(responseBody, StreamLoadResponse.StreamLoadResponseBody.class);
-                streamLoadResponse.setBody(streamLoadBody);
-                String status = streamLoadBody.getStatus();
-                if (status == null) {
-                    throw new StreamLoadFailException(String.format("Stream load status is null. db: %s, table: %s, " +
-                            "label: %s, response body: %s", region.getDatabase(), region.getTable(), label, responseBody));
-                }
-
-                if (StreamLoadConstants.RESULT_STATUS_SUCCESS.equals(status)
-                        || StreamLoadConstants.RESULT_STATUS_OK.equals(status)
-                        || StreamLoadConstants.RESULT_STATUS_TRANSACTION_PUBLISH_TIMEOUT.equals(status)) {
-                    streamLoadResponse.setCostNanoTime(System.nanoTime() - startNanoTime);
-                    region.complete(streamLoadResponse);
-                } else if (StreamLoadConstants.RESULT_STATUS_LABEL_EXISTED.equals(status)) {
-                    String existingJobStatus = streamLoadBody.getExistingJobStatus();
-                    if (StreamLoadConstants.EXISTING_JOB_STATUS_FINISHED.equals(existingJobStatus)) {
-                        streamLoadResponse.setCostNanoTime(System.nanoTime() - startNanoTime);
-                        region.complete(streamLoadResponse);
-                    } else {
-                        String errorMsage = String.format("Stream load failed because label existed, " +
-                                "db: %s, table: %s, label: %s, existingJobStatus: %s", region.getDatabase(), region.getTable(), label, existingJobStatus);
-                        throw new StreamLoadFailException(errorMsage);
-                    }
-                } else {
-                    String errorLog = getErrorLog(streamLoadBody.getErrorURL());
-                    String errorMsg = String.format("Stream load failed because of error, db: %s, table: %s, label: %s, " +
-                                    "\nresponseBody: %s\nerrorLog: %s", region.getDatabase(), region.getTable(), label,
-                                    responseBody, errorLog);
-                    throw new StreamLoadFailException(errorMsg, streamLoadBody);
-                }
-                return streamLoadResponse;
+                return handleLoadResponse(region, label, responseBody, startNanoTime);
             } catch (StreamLoadFailException e) {
                 throw e;
             }  catch (Exception e) {
@@ -355,55 +342,155 @@ public class DefaultStreamLoader implements StreamLoader, Serializable {
                 throw new StreamLoadFailException(errorMsg, e);
             }
         } catch (Exception e) {
-            log.error("Exception happens when sending data, thread: {}", Thread.currentThread().getName(), e);
-            region.fail(e);
+            handleSendFailure(region, host, routeKey, e);
         }
         return null;
     }
 
-    protected String getAvailableHost() {
-        String[] hosts = properties.getLoadUrls();
-        int size = hosts.length;
-        long pos = availableHostPos;
-        long tmp = pos + size;
-        while (pos < tmp) {
-            String host = hosts[(int) (pos % size)];
-            pos++;
-            if (testHttpConnection(host)) {
-                availableHostPos = pos;
-                return host;
+    // the default headers overridden by the headers of the region
+    protected List<Header> getLoadHeaders(TableRegion region, String label) {
+        Map<String, String> regionHeaders = region.getHeaders();
+        Set<String> overriddenNames = new TreeSet<>(String.CASE_INSENSITIVE_ORDER);
+        overriddenNames.addAll(regionHeaders.keySet());
+        List<Header> headers = new ArrayList<>();
+        for (Header header : defaultHeaders) {
+            if (!overriddenNames.contains(header.getName())) {
+                headers.add(header);
             }
         }
+        for (Map.Entry<String, String> entry : regionHeaders.entrySet()) {
+            // a null value just removes the default header
+            if (entry.getValue() != null) {
+                headers.add(new BasicHeader(entry.getKey(), entry.getValue()));
+            }
+        }
+        headers.add(new BasicHeader("label", label));
+        return headers;
+    }
 
-        return null;
+    protected void handleSendFailure(TableRegion region, String host, String routeKey, Exception e) {
+        log.error("Exception happens when sending data, thread: {}", Thread.currentThread().getName(), e);
+        reportHostFailure(host, e);
+        if (routeKey != null) {
+            // go back to FE for the next load in case the BE is unhealthy
+            clearRedirectTarget(routeKey);
+        }
+        region.fail(e);
+    }
+
+    protected StreamLoadResponse handleLoadResponse(TableRegion region, String label, String responseBody,
+                                                    long startNanoTime) throws Exception {
+        StreamLoadResponse streamLoadResponse = new StreamLoadResponse();
+        StreamLoadResponse.StreamLoadResponseBody streamLoadBody =
+                objectMapper.readValue(responseBody, StreamLoadResponse.StreamLoadResponseBody.class);
+        streamLoadResponse.setBody(streamLoadBody);
+        String status = streamLoadBody.getStatus();
+        if (status == null) {
+            throw new StreamLoadFailException(String.format("Stream load status is null. db: %s, table: %s, " +
+                    "label: %s, response body: %s", region.getDatabase(), region.getTable(), label, responseBody));
+        }
+
+        if (StreamLoadConstants.RESULT_STATUS_SUCCESS.equals(status)
+                || StreamLoadConstants.RESULT_STATUS_OK.equals(status)
+                || StreamLoadConstants.RESULT_STATUS_TRANSACTION_PUBLISH_TIMEOUT.equals(status)) {
+            streamLoadResponse.setCostNanoTime(System.nanoTime() - startNanoTime);
+            region.complete(streamLoadResponse);
+        } else if (StreamLoadConstants.RESULT_STATUS_LABEL_EXISTED.equals(status)) {
+            String existingJobStatus = streamLoadBody.getExistingJobStatus();
+            if (StreamLoadConstants.EXISTING_JOB_STATUS_FINISHED.equals(existingJobStatus)) {
+                streamLoadResponse.setCostNanoTime(System.nanoTime() - startNanoTime);
+                region.complete(streamLoadResponse);
+            } else {
+                String errorMsage = String.format("Stream load failed because label existed, " +
+                        "db: %s, table: %s, label: %s, existingJobStatus: %s", region.getDatabase(), region.getTable(), label, existingJobStatus);
+                throw new StreamLoadFailException(errorMsage);
+            }
+        } else {
+            String errorLog = getErrorLog(streamLoadBody.getErrorURL());
+            String errorMsg = String.format("Stream load failed because of error, db: %s, table: %s, label: %s, " +
+                            "\nresponseBody: %s\nerrorLog: %s", region.getDatabase(), region.getTable(), label,
+                            responseBody, errorLog);
+            throw new StreamLoadFailException(errorMsg, streamLoadBody);
+        }
+        return streamLoadResponse;
+    }
+
+    protected String getAvailableHost() {
+        return endpointRegistry.select();
+    }
+
+    protected void reportHostFailure(String host, Throwable e) {
+        endpointRegistry.reportFailure(host, e);
+    }
+
+    /**
+     * Loads of the same transaction must be sent to the same BE, so the route key is the label
+     * for transaction load. Returns null for the others, because each load is a new transaction,
+     * and FE should choose the BE for it.
+     */
+    protected String getRouteKey(TableRegion region) {
+        return enableTransaction ? region.getLabel() : null;
+    }
+
+    // the BE that FE redirected the previous load to, otherwise an available FE
+    protected String getLoadHost(String routeKey) {
+        String redirectTarget = routeKey != null ? redirectTargets.get(routeKey) : null;
+        return redirectTarget != null ? redirectTarget : getAvailableHost();
     }
 
-    private boolean testHttpConnection(String host) {
+    protected void clearRedirectTarget(String routeKey) {
+        if (routeKey != null && redirectTargets.remove(routeKey) != null) {
+            log.info("Clear redirect target for route key: {}", routeKey);
+        }
+    }
+
+    protected void cacheRedirectTarget(String routeKey, List<URI> redirectLocations) {
+        if (redirectLocations == null || redirectLocations.isEmpty()) {
+            return;
+        }
+        URI location = redirectLocations.get(redirectLocations.size() - 1);
+        String target = location.getScheme() + "://" + location.getRawAuthority();
+        String oldTarget = redirectTargets.put(routeKey, target);
+        if (!target.equals(oldTarget)) {
+            log.info("Cache redirect target for route key: {}, target: {}, old target: {}", routeKey, target, oldTarget);
+        }
+    }
+
+    protected String parseHttpResponse(String requestType, String db, String table, String label, CloseableHttpResponse response) throws StreamLoadFailException {
+        checkHttpStatus(requestType, db, table, label, response.getStatusLine().getStatusCode(),
+                String.valueOf(response.getStatusLine()));
+
+        HttpEntity respEntity = response.getEntity();
+        if (respEntity == null) {
+            String errorMsg = String.format("Request %s failed because response entity is null. db: %s, table: %s," +
+                    "label: %s, response status line: %s", requestType, db, table, label, response.getStatusLine());
+            log.error("{}", errorMsg);
+            throw new StreamLoadFailException(errorMsg);
+        }
+
         try {
-            URL url = new URL(host);
-            HttpURLConnection connection = (HttpURLConnection) url.openConnection();
-            connection.setConnectTimeout(properties.getConnectTimeout());
-            connection.connect();
-            connection.disconnect();
-            return true;
+            return EntityUtils.toString(respEntity);
         } catch (Exception e) {
-            log.warn("Failed to connect to address:{}", host, e);
-            return false;
+            String errorMsg = String.format("Request %s failed because fail to convert response entity to string. " +
+                    "db: %s, table: %s, label: %s, response status line: %s, response entity: %s", requestType, db,
+                    table, label, response.getStatusLine(), response.getEntity());
+            log.error("{}", errorMsg, e);
+            throw new StreamLoadFailException(errorMsg, e);
         }
     }
 
-    protected String parseHttpResponse(String requestType, String db, String table, String label, CloseableHttpResponse response) throws StreamLoadFailException {
-        int code = response.getStatusLine().getStatusCode();
+    protected void checkHttpStatus(String requestType, String db, String table, String label, int code, String statusLine)
+            throws StreamLoadFailException {
         if (307 == code) {
             String errorMsg = String.format("Request %s failed because http response code is 307 which means 'Temporary Redirect'. " +
                     "This can happen when FE responds the request slowly , you should find the reason first. The reason may be " +
                     "StarRocks FE/Flink/Spark GC, network delay, or others. db: %s, table: %s, label: %s, response status line: %s",
-                    requestType, db, table, label, response.getStatusLine());
+                    requestType, db, table, label, statusLine);
             log.error("{}", errorMsg);
             throw new StreamLoadFailException(errorMsg);
         } else if (401 == code) {
             String errorMsg = String.format("Request %s failed because of access denied. You need to grant at least SELECT and INSERT " +
-                    "privilege on %s.%s. label: %s, response status line: %s", requestType, db, table, label, response.getStatusLine());
+                    "privilege on %s.%s. label: %s, response status line: %s", requestType, db, table, label, statusLine);
             log.error("{}", errorMsg);
             // Fake response body to judge the retryable error. See ErrorUtils#isRetryable
             StreamLoadResponse.StreamLoadResponseBody responseBody = new StreamLoadResponse.StreamLoadResponseBody();
@@ -412,28 +499,10 @@ public class DefaultStreamLoader implements StreamLoader, Serializable {
             throw new StreamLoadFailException(errorMsg, responseBody);
         } else if (200 != code) {
             String errorMsg = String.format("Request %s failed because http response code is not 200. db: %s, table: %s," +
-                    "label: %s, response status line: %s", requestType, db, table, label, response.getStatusLine());
-            log.error("{}", errorMsg);
-            throw new StreamLoadFailException(errorMsg);
-        }
-
-        HttpEntity respEntity = response.getEntity();
-        if (respEntity == null) {
-            String errorMsg = String.format("Request %s failed because response entity is null. db: %s, table: %s," +
-                    "label: %s, response status line: %s", requestType, db, table, label, response.getStatusLine());
+                    "label: %s, response status line: %s", requestType, db, table, label, statusLine);
             log.error("{}", errorMsg);
             throw new StreamLoadFailException(errorMsg);
         }
-
-        try {
-            return EntityUtils.toString(respEntity);
-        } catch (Exception e) {
-            String errorMsg = String.format("Request %s failed because fail to convert response entity to string. " +
-                    "db: %s, table: %s, label: %s, response status line: %s, response entity: %s", requestType, db,
-                    table, label, response.getStatusLine(), response.getEntity());
-            log.error("{}", errorMsg, e);
-            throw new StreamLoadFailException(errorMsg, e);
-        }
     }
 
     @Override
@@ -455,37 +524,34 @@ public class DefaultStreamLoader implements StreamLoader, Serializable {
             }
             TimeUnit.SECONDS.sleep(Math.min(sleepSecond, 5));
             totalSleepSecond += sleepSecond;
-            try (CloseableHttpClient client = HttpClients.createDefault()) {
-                String url = host + "/api/" + database + "/get_load_state?label=" + label;
-                HttpGet httpGet = new HttpGet(url);
-                httpGet.addHeader("Authorization", StreamLoadUtils.getBasicAuthHeader(properties.getUsername(), properties.getPassword()));
-                httpGet.setHeader("Connection", "close");
-                try (CloseableHttpResponse response = client.execute(httpGet)) {
-                    int responseStatusCode = response.getStatusLine().getStatusCode();
-                    String entityContent = EntityUtils.toString(response.getEntity());
-                    log.info("Response for get_load_state, label: {}, response status code: {}, response body : {}",
-                            label, responseStatusCode, entityContent);
-                    if (responseStatusCode != 200) {
-                        throw new StreamLoadFailException(String.format("Could not get load state because of incorrect response status code %s, " +
-                                "label: %s, response body: %s", responseStatusCode, label, entityContent));
-                    }
-
-                    StreamLoadResponse.StreamLoadResponseBody responseBody =
-                            objectMapper.readValue(entityContent, StreamLoadResponse.StreamLoadResponseBody.class);
-                    String state = responseBody.getState();
-                    if (state == null) {
-                        log.error("Fail to get load state, label: {}, load information: {}", label, entityContent);
-                        throw new StreamLoadFailException(String.format("Could not get load state because of state is null," +
-                                "label: %s, load information: %s", label, entityContent));
-                    }
-
-                    lastState = state;
-                    if (retryStates.contains(state)) {
-                        continue;
-                    }
-
-                    return state;
+            String url = host + "/api/" + database + "/get_load_state?label=" + label;
+            HttpGet httpGet = new HttpGet(url);
+            httpGet.addHeader("Authorization", StreamLoadUtils.getBasicAuthHeader(properties.getUsername(), properties.getPassword()));
+            try (CloseableHttpResponse response = httpClient.execute(httpGet)) {
+                int responseStatusCode = response.getStatusLine().getStatusCode();
+                String entityContent = EntityUtils.toString(response.getEntity());
+                log.info("Response for get_load_state, label: {}, response status code: {}, response body : {}",
+                        label, responseStatusCode, entityContent);
+                if (responseStatusCode != 200) {
+                    throw new StreamLoadFailException(String.format("Could not get load state because of incorrect response status code %s, " +
+                            "label: %s, response body: %s", responseStatusCode, label, entityContent));
+                }
+
+                StreamLoadResponse.StreamLoadResponseBody responseBody =
+                        objectMapper.readValue(entityContent, StreamLoadResponse.StreamLoadResponseBody.class);
+                String state = responseBody.getState();
+                if (state == null) {
+                    log.error("Fail to get load state, label: {}, load information: {}", label, entityContent);
+                    throw new StreamLoadFailException(String.format("Could not get load state because of state is null," +
+                            "label: %s, load information: %s", label, entityContent));
                 }
+
+                lastState = state;
+                if (retryStates.contains(state)) {
+                    continue;
+                }
+
+                return state;
             }
         }
     }
@@ -495,9 +561,9 @@ public class DefaultStreamLoader implements StreamLoader, Serializable {
             return null;
         }
 
-        try (CloseableHttpClient httpclient = HttpClients.createDefault()) {
+        try {
             HttpGet httpGet = new HttpGet(errorUrl);
-            try (CloseableHttpResponse resp = httpclient.execute(httpGet)) {
+            try (CloseableHttpResponse resp = httpClient.execute(httpGet)) {
                 int code = resp.getStatusLine().getStatusCode();
                 if (200 != code) {
                     log.warn("Request error log failed with error code: {}, errorUrl: {}", code, errorUrl);
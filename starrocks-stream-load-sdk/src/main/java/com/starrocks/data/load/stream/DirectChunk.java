@@ -0,0 +1,114 @@
+/*
+ * Copyright 2021-present StarRocks, Inc. All rights reserved.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.starrocks.data.load.stream;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A {@link SegmentChunk} whose segments are the direct {@link ByteBuffer}s allocated from
+ * a {@link DirectSegmentPool}, so the buffered rows do not occupy the heap. The segments
+ * are returned to the pool in {@link #release()}.
+ */
+public class DirectChunk extends SegmentChunk {
+
+    // http entities can only write byte arrays to the output stream, so the segments
+    // are streamed through a small reusable buffer instead of being copied as a whole
+    private static final int TRANSFER_BUFFER_SIZE = 8192;
+    private static final ThreadLocal<byte[]> TRANSFER_BUFFER =
+            ThreadLocal.withInitial(() -> new byte[TRANSFER_BUFFER_SIZE]);
+
+    private final DirectSegmentPool pool;
+    private final List<ByteBuffer> segments = new ArrayList<>();
+    // the last segment to append
+    private ByteBuffer current;
+
+    public DirectChunk(StreamLoadDataFormat format, DirectSegmentPool pool) {
+        super(format);
+        this.pool = pool;
+    }
+
+    @Override
+    protected void appendContent(byte[] data, int off, int len) {
+        int end = off + len;
+        while (off < end) {
+            if (current == null || !current.hasRemaining()) {
+                current = pool.allocateSegment();
+                segments.add(current);
+            }
+            int n = Math.min(end - off, current.remaining());
+            current.put(data, off, n);
+            off += n;
+        }
+    }
+
+    @Override
+    public long allocatedBytes() {
+        return (long) segments.size() * pool.getSegmentSize();
+    }
+
+    @Override
+    protected List<byte[]> contentItems() {
+        List<byte[]> items = new ArrayList<>(segments.size());
+        for (ByteBuffer segment : segments) {
+            ByteBuffer content = (ByteBuffer) segment.duplicate().flip();
+            byte[] item = new byte[content.remaining()];
+            content.get(item);
+            items.add(item);
+        }
+        return items;
+    }
+
+    @Override
+    protected List<ByteBuffer> contentBuffers() {
+        List<ByteBuffer> buffers = new ArrayList<>(segments.size());
+        for (ByteBuffer segment : segments) {
+            buffers.add((ByteBuffer) segment.duplicate().flip());
+        }
+        return buffers;
+    }
+
+    @Override
+    protected void writeContent(OutputStream outputStream) throws IOException {
+        byte[] buffer = TRANSFER_BUFFER.get();
+        for (ByteBuffer segment : segments) {
+            // duplicate so that the chunk can be written multiple times, such as retry or redirect
+            ByteBuffer content = (ByteBuffer) segment.duplicate().flip();
+            while (content.hasRemaining()) {
+                int len = Math.min(buffer.length, content.remaining());
+                content.get(buffer, 0, len);
+                outputStream.write(buffer, 0, len);
+            }
+        }
+    }
+
+    @Override
+    protected void releaseContent() {
+        for (ByteBuffer segment : segments) {
+            pool.recycleSegment(segment);
+        }
+        segments.clear();
+        current = null;
+    }
+}
@@ -0,0 +1,176 @@
+/*
+ * Copyright 2021-present StarRocks, Inc. All rights reserved.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.starrocks.data.load.stream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A JVM-wide pool of fixed-size direct {@link ByteBuffer} segments which are used by {@link DirectChunk}s
+ * to buffer the rows out of the heap. The pool is shared by all managers in the JVM, for example all sink
+ * subtasks in a TaskManager, and each manager adds its own budget to the pool when it acquires the pool
+ * with {@link #acquire(int, long)}. The budget is a soft limit. Allocating a segment never blocks, and
+ * writers should wait until {@link ChunkAllocator#isExhausted()} returns false before writing.
+ */
+public class DirectSegmentPool {
+
+    private static final Logger LOG = LoggerFactory.getLogger(DirectSegmentPool.class);
+
+    private static DirectSegmentPool instance;
+
+    private final int segmentSize;
+    private final ConcurrentLinkedQueue<ByteBuffer> freeSegments = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger numFreeSegments = new AtomicInteger();
+    private final AtomicLong usedBytes = new AtomicLong();
+    private volatile long budgetBytes;
+    private int refCount;
+
+    DirectSegmentPool(int segmentSize) {
+        this.segmentSize = segmentSize;
+    }
+
+    /**
+     * Acquire the shared pool, and add the budget to it. The segment size is decided by the first
+     * acquirer, and the later ones with different sizes will share the same pool.
+     */
+    public static ChunkAllocator acquire(int segmentSize, long budgetBytes) {
+        synchronized (DirectSegmentPool.class) {
+            if (instance == null) {
+                instance = new DirectSegmentPool(segmentSize);
+            } else if (instance.segmentSize != segmentSize) {
+                LOG.warn("Direct segment pool already exists with segment size {}, ignore the size {}",
+                        instance.segmentSize, segmentSize);
+            }
+            instance.refCount += 1;
+            instance.budgetBytes += budgetBytes;
+            LOG.info("Acquire direct segment pool, segmentSize: {}, budgetBytes: {}, refCount: {}",
+                    instance.segmentSize, instance.budgetBytes, instance.refCount);
+            return instance.new Handle(budgetBytes);
+        }
+    }
+
+    private void release(long budgetBytes) {
+        synchronized (DirectSegmentPool.class) {
+            this.budgetBytes -= budgetBytes;
+            refCount -= 1;
+            LOG.info("Release direct segment pool, budgetBytes: {}, usedBytes: {}, refCount: {}",
+                    this.budgetBytes, usedBytes.get(), refCount);
+            if (refCount == 0) {
+                // the memory of the free segments is reclaimed when they are garbage collected
+                freeSegments.clear();
+                numFreeSegments.set(0);
+                if (instance == this) {
+                    instance = null;
+                }
+            } else {
+                trimFreeSegments();
+            }
+        }
+    }
+
+    public int getSegmentSize() {
+        return segmentSize;
+    }
+
+    public long getUsedBytes() {
+        return usedBytes.get();
+    }
+
+    public long getBudgetBytes() {
+        return budgetBytes;
+    }
+
+    public int getNumFreeSegments() {
+        return numFreeSegments.get();
+    }
+
+    public boolean isExhausted() {
+        return usedBytes.get() >= budgetBytes;
+    }
+
+    ByteBuffer allocateSegment() {
+        usedBytes.addAndGet(segmentSize);
+        ByteBuffer segment = freeSegments.poll();
+        if (segment != null) {
+            numFreeSegments.decrementAndGet();
+            return segment;
+        }
+        return ByteBuffer.allocateDirect(segmentSize);
+    }
+
+    void recycleSegment(ByteBuffer segment) {
+        segment.clear();
+        usedBytes.addAndGet(-segmentSize);
+        freeSegments.offer(segment);
+        numFreeSegments.incrementAndGet();
+        trimFreeSegments();
+    }
+
+    // free and used segments together should not exceed the budget
+    private void trimFreeSegments() {
+        while (usedBytes.get() + (long) numFreeSegments.get() * segmentSize > budgetBytes) {
+            if (freeSegments.poll() == null) {
+                break;
+            }
+            numFreeSegments.decrementAndGet();
+        }
+    }
+
+    /**
+     * The allocator for one manager which holds its budget in the pool.
+     */
+    public class Handle implements ChunkAllocator {
+
+        private final long budgetBytes;
+        private boolean closed;
+
+        Handle(long budgetBytes) {
+            this.budgetBytes = budgetBytes;
+        }
+
+        public DirectSegmentPool getPool() {
+            return DirectSegmentPool.this;
+        }
+
+        @Override
+        public Chunk allocate(StreamLoadDataFormat format) {
+            return new DirectChunk(format, DirectSegmentPool.this);
+        }
+
+        @Override
+        public boolean isExhausted() {
+            return DirectSegmentPool.this.isExhausted();
+        }
+
+        @Override
+        public synchronized void close() {
+            if (!closed) {
+                closed = true;
+                release(budgetBytes);
+            }
+        }
+    }
+}
@@ -37,6 +37,11 @@ public class LoadMetrics {
     private final AtomicLong numberWriteTriggerFlush = new AtomicLong();
     private final AtomicLong numberWriteBlock = new AtomicLong();
     private final AtomicLong totalWriteBlockTimeNano = new AtomicLong();
+    private final AtomicLong numberSpill = new AtomicLong();
+    private final AtomicLong totalSpillBytes = new AtomicLong();
+    private final AtomicLong totalSpillTimeNano = new AtomicLong();
+    private final AtomicLong numberAdaptiveChunkGrow = new AtomicLong();
+    private final AtomicLong numberAdaptiveChunkShrink = new AtomicLong();
 
     public LoadMetrics() {
         this.startTimeNano = System.nanoTime();
@@ -68,6 +73,28 @@ public class LoadMetrics {
         totalWriteBlockTimeNano.addAndGet(timeNano);
     }
 
+    public void updateSpill(long bytes, long timeNano) {
+        numberSpill.incrementAndGet();
+        totalSpillBytes.addAndGet(bytes);
+        totalSpillTimeNano.addAndGet(timeNano);
+    }
+
+    public void updateAdaptiveChunkSize(boolean grow) {
+        if (grow) {
+            numberAdaptiveChunkGrow.incrementAndGet();
+        } else {
+            numberAdaptiveChunkShrink.incrementAndGet();
+        }
+    }
+
+    public long getNumberAdaptiveChunkGrow() {
+        return numberAdaptiveChunkGrow.get();
+    }
+
+    public long getNumberAdaptiveChunkShrink() {
+        return numberAdaptiveChunkShrink.get();
+    }
+
     @Override
     public String toString() {
         return "LoadMetrics{" +
@@ -81,6 +108,11 @@ public class LoadMetrics {
                 ", numberWriteTriggerFlush=" + numberWriteTriggerFlush +
                 ", numberWriteBlock=" + numberWriteBlock +
                 ", totalWriteBlockTimeNano=" + totalWriteBlockTimeNano +
+                ", numberSpill=" + numberSpill +
+                ", totalSpillBytes=" + totalSpillBytes +
+                ", totalSpillTimeNano=" + totalSpillTimeNano +
+                ", numberAdaptiveChunkGrow=" + numberAdaptiveChunkGrow +
+                ", numberAdaptiveChunkShrink=" + numberAdaptiveChunkShrink +
                 '}';
     }
 }
@@ -0,0 +1,165 @@
+/*
+ * Copyright 2021-present StarRocks, Inc. All rights reserved.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.starrocks.data.load.stream;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * Base class of the {@link Chunk}s which append the rows and delimiters in place to a list of
+ * fixed-size memory segments. Compared with {@link Chunk} which keeps a list node and a byte array
+ * for each row, there is no per-row object overhead, and the whole chunk can be written with a few
+ * bulk writes. Subclasses decide where the segments live.
+ *
+ * <p>Only one thread can write the chunk, and the chunk can be read by other threads after
+ * the writes are finished.
+ */
+public abstract class SegmentChunk extends Chunk {
+
+    protected final StreamLoadDataFormat format;
+    // offset of each row in the content which excludes format.first()
+    private long[] rowOffsets = new long[64];
+    private volatile int numRows;
+    private volatile long rowBytes;
+    private volatile long contentBytes;
+
+    protected SegmentChunk(StreamLoadDataFormat format) {
+        super(format);
+        this.format = format;
+    }
+
+    @Override
+    public void addRow(byte[] data) {
+        addRow(data, 0, data.length);
+    }
+
+    // the bytes are appended to the segments, so the array can be reused by the caller
+    @Override
+    public void addRow(byte[] data, int off, int len) {
+        if (isReleased() || isSpilled()) {
+            throw new IllegalStateException("Can't add row to a released or spilled chunk");
+        }
+        if (numRows > 0) {
+            append(format.delimiter());
+        }
+        if (numRows == rowOffsets.length) {
+            rowOffsets = Arrays.copyOf(rowOffsets, rowOffsets.length * 2);
+        }
+        rowOffsets[numRows] = contentBytes;
+        append(data, off, len);
+        rowBytes += len;
+        numRows += 1;
+    }
+
+    private void append(byte[] data) {
+        append(data, 0, data.length);
+    }
+
+    private void append(byte[] data, int off, int len) {
+        appendContent(data, off, len);
+        contentBytes += len;
+    }
+
+    @Override
+    public int numRows() {
+        return numRows;
+    }
+
+    @Override
+    public long rowBytes() {
+        return rowBytes;
+    }
+
+    @Override
+    public long chunkBytes() {
+        return format.first().length + contentBytes + format.end().length;
+    }
+
+    @Override
+    public long estimateChunkSize(int rowBytes) {
+        return chunkBytes() + rowBytes + format.delimiter().length;
+    }
+
+    /**
+     * The offset of the row in the chunk, including the length of format.first().
+     */
+    public long rowOffset(int index) {
+        if (index < 0 || index >= numRows) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", numRows: " + numRows);
+        }
+        return format.first().length + rowOffsets[index];
+    }
+
+    @Override
+    protected Iterator<byte[]> bufferIterator() {
+        List<byte[]> items = new ArrayList<>();
+        items.add(format.first());
+        items.addAll(contentItems());
+        items.add(format.end());
+        return items.iterator();
+    }
+
+    @Override
+    protected List<ByteBuffer> bufferToByteBuffers() {
+        List<ByteBuffer> buffers = new ArrayList<>();
+        buffers.add(ByteBuffer.wrap(format.first()));
+        buffers.addAll(contentBuffers());
+        buffers.add(ByteBuffer.wrap(format.end()));
+        return buffers;
+    }
+
+    @Override
+    protected void writeBufferTo(OutputStream outputStream) throws IOException {
+        outputStream.write(format.first());
+        writeContent(outputStream);
+        outputStream.write(format.end());
+    }
+
+    @Override
+    protected void writeBufferContentTo(OutputStream outputStream) throws IOException {
+        writeContent(outputStream);
+    }
+
+    @Override
+    protected void releaseBuffer() {
+        releaseContent();
+    }
+
+    // append the bytes in the range of the array to the end of the segments
+    protected abstract void appendContent(byte[] data, int off, int len);
+
+    // the content in the segments as byte arrays, used by the iterator
+    protected abstract List<byte[]> contentItems();
+
+    // the content in the segments as byte buffers without copying
+    protected abstract List<ByteBuffer> contentBuffers();
+
+    // write the content in the segments to the output stream
+    protected abstract void writeContent(OutputStream outputStream) throws IOException;
+
+    // return the segments to where they are allocated from
+    protected abstract void releaseContent();
+}
@@ -0,0 +1,108 @@
+/*
+ * Copyright 2021-present StarRocks, Inc. All rights reserved.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.starrocks.data.load.stream;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * A {@link SegmentChunk} whose segments are the heap byte arrays (slabs) allocated from
+ * a {@link SlabPool}. The slabs are returned to the pool in {@link #release()}.
+ */
+public class SlabChunk extends SegmentChunk {
+
+    private final SlabPool pool;
+    private final int slabSize;
+    private final List<byte[]> slabs = new ArrayList<>();
+    // position in the last slab to append
+    private int slabPos;
+
+    public SlabChunk(StreamLoadDataFormat format, SlabPool pool) {
+        super(format);
+        this.pool = pool;
+        this.slabSize = pool.getSlabSize();
+        this.slabPos = slabSize;
+    }
+
+    @Override
+    protected void appendContent(byte[] data, int off, int len) {
+        int end = off + len;
+        while (off < end) {
+            if (slabPos == slabSize) {
+                slabs.add(pool.allocateSlab());
+                slabPos = 0;
+            }
+            int n = Math.min(end - off, slabSize - slabPos);
+            System.arraycopy(data, off, slabs.get(slabs.size() - 1), slabPos, n);
+            off += n;
+            slabPos += n;
+        }
+    }
+
+    @Override
+    public long allocatedBytes() {
+        return (long) slabs.size() * slabSize;
+    }
+
+    @Override
+    protected List<byte[]> contentItems() {
+        List<byte[]> items = new ArrayList<>(slabs.size());
+        for (int i = 0; i < slabs.size(); i++) {
+            int len = slabLength(i);
+            byte[] slab = slabs.get(i);
+            items.add(len == slab.length ? slab : Arrays.copyOf(slab, len));
+        }
+        return items;
+    }
+
+    @Override
+    protected List<ByteBuffer> contentBuffers() {
+        List<ByteBuffer> buffers = new ArrayList<>(slabs.size());
+        for (int i = 0; i < slabs.size(); i++) {
+            buffers.add(ByteBuffer.wrap(slabs.get(i), 0, slabLength(i)));
+        }
+        return buffers;
+    }
+
+    @Override
+    protected void writeContent(OutputStream outputStream) throws IOException {
+        for (int i = 0; i < slabs.size(); i++) {
+            outputStream.write(slabs.get(i), 0, slabLength(i));
+        }
+    }
+
+    private int slabLength(int index) {
+        return index == slabs.size() - 1 ? slabPos : slabSize;
+    }
+
+    @Override
+    protected void releaseContent() {
+        for (byte[] slab : slabs) {
+            pool.recycleSlab(slab);
+        }
+        slabs.clear();
+        slabPos = slabSize;
+    }
+}
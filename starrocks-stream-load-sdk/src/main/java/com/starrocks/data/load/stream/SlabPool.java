@@ -0,0 +1,115 @@
+/*
+ * Copyright 2021-present StarRocks, Inc. All rights reserved.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.starrocks.data.load.stream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A pool of fixed-size byte arrays (slabs) which are shared by the {@link SlabChunk}s. Slabs are
+ * returned to the pool after the chunk is loaded. The whole slabs held by the chunks are counted
+ * against {@code budgetBytes} even if they are partly filled, so the memory of many tables with
+ * few rows is not underestimated. The budget is a soft limit like {@link DirectSegmentPool}.
+ * Allocating a slab never blocks, and writers should wait until {@link #isExhausted()} returns
+ * false before writing. The free slabs are kept only within the budget so that the memory can be
+ * reclaimed after a burst of writes.
+ */
+public class SlabPool implements ChunkAllocator {
+
+    private static final Logger LOG = LoggerFactory.getLogger(SlabPool.class);
+
+    private final int slabSize;
+    private final long budgetBytes;
+    private final ConcurrentLinkedQueue<byte[]> freeSlabs = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger numFreeSlabs = new AtomicInteger();
+    private final AtomicLong numUsedSlabs = new AtomicLong();
+
+    public SlabPool(int slabSize, long budgetBytes) {
+        if (slabSize <= 0) {
+            throw new IllegalArgumentException("slabSize `" + slabSize + "` must be greater than 0");
+        }
+        this.slabSize = slabSize;
+        // keep at least one free slab
+        this.budgetBytes = Math.max(slabSize, budgetBytes);
+        LOG.info("Create slab pool, slabSize: {}, budgetBytes: {}", slabSize, this.budgetBytes);
+    }
+
+    @Override
+    public Chunk allocate(StreamLoadDataFormat format) {
+        return new SlabChunk(format, this);
+    }
+
+    public int getSlabSize() {
+        return slabSize;
+    }
+
+    public int getNumFreeSlabs() {
+        return numFreeSlabs.get();
+    }
+
+    public long getNumUsedSlabs() {
+        return numUsedSlabs.get();
+    }
+
+    public long getUsedBytes() {
+        return numUsedSlabs.get() * slabSize;
+    }
+
+    public long getBudgetBytes() {
+        return budgetBytes;
+    }
+
+    @Override
+    public boolean isExhausted() {
+        return getUsedBytes() >= budgetBytes;
+    }
+
+    byte[] allocateSlab() {
+        numUsedSlabs.incrementAndGet();
+        byte[] slab = freeSlabs.poll();
+        if (slab != null) {
+            numFreeSlabs.decrementAndGet();
+            return slab;
+        }
+        return new byte[slabSize];
+    }
+
+    void recycleSlab(byte[] slab) {
+        numUsedSlabs.decrementAndGet();
+        freeSlabs.offer(slab);
+        numFreeSlabs.incrementAndGet();
+        trimFreeSlabs();
+    }
+
+    // free and used slabs together should not exceed the budget
+    private void trimFreeSlabs() {
+        while (getUsedBytes() + (long) numFreeSlabs.get() * slabSize > budgetBytes) {
+            if (freeSlabs.poll() == null) {
+                break;
+            }
+            numFreeSlabs.decrementAndGet();
+        }
+    }
+}
@@ -20,10 +20,33 @@
 
 package com.starrocks.data.load.stream;
 
+import java.nio.ByteBuffer;
+
 public interface StreamLoadManager {
 
     void init();
     void write(String uniqueKey, String database, String table, String... rows);
+
+    /**
+     * Write rows which are already encoded in UTF-8. The cache is accounted once for all the rows,
+     * so it's cheaper than writing them one by one. The arrays should not be modified after this call.
+     */
+    void write(String uniqueKey, String database, String table, byte[]... rows);
+
+    /**
+     * Write the remaining bytes of the buffer as a row which is already encoded in UTF-8. The bytes
+     * are consumed, and the buffer can be reused after this call.
+     */
+    void write(String uniqueKey, String database, String table, ByteBuffer row);
+
+    /**
+     * Same as {@link #write(String, String, String, ByteBuffer)} for a row of a primary key table. If the
+     * manager supports upsert compaction, only the last row of the key is loaded among the rows written
+     * between two flushes. Otherwise, the key is ignored. The key should not be modified after this call.
+     */
+    default void write(String uniqueKey, String database, String table, byte[] key, ByteBuffer row) {
+        write(uniqueKey, database, table, row);
+    }
     void callback(StreamLoadResponse response);
     void callback(Throwable e);
     void flush();
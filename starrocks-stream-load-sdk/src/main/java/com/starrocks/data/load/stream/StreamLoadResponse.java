@@ -214,6 +214,10 @@ public class StreamLoadResponse implements Serializable {
             return streamLoadPlanTimeMs;
         }
 
+        public Long getBeginTxnTimeMs() {
+            return beginTxnTimeMs;
+        }
+
         public Long getReadDataTimeMs() {
             return readDataTimeMs;
         }
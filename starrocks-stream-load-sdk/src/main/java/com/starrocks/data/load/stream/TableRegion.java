@@ -25,6 +25,7 @@ import com.starrocks.data.load.stream.http.StreamLoadEntityMeta;
 import com.starrocks.data.load.stream.properties.StreamLoadTableProperties;
 import org.apache.http.HttpEntity;
 
+import java.util.Arrays;
 import java.util.Map;
 import java.util.concurrent.Future;
 
@@ -51,6 +52,23 @@ public interface TableRegion {
     long getAge();
 
     int write(byte[] row);
+
+    /**
+     * Write the bytes in the range of the array as a row. The array may be reused by the caller
+     * after this returns.
+     */
+    default int write(byte[] data, int off, int len) {
+        return write(Arrays.copyOfRange(data, off, off + len));
+    }
+
+    /**
+     * Write a row of a primary key table with its key. The region may keep only the last row of the
+     * key before the rows are flushed. Returns the change of the cached bytes, which may be negative
+     * if a larger row is replaced. The key should not be modified after this call.
+     */
+    default int write(byte[] key, byte[] data, int off, int len) {
+        return write(data, off, len);
+    }
     byte[] read();
 
     boolean testPrepare();
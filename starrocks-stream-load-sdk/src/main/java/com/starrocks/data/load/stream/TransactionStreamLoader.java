@@ -30,8 +30,6 @@ import org.apache.http.client.methods.CloseableHttpResponse;
 import org.apache.http.client.methods.HttpPost;
 import org.apache.http.impl.client.CloseableHttpClient;
 import org.apache.http.impl.client.DefaultRedirectStrategy;
-import org.apache.http.impl.client.HttpClientBuilder;
-import org.apache.http.impl.client.HttpClients;
 import org.apache.http.message.BasicHeader;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -54,7 +52,7 @@ public class TransactionStreamLoader extends DefaultStreamLoader {
 
     private Header[] beginTxnHeader;
 
-    private HttpClientBuilder clientBuilder;
+    private CloseableHttpClient httpClient;
 
     private StreamLoadManager manager;
 
@@ -87,13 +85,27 @@ public class TransactionStreamLoader extends DefaultStreamLoader {
         this.manager = manager;
         enableTransaction();
         initTxHeaders(properties);
-        clientBuilder = HttpClients.custom()
+        httpClient = getHttpClientPool().newClientBuilder()
                 .setRedirectStrategy(new DefaultRedirectStrategy() {
                     @Override
                     protected boolean isRedirectable(String method) {
                         return true;
                     }
-                });
+                })
+                .build();
+    }
+
+    @Override
+    public void close() {
+        CloseableHttpClient client = httpClient;
+        if (client != null) {
+            try {
+                client.close();
+            } catch (IOException e) {
+                log.warn("Failed to close transaction http client", e);
+            }
+        }
+        super.close();
     }
 
     @Override
@@ -132,9 +144,9 @@ public class TransactionStreamLoader extends DefaultStreamLoader {
         String table = region.getTable();
         log.info("Transaction start, db: {}, table: {}, label: {}, request : {}", db, table, label, httpPost);
 
-        try (CloseableHttpClient client = clientBuilder.build()) {
+        try {
             String responseBody;
-            try (CloseableHttpResponse response = client.execute(httpPost)) {
+            try (CloseableHttpResponse response = httpClient.execute(httpPost)) {
                 responseBody = parseHttpResponse("begin transaction", region.getDatabase(), region.getTable(), label, response);
             }
             log.info("Transaction started, db: {}, table: {}, label: {}, body : {}", db, table, label, responseBody);
@@ -162,12 +174,15 @@ public class TransactionStreamLoader extends DefaultStreamLoader {
         } catch (StreamLoadFailException se) {
             throw se;
         } catch (Exception e) {
+            reportHostFailure(host, e);
             throw new RuntimeException(e);
         }
     }
 
     @Override
     public boolean prepare(StreamLoadSnapshot.Transaction transaction) {
+        // no more load for the transaction after prepare
+        clearRedirectTarget(transaction.getLabel());
         String host = getAvailableHost();
         String prepareUrl = getPrepareUrl(host);
 
@@ -185,9 +200,9 @@ public class TransactionStreamLoader extends DefaultStreamLoader {
 
         log.info("Transaction prepare, label : {}, request : {}", transaction.getLabel(), httpPost);
 
-        try (CloseableHttpClient client = clientBuilder.build()) {
+        try {
             String responseBody;
-            try (CloseableHttpResponse response = client.execute(httpPost)) {
+            try (CloseableHttpResponse response = httpClient.execute(httpPost)) {
                 responseBody = parseHttpResponse("prepare transaction", transaction.getDatabase(), transaction.getTable(),
                         transaction.getLabel(), response);
             }
@@ -233,6 +248,7 @@ public class TransactionStreamLoader extends DefaultStreamLoader {
         } catch (StreamLoadFailException se) {
             throw se;
         } catch (Exception e) {
+            reportHostFailure(host, e);
             throw new RuntimeException(e);
         }
     }
@@ -256,9 +272,9 @@ public class TransactionStreamLoader extends DefaultStreamLoader {
 
         log.info("Transaction commit, label: {}, request : {}", transaction.getLabel(), httpPost);
 
-        try (CloseableHttpClient client = clientBuilder.build()) {
+        try {
             String responseBody;
-            try (CloseableHttpResponse response = client.execute(httpPost)) {
+            try (CloseableHttpResponse response = httpClient.execute(httpPost)) {
                 responseBody = parseHttpResponse("commit transaction", transaction.getDatabase(), transaction.getTable(),
                         transaction.getLabel(), response);
             }
@@ -307,12 +323,14 @@ public class TransactionStreamLoader extends DefaultStreamLoader {
             }
             throw new StreamLoadFailException(exceptionMsg);
         } catch (Exception e) {
+            reportHostFailure(host, e);
             throw new RuntimeException(e);
         }
     }
 
     @Override
     public boolean rollback(StreamLoadSnapshot.Transaction transaction) {
+        clearRedirectTarget(transaction.getLabel());
         String host = getAvailableHost();
         String rollbackUrl = getRollbackUrl(host);
         log.info("Transaction rollback, label : {}", transaction.getLabel());
@@ -323,9 +341,9 @@ public class TransactionStreamLoader extends DefaultStreamLoader {
         httpPost.addHeader("db", transaction.getDatabase());
         httpPost.addHeader("table", transaction.getTable());
 
-        try (CloseableHttpClient client = clientBuilder.build()) {
+        try {
             String responseBody;
-            try (CloseableHttpResponse response = client.execute(httpPost)) {
+            try (CloseableHttpResponse response = httpClient.execute(httpPost)) {
                 responseBody = parseHttpResponse("abort transaction", transaction.getDatabase(), transaction.getTable(),
                         transaction.getLabel(), response);
             }
@@ -352,6 +370,7 @@ public class TransactionStreamLoader extends DefaultStreamLoader {
                     transaction.getDatabase(), transaction.getTable(), transaction.getLabel(), msg);
             return false;
         } catch (IOException e) {
+            reportHostFailure(host, e);
             throw new RuntimeException(e);
         }
     }
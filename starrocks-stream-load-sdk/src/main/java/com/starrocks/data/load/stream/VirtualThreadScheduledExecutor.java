@@ -0,0 +1,197 @@
+/*
+ * Copyright 2021-present StarRocks, Inc. All rights reserved.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.starrocks.data.load.stream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Delayed;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A {@link ScheduledExecutorService} which runs each task on a new virtual thread, so the blocking
+ * http calls do not need a pool of platform threads sized for the concurrency. A single platform
+ * thread is only used to trigger the delayed tasks, which then run on virtual threads too.
+ *
+ * <p>Virtual threads are available since Java 21, and they are created by reflection so that the
+ * SDK can still be built and run on Java 8. Use {@link #create(String, Thread.UncaughtExceptionHandler)}
+ * which returns null if the runtime does not support them.
+ */
+public class VirtualThreadScheduledExecutor extends AbstractExecutorService implements ScheduledExecutorService {
+
+    private static final Logger LOG = LoggerFactory.getLogger(VirtualThreadScheduledExecutor.class);
+
+    private final ExecutorService executor;
+    private final ScheduledThreadPoolExecutor scheduler;
+
+    VirtualThreadScheduledExecutor(ExecutorService executor, String schedulerName) {
+        this.executor = executor;
+        this.scheduler = new ScheduledThreadPoolExecutor(1, r -> {
+            Thread thread = new Thread(r, schedulerName);
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.setRemoveOnCancelPolicy(true);
+    }
+
+    /**
+     * Create an executor whose threads are named with the prefix and a sequence number, or
+     * return null if the runtime does not support virtual threads.
+     */
+    public static VirtualThreadScheduledExecutor create(String namePrefix, Thread.UncaughtExceptionHandler handler) {
+        ThreadFactory factory = newVirtualThreadFactory(namePrefix, handler);
+        if (factory == null) {
+            return null;
+        }
+        try {
+            ExecutorService executor = (ExecutorService) Executors.class
+                    .getMethod("newThreadPerTaskExecutor", ThreadFactory.class)
+                    .invoke(null, factory);
+            return new VirtualThreadScheduledExecutor(executor, namePrefix + "scheduler");
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            LOG.warn("Failed to create virtual thread executor, java version: {}", System.getProperty("java.version"), e);
+            return null;
+        }
+    }
+
+    // Thread.ofVirtual().name(prefix, 0).uncaughtExceptionHandler(handler).factory()
+    static ThreadFactory newVirtualThreadFactory(String namePrefix, Thread.UncaughtExceptionHandler handler) {
+        try {
+            Class<?> builderClass = Class.forName("java.lang.Thread$Builder");
+            Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+            builder = builderClass.getMethod("name", String.class, long.class).invoke(builder, namePrefix, 0L);
+            builder = builderClass.getMethod("uncaughtExceptionHandler", Thread.UncaughtExceptionHandler.class)
+                    .invoke(builder, handler);
+            return (ThreadFactory) builderClass.getMethod("factory").invoke(builder);
+        } catch (ClassNotFoundException | NoSuchMethodException e) {
+            LOG.info("Virtual threads are not supported by java version {}", System.getProperty("java.version"));
+            return null;
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            // such as virtual threads are a preview feature which is not enabled in Java 19 and 20
+            LOG.warn("Virtual threads are not available, java version: {}", System.getProperty("java.version"), e);
+            return null;
+        }
+    }
+
+    @Override
+    public void execute(Runnable command) {
+        executor.execute(command);
+    }
+
+    @Override
+    public ScheduledFuture<?> schedule(Runnable command, long delay, TimeUnit unit) {
+        return schedule(Executors.callable(command, null), delay, unit);
+    }
+
+    @Override
+    public <V> ScheduledFuture<V> schedule(Callable<V> callable, long delay, TimeUnit unit) {
+        DelayedTask<V> task = new DelayedTask<>(callable);
+        task.timer = scheduler.schedule(() -> {
+            try {
+                executor.execute(task);
+            } catch (RejectedExecutionException e) {
+                task.reject(e);
+            }
+        }, delay, unit);
+        return task;
+    }
+
+    @Override
+    public ScheduledFuture<?> scheduleAtFixedRate(Runnable command, long initialDelay, long period, TimeUnit unit) {
+        return scheduler.scheduleAtFixedRate(() -> executor.execute(command), initialDelay, period, unit);
+    }
+
+    @Override
+    public ScheduledFuture<?> scheduleWithFixedDelay(Runnable command, long initialDelay, long delay, TimeUnit unit) {
+        return scheduler.scheduleWithFixedDelay(() -> executor.execute(command), initialDelay, delay, unit);
+    }
+
+    @Override
+    public void shutdown() {
+        scheduler.shutdown();
+        executor.shutdown();
+    }
+
+    @Override
+    public List<Runnable> shutdownNow() {
+        List<Runnable> tasks = new ArrayList<>(scheduler.shutdownNow());
+        tasks.addAll(executor.shutdownNow());
+        return tasks;
+    }
+
+    @Override
+    public boolean isShutdown() {
+        return executor.isShutdown();
+    }
+
+    @Override
+    public boolean isTerminated() {
+        return scheduler.isTerminated() && executor.isTerminated();
+    }
+
+    @Override
+    public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+        return scheduler.awaitTermination(timeout, unit)
+                && executor.awaitTermination(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+    }
+
+    // A task triggered by the scheduler and run by the executor
+    private static class DelayedTask<V> extends FutureTask<V> implements ScheduledFuture<V> {
+
+        private volatile ScheduledFuture<?> timer;
+
+        DelayedTask(Callable<V> callable) {
+            super(callable);
+        }
+
+        void reject(RejectedExecutionException e) {
+            setException(e);
+        }
+
+        @Override
+        public long getDelay(TimeUnit unit) {
+            return timer.getDelay(unit);
+        }
+
+        @Override
+        public int compareTo(Delayed other) {
+            return Long.compare(getDelay(TimeUnit.NANOSECONDS), other.getDelay(TimeUnit.NANOSECONDS));
+        }
+
+        @Override
+        public boolean cancel(boolean mayInterruptIfRunning) {
+            timer.cancel(false);
+            return super.cancel(mayInterruptIfRunning);
+        }
+    }
+}
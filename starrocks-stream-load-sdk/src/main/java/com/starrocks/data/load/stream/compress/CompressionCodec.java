@@ -39,6 +39,14 @@ public interface CompressionCodec {
      */
     OutputStream createCompressionStream(final OutputStream rawOutputStream, long contentSize) throws IOException;
 
+    /**
+     * Statistics of the data compressed by this codec. The codecs that do not collect statistics
+     * return {@link CompressionStats#NONE} which ignores the updates.
+     */
+    default CompressionStats getStats() {
+        return CompressionStats.NONE;
+    }
+
     static Optional<CompressionCodec> createCompressionCodec(StreamLoadDataFormat dataFormat,
                                                              Optional<String> compressionType,
                                                              Map<String, Object> properties) {
@@ -48,6 +56,12 @@ public interface CompressionCodec {
 
         if (LZ4FrameCompressionCodec.NAME.equalsIgnoreCase(compressionType.get())) {
             return Optional.of(LZ4FrameCompressionCodec.create(properties));
+        } else if (ZstdCompressionCodec.NAME.equalsIgnoreCase(compressionType.get())) {
+            return Optional.of(ZstdCompressionCodec.create(properties));
+        } else if (GzipCompressionCodec.NAME.equalsIgnoreCase(compressionType.get())) {
+            return Optional.of(GzipCompressionCodec.create(properties));
+        } else if (SnappyCompressionCodec.NAME.equalsIgnoreCase(compressionType.get())) {
+            return Optional.of(SnappyCompressionCodec.create(properties));
         }
 
         throw new UnsupportedOperationException(
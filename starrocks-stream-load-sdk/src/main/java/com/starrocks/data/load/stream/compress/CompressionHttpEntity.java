@@ -70,8 +70,10 @@ public class CompressionHttpEntity extends HttpEntityWrapper {
         long rawSize = entity.getContentLength();
         long compressSize = countingOutputStream.getCount();
         float compressRatio = compressSize == 0 ? 1 : (float) rawSize / compressSize;
+        long timeNs = System.nanoTime() - startTime;
+        compressionCodec.getStats().update(rawSize, compressSize, timeNs);
         LOG.info("Write entity for table {}, raw/compressed size:{}/{}, compress ratio:{}, time:{}us",
-                entity.getTableUniqueKey(), rawSize, compressSize, compressRatio, (System.nanoTime() - startTime) / 1000) ;
+                entity.getTableUniqueKey(), rawSize, compressSize, compressRatio, timeNs / 1000) ;
     }
 
     @Override
@@ -26,4 +26,9 @@ public class CompressionOptions {
 
     public static final String LZ4_BLOCK_SIZE = "compression.lz4.block.size";
     public static final LZ4FrameOutputStream.BLOCKSIZE DEFAULT_LZ4_BLOCK_SIZE = LZ4FrameOutputStream.BLOCKSIZE.SIZE_4MB;
+
+    public static final String ZSTD_LEVEL = "compression.zstd.level";
+    public static final int DEFAULT_ZSTD_LEVEL = 3;
+
+    public static final String GZIP_LEVEL = "compression.gzip.level";
 }
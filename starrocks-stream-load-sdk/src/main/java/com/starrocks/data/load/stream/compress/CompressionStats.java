@@ -0,0 +1,90 @@
+/*
+ * Copyright 2021-present StarRocks, Inc. All rights reserved.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.starrocks.data.load.stream.compress;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/** Statistics of the data compressed by a {@link CompressionCodec}. */
+public class CompressionStats {
+
+    /** Statistics that ignore the updates, and are always empty. */
+    public static final CompressionStats NONE = new CompressionStats() {
+
+        @Override
+        public void update(long rawSize, long compressedSize, long timeNs) {
+        }
+
+        @Override
+        public void merge(CompressionStats other) {
+        }
+    };
+
+    private final AtomicLong numCompressions = new AtomicLong();
+    private final AtomicLong rawBytes = new AtomicLong();
+    private final AtomicLong compressedBytes = new AtomicLong();
+    private final AtomicLong compressTimeNs = new AtomicLong();
+
+    public void update(long rawSize, long compressedSize, long timeNs) {
+        numCompressions.incrementAndGet();
+        rawBytes.addAndGet(rawSize);
+        compressedBytes.addAndGet(compressedSize);
+        compressTimeNs.addAndGet(timeNs);
+    }
+
+    public void merge(CompressionStats other) {
+        numCompressions.addAndGet(other.getNumCompressions());
+        rawBytes.addAndGet(other.getRawBytes());
+        compressedBytes.addAndGet(other.getCompressedBytes());
+        compressTimeNs.addAndGet(other.getCompressTimeNs());
+    }
+
+    public long getNumCompressions() {
+        return numCompressions.get();
+    }
+
+    public long getRawBytes() {
+        return rawBytes.get();
+    }
+
+    public long getCompressedBytes() {
+        return compressedBytes.get();
+    }
+
+    public long getCompressTimeNs() {
+        return compressTimeNs.get();
+    }
+
+    /** Ratio of the raw size to the compressed size, or 1 if nothing is compressed. */
+    public double getCompressionRatio() {
+        long compressed = compressedBytes.get();
+        return compressed == 0 ? 1 : (double) rawBytes.get() / compressed;
+    }
+
+    @Override
+    public String toString() {
+        return "CompressionStats{" +
+                "numCompressions=" + numCompressions +
+                ", rawBytes=" + rawBytes +
+                ", compressedBytes=" + compressedBytes +
+                ", compressTimeNs=" + compressTimeNs +
+                '}';
+    }
+}
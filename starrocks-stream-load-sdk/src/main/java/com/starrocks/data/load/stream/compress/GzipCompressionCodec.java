@@ -0,0 +1,70 @@
+/*
+ * Copyright 2021-present StarRocks, Inc. All rights reserved.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.starrocks.data.load.stream.compress;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Map;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPOutputStream;
+
+/** Compress data with gzip. */
+public class GzipCompressionCodec implements CompressionCodec {
+
+    public static final String NAME = "GZIP";
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final int level;
+    private final CompressionStats stats = new CompressionStats();
+
+    public GzipCompressionCodec(int level) {
+        this.level = level;
+    }
+
+    @Override
+    public OutputStream createCompressionStream(OutputStream rawOutputStream, long contentSize) throws IOException {
+        return new LeveledGzipOutputStream(rawOutputStream, level);
+    }
+
+    @Override
+    public CompressionStats getStats() {
+        return stats;
+    }
+
+    int getLevel() {
+        return level;
+    }
+
+    public static GzipCompressionCodec create(Map<String, Object> properties) {
+        int level = (int) properties.getOrDefault(CompressionOptions.GZIP_LEVEL, Deflater.DEFAULT_COMPRESSION);
+        return new GzipCompressionCodec(level);
+    }
+
+    // GZIPOutputStream does not expose the level of its deflater
+    private static class LeveledGzipOutputStream extends GZIPOutputStream {
+
+        LeveledGzipOutputStream(OutputStream out, int level) throws IOException {
+            super(out, BUFFER_SIZE);
+            def.setLevel(level);
+        }
+    }
+}
@@ -38,6 +38,7 @@ public class LZ4FrameCompressionCodec implements CompressionCodec {
     private final LZ4FrameOutputStream.BLOCKSIZE blockSize;
     private final LZ4Compressor compressor;
     private final XXHash32 hash;
+    private final CompressionStats stats = new CompressionStats();
 
     public LZ4FrameCompressionCodec(LZ4FrameOutputStream.BLOCKSIZE blockSize) {
         this.blockSize = blockSize;
@@ -55,6 +56,11 @@ public class LZ4FrameCompressionCodec implements CompressionCodec {
                         LZ4FrameOutputStream.FLG.Bits.BLOCK_INDEPENDENCE);
     }
 
+    @Override
+    public CompressionStats getStats() {
+        return stats;
+    }
+
     LZ4FrameOutputStream.BLOCKSIZE getBlockSize() {
         return blockSize;
     }
@@ -0,0 +1,59 @@
+/*
+ * Copyright 2021-present StarRocks, Inc. All rights reserved.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.starrocks.data.load.stream.compress;
+
+import com.github.luben.zstd.ZstdOutputStream;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Map;
+
+/** Compress data with zstd frames. */
+public class ZstdCompressionCodec implements CompressionCodec {
+
+    public static final String NAME = "ZSTD";
+
+    private final int level;
+    private final CompressionStats stats = new CompressionStats();
+
+    public ZstdCompressionCodec(int level) {
+        this.level = level;
+    }
+
+    @Override
+    public OutputStream createCompressionStream(OutputStream rawOutputStream, long contentSize) throws IOException {
+        return new ZstdOutputStream(rawOutputStream, level);
+    }
+
+    @Override
+    public CompressionStats getStats() {
+        return stats;
+    }
+
+    int getLevel() {
+        return level;
+    }
+
+    public static ZstdCompressionCodec create(Map<String, Object> properties) {
+        int level = (int) properties.getOrDefault(CompressionOptions.ZSTD_LEVEL, CompressionOptions.DEFAULT_ZSTD_LEVEL);
+        return new ZstdCompressionCodec(level);
+    }
+}
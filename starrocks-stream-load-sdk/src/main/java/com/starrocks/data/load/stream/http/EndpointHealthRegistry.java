@@ -0,0 +1,321 @@
+/*
+ * Copyright 2021-present StarRocks, Inc. All rights reserved.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.starrocks.data.load.stream.http;
+
+import com.starrocks.data.load.stream.properties.StreamLoadProperties;
+import org.apache.http.conn.ConnectTimeoutException;
+import org.apache.http.conn.HttpHostConnectException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.net.ConnectException;
+import java.net.HttpURLConnection;
+import java.net.NoRouteToHostException;
+import java.net.URL;
+import java.net.UnknownHostException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Tracks the health of the hosts in `load-url`. A background thread probes the hosts periodically,
+ * and keeps an EWMA of the connect latency for each healthy host. {@link #select()} picks a host
+ * from the healthy ones without any I/O. Connection failures seen by the real requests should be
+ * reported by {@link #reportFailure(String, Throwable)} so that the host is marked down immediately
+ * until the next successful probe.
+ *
+ * <p>Registries are shared by all loaders in the JVM with the same `load-url`, and they are reference
+ * counted. Use {@link #acquire(StreamLoadProperties)} and {@link #release()} to get and return one.
+ */
+public class EndpointHealthRegistry {
+
+    private static final Logger LOG = LoggerFactory.getLogger(EndpointHealthRegistry.class);
+
+    // weight of the latest probe latency in the EWMA score
+    private static final double EWMA_ALPHA = 0.3;
+
+    private static final Map<String, EndpointHealthRegistry> REGISTRIES = new HashMap<>();
+
+    public enum SelectPolicy {
+        // rotate among the healthy hosts
+        ROUND_ROBIN,
+        // always choose the healthy host with the lowest latency score
+        LEAST_LATENCY,
+        // choose two healthy hosts randomly, and use the one with lower latency score
+        POWER_OF_TWO_CHOICES
+    }
+
+    private final String key;
+    private final Endpoint[] endpoints;
+    private final int connectTimeoutMs;
+    private final long probeIntervalMs;
+    private final SelectPolicy selectPolicy;
+    private final AtomicLong roundRobinPos = new AtomicLong();
+    private final ScheduledExecutorService probeExecutor;
+    private int refCount;
+
+    EndpointHealthRegistry(String key, String[] hosts, int connectTimeoutMs, long probeIntervalMs, SelectPolicy selectPolicy) {
+        this.key = key;
+        this.endpoints = Arrays.stream(hosts).map(Endpoint::new).toArray(Endpoint[]::new);
+        this.connectTimeoutMs = connectTimeoutMs;
+        this.probeIntervalMs = probeIntervalMs;
+        this.selectPolicy = selectPolicy;
+        // one thread for each host, so that an unreachable host will not delay the probing of others
+        this.probeExecutor = Executors.newScheduledThreadPool(endpoints.length, r -> {
+            Thread thread = new Thread(r, "StarRocks-Endpoint-Prober");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    public static EndpointHealthRegistry acquire(StreamLoadProperties properties) {
+        String key = String.join(";", properties.getLoadUrls());
+        synchronized (REGISTRIES) {
+            EndpointHealthRegistry registry = REGISTRIES.get(key);
+            if (registry == null) {
+                registry = new EndpointHealthRegistry(key, properties.getLoadUrls(), properties.getConnectTimeout(),
+                        properties.getEndpointProbeIntervalMs(), properties.getEndpointSelectPolicy());
+                registry.start();
+                REGISTRIES.put(key, registry);
+            }
+            registry.refCount += 1;
+            return registry;
+        }
+    }
+
+    public void release() {
+        synchronized (REGISTRIES) {
+            refCount -= 1;
+            if (refCount > 0) {
+                return;
+            }
+            REGISTRIES.remove(key);
+        }
+        probeExecutor.shutdownNow();
+        LOG.info("Endpoint health registry closed, hosts: {}", key);
+    }
+
+    void start() {
+        // probe once before serving any request so that the dead hosts are excluded from the beginning
+        probeAll();
+        for (Endpoint endpoint : endpoints) {
+            probeExecutor.scheduleWithFixedDelay(() -> probe(endpoint), probeIntervalMs, probeIntervalMs, TimeUnit.MILLISECONDS);
+        }
+        LOG.info("Endpoint health registry started, hosts: {}, probeIntervalMs: {}, selectPolicy: {}",
+                key, probeIntervalMs, selectPolicy);
+    }
+
+    /**
+     * Select a healthy host without any I/O. If all hosts are marked down, fall back to probing
+     * the hosts synchronously, and return null if none of them could be connected.
+     */
+    public String select() {
+        List<Endpoint> healthy = new ArrayList<>(endpoints.length);
+        for (Endpoint endpoint : endpoints) {
+            if (endpoint.healthy) {
+                healthy.add(endpoint);
+            }
+        }
+
+        if (healthy.isEmpty()) {
+            return selectByProbe();
+        }
+
+        if (healthy.size() == 1) {
+            return healthy.get(0).host;
+        }
+
+        switch (selectPolicy) {
+            case LEAST_LATENCY: {
+                Endpoint best = healthy.get(0);
+                for (Endpoint endpoint : healthy) {
+                    if (endpoint.score < best.score) {
+                        best = endpoint;
+                    }
+                }
+                return best.host;
+            }
+            case POWER_OF_TWO_CHOICES: {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                int first = random.nextInt(healthy.size());
+                int second = random.nextInt(healthy.size() - 1);
+                if (second >= first) {
+                    second += 1;
+                }
+                Endpoint a = healthy.get(first);
+                Endpoint b = healthy.get(second);
+                return a.score <= b.score ? a.host : b.host;
+            }
+            default:
+                return healthy.get((int) (roundRobinPos.getAndIncrement() % healthy.size())).host;
+        }
+    }
+
+    /**
+     * Mark the host down if the failure of a real request shows that the host can't be connected.
+     * Other failures, such as a failed load or a broken connection to the BE after redirect, do not
+     * change the state of the host.
+     */
+    public void reportFailure(String host, Throwable e) {
+        if (host == null || !isConnectFailure(host, e)) {
+            return;
+        }
+
+        for (Endpoint endpoint : endpoints) {
+            if (endpoint.host.equals(host) && endpoint.healthy) {
+                endpoint.healthy = false;
+                LOG.warn("Mark host {} down because of connection failure, and it will be back after a successful probe",
+                        host, e);
+            }
+        }
+    }
+
+    public boolean isHealthy(String host) {
+        for (Endpoint endpoint : endpoints) {
+            if (endpoint.host.equals(host)) {
+                return endpoint.healthy;
+            }
+        }
+        return false;
+    }
+
+    public double getLatencyScore(String host) {
+        for (Endpoint endpoint : endpoints) {
+            if (endpoint.host.equals(host)) {
+                return endpoint.score;
+            }
+        }
+        return Double.NaN;
+    }
+
+    public int getNumHealthyHosts() {
+        int num = 0;
+        for (Endpoint endpoint : endpoints) {
+            if (endpoint.healthy) {
+                num += 1;
+            }
+        }
+        return num;
+    }
+
+    void probeAll() {
+        List<Future<?>> futures = new ArrayList<>(endpoints.length);
+        for (Endpoint endpoint : endpoints) {
+            futures.add(probeExecutor.submit(() -> probe(endpoint)));
+        }
+        for (Future<?> future : futures) {
+            try {
+                future.get();
+            } catch (Exception e) {
+                LOG.warn("Failed to probe hosts {}", key, e);
+            }
+        }
+    }
+
+    private String selectByProbe() {
+        LOG.warn("None of the hosts {} is healthy, try to probe them synchronously", key);
+        for (Endpoint endpoint : endpoints) {
+            if (probe(endpoint)) {
+                return endpoint.host;
+            }
+        }
+        return null;
+    }
+
+    private boolean probe(Endpoint endpoint) {
+        long startTime = System.nanoTime();
+        try {
+            URL url = new URL(endpoint.host);
+            HttpURLConnection connection = (HttpURLConnection) url.openConnection();
+            connection.setConnectTimeout(connectTimeoutMs);
+            connection.connect();
+            connection.disconnect();
+        } catch (Exception e) {
+            if (endpoint.healthy) {
+                LOG.warn("Failed to connect to address:{}, mark it down", endpoint.host, e);
+            }
+            endpoint.healthy = false;
+            return false;
+        }
+
+        double latencyMs = (System.nanoTime() - startTime) / 1000000.0;
+        endpoint.score = Double.isNaN(endpoint.score)
+                ? latencyMs : EWMA_ALPHA * latencyMs + (1 - EWMA_ALPHA) * endpoint.score;
+        if (!endpoint.healthy) {
+            LOG.info("Host {} is healthy, latency: {} ms, score: {}", endpoint.host, latencyMs, endpoint.score);
+        }
+        endpoint.healthy = true;
+        return true;
+    }
+
+    private static boolean isConnectFailure(String host, Throwable e) {
+        for (Throwable t = e; t != null; t = t.getCause()) {
+            if (t instanceof HttpHostConnectException) {
+                return matchHost(host, ((HttpHostConnectException) t).getHost() == null
+                        ? null : ((HttpHostConnectException) t).getHost().toURI());
+            }
+            if (t instanceof ConnectTimeoutException) {
+                return matchHost(host, ((ConnectTimeoutException) t).getHost() == null
+                        ? null : ((ConnectTimeoutException) t).getHost().toURI());
+            }
+            if (t instanceof ConnectException || t instanceof NoRouteToHostException || t instanceof UnknownHostException) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // the failed target may be a BE that the FE redirects to, and only the failure on the host itself counts
+    private static boolean matchHost(String host, String target) {
+        if (target == null) {
+            return true;
+        }
+        try {
+            URL hostUrl = new URL(host);
+            URL targetUrl = new URL(target);
+            int hostPort = hostUrl.getPort() == -1 ? hostUrl.getDefaultPort() : hostUrl.getPort();
+            int targetPort = targetUrl.getPort() == -1 ? targetUrl.getDefaultPort() : targetUrl.getPort();
+            return hostUrl.getHost().equalsIgnoreCase(targetUrl.getHost()) && hostPort == targetPort;
+        } catch (Exception ex) {
+            return true;
+        }
+    }
+
+    private static class Endpoint {
+
+        private final String host;
+        private volatile boolean healthy = true;
+        // EWMA of the connect latency in milliseconds, NaN if never probed successfully
+        private volatile double score = Double.NaN;
+
+        Endpoint(String host) {
+            this.host = host;
+        }
+    }
+}
@@ -0,0 +1,100 @@
+/*
+ * Copyright 2021-present StarRocks, Inc. All rights reserved.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.starrocks.data.load.stream.http;
+
+import com.starrocks.data.load.stream.properties.StreamLoadProperties;
+import org.apache.http.impl.client.HttpClientBuilder;
+import org.apache.http.impl.client.HttpClients;
+import org.apache.http.impl.client.IdleConnectionEvictor;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.apache.http.pool.PoolStats;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A long-lived pool of keep-alive http connections shared by all requests of a stream loader.
+ * Clients built from {@link #newClientBuilder()} share the pool, so closing them will not close
+ * the pooled connections. The pool is released only when {@link #close()} is called.
+ */
+public class HttpClientPool implements Closeable {
+
+    private static final Logger LOG = LoggerFactory.getLogger(HttpClientPool.class);
+
+    private final PoolingHttpClientConnectionManager connectionManager;
+    private final IdleConnectionEvictor idleConnectionEvictor;
+
+    public HttpClientPool(StreamLoadProperties properties) {
+        this.connectionManager = new PoolingHttpClientConnectionManager();
+        connectionManager.setMaxTotal(properties.getMaxConnections());
+        connectionManager.setDefaultMaxPerRoute(properties.getMaxConnectionsPerRoute());
+        connectionManager.setValidateAfterInactivity(properties.getValidateAfterInactivityMs());
+        if (properties.getIdleConnectionTimeoutMs() > 0) {
+            this.idleConnectionEvictor = new IdleConnectionEvictor(connectionManager,
+                    properties.getIdleConnectionTimeoutMs(), TimeUnit.MILLISECONDS);
+            idleConnectionEvictor.start();
+        } else {
+            this.idleConnectionEvictor = null;
+        }
+        LOG.info("Create http client pool, maxConnections: {}, maxConnectionsPerRoute: {}, " +
+                        "idleConnectionTimeoutMs: {}, validateAfterInactivityMs: {}",
+                properties.getMaxConnections(), properties.getMaxConnectionsPerRoute(),
+                properties.getIdleConnectionTimeoutMs(), properties.getValidateAfterInactivityMs());
+    }
+
+    /**
+     * Create a client builder backed by this pool. The clients built from it can be closed
+     * after each request without closing the pooled connections.
+     */
+    public HttpClientBuilder newClientBuilder() {
+        return HttpClients.custom()
+                .setConnectionManager(connectionManager)
+                .setConnectionManagerShared(true);
+    }
+
+    public int getLeasedConnections() {
+        return connectionManager.getTotalStats().getLeased();
+    }
+
+    public int getAvailableConnections() {
+        return connectionManager.getTotalStats().getAvailable();
+    }
+
+    public int getPendingConnections() {
+        return connectionManager.getTotalStats().getPending();
+    }
+
+    public int getMaxConnections() {
+        return connectionManager.getMaxTotal();
+    }
+
+    @Override
+    public void close() {
+        if (idleConnectionEvictor != null) {
+            idleConnectionEvictor.shutdown();
+        }
+        PoolStats stats = connectionManager.getTotalStats();
+        connectionManager.close();
+        LOG.info("Close http client pool, stats when closing: {}", stats);
+    }
+}
@@ -21,7 +21,9 @@
 package com.starrocks.data.load.stream.properties;
 
 import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.starrocks.data.load.stream.ChunkAllocator;
 import com.starrocks.data.load.stream.StarRocksVersion;
+import com.starrocks.data.load.stream.http.EndpointHealthRegistry;
 
 import java.io.Serializable;
 import java.util.Arrays;
@@ -64,6 +66,27 @@ public class StreamLoadProperties implements Serializable {
      * 期望的单表延时时长
      */
     private final long expectDelayTime;
+    /**
+     * how to buffer the rows in memory before they are loaded
+     */
+    private final ChunkAllocator.Type chunkBufferType;
+    /**
+     * size of each slab if chunkBufferType is SLAB
+     */
+    private final int slabSize;
+    /**
+     * local directory to spill the chunks if the cache is full, null to disable spilling
+     */
+    private final String spillDirectory;
+    private final long maxSpillBytes;
+    /**
+     * number of threads to compress the sealed chunks in background, 0 to compress while sending
+     */
+    private final int compressionThreads;
+    /**
+     * send a pre-compressed chunk uncompressed if the compression ratio is lower than it
+     */
+    private final double minCompressionRatio;
 
     // http client settings
     /**
@@ -73,6 +96,59 @@ public class StreamLoadProperties implements Serializable {
     private final int socketTimeout;
     private final int waitForContinueTimeoutMs;
     private final int ioThreadCount;
+    // max number of concurrent loads for a table, only for non-transactional stream load
+    private final int maxInflightLoadsPerTable;
+    // max number of transactions to prepare, commit or rollback concurrently
+    private final int transactionParallelism;
+
+    // http connection pool settings
+    private final int maxConnectionsPerRoute;
+    private final int maxConnections;
+    /**
+     * ms
+     * idle connections in the pool are closed after this time, and non-positive value disables the eviction
+     */
+    private final long idleConnectionTimeoutMs;
+    /**
+     * ms
+     * pooled connections are validated before reuse if they are inactive for this time
+     */
+    private final int validateAfterInactivityMs;
+
+    // endpoint health settings
+    /**
+     * ms
+     * interval to probe the hosts in loadUrls in background
+     */
+    private final long endpointProbeIntervalMs;
+    private final EndpointHealthRegistry.SelectPolicy endpointSelectPolicy;
+    /**
+     * send the loads directly to the BE that FE redirected the previous load of the same
+     * transaction to, and go back to FE on failure. It only applies to transaction stream load
+     */
+    private final boolean directBeRouting;
+    /**
+     * size the chunks and trigger the flush of each table according to the feedback of the loads
+     */
+    private final boolean adaptiveFlush;
+    /**
+     * send the rows of a table in chunked transfer encoding while they are being written,
+     * and seal them as segments of streamingSegmentBytes
+     */
+    private final boolean streamingLoad;
+    private final long streamingSegmentBytes;
+    /**
+     * send the loads with a non-blocking http client driven by asyncHttpIoThreads reactor
+     * threads, so that the loads in flight do not occupy the I/O threads. Only used by the
+     * loads without transaction stream load, see {@link com.starrocks.data.load.stream.AsyncStreamLoader}
+     */
+    private final boolean asyncHttp;
+    private final int asyncHttpIoThreads;
+    /**
+     * run the loads and transaction operations on virtual threads instead of a pool of
+     * ioThreadCount platform threads if the runtime supports it (Java 21+)
+     */
+    private final boolean virtualThreads;
 
     // default strategy settings
     /**
@@ -108,11 +184,34 @@ public class StreamLoadProperties implements Serializable {
         this.scanningFrequency = builder.scanningFrequency;
         this.maxCacheBytes = builder.maxCacheBytes;
         this.expectDelayTime = builder.expectDelayTime;
+        this.chunkBufferType = builder.chunkBufferType;
+        this.slabSize = builder.slabSize;
+        this.spillDirectory = builder.spillDirectory;
+        this.maxSpillBytes = builder.maxSpillBytes;
+        this.compressionThreads = builder.compressionThreads;
+        this.minCompressionRatio = builder.minCompressionRatio;
 
         this.connectTimeout = builder.connectTimeout;
         this.socketTimeout = builder.socketTimeout;
         this.waitForContinueTimeoutMs = builder.waitForContinueTimeoutMs;
         this.ioThreadCount = builder.ioThreadCount;
+        this.maxInflightLoadsPerTable = builder.maxInflightLoadsPerTable;
+        this.transactionParallelism = builder.transactionParallelism;
+
+        this.maxConnectionsPerRoute = builder.maxConnectionsPerRoute;
+        this.maxConnections = builder.maxConnections;
+        this.idleConnectionTimeoutMs = builder.idleConnectionTimeoutMs;
+        this.validateAfterInactivityMs = builder.validateAfterInactivityMs;
+
+        this.endpointProbeIntervalMs = builder.endpointProbeIntervalMs;
+        this.endpointSelectPolicy = builder.endpointSelectPolicy;
+        this.directBeRouting = builder.directBeRouting;
+        this.adaptiveFlush = builder.adaptiveFlush;
+        this.streamingLoad = builder.streamingLoad;
+        this.streamingSegmentBytes = builder.streamingSegmentBytes;
+        this.asyncHttp = builder.asyncHttp;
+        this.asyncHttpIoThreads = builder.asyncHttpIoThreads;
+        this.virtualThreads = builder.virtualThreads;
 
         this.writingThreshold = builder.writingThreshold;
         this.regionBufferRatio = builder.regionBufferRatio;
@@ -192,6 +291,30 @@ public class StreamLoadProperties implements Serializable {
         return expectDelayTime;
     }
 
+    public ChunkAllocator.Type getChunkBufferType() {
+        return chunkBufferType;
+    }
+
+    public int getSlabSize() {
+        return slabSize;
+    }
+
+    public String getSpillDirectory() {
+        return spillDirectory;
+    }
+
+    public long getMaxSpillBytes() {
+        return maxSpillBytes;
+    }
+
+    public int getCompressionThreads() {
+        return compressionThreads;
+    }
+
+    public double getMinCompressionRatio() {
+        return minCompressionRatio;
+    }
+
     public int getConnectTimeout() {
         return connectTimeout;
     }
@@ -208,6 +331,70 @@ public class StreamLoadProperties implements Serializable {
         return ioThreadCount;
     }
 
+    public int getMaxInflightLoadsPerTable() {
+        return maxInflightLoadsPerTable;
+    }
+
+    // The transactions are handled on the io threads, so by default
+    // each io thread handles one transaction at a time
+    public int getTransactionParallelism() {
+        return transactionParallelism > 0 ? transactionParallelism : ioThreadCount;
+    }
+
+    // Each io thread holds at most one connection at a time, so by default the
+    // pool is sized to the number of io threads for each route
+    public int getMaxConnectionsPerRoute() {
+        return maxConnectionsPerRoute > 0 ? maxConnectionsPerRoute : ioThreadCount;
+    }
+
+    public int getMaxConnections() {
+        return maxConnections > 0 ? maxConnections : 4 * getMaxConnectionsPerRoute();
+    }
+
+    public long getIdleConnectionTimeoutMs() {
+        return idleConnectionTimeoutMs;
+    }
+
+    public int getValidateAfterInactivityMs() {
+        return validateAfterInactivityMs;
+    }
+
+    public long getEndpointProbeIntervalMs() {
+        return endpointProbeIntervalMs;
+    }
+
+    public EndpointHealthRegistry.SelectPolicy getEndpointSelectPolicy() {
+        return endpointSelectPolicy;
+    }
+
+    public boolean isDirectBeRouting() {
+        return directBeRouting;
+    }
+
+    public boolean isAdaptiveFlush() {
+        return adaptiveFlush;
+    }
+
+    public boolean isStreamingLoad() {
+        return streamingLoad;
+    }
+
+    public long getStreamingSegmentBytes() {
+        return streamingSegmentBytes;
+    }
+
+    public boolean isAsyncHttp() {
+        return asyncHttp;
+    }
+
+    public int getAsyncHttpIoThreads() {
+        return asyncHttpIoThreads;
+    }
+
+    public boolean isVirtualThreads() {
+        return virtualThreads;
+    }
+
     public long getWritingThreshold() {
         return writingThreshold;
     }
@@ -254,6 +441,12 @@ public class StreamLoadProperties implements Serializable {
         private long scanningFrequency = 50L;
         private long maxCacheBytes = (long) (Runtime.getRuntime().freeMemory() * 0.7);
         private long expectDelayTime = 300000L;
+        private ChunkAllocator.Type chunkBufferType = ChunkAllocator.Type.HEAP;
+        private int slabSize = 64 * 1024;
+        private String spillDirectory;
+        private long maxSpillBytes = 10L * 1024 * 1024 * 1024;
+        private int compressionThreads = 0;
+        private double minCompressionRatio = 1.1;
 
         private StreamLoadTableProperties defaultTableProperties;
         private Map<String, StreamLoadTableProperties> tablePropertiesMap = new HashMap<>();
@@ -263,6 +456,25 @@ public class StreamLoadProperties implements Serializable {
         private int socketTimeout = -1;
         private int waitForContinueTimeoutMs = DEFAULT_WAIT_FOR_CONTINUE;
         private int ioThreadCount = Runtime.getRuntime().availableProcessors();
+        private int maxInflightLoadsPerTable = 1;
+        // -1 means deriving from ioThreadCount
+        private int transactionParallelism = -1;
+
+        // -1 means deriving from ioThreadCount
+        private int maxConnectionsPerRoute = -1;
+        private int maxConnections = -1;
+        private long idleConnectionTimeoutMs = 60000L;
+        private int validateAfterInactivityMs = 2000;
+
+        private long endpointProbeIntervalMs = 5000L;
+        private EndpointHealthRegistry.SelectPolicy endpointSelectPolicy = EndpointHealthRegistry.SelectPolicy.POWER_OF_TWO_CHOICES;
+        private boolean directBeRouting = false;
+        private boolean adaptiveFlush = false;
+        private boolean streamingLoad = false;
+        private long streamingSegmentBytes = 1024 * 1024L;
+        private boolean asyncHttp = false;
+        private int asyncHttpIoThreads = 2;
+        private boolean virtualThreads = false;
 
         private long writingThreshold = 50L;
         private float regionBufferRatio = 0.6F;
@@ -340,9 +552,6 @@ public class StreamLoadProperties implements Serializable {
             if (maxCacheBytes <= 0) {
                 throw new IllegalArgumentException("cacheMaxBytes `" + maxCacheBytes + "` set failed, must greater to 0");
             }
-            if (maxCacheBytes > Runtime.getRuntime().maxMemory()) {
-                throw new IllegalArgumentException("cacheMaxBytes `" + maxCacheBytes + "` set failed, current maxMemory is " + Runtime.getRuntime().maxMemory());
-            }
             this.maxCacheBytes = maxCacheBytes;
             return this;
         }
@@ -355,6 +564,53 @@ public class StreamLoadProperties implements Serializable {
             return this;
         }
 
+        public Builder chunkBufferType(String chunkBufferType) {
+            try {
+                this.chunkBufferType = ChunkAllocator.Type.valueOf(chunkBufferType.trim().toUpperCase());
+            } catch (Exception e) {
+                throw new IllegalArgumentException("chunkBufferType `" + chunkBufferType + "` set failed, must be one of "
+                        + Arrays.toString(ChunkAllocator.Type.values()));
+            }
+            return this;
+        }
+
+        public Builder slabSize(int slabSize) {
+            if (slabSize < 1024) {
+                throw new IllegalArgumentException("slabSize `" + slabSize + "` set failed, must be larger than 1024");
+            }
+            this.slabSize = slabSize;
+            return this;
+        }
+
+        public Builder spillDirectory(String spillDirectory) {
+            this.spillDirectory = spillDirectory == null || spillDirectory.trim().isEmpty() ? null : spillDirectory.trim();
+            return this;
+        }
+
+        public Builder maxSpillBytes(long maxSpillBytes) {
+            if (maxSpillBytes <= 0) {
+                throw new IllegalArgumentException("maxSpillBytes `" + maxSpillBytes + "` set failed, must greater to 0");
+            }
+            this.maxSpillBytes = maxSpillBytes;
+            return this;
+        }
+
+        public Builder compressionThreads(int compressionThreads) {
+            if (compressionThreads < 0) {
+                throw new IllegalArgumentException("compressionThreads `" + compressionThreads + "` set failed, must greater or equals to 0");
+            }
+            this.compressionThreads = compressionThreads;
+            return this;
+        }
+
+        public Builder minCompressionRatio(double minCompressionRatio) {
+            if (minCompressionRatio <= 0) {
+                throw new IllegalArgumentException("minCompressionRatio `" + minCompressionRatio + "` set failed, must greater to 0");
+            }
+            this.minCompressionRatio = minCompressionRatio;
+            return this;
+        }
+
         public Builder connectTimeout(int connectTimeout) {
             if (connectTimeout < 100) {
                 throw new IllegalArgumentException("connectTimeout `" + connectTimeout + "ms` set failed, must be larger than 100ms");
@@ -385,6 +641,113 @@ public class StreamLoadProperties implements Serializable {
             return this;
         }
 
+        public Builder maxInflightLoadsPerTable(int maxInflightLoadsPerTable) {
+            if (maxInflightLoadsPerTable <= 0) {
+                throw new IllegalArgumentException("maxInflightLoadsPerTable `" + maxInflightLoadsPerTable
+                        + "` set failed, must greater to 0");
+            }
+            this.maxInflightLoadsPerTable = maxInflightLoadsPerTable;
+            return this;
+        }
+
+        public Builder transactionParallelism(int transactionParallelism) {
+            if (transactionParallelism == 0 || transactionParallelism < -1) {
+                throw new IllegalArgumentException("transactionParallelism `" + transactionParallelism +
+                        "` set failed, must greater to 0 or be -1");
+            }
+            this.transactionParallelism = transactionParallelism;
+            return this;
+        }
+
+        public Builder maxConnectionsPerRoute(int maxConnectionsPerRoute) {
+            if (maxConnectionsPerRoute == 0 || maxConnectionsPerRoute < -1) {
+                throw new IllegalArgumentException("maxConnectionsPerRoute `" + maxConnectionsPerRoute +
+                        "` set failed, must greater to 0 or be -1");
+            }
+            this.maxConnectionsPerRoute = maxConnectionsPerRoute;
+            return this;
+        }
+
+        public Builder maxConnections(int maxConnections) {
+            if (maxConnections == 0 || maxConnections < -1) {
+                throw new IllegalArgumentException("maxConnections `" + maxConnections +
+                        "` set failed, must greater to 0 or be -1");
+            }
+            this.maxConnections = maxConnections;
+            return this;
+        }
+
+        public Builder idleConnectionTimeoutMs(long idleConnectionTimeoutMs) {
+            this.idleConnectionTimeoutMs = idleConnectionTimeoutMs;
+            return this;
+        }
+
+        public Builder validateAfterInactivityMs(int validateAfterInactivityMs) {
+            this.validateAfterInactivityMs = validateAfterInactivityMs;
+            return this;
+        }
+
+        public Builder endpointProbeIntervalMs(long endpointProbeIntervalMs) {
+            if (endpointProbeIntervalMs < 100) {
+                throw new IllegalArgumentException("endpointProbeIntervalMs `" + endpointProbeIntervalMs +
+                        "ms` set failed, must be larger than 100ms");
+            }
+            this.endpointProbeIntervalMs = endpointProbeIntervalMs;
+            return this;
+        }
+
+        public Builder endpointSelectPolicy(String endpointSelectPolicy) {
+            try {
+                this.endpointSelectPolicy = EndpointHealthRegistry.SelectPolicy.valueOf(
+                        endpointSelectPolicy.trim().toUpperCase().replace('-', '_'));
+            } catch (Exception e) {
+                throw new IllegalArgumentException("endpointSelectPolicy `" + endpointSelectPolicy + "` set failed, must be one of "
+                        + Arrays.toString(EndpointHealthRegistry.SelectPolicy.values()));
+            }
+            return this;
+        }
+
+        public Builder directBeRouting(boolean directBeRouting) {
+            this.directBeRouting = directBeRouting;
+            return this;
+        }
+
+        public Builder adaptiveFlush(boolean adaptiveFlush) {
+            this.adaptiveFlush = adaptiveFlush;
+            return this;
+        }
+
+        public Builder streamingLoad(boolean streamingLoad) {
+            this.streamingLoad = streamingLoad;
+            return this;
+        }
+
+        public Builder streamingSegmentBytes(long streamingSegmentBytes) {
+            if (streamingSegmentBytes <= 0) {
+                throw new IllegalArgumentException("streamingSegmentBytes `" + streamingSegmentBytes + "` set failed, must greater than 0");
+            }
+            this.streamingSegmentBytes = streamingSegmentBytes;
+            return this;
+        }
+
+        public Builder asyncHttp(boolean asyncHttp) {
+            this.asyncHttp = asyncHttp;
+            return this;
+        }
+
+        public Builder asyncHttpIoThreads(int asyncHttpIoThreads) {
+            if (asyncHttpIoThreads < 1) {
+                throw new IllegalArgumentException("asyncHttpIoThreads `" + asyncHttpIoThreads + "` set failed, must greater to 0");
+            }
+            this.asyncHttpIoThreads = asyncHttpIoThreads;
+            return this;
+        }
+
+        public Builder virtualThreads(boolean virtualThreads) {
+            this.virtualThreads = virtualThreads;
+            return this;
+        }
+
         public Builder writingThreshold(long writingThreshold) {
             this.writingThreshold = writingThreshold;
             return this;
@@ -442,6 +805,18 @@ public class StreamLoadProperties implements Serializable {
                         streamLoadProperties.getOldThreshold(), streamLoadProperties.getYoungThreshold()));
             }
 
+            // the rows are buffered out of the heap for DIRECT, so the cache can be larger than the heap
+            if (streamLoadProperties.getChunkBufferType() != ChunkAllocator.Type.DIRECT
+                    && streamLoadProperties.getMaxCacheBytes() > Runtime.getRuntime().maxMemory()) {
+                throw new IllegalArgumentException("cacheMaxBytes `" + streamLoadProperties.getMaxCacheBytes() +
+                        "` set failed, current maxMemory is " + Runtime.getRuntime().maxMemory());
+            }
+
+            if (streamLoadProperties.getMaxConnections() < streamLoadProperties.getMaxConnectionsPerRoute()) {
+                throw new IllegalArgumentException(String.format("maxConnections(`%s`) must not be less than maxConnectionsPerRoute(`%s`)",
+                        streamLoadProperties.getMaxConnections(), streamLoadProperties.getMaxConnectionsPerRoute()));
+            }
+
             if (streamLoadProperties.getExpectDelayTime() < streamLoadProperties.getScanningFrequency()) {
                 throw new IllegalArgumentException(String.format("expectDelayTime(`%s`) must greater to scanningFrequency(`%s`)",
                         streamLoadProperties.getExpectDelayTime(), streamLoadProperties.getScanningFrequency()));
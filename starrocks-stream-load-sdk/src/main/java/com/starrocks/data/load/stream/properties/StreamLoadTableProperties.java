@@ -224,6 +224,22 @@ public class StreamLoadTableProperties implements Serializable {
             return this;
         }
 
+        public Builder setZstdLevel(int level) {
+            if (level < 1 || level > 22) {
+                throw new IllegalArgumentException("zstdLevel `" + level + "` set failed, must be in [1, 22]");
+            }
+            tableProperties.put(CompressionOptions.ZSTD_LEVEL, level);
+            return this;
+        }
+
+        public Builder setGzipLevel(int level) {
+            if (level < 1 || level > 9) {
+                throw new IllegalArgumentException("gzipLevel `" + level + "` set failed, must be in [1, 9]");
+            }
+            tableProperties.put(CompressionOptions.GZIP_LEVEL, level);
+            return this;
+        }
+
         public Builder addCommonProperties(Map<String, String> properties) {
             this.commonProperties.putAll(properties);
             return this;
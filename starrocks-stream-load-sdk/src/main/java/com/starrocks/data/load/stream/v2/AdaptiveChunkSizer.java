@@ -0,0 +1,119 @@
+/*
+ * Copyright 2021-present StarRocks, Inc. All rights reserved.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.starrocks.data.load.stream.v2;
+
+import com.starrocks.data.load.stream.LoadMetrics;
+import com.starrocks.data.load.stream.StreamLoadResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Sizes the chunks of a table according to the feedback of the finished loads. The fixed overhead
+ * of a load is the time to begin the transaction, plan the load, and commit and publish it, which
+ * does not depend on the size of the data. If it takes a large part of the load time, the chunk is
+ * doubled as long as the latency of the rows is expected to stay under the target. If the latency
+ * of the rows, from the first row added to the chunk until the load finishes, goes past the target,
+ * the chunk is halved.
+ */
+public class AdaptiveChunkSizer {
+
+    private static final Logger LOG = LoggerFactory.getLogger(AdaptiveChunkSizer.class);
+
+    public static final long DEFAULT_MIN_CHUNK_BYTES = 1024 * 1024;
+
+    // grow the chunk if the fixed overhead is larger than this ratio of the load time
+    private static final double OVERHEAD_RATIO_TO_GROW = 0.5;
+
+    public enum Decision {
+        KEEP,
+        GROW,
+        SHRINK
+    }
+
+    private final String uniqueKey;
+    private final long minChunkBytes;
+    private final long maxChunkBytes;
+    private final long targetLatencyMs;
+    private final LoadMetrics loadMetrics;
+    private volatile long chunkBytes;
+
+    public AdaptiveChunkSizer(String uniqueKey, long minChunkBytes, long maxChunkBytes,
+                              long targetLatencyMs, LoadMetrics loadMetrics) {
+        this.uniqueKey = uniqueKey;
+        this.minChunkBytes = Math.min(minChunkBytes, maxChunkBytes);
+        this.maxChunkBytes = maxChunkBytes;
+        this.targetLatencyMs = targetLatencyMs;
+        this.loadMetrics = loadMetrics;
+        this.chunkBytes = this.minChunkBytes;
+    }
+
+    /**
+     * The size at which the active chunk should be sealed and loaded.
+     */
+    public long getChunkBytes() {
+        return chunkBytes;
+    }
+
+    /**
+     * Adjust the chunk size with the response of a finished load.
+     *
+     * @param latencyMs time from the first row added to the chunk until the load finishes
+     * @param responseBody response body of the load, can be null
+     */
+    public Decision update(long latencyMs, StreamLoadResponse.StreamLoadResponseBody responseBody) {
+        if (responseBody == null || responseBody.getLoadTimeMs() == null) {
+            return Decision.KEEP;
+        }
+
+        long loadTimeMs = responseBody.getLoadTimeMs();
+        long overheadMs = nullToZero(responseBody.getBeginTxnTimeMs())
+                + nullToZero(responseBody.getStreamLoadPlanTimeMs())
+                + nullToZero(responseBody.getCommitAndPublishTimeMs());
+        Decision decision = Decision.KEEP;
+        long oldChunkBytes = chunkBytes;
+        if (latencyMs > targetLatencyMs) {
+            if (oldChunkBytes > minChunkBytes) {
+                chunkBytes = Math.max(minChunkBytes, oldChunkBytes / 2);
+                decision = Decision.SHRINK;
+            }
+        } else if (overheadMs > loadTimeMs * OVERHEAD_RATIO_TO_GROW
+                // double the chunk doubles the latency except the fixed overhead
+                && 2 * latencyMs - overheadMs <= targetLatencyMs
+                && oldChunkBytes < maxChunkBytes) {
+            chunkBytes = oldChunkBytes > maxChunkBytes / 2 ? maxChunkBytes : oldChunkBytes * 2;
+            decision = Decision.GROW;
+        }
+
+        if (decision != Decision.KEEP) {
+            if (loadMetrics != null) {
+                loadMetrics.updateAdaptiveChunkSize(decision == Decision.GROW);
+            }
+            LOG.info("Adjust chunk size, table: {}, decision: {}, chunkBytes: {} -> {}, latencyMs: {}, " +
+                    "loadTimeMs: {}, overheadMs: {}, targetLatencyMs: {}", uniqueKey, decision, oldChunkBytes,
+                    chunkBytes, latencyMs, loadTimeMs, overheadMs, targetLatencyMs);
+        }
+        return decision;
+    }
+
+    private static long nullToZero(Long value) {
+        return value == null ? 0 : value;
+    }
+}
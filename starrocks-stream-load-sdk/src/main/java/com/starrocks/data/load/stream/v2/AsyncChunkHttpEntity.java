@@ -0,0 +1,125 @@
+/*
+ * Copyright 2021-present StarRocks, Inc. All rights reserved.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.starrocks.data.load.stream.v2;
+
+import com.starrocks.data.load.stream.Chunk;
+import org.apache.http.nio.ContentEncoder;
+import org.apache.http.nio.FileContentEncoder;
+import org.apache.http.nio.IOControl;
+import org.apache.http.nio.entity.HttpAsyncContentProducer;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.List;
+
+/**
+ * A {@link ChunkHttpEntity} that can be written by the non-blocking http client. The rows in memory
+ * are written from the chunk buffers without copying, and a spilled chunk is transferred from the
+ * spill file. The chunk should be pinned while the entity is used, see {@link Chunk#pinBuffers()}.
+ */
+public class AsyncChunkHttpEntity extends ChunkHttpEntity implements HttpAsyncContentProducer {
+
+    // size of the buffer to read the spill file if the encoder can't transfer from the file directly
+    private static final int FILE_BUFFER_SIZE = 64 * 1024;
+
+    // null if the chunk is spilled
+    private final List<ByteBuffer> buffers;
+    private int bufferIndex;
+    private ByteBuffer currentBuffer;
+    private FileChannel fileChannel;
+    private ByteBuffer fileBuffer;
+    private long filePosition;
+
+    public AsyncChunkHttpEntity(String tableUniqueKey, Chunk chunk, List<ByteBuffer> buffers) {
+        super(tableUniqueKey, chunk);
+        this.buffers = buffers;
+    }
+
+    @Override
+    public void produceContent(ContentEncoder encoder, IOControl ioControl) throws IOException {
+        if (buffers != null) {
+            produceFromBuffers(encoder);
+        } else {
+            produceFromFile(encoder);
+        }
+    }
+
+    private void produceFromBuffers(ContentEncoder encoder) throws IOException {
+        while (bufferIndex < buffers.size()) {
+            if (currentBuffer == null) {
+                // the buffers are shared by the retries, so don't change their positions
+                currentBuffer = buffers.get(bufferIndex).duplicate();
+            }
+            encoder.write(currentBuffer);
+            if (currentBuffer.hasRemaining()) {
+                // the socket buffer is full
+                return;
+            }
+            currentBuffer = null;
+            bufferIndex++;
+        }
+        encoder.complete();
+    }
+
+    private void produceFromFile(ContentEncoder encoder) throws IOException {
+        if (fileChannel == null) {
+            fileChannel = getChunk().openSpillFile();
+        }
+        long size = getContentLength();
+        if (encoder instanceof FileContentEncoder) {
+            filePosition += ((FileContentEncoder) encoder).transfer(fileChannel, filePosition, size - filePosition);
+        } else {
+            if (fileBuffer == null) {
+                fileBuffer = ByteBuffer.allocate(FILE_BUFFER_SIZE);
+                fileBuffer.flip();
+            }
+            if (!fileBuffer.hasRemaining()) {
+                fileBuffer.clear();
+                int n = fileChannel.read(fileBuffer, filePosition);
+                if (n < 0) {
+                    throw new IOException("Unexpected end of spill file, position: " + filePosition + ", size: " + size);
+                }
+                filePosition += n;
+                fileBuffer.flip();
+            }
+            encoder.write(fileBuffer);
+        }
+        if (filePosition >= size && (fileBuffer == null || !fileBuffer.hasRemaining())) {
+            encoder.complete();
+            close();
+        }
+    }
+
+    // reset the state so that the entity can be sent again, such as a redirect
+    @Override
+    public void close() throws IOException {
+        bufferIndex = 0;
+        currentBuffer = null;
+        fileBuffer = null;
+        filePosition = 0;
+        if (fileChannel != null) {
+            FileChannel channel = fileChannel;
+            fileChannel = null;
+            channel.close();
+        }
+    }
+}
@@ -0,0 +1,225 @@
+/*
+ * Copyright 2021-present StarRocks, Inc. All rights reserved.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.starrocks.data.load.stream.v2;
+
+import com.starrocks.data.load.stream.Chunk;
+import com.starrocks.data.load.stream.compress.CompressionCodec;
+import com.starrocks.data.load.stream.compress.CountingOutputStream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.OutputStream;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Compresses the sealed chunks in background threads, so that the I/O threads only copy the
+ * compressed bytes to the socket, and the request has an exact content length. The pool, its
+ * queue and the memory of the compressed bytes are bounded. If the queue is full, or the compressed
+ * bytes reach the limit, the chunk is not pre-compressed, and it will be compressed while sending
+ * as before. The compressed bytes are held until {@link CompressedChunk#release()}.
+ */
+public class ChunkCompressor implements Closeable {
+
+    private static final Logger LOG = LoggerFactory.getLogger(ChunkCompressor.class);
+
+    // number of chunks waiting for compression for each thread
+    private static final int QUEUE_SIZE_PER_THREAD = 4;
+    // the initial buffer is a bit larger than the size estimated from the compression ratio so far
+    private static final double BUFFER_SIZE_FACTOR = 1.1;
+    private static final int MIN_BUFFER_SIZE = 4096;
+
+    private final ThreadPoolExecutor executor;
+    private final double minCompressionRatio;
+    private final long maxBufferedBytes;
+    // bytes of the compression buffers, including the ones being compressed
+    private final AtomicLong bufferedBytes = new AtomicLong();
+
+    public ChunkCompressor(int numThreads, double minCompressionRatio) {
+        this(numThreads, minCompressionRatio, Long.MAX_VALUE);
+    }
+
+    public ChunkCompressor(int numThreads, double minCompressionRatio, long maxBufferedBytes) {
+        AtomicInteger threadId = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(numThreads, numThreads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(numThreads * QUEUE_SIZE_PER_THREAD), r -> {
+                    Thread thread = new Thread(r, "StarRocks-Chunk-Compressor-" + threadId.getAndIncrement());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        this.minCompressionRatio = minCompressionRatio;
+        this.maxBufferedBytes = maxBufferedBytes;
+        LOG.info("Create chunk compressor, numThreads: {}, minCompressionRatio: {}, maxBufferedBytes: {}",
+                numThreads, minCompressionRatio, maxBufferedBytes);
+    }
+
+    /**
+     * Submit the chunk to compress. Return null if the queue is full, or the compressed bytes reach the limit.
+     */
+    public CompletableFuture<CompressedChunk> compress(String tableUniqueKey, Chunk chunk, CompressionCodec codec) {
+        if (bufferedBytes.get() >= maxBufferedBytes) {
+            LOG.debug("Skip to pre-compress chunk for table {} because the buffered bytes {} reach the limit {}",
+                    tableUniqueKey, bufferedBytes.get(), maxBufferedBytes);
+            return null;
+        }
+        try {
+            return CompletableFuture.supplyAsync(() -> {
+                try {
+                    return doCompress(tableUniqueKey, chunk, codec);
+                } catch (Exception e) {
+                    throw new CompletionException(e);
+                }
+            }, executor);
+        } catch (RejectedExecutionException e) {
+            LOG.debug("Skip to pre-compress chunk for table {} because the queue is full", tableUniqueKey);
+            return null;
+        }
+    }
+
+    /**
+     * Release the compressed chunk of the future when it's no longer used. It's released as soon as
+     * the compression finishes if it's still running.
+     */
+    public static void discard(CompletableFuture<CompressedChunk> future) {
+        future.whenComplete((compressedChunk, throwable) -> {
+            if (compressedChunk != null) {
+                compressedChunk.release();
+            }
+        });
+    }
+
+    /** Bytes of the compression buffers which are not released. */
+    public long getBufferedBytes() {
+        return bufferedBytes.get();
+    }
+
+    private CompressedChunk doCompress(String tableUniqueKey, Chunk chunk, CompressionCodec codec) throws Exception {
+        long startTime = System.nanoTime();
+        long rawSize = chunk.chunkBytes();
+        int bufferSize = estimateBufferSize(rawSize, codec);
+        // account the buffer before it's allocated, and correct it with the actual capacity at last
+        bufferedBytes.addAndGet(bufferSize);
+        long chargedBytes = bufferSize;
+        try {
+            CompressionBuffer compressedStream = new CompressionBuffer(bufferSize);
+            CountingOutputStream countingOutputStream = new CountingOutputStream(compressedStream);
+            OutputStream outputStream = codec.createCompressionStream(countingOutputStream, rawSize);
+            chunk.writeTo(outputStream);
+            outputStream.close();
+            long compressSize = countingOutputStream.getCount();
+            long timeNs = System.nanoTime() - startTime;
+            codec.getStats().update(rawSize, compressSize, timeNs);
+
+            double compressRatio = compressSize == 0 ? 1 : (double) rawSize / compressSize;
+            boolean payOff = compressRatio >= minCompressionRatio;
+            LOG.debug("Pre-compress chunk for table {}, raw/compressed size:{}/{}, compress ratio:{}, time:{}us, payOff: {}",
+                    tableUniqueKey, rawSize, compressSize, compressRatio, timeNs / 1000, payOff);
+            if (!payOff) {
+                return new CompressedChunk(rawSize, null, 0, 0, bufferedBytes);
+            }
+            long capacity = compressedStream.buffer().length;
+            bufferedBytes.addAndGet(capacity - chargedBytes);
+            chargedBytes = 0;
+            return new CompressedChunk(rawSize, compressedStream.buffer(), compressedStream.size(), capacity, bufferedBytes);
+        } finally {
+            bufferedBytes.addAndGet(-chargedBytes);
+        }
+    }
+
+    // the compressed size estimated from the compression ratio of the codec so far
+    private static int estimateBufferSize(long rawSize, CompressionCodec codec) {
+        double ratio = Math.max(1.0, codec.getStats().getCompressionRatio());
+        long size = (long) (rawSize / ratio * BUFFER_SIZE_FACTOR);
+        return (int) Math.min(Math.max(size, MIN_BUFFER_SIZE), Integer.MAX_VALUE - 8);
+    }
+
+    @Override
+    public void close() {
+        executor.shutdownNow();
+    }
+
+    // exposes the buffer so that the compressed bytes are not copied
+    private static class CompressionBuffer extends ByteArrayOutputStream {
+
+        CompressionBuffer(int size) {
+            super(size);
+        }
+
+        byte[] buffer() {
+            return buf;
+        }
+    }
+
+    /**
+     * The result of the pre-compression.
+     */
+    public static class CompressedChunk {
+
+        private final long rawSize;
+        // null if the compression does not pay off, and the chunk should be sent uncompressed
+        private final byte[] data;
+        private final int length;
+        // bytes accounted in the buffered bytes of the compressor
+        private final long chargedBytes;
+        private final AtomicLong bufferedBytes;
+        private final AtomicBoolean released = new AtomicBoolean(false);
+
+        CompressedChunk(long rawSize, byte[] data, int length, long chargedBytes, AtomicLong bufferedBytes) {
+            this.rawSize = rawSize;
+            this.data = data;
+            this.length = length;
+            this.chargedBytes = chargedBytes;
+            this.bufferedBytes = bufferedBytes;
+        }
+
+        public long getRawSize() {
+            return rawSize;
+        }
+
+        /** The buffer of the compressed bytes, which may be larger than {@link #getLength()}. */
+        public byte[] getData() {
+            return data;
+        }
+
+        public int getLength() {
+            return length;
+        }
+
+        public boolean isCompressed() {
+            return data != null;
+        }
+
+        public void release() {
+            if (released.compareAndSet(false, true)) {
+                bufferedBytes.addAndGet(-chargedBytes);
+            }
+        }
+    }
+}
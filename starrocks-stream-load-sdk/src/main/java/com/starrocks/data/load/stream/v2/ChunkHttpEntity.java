@@ -37,7 +37,6 @@ public class ChunkHttpEntity extends AbstractHttpEntity {
 
     private static final Logger LOG = LoggerFactory.getLogger(ChunkHttpEntity.class);
 
-    protected static final int OUTPUT_BUFFER_SIZE = 2048;
     private static final Header CONTENT_TYPE =
             new BasicHeader(HttpHeaders.CONTENT_TYPE, ContentType.APPLICATION_OCTET_STREAM.toString());
     private final String tableUniqueKey;
@@ -56,6 +55,10 @@ public class ChunkHttpEntity extends AbstractHttpEntity {
         return tableUniqueKey;
     }
 
+    public Chunk getChunk() {
+        return chunk;
+    }
+
     public void setLogAfterWrite(boolean logAfterWrite) {
         this.logAfterWrite = logAfterWrite;
     }
@@ -93,13 +96,7 @@ public class ChunkHttpEntity extends AbstractHttpEntity {
     @Override
     public void writeTo(OutputStream outputStream) throws IOException {
         long startTime = System.nanoTime();
-        try (InputStream inputStream = new ChunkInputStream(chunk)) {
-            final byte[] buffer = new byte[OUTPUT_BUFFER_SIZE];
-            int len;
-            while ((len = inputStream.read(buffer)) != -1) {
-                outputStream.write(buffer, 0, len);
-            }
-        }
+        chunk.writeTo(outputStream);
         if (logAfterWrite || LOG.isDebugEnabled()) {
             LOG.info("Write entity for table {}, size:{}, time:{}us",
                     tableUniqueKey, contentLength, (System.nanoTime() - startTime) / 1000);
@@ -33,6 +33,8 @@ public enum FlushReason {
     CACHE_FULL,
     // The number of buffered rows reaches the limit
     BUFFER_ROWS_REACH_LIMIT,
+    // Some chunks reaching the adaptive chunk size are waiting for loading
+    CHUNK_READY,
     // Force flush, such as StreamLoadManagerV2.flush
     FORCE
 }
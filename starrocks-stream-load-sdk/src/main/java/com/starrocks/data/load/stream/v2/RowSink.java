@@ -0,0 +1,145 @@
+/*
+ * Copyright 2021-present StarRocks, Inc. All rights reserved.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.starrocks.data.load.stream.v2;
+
+import com.starrocks.data.load.stream.TableRegion;
+
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Writes rows of a table to {@link StreamLoadManagerV2} as bytes. Serializers write the bytes of
+ * a row to it piece by piece, and call {@link #endRow()} at the end of the row, so there is no need
+ * to build a String for each row. Rows are buffered in a reusable byte array, and are written to
+ * the manager as a batch when the buffer is full or {@link #flush()} is called, so the cache is
+ * accounted once for each batch.
+ *
+ * <p>It's not thread-safe, and the rows are not visible to the manager until they are flushed,
+ * so it should be flushed before the manager is flushed or snapshotted.
+ */
+public class RowSink extends OutputStream {
+
+    static final int DEFAULT_BATCH_BYTES = 64 * 1024;
+
+    private final StreamLoadManagerV2 manager;
+    private final TableRegion region;
+    private final int batchBytes;
+    private byte[] buffer;
+    private int position;
+    // end offset of each finished row in the buffer
+    private int[] rowEnds = new int[64];
+    private int numRows;
+
+    RowSink(StreamLoadManagerV2 manager, TableRegion region) {
+        this(manager, region, DEFAULT_BATCH_BYTES);
+    }
+
+    RowSink(StreamLoadManagerV2 manager, TableRegion region, int batchBytes) {
+        this.manager = manager;
+        this.region = region;
+        this.batchBytes = batchBytes;
+        this.buffer = new byte[batchBytes];
+    }
+
+    @Override
+    public void write(int b) {
+        ensureCapacity(1);
+        buffer[position++] = (byte) b;
+    }
+
+    @Override
+    public void write(byte[] b) {
+        write(b, 0, b.length);
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) {
+        ensureCapacity(len);
+        System.arraycopy(b, off, buffer, position, len);
+        position += len;
+    }
+
+    /**
+     * Write the string encoded in UTF-8.
+     */
+    public void write(String s) {
+        write(s.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Finish the current row. The rows are written to the manager if the buffer is full.
+     */
+    public void endRow() {
+        if (numRows == rowEnds.length) {
+            rowEnds = Arrays.copyOf(rowEnds, rowEnds.length * 2);
+        }
+        rowEnds[numRows++] = position;
+        if (position >= batchBytes) {
+            flush();
+        }
+    }
+
+    /**
+     * Discard the bytes of the current row which is not finished.
+     */
+    public void discardRow() {
+        position = numRows == 0 ? 0 : rowEnds[numRows - 1];
+    }
+
+    /**
+     * Number of the finished rows which are not written to the manager.
+     */
+    public int getNumBufferedRows() {
+        return numRows;
+    }
+
+    /**
+     * Write the finished rows to the manager. The bytes of the unfinished row are kept.
+     */
+    @Override
+    public void flush() {
+        if (numRows == 0) {
+            return;
+        }
+        int end = rowEnds[numRows - 1];
+        try {
+            manager.write(region, buffer, rowEnds, numRows);
+        } finally {
+            // move the unfinished row to the beginning
+            System.arraycopy(buffer, end, buffer, 0, position - end);
+            position -= end;
+            numRows = 0;
+        }
+    }
+
+    @Override
+    public void close() {
+        flush();
+    }
+
+    private void ensureCapacity(int len) {
+        if (position + len > buffer.length) {
+            // a single row may be larger than the batch size
+            buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, position + len));
+        }
+    }
+}
@@ -18,6 +18,9 @@
 
 package com.starrocks.data.load.stream.v2;
 
+import com.starrocks.data.load.stream.AsyncStreamLoader;
+import com.starrocks.data.load.stream.ChunkAllocator;
+import com.starrocks.data.load.stream.ChunkSpiller;
 import com.starrocks.data.load.stream.DefaultStreamLoader;
 import com.starrocks.data.load.stream.EnvUtils;
 import com.starrocks.data.load.stream.LabelGenerator;
@@ -30,12 +33,15 @@ import com.starrocks.data.load.stream.StreamLoadUtils;
 import com.starrocks.data.load.stream.StreamLoader;
 import com.starrocks.data.load.stream.TableRegion;
 import com.starrocks.data.load.stream.TransactionStreamLoader;
+import com.starrocks.data.load.stream.compress.CompressionStats;
 import com.starrocks.data.load.stream.properties.StreamLoadProperties;
 import com.starrocks.data.load.stream.properties.StreamLoadTableProperties;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.IOException;
 import java.io.Serializable;
+import java.nio.ByteBuffer;
 import java.nio.charset.StandardCharsets;
 import java.util.Map;
 import java.util.Queue;
@@ -117,6 +123,9 @@ public class StreamLoadManagerV2 implements StreamLoadManager, Serializable {
      */
     private transient AtomicBoolean writeTriggerFlush;
     private transient LoadMetrics loadMetrics;
+    private transient ChunkAllocator chunkAllocator;
+    private transient ChunkSpiller chunkSpiller;
+    private transient ChunkCompressor chunkCompressor;
     private transient StreamLoadListener streamLoadListener;
     private transient LabelGeneratorFactory labelGeneratorFactory;
 
@@ -132,8 +141,11 @@ public class StreamLoadManagerV2 implements StreamLoadManager, Serializable {
             retryIntervalInMs = 0;
         } else {
             // TODO transaction stream load can't support retry currently
-            streamLoader = (properties.getMaxRetries() > 0 || !properties.isEnableTransaction())
-                    ? new DefaultStreamLoader() : new TransactionStreamLoader();
+            if (properties.getMaxRetries() > 0 || !properties.isEnableTransaction()) {
+                streamLoader = properties.isAsyncHttp() ? new AsyncStreamLoader() : new DefaultStreamLoader();
+            } else {
+                streamLoader = new TransactionStreamLoader();
+            }
             maxRetries = properties.getMaxRetries();
             retryIntervalInMs = properties.getRetryIntervalInMs();
         }
@@ -151,6 +163,19 @@ public class StreamLoadManagerV2 implements StreamLoadManager, Serializable {
         }
         this.writeTriggerFlush = new AtomicBoolean(false);
         this.loadMetrics = new LoadMetrics();
+        this.chunkAllocator = ChunkAllocator.create(properties);
+        if (properties.getSpillDirectory() != null) {
+            try {
+                this.chunkSpiller = new ChunkSpiller(properties.getSpillDirectory(), properties.getMaxSpillBytes());
+            } catch (IOException e) {
+                throw new RuntimeException("Failed to create chunk spiller in " + properties.getSpillDirectory(), e);
+            }
+        }
+        if (properties.getCompressionThreads() > 0) {
+            // the compressed copies share the cache budget with the rows, see getMemoryCacheBytes()
+            this.chunkCompressor = new ChunkCompressor(properties.getCompressionThreads(),
+                    properties.getMinCompressionRatio(), maxCacheBytes);
+        }
         if (state.compareAndSet(State.INACTIVE, State.ACTIVE)) {
             this.manager = new Thread(() -> {
                 long lastPrintTimestamp = -1;
@@ -216,7 +241,11 @@ public class StreamLoadManagerV2 implements StreamLoadManager, Serializable {
                             }
                         }
 
-                        for (FlushAndCommitStrategy.SelectFlushResult result : flushAndCommitStrategy.selectFlushRegions(flushQ, currentCacheBytes.get())) {
+                        // the chunks may hold more memory than their rows, such as the partly filled slabs of
+                        // many tables, so select the largest region to flush if the allocator is used up
+                        long cacheBytes = chunkAllocator.isExhausted()
+                                ? Math.max(maxCacheBytes, currentCacheBytes.get()) : currentCacheBytes.get();
+                        for (FlushAndCommitStrategy.SelectFlushResult result : flushAndCommitStrategy.selectFlushRegions(flushQ, cacheBytes)) {
                             TransactionTableRegion region = result.getRegion();
                             boolean flush = region.flush(result.getReason());
                             LOG.debug("Trigger flush table region {} because of selection, region cache bytes: {}," +
@@ -256,36 +285,137 @@ public class StreamLoadManagerV2 implements StreamLoadManager, Serializable {
                         uniqueKey == null ? "null" : uniqueKey, database, table, row);
             }
             int bytes = region.write(row.getBytes(StandardCharsets.UTF_8));
-            long cachedBytes = currentCacheBytes.addAndGet(bytes);
-            if (cachedBytes >= maxWriteBlockCacheBytes) {
-                long startTime = System.nanoTime();
-                lock.lock();
-                try {
-                    int idx = 0;
-                    while (currentCacheBytes.get() >= maxWriteBlockCacheBytes) {
-                        AssertNotException();
-                        LOG.info("Cache full, wait flush, currentBytes: {}, maxWriteBlockCacheBytes: {}",
-                                currentCacheBytes.get(), maxWriteBlockCacheBytes);
-                        flushable.signal();
-                        writable.await(Math.min(++idx, 5), TimeUnit.SECONDS);
-                    }
-                } catch (InterruptedException ex) {
-                    this.e = ex;
-                    throw new RuntimeException(ex);
-                } finally {
-                    lock.unlock();
-                }
-                loadMetrics.updateWriteBlock(1, System.nanoTime() - startTime);
-            } else if (cachedBytes >= maxCacheBytes && writeTriggerFlush.compareAndSet(false, true)) {
-                lock.lock();
-                try {
+            afterWrite(bytes);
+        }
+    }
+
+    @Override
+    public void write(String uniqueKey, String database, String table, byte[]... rows) {
+        AssertNotException();
+        TableRegion region = getCacheRegion(uniqueKey, database, table);
+        long bytes = 0;
+        for (byte[] row : rows) {
+            bytes += region.write(row);
+        }
+        afterWrite(bytes);
+    }
+
+    @Override
+    public void write(String uniqueKey, String database, String table, ByteBuffer row) {
+        AssertNotException();
+        TableRegion region = getCacheRegion(uniqueKey, database, table);
+        int bytes;
+        if (row.hasArray()) {
+            bytes = region.write(row.array(), row.arrayOffset() + row.position(), row.remaining());
+            row.position(row.limit());
+        } else {
+            byte[] data = new byte[row.remaining()];
+            row.get(data);
+            bytes = region.write(data);
+        }
+        afterWrite(bytes);
+    }
+
+    @Override
+    public void write(String uniqueKey, String database, String table, byte[] key, ByteBuffer row) {
+        AssertNotException();
+        TableRegion region = getCacheRegion(uniqueKey, database, table);
+        int bytes;
+        if (row.hasArray()) {
+            bytes = region.write(key, row.array(), row.arrayOffset() + row.position(), row.remaining());
+            row.position(row.limit());
+        } else {
+            byte[] data = new byte[row.remaining()];
+            row.get(data);
+            bytes = region.write(key, data, 0, data.length);
+        }
+        afterWrite(bytes);
+    }
+
+    /**
+     * Create a {@link RowSink} to write rows to the table. Serializers can write the bytes of
+     * the fields to it directly instead of building a String for each row.
+     */
+    public RowSink newRowSink(String uniqueKey, String database, String table) {
+        return new RowSink(this, getCacheRegion(uniqueKey, database, table));
+    }
+
+    // write the rows buffered in the row sink, and the end offset of each row is in rowEnds
+    void write(TableRegion region, byte[] buffer, int[] rowEnds, int numRows) {
+        AssertNotException();
+        long bytes = 0;
+        int start = 0;
+        for (int i = 0; i < numRows; i++) {
+            bytes += region.write(buffer, start, rowEnds[i] - start);
+            start = rowEnds[i];
+        }
+        afterWrite(bytes);
+    }
+
+    // account the written bytes, and block the write or trigger a flush if the cache is full
+    private void afterWrite(long bytes) {
+        long cachedBytes = currentCacheBytes.addAndGet(bytes);
+        // spill the sealed chunks to disk instead of blocking the write
+        if (chunkSpiller != null && (getMemoryCacheBytes() >= maxWriteBlockCacheBytes || chunkAllocator.isExhausted())) {
+            spill();
+        }
+        // the memory of the allocator may be shared with other managers, and it should
+        // also block the write if it's used up
+        if (getMemoryCacheBytes() >= maxWriteBlockCacheBytes || chunkAllocator.isExhausted()) {
+            long startTime = System.nanoTime();
+            lock.lock();
+            try {
+                int idx = 0;
+                while (getMemoryCacheBytes() >= maxWriteBlockCacheBytes || chunkAllocator.isExhausted()) {
+                    AssertNotException();
+                    LOG.info("Cache full, wait flush, currentBytes: {}, memoryBytes: {}, maxWriteBlockCacheBytes: {}, " +
+                                    "allocatorExhausted: {}", currentCacheBytes.get(), getMemoryCacheBytes(),
+                            maxWriteBlockCacheBytes, chunkAllocator.isExhausted());
                     flushable.signal();
-                } finally {
-                    lock.unlock();
+                    writable.await(Math.min(++idx, 5), TimeUnit.SECONDS);
                 }
-                loadMetrics.updateWriteTriggerFlush(1);
-                LOG.info("Trigger flush, currentBytes: {}, maxCacheBytes: {}", cachedBytes, maxCacheBytes);
+            } catch (InterruptedException ex) {
+                this.e = ex;
+                throw new RuntimeException(ex);
+            } finally {
+                lock.unlock();
+            }
+            loadMetrics.updateWriteBlock(1, System.nanoTime() - startTime);
+        } else if (cachedBytes >= maxCacheBytes && writeTriggerFlush.compareAndSet(false, true)) {
+            lock.lock();
+            try {
+                flushable.signal();
+            } finally {
+                lock.unlock();
+            }
+            loadMetrics.updateWriteTriggerFlush(1);
+            LOG.info("Trigger flush, currentBytes: {}, maxCacheBytes: {}", cachedBytes, maxCacheBytes);
+        }
+    }
+
+    // bytes of the cached rows which are still in memory, and their pre-compressed copies
+    private long getMemoryCacheBytes() {
+        return currentCacheBytes.get() - (chunkSpiller == null ? 0 : chunkSpiller.getSpillRowBytes())
+                + (chunkCompressor == null ? 0 : chunkCompressor.getBufferedBytes());
+    }
+
+    // spill the sealed chunks until the cached rows in memory are less than maxCacheBytes
+    private void spill() {
+        if (chunkSpiller.getSpillBytes() >= properties.getMaxSpillBytes()) {
+            return;
+        }
+        long startTime = System.nanoTime();
+        long spilledBytes = 0;
+        for (TableRegion region : regions.values()) {
+            long bytesToSpill = chunkAllocator.isExhausted()
+                    ? Long.MAX_VALUE : getMemoryCacheBytes() - maxCacheBytes;
+            if (bytesToSpill <= 0) {
+                break;
             }
+            spilledBytes += ((TransactionTableRegion) region).spill(chunkSpiller, bytesToSpill);
+        }
+        if (spilledBytes > 0) {
+            loadMetrics.updateSpill(spilledBytes, System.nanoTime() - startTime);
         }
     }
 
@@ -391,6 +521,40 @@ public class StreamLoadManagerV2 implements StreamLoadManager, Serializable {
         return streamLoader;
     }
 
+    public LoadMetrics getLoadMetrics() {
+        return loadMetrics;
+    }
+
+    /**
+     * Average of the adaptive chunk sizes of the tables, or 0 if adaptive flush is not enabled.
+     */
+    public long getAverageAdaptiveChunkBytes() {
+        long totalBytes = 0;
+        int numRegions = 0;
+        for (TableRegion region : regions.values()) {
+            AdaptiveChunkSizer chunkSizer = ((TransactionTableRegion) region).getChunkSizer();
+            if (chunkSizer != null) {
+                totalBytes += chunkSizer.getChunkBytes();
+                numRegions += 1;
+            }
+        }
+        return numRegions == 0 ? 0 : totalBytes / numRegions;
+    }
+
+    /**
+     * Statistics of the compression of all tables.
+     */
+    public CompressionStats getCompressionStats() {
+        CompressionStats stats = new CompressionStats();
+        for (TableRegion region : regions.values()) {
+            CompressionStats regionStats = ((TransactionTableRegion) region).getCompressionStats();
+            if (regionStats != null) {
+                stats.merge(regionStats);
+            }
+        }
+        return stats;
+    }
+
     @Override
     public boolean prepare(StreamLoadSnapshot snapshot) {
         return streamLoader.prepare(snapshot);
@@ -413,6 +577,13 @@ public class StreamLoadManagerV2 implements StreamLoadManager, Serializable {
                     loadMetrics, flushAndCommitStrategy);
             manager.interrupt();
             streamLoader.close();
+            chunkAllocator.close();
+            if (chunkSpiller != null) {
+                chunkSpiller.close();
+            }
+            if (chunkCompressor != null) {
+                chunkCompressor.close();
+            }
         }
     }
 
@@ -444,7 +615,16 @@ public class StreamLoadManagerV2 implements StreamLoadManager, Serializable {
                     StreamLoadTableProperties tableProperties = properties.getTableProperties(uniqueKey, database, table);
                     LabelGenerator labelGenerator = labelGeneratorFactory.create(database, table);
                     region = new TransactionTableRegion(uniqueKey, database, table, this,
-                            tableProperties, streamLoader, labelGenerator, maxRetries, retryIntervalInMs);
+                            tableProperties, streamLoader, labelGenerator, maxRetries, retryIntervalInMs, chunkAllocator,
+                            // chunks in a transaction and streaming loads must be loaded one by one
+                            streamLoader instanceof TransactionStreamLoader || properties.isStreamingLoad()
+                                    ? 1 : properties.getMaxInflightLoadsPerTable(),
+                            properties.isAdaptiveFlush() ? new AdaptiveChunkSizer(uniqueKey,
+                                    AdaptiveChunkSizer.DEFAULT_MIN_CHUNK_BYTES, tableProperties.getChunkLimit(),
+                                    properties.getExpectDelayTime(), loadMetrics) : null,
+                            properties.isStreamingLoad() ? properties.getStreamingSegmentBytes() : 0,
+                            properties.getExpectDelayTime(),
+                            chunkCompressor);
                     regions.put(uniqueKey, region);
                     flushQ.offer((TransactionTableRegion) region);
                 }
@@ -0,0 +1,101 @@
+/*
+ * Copyright 2021-present StarRocks, Inc. All rights reserved.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.starrocks.data.load.stream.v2;
+
+import org.apache.http.Header;
+import org.apache.http.HttpHeaders;
+import org.apache.http.entity.AbstractHttpEntity;
+import org.apache.http.entity.ContentType;
+import org.apache.http.message.BasicHeader;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+/**
+ * An http entity sent in the chunked transfer encoding whose content is produced while it's being
+ * written, so the length is unknown when the request starts.
+ */
+public class StreamingHttpEntity extends AbstractHttpEntity {
+
+    private static final Logger LOG = LoggerFactory.getLogger(StreamingHttpEntity.class);
+
+    private static final Header CONTENT_TYPE =
+            new BasicHeader(HttpHeaders.CONTENT_TYPE, ContentType.APPLICATION_OCTET_STREAM.toString());
+
+    public interface ContentWriter {
+        // write the content, and return the number of bytes written
+        long writeTo(OutputStream outputStream) throws IOException;
+    }
+
+    private final String tableUniqueKey;
+    private final ContentWriter contentWriter;
+
+    public StreamingHttpEntity(String tableUniqueKey, ContentWriter contentWriter) {
+        this.tableUniqueKey = tableUniqueKey;
+        this.contentWriter = contentWriter;
+    }
+
+    @Override
+    public boolean isRepeatable() {
+        return false;
+    }
+
+    @Override
+    public boolean isChunked() {
+        return true;
+    }
+
+    @Override
+    public long getContentLength() {
+        return -1;
+    }
+
+    @Override
+    public Header getContentType() {
+        return CONTENT_TYPE;
+    }
+
+    @Override
+    public Header getContentEncoding() {
+        return null;
+    }
+
+    @Override
+    public InputStream getContent() {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public void writeTo(OutputStream outputStream) throws IOException {
+        long startTime = System.nanoTime();
+        long size = contentWriter.writeTo(outputStream);
+        LOG.info("Write streaming entity for table {}, size:{}, time:{}us",
+                tableUniqueKey, size, (System.nanoTime() - startTime) / 1000);
+    }
+
+    @Override
+    public boolean isStreaming() {
+        return true;
+    }
+}
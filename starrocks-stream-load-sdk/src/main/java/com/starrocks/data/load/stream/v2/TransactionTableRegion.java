@@ -19,6 +19,8 @@
 package com.starrocks.data.load.stream.v2;
 
 import com.starrocks.data.load.stream.Chunk;
+import com.starrocks.data.load.stream.ChunkAllocator;
+import com.starrocks.data.load.stream.ChunkSpiller;
 import com.starrocks.data.load.stream.LabelGenerator;
 import com.starrocks.data.load.stream.StreamLoadDataFormat;
 import com.starrocks.data.load.stream.StreamLoadManager;
@@ -28,22 +30,39 @@ import com.starrocks.data.load.stream.StreamLoader;
 import com.starrocks.data.load.stream.TableRegion;
 import com.starrocks.data.load.stream.compress.CompressionCodec;
 import com.starrocks.data.load.stream.compress.CompressionHttpEntity;
+import com.starrocks.data.load.stream.compress.CompressionStats;
+import com.starrocks.data.load.stream.compress.GzipCompressionCodec;
 import com.starrocks.data.load.stream.compress.LZ4FrameCompressionCodec;
+import com.starrocks.data.load.stream.compress.ZstdCompressionCodec;
 import com.starrocks.data.load.stream.exception.StreamLoadFailException;
 import com.starrocks.data.load.stream.http.StreamLoadEntityMeta;
 import com.starrocks.data.load.stream.properties.StreamLoadTableProperties;
 import org.apache.http.HttpEntity;
+import org.apache.http.entity.ByteArrayEntity;
+import org.apache.http.entity.ContentType;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Future;
-import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
 
 import static com.starrocks.data.load.stream.exception.ErrorUtils.isRetryable;
 
@@ -52,11 +71,18 @@ public class TransactionTableRegion implements TableRegion {
     enum State {
         ACTIVE,
         FLUSHING,
-        COMMITTING
+        COMMITTING,
+        // a load failed after the last retry, and the region does not load or commit any more
+        FAILED
     }
 
     private static final Logger LOG = LoggerFactory.getLogger(TransactionTableRegion.class);
 
+    // how long a streaming load waits for the next segment before sealing the active chunk
+    private static final long SEGMENT_WAIT_MS = 200;
+    // the stream load timeout in seconds if it's not set in the properties, same as DefaultStreamLoader
+    private static final long DEFAULT_LOAD_TIMEOUT_SECONDS = 600;
+
     private final StreamLoadManager manager;
     private final StreamLoader streamLoader;
     private final LabelGenerator labelGenerator;
@@ -65,12 +91,19 @@ public class TransactionTableRegion implements TableRegion {
     private final String table;
     private final StreamLoadTableProperties properties;
     private final Map<String, String> headers = new HashMap<>();
+    // headers for the chunks that are pre-compressed but sent uncompressed because the compression does not
+    // pay off. A null value removes the default header
+    private final Map<String, String> uncompressedHeaders = new HashMap<>();
     private final Optional<CompressionCodec> compressionCodec;
+    private final ChunkAllocator chunkAllocator;
     private final AtomicLong age = new AtomicLong(0L);
     private final AtomicLong cacheBytes = new AtomicLong();
     private final AtomicLong cacheRows = new AtomicLong();
     private final AtomicReference<State> state;
-    private final AtomicBoolean ctl = new AtomicBoolean(false);
+    // The writer owns the active chunk while holding the lock, and other threads seal the active
+    // chunk under the same lock, see seal(). The lock is only held for a row or a seal, so the
+    // waits are short, and a waiting thread parks instead of spinning
+    private final ReentrantLock writeLock = new ReentrantLock();
     private volatile Chunk activeChunk;
     private final ConcurrentLinkedQueue<Chunk> inactiveChunks = new ConcurrentLinkedQueue<>();
     private volatile String label;
@@ -84,6 +117,38 @@ public class TransactionTableRegion implements TableRegion {
     // First exception if retry many times
     private volatile Throwable firstException;
 
+    // Max number of chunks loaded concurrently. Chunks are loaded one by one if it's 1, otherwise
+    // each chunk is loaded with its own label and retried separately. See InflightLoad. It's always 1
+    // for the upserts and deletes, because the loads may be applied in a different order
+    private final int maxInflightLoads;
+    // guarded by itself
+    private final List<InflightLoad> inflightLoads = new ArrayList<>();
+    // null if the chunk size is fixed to the chunk limit
+    private final AdaptiveChunkSizer chunkSizer;
+
+    // In streaming mode, the chunks are sealed as small segments, and a load sends them in the chunked
+    // transfer encoding as soon as they are sealed, until the load reaches the chunk limit or a flush
+    // asks it to end. See StreamingLoad
+    private final boolean streaming;
+    private final long streamingSegmentBytes;
+    // A streaming load ends after it lasts this long, even if it's idle. It's the smaller one of the
+    // flush interval and half of the stream load timeout, so that the rows become visible in time,
+    // and the load is not timed out by the server
+    private final long streamingMaxDurationMs;
+    private final ReentrantLock segmentLock = new ReentrantLock();
+    private final Condition segmentAdded = segmentLock.newCondition();
+    private volatile boolean streamEndRequested;
+    private volatile StreamingLoad streamingLoad;
+
+    // Rows written with keys are compacted here before they are added to the active chunk. It's
+    // drained when the chunk is sealed, or it reaches the chunk limit. Created on the first keyed
+    // write, and guarded by the write lock
+    private UpsertCompactionBuffer compactionBuffer;
+
+    // null if the chunks are compressed while sending
+    private final ChunkCompressor chunkCompressor;
+    private final Map<Chunk, CompletableFuture<ChunkCompressor.CompressedChunk>> compressedChunks = new ConcurrentHashMap<>();
+
     public TransactionTableRegion(String uniqueKey,
                             String database,
                             String table,
@@ -93,6 +158,25 @@ public class TransactionTableRegion implements TableRegion {
                             LabelGenerator labelGenerator,
                             int maxRetries,
                             int retryIntervalInMs) {
+        this(uniqueKey, database, table, manager, properties, streamLoader, labelGenerator,
+                maxRetries, retryIntervalInMs, ChunkAllocator.HEAP, 1, null, 0, 0, null);
+    }
+
+    public TransactionTableRegion(String uniqueKey,
+                            String database,
+                            String table,
+                            StreamLoadManager manager,
+                            StreamLoadTableProperties properties,
+                            StreamLoader streamLoader,
+                            LabelGenerator labelGenerator,
+                            int maxRetries,
+                            int retryIntervalInMs,
+                            ChunkAllocator chunkAllocator,
+                            int maxInflightLoads,
+                            AdaptiveChunkSizer chunkSizer,
+                            long streamingSegmentBytes,
+                            long streamingMaxDurationMs,
+                            ChunkCompressor chunkCompressor) {
         this.uniqueKey = uniqueKey;
         this.database = database;
         this.table = table;
@@ -100,19 +184,54 @@ public class TransactionTableRegion implements TableRegion {
         this.properties = properties;
         this.streamLoader = streamLoader;
         this.labelGenerator = labelGenerator;
-        initHeaders(properties);
         this.compressionCodec = CompressionCodec.createCompressionCodec(
                 properties.getDataFormat(),
                 properties.getProperty("compression"),
                 properties.getTableProperties());
         this.state = new AtomicReference<>(State.ACTIVE);
         this.lastCommitTimeMills = System.currentTimeMillis();
-        this.activeChunk = new Chunk(properties.getDataFormat());
+        this.chunkAllocator = chunkAllocator;
+        this.activeChunk = chunkAllocator.allocate(properties.getDataFormat());
         this.maxRetries = maxRetries;
         this.retryIntervalInMs = retryIntervalInMs;
+        if (maxInflightLoads > 1 && hasUpsertOrDelete(properties)) {
+            LOG.info("Concurrent loads are disabled for db: {}, table: {} to keep the order of upserts and deletes",
+                    database, table);
+            maxInflightLoads = 1;
+        }
+        this.maxInflightLoads = maxInflightLoads;
+        this.chunkSizer = chunkSizer;
+        if (streamingSegmentBytes > 0 && compressionCodec.isPresent()) {
+            LOG.warn("Streaming load is disabled for db: {}, table: {} because compression is not supported", database, table);
+        }
+        this.streaming = streamingSegmentBytes > 0 && !compressionCodec.isPresent();
+        this.streamingSegmentBytes = streamingSegmentBytes;
+        this.streamingMaxDurationMs = getStreamingMaxDurationMs(properties, streamingMaxDurationMs);
+        this.chunkCompressor = compressionCodec.isPresent() ? chunkCompressor : null;
         initHeaders(properties);
     }
 
+    private static long getStreamingMaxDurationMs(StreamLoadTableProperties properties, long flushIntervalMs) {
+        long timeoutSeconds = DEFAULT_LOAD_TIMEOUT_SECONDS;
+        Optional<String> timeout = properties.getProperty("timeout");
+        if (timeout.isPresent()) {
+            try {
+                timeoutSeconds = Long.parseLong(timeout.get().trim());
+            } catch (NumberFormatException e) {
+                LOG.warn("Invalid stream load timeout: {}, use the default {} seconds", timeout.get(),
+                        DEFAULT_LOAD_TIMEOUT_SECONDS);
+            }
+        }
+        long maxDurationMs = Math.max(1, timeoutSeconds * 1000 / 2);
+        return flushIntervalMs > 0 ? Math.min(flushIntervalMs, maxDurationMs) : maxDurationMs;
+    }
+
+    // whether the rows are loaded to a primary key table, or carry the __op column
+    private static boolean hasUpsertOrDelete(StreamLoadTableProperties properties) {
+        return properties.isEnableUpsertDelete()
+                || properties.getProperty("columns").map(columns -> columns.contains("__op")).orElse(false);
+    }
+
     private void initHeaders(StreamLoadTableProperties properties) {
         headers.putAll(properties.getProperties());
         Optional<String> compressionType = properties.getProperty("compression");
@@ -126,12 +245,18 @@ public class TransactionTableRegion implements TableRegion {
             // https://github.com/StarRocks/starrocks/blob/main/be/src/http/action/stream_load.cpp#L96
             if (LZ4FrameCompressionCodec.NAME.equalsIgnoreCase(compressionType.get())) {
                 headers.put("format", "lz4");
+            } else if (ZstdCompressionCodec.NAME.equalsIgnoreCase(compressionType.get())) {
+                headers.put("format", "zstd");
+            } else if (GzipCompressionCodec.NAME.equalsIgnoreCase(compressionType.get())) {
+                headers.put("format", "gzip");
             } else {
                 throw new UnsupportedOperationException(
                         "CSV format does not support compression type: " + compressionType.get());
             }
 
         }
+        uncompressedHeaders.putAll(properties.getProperties());
+        uncompressedHeaders.put("compression", null);
     }
 
     @Override
@@ -141,7 +266,13 @@ public class TransactionTableRegion implements TableRegion {
 
     @Override
     public Map<String, String> getHeaders() {
-        return headers;
+        return getHeaders(inactiveChunks.peek());
+    }
+
+    // should be called after the http entity of the chunk is created
+    private Map<String, String> getHeaders(Chunk chunk) {
+        ChunkCompressor.CompressedChunk compressedChunk = chunk == null ? null : getCompressedChunk(chunk);
+        return compressedChunk != null && !compressedChunk.isCompressed() ? uncompressedHeaders : headers;
     }
 
     @Override
@@ -204,39 +335,168 @@ public class TransactionTableRegion implements TableRegion {
             return 0;
         }
 
-        int c;
-        if (ctl.compareAndSet(false, true)) {
-            c = write0(row);
-        } else {
-            for (;;) {
-                if (ctl.compareAndSet(false, true)) {
-                    c = write0(row);
-                    break;
-                }
+        writeLock.lock();
+        try {
+            return write0(row, 0, row.length, false);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    @Override
+    public int write(byte[] data, int off, int len) {
+        writeLock.lock();
+        try {
+            return write0(data, off, len, true);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    @Override
+    public int write(byte[] key, byte[] data, int off, int len) {
+        if (streaming) {
+            // the rows are sent as soon as possible, and there is little to compact
+            return write(data, off, len);
+        }
+
+        writeLock.lock();
+        try {
+            if (compactionBuffer == null) {
+                compactionBuffer = new UpsertCompactionBuffer();
             }
+            int numRows = compactionBuffer.numRows();
+            int bytes = compactionBuffer.put(key, data, off, len);
+            cacheBytes.addAndGet(bytes);
+            cacheRows.addAndGet(compactionBuffer.numRows() - numRows);
+            if (compactionBuffer.rowBytes() >= getChunkLimit()
+                    || compactionBuffer.numRows() >= properties.getMaxBufferRows()) {
+                drainCompactionBuffer();
+            }
+            return bytes;
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    // Move the compacted rows to the chunks. Should be called with the write lock held
+    private void drainCompactionBuffer() {
+        if (compactionBuffer == null || compactionBuffer.numRows() == 0) {
+            return;
+        }
+        for (byte[] row : compactionBuffer.drain()) {
+            addRow(row, 0, row.length, false);
+        }
+    }
+
+    public long getNumCompactedRows() {
+        writeLock.lock();
+        try {
+            return compactionBuffer == null ? 0 : compactionBuffer.numCompactedRows();
+        } finally {
+            writeLock.unlock();
         }
-        ctl.set(false);
-        return c;
     }
 
-    private void switchChunk() {
+    /**
+     * Seal the active chunk and hand it over to the inactive chunks. If the writer is writing a row,
+     * it waits for the row to finish, so the inactive chunks contain all the rows written before
+     * when it returns.
+     */
+    private void seal() {
+        writeLock.lock();
+        try {
+            drainCompactionBuffer();
+            sealActiveChunk();
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    private void sealActiveChunk() {
         if (activeChunk == null || activeChunk.numRows() == 0) {
             return;
         }
+        if (chunkCompressor != null) {
+            CompletableFuture<ChunkCompressor.CompressedChunk> future =
+                    chunkCompressor.compress(uniqueKey, activeChunk, compressionCodec.get());
+            if (future != null) {
+                compressedChunks.put(activeChunk, future);
+            }
+        }
         inactiveChunks.add(activeChunk);
-        activeChunk = new Chunk(properties.getDataFormat());
+        activeChunk = chunkAllocator.allocate(properties.getDataFormat());
+        if (streaming) {
+            signalSegment();
+        }
     }
 
-    protected int write0(byte[] row) {
-        if (activeChunk.estimateChunkSize(row) > properties.getChunkLimit()
-                || activeChunk.numRows() >= properties.getMaxBufferRows()) {
-            switchChunk();
+    private void signalSegment() {
+        segmentLock.lock();
+        try {
+            segmentAdded.signalAll();
+        } finally {
+            segmentLock.unlock();
+        }
+    }
+
+    /**
+     * Seal the active chunk, and spill the inactive chunks to disk until {@code bytesToSpill}
+     * row bytes are spilled. The chunk being loaded will be skipped. Returns the row bytes spilled.
+     */
+    public long spill(ChunkSpiller spiller, long bytesToSpill) {
+        seal();
+
+        long spilledBytes = 0;
+        for (Chunk chunk : inactiveChunks) {
+            if (spilledBytes >= bytesToSpill) {
+                break;
+            }
+            try {
+                spilledBytes += chunk.spill(spiller);
+            } catch (Exception e) {
+                LOG.warn("Failed to spill chunk, db: {}, table: {}", database, table, e);
+                break;
+            }
         }
+        if (spilledBytes > 0) {
+            LOG.info("Spill chunks, db: {}, table: {}, spilledBytes: {}, total spillBytes: {}",
+                    database, table, spilledBytes, spiller.getSpillBytes());
+        }
+        return spilledBytes;
+    }
 
-        activeChunk.addRow(row);
-        cacheBytes.addAndGet(row.length);
+    // the range of the array is copied if it may be reused by the caller, otherwise the chunk may keep the array
+    protected int write0(byte[] data, int off, int len, boolean reused) {
+        // the rows written before with keys should be loaded first
+        drainCompactionBuffer();
+        addRow(data, off, len, reused);
+        cacheBytes.addAndGet(len);
         cacheRows.incrementAndGet();
-        return row.length;
+        return len;
+    }
+
+    private long getChunkLimit() {
+        return streaming ? streamingSegmentBytes
+                : chunkSizer != null ? chunkSizer.getChunkBytes() : properties.getChunkLimit();
+    }
+
+    // add the row to the active chunk without accounting the cache
+    private void addRow(byte[] data, int off, int len, boolean reused) {
+        if (activeChunk.estimateChunkSize(len) > getChunkLimit()
+                || activeChunk.numRows() >= properties.getMaxBufferRows()) {
+            sealActiveChunk();
+        }
+
+        if (chunkSizer != null && activeChunk.numRows() == 0) {
+            activeChunk.setFirstRowTimeMs(System.currentTimeMillis());
+        }
+
+        if (reused) {
+            activeChunk.addRow(data, off, len);
+        } else {
+            activeChunk.addRow(data);
+        }
     }
 
     @Override
@@ -248,32 +508,52 @@ public class TransactionTableRegion implements TableRegion {
         if (state.get() != State.ACTIVE) {
             return FlushReason.NONE;
         }
-        return cacheRows.get() >= properties.getMaxBufferRows() ? FlushReason.BUFFER_ROWS_REACH_LIMIT : FlushReason.NONE;
+        if (cacheRows.get() >= properties.getMaxBufferRows()) {
+            return FlushReason.BUFFER_ROWS_REACH_LIMIT;
+        }
+        if (streaming) {
+            // start streaming as soon as there are rows
+            return activeChunk.numRows() > 0 || !inactiveChunks.isEmpty() ? FlushReason.CHUNK_READY : FlushReason.NONE;
+        }
+        // load the sealed chunks as soon as possible rather than waiting for the commit or cache full
+        return chunkSizer != null && !inactiveChunks.isEmpty() ? FlushReason.CHUNK_READY : FlushReason.NONE;
     }
 
     public boolean flush(FlushReason reason) {
         LOG.debug("Try to flush db: {}, table: {}, label: {}, cacheBytes: {}, cacheRows: {}, reason: {}",
                 database, table, label, cacheBytes, cacheRows, reason);
         if (state.compareAndSet(State.ACTIVE, State.FLUSHING)) {
-            for (;;) {
-                if (ctl.compareAndSet(false, true)) {
-                    if (reason != FlushReason.BUFFER_ROWS_REACH_LIMIT ||
-                            activeChunk.numRows() >= properties.getMaxBufferRows()) {
-                        switchChunk();
-                    }
-                    ctl.set(false);
-                    break;
-                }
+            if ((reason != FlushReason.BUFFER_ROWS_REACH_LIMIT && reason != FlushReason.CHUNK_READY) ||
+                    activeChunk.numRows() >= properties.getMaxBufferRows() ||
+                    (cacheRows.get() >= properties.getMaxBufferRows() && inactiveChunks.isEmpty())) {
+                seal();
             }
-            if (!inactiveChunks.isEmpty()) {
+            if (!inactiveChunks.isEmpty() || (streaming && activeChunk.numRows() > 0)) {
                 LOG.info("Flush db: {}, table: {}, label: {}, cacheBytes: {}, cacheRows: {}, reason: {}",
                         database, table, label, cacheBytes.get(), cacheRows.get(), reason);
-                streamLoad(0);
+                if (streaming) {
+                    streamEndRequested = reason != FlushReason.CHUNK_READY;
+                    streamingLoad = new StreamingLoad();
+                    streamLoad(0);
+                } else if (maxInflightLoads > 1) {
+                    dispatchLoads(null);
+                } else {
+                    streamLoad(0);
+                }
                 return true;
             } else {
                 state.compareAndSet(State.FLUSHING, State.ACTIVE);
                 return false;
             }
+        } else if (streaming && reason != FlushReason.CHUNK_READY && state.get() == State.FLUSHING
+                && !streamEndRequested) {
+            // end the streaming load after sending the rows written so far
+            LOG.info("Request to end streaming load, db: {}, table: {}, label: {}, reason: {}",
+                    database, table, label, reason);
+            // seal before requesting the end, otherwise the load may end without the active chunk
+            seal();
+            streamEndRequested = true;
+            signalSegment();
         }
         return false;
     }
@@ -377,11 +657,18 @@ public class TransactionTableRegion implements TableRegion {
 
     @Override
     public void complete(StreamLoadResponse response) {
+        if (streaming) {
+            completeStreaming(response);
+            return;
+        }
         Chunk chunk = inactiveChunks.remove();
         cacheBytes.addAndGet(-chunk.rowBytes());
         cacheRows.addAndGet(-chunk.numRows());
         response.setFlushBytes(chunk.rowBytes());
         response.setFlushRows(chunk.numRows());
+        updateChunkSize(chunk, response);
+        discardCompressedChunk(chunk);
+        chunk.release();
         manager.callback(response);
         numRetries = 0;
         firstException = null;
@@ -400,28 +687,221 @@ public class TransactionTableRegion implements TableRegion {
 
     @Override
     public Future<?> getResult() {
-        return responseFuture;
+        return maxInflightLoads > 1 ? new InflightLoadsFuture() : responseFuture;
     }
 
     protected void streamLoad(int delayMs) {
         try {
-            Chunk chunk = inactiveChunks.peek();
-            LOG.info("Stream load chunk, db: {}, table: {}, numRows: {}, rowBytes: {}, chunkBytes: {}",
-                    database, table, chunk.numRows(), chunk.rowBytes(), chunk.chunkBytes());
+            if (streaming) {
+                LOG.info("Stream load streaming, db: {}, table: {}, numSegments: {}, rowBytes: {}",
+                        database, table, streamingLoad.segments.size(), streamingLoad.rowBytes);
+            } else {
+                Chunk chunk = inactiveChunks.peek();
+                if (sendAfterCompression(chunk, () -> streamLoad(delayMs))) {
+                    return;
+                }
+                LOG.info("Stream load chunk, db: {}, table: {}, numRows: {}, rowBytes: {}, chunkBytes: {}",
+                        database, table, chunk.numRows(), chunk.rowBytes(), chunk.chunkBytes());
+            }
             responseFuture = streamLoader.send(this, delayMs);
         } catch (Exception e) {
             fail(e);
         }
     }
 
-    @Override
-    public HttpEntity getHttpEntity() {
-        ChunkHttpEntity entity = new ChunkHttpEntity(uniqueKey, inactiveChunks.peek());
+    /**
+     * Remove the finished load if it's not null, and start loading the inactive chunks until the number
+     * of inflight loads reaches the limit. The region goes back to ACTIVE if there is nothing to load.
+     */
+    private void dispatchLoads(InflightLoad finishedLoad) {
+        List<InflightLoad> newLoads = new ArrayList<>();
+        synchronized (inflightLoads) {
+            if (finishedLoad != null) {
+                inflightLoads.remove(finishedLoad);
+            }
+            while (inflightLoads.size() < maxInflightLoads && state.get() == State.FLUSHING) {
+                Chunk chunk = inactiveChunks.poll();
+                if (chunk == null) {
+                    break;
+                }
+                InflightLoad load = new InflightLoad(chunk);
+                inflightLoads.add(load);
+                newLoads.add(load);
+            }
+            if (inflightLoads.isEmpty() && state.compareAndSet(State.FLUSHING, State.ACTIVE)) {
+                LOG.info("Stream load completed, db: {}, table: {}, label: {}, cacheBytes: {}, cacheRows: {}",
+                        database, table, label, cacheBytes, cacheRows);
+            }
+        }
+        for (InflightLoad load : newLoads) {
+            load.streamLoad(0);
+        }
+    }
+
+    private void completeLoad(InflightLoad load, StreamLoadResponse response) {
+        Chunk chunk = load.chunk;
+        cacheBytes.addAndGet(-chunk.rowBytes());
+        cacheRows.addAndGet(-chunk.numRows());
+        response.setFlushBytes(chunk.rowBytes());
+        response.setFlushRows(chunk.numRows());
+        updateChunkSize(chunk, response);
+        discardCompressedChunk(chunk);
+        chunk.release();
+        manager.callback(response);
+        dispatchLoads(load);
+    }
+
+    private void updateChunkSize(Chunk chunk, StreamLoadResponse response) {
+        if (chunkSizer != null) {
+            chunkSizer.update(System.currentTimeMillis() - chunk.getFirstRowTimeMs(), response.getBody());
+        }
+    }
+
+    public AdaptiveChunkSizer getChunkSizer() {
+        return chunkSizer;
+    }
+
+    // null if the loads are not compressed
+    public CompressionStats getCompressionStats() {
+        return compressionCodec.map(CompressionCodec::getStats).orElse(null);
+    }
+
+    private void failLoad(InflightLoad load, Throwable e) {
+        if (load.firstException == null) {
+            load.firstException = e;
+        }
+
+        if (load.numRetries >= maxRetries || !isRetryable(e)) {
+            LOG.error("Failed to load chunk for db: {}, table: {}, label: {} after {} times retry, the last exception is",
+                    database, table, load.label, load.numRetries, e);
+            // the other inflight loads go on, but no more chunks are loaded
+            synchronized (inflightLoads) {
+                inflightLoads.remove(load);
+                state.set(State.FAILED);
+            }
+            manager.callback(load.firstException);
+            return;
+        }
+
+        load.numRetries += 1;
+        LOG.warn("Failed to load chunk for db: {}, table: {}, label: {}, and will retry for {} times after {} ms",
+                database, table, load.label, load.numRetries, retryIntervalInMs, e);
+        load.streamLoad(retryIntervalInMs);
+    }
+
+    private HttpEntity createHttpEntity(Chunk chunk) {
+        ChunkCompressor.CompressedChunk compressedChunk = getCompressedChunk(chunk);
+        if (compressedChunk != null) {
+            return compressedChunk.isCompressed()
+                    ? new ByteArrayEntity(compressedChunk.getData(), 0, compressedChunk.getLength(),
+                            ContentType.APPLICATION_OCTET_STREAM)
+                    : new ChunkHttpEntity(uniqueKey, chunk);
+        }
+        ChunkHttpEntity entity = new ChunkHttpEntity(uniqueKey, chunk);
         return compressionCodec
                 .map(codec -> (HttpEntity) new CompressionHttpEntity(entity, codec))
                 .orElse(entity);
     }
 
+    /**
+     * Send the chunk after its pre-compression finishes, so that the I/O threads never wait for the
+     * compression. Returns false if the chunk can be sent now.
+     */
+    private boolean sendAfterCompression(Chunk chunk, Runnable send) {
+        CompletableFuture<ChunkCompressor.CompressedChunk> future = chunk == null ? null : compressedChunks.get(chunk);
+        if (future == null || future.isDone()) {
+            return false;
+        }
+        future.whenComplete((compressedChunk, throwable) -> send.run());
+        return true;
+    }
+
+    // Return the pre-compressed chunk, or null if it's not pre-compressed. It never waits for the
+    // compression. If it's not done, the chunk is compressed while sending instead
+    private ChunkCompressor.CompressedChunk getCompressedChunk(Chunk chunk) {
+        CompletableFuture<ChunkCompressor.CompressedChunk> future = compressedChunks.get(chunk);
+        if (future == null) {
+            return null;
+        }
+        if (!future.isDone()) {
+            // the entity and the headers should agree on whether the chunk is compressed
+            discardCompressedChunk(chunk);
+            return null;
+        }
+        try {
+            return future.join();
+        } catch (CompletionException | CancellationException e) {
+            LOG.warn("Failed to pre-compress chunk for db: {}, table: {}, and will compress it while sending",
+                    database, table, e.getCause());
+            discardCompressedChunk(chunk);
+            return null;
+        }
+    }
+
+    private void discardCompressedChunk(Chunk chunk) {
+        CompletableFuture<ChunkCompressor.CompressedChunk> future = compressedChunks.remove(chunk);
+        if (future != null) {
+            ChunkCompressor.discard(future);
+        }
+    }
+
+    @Override
+    public HttpEntity getHttpEntity() {
+        if (streaming) {
+            return new StreamingHttpEntity(uniqueKey, streamingLoad::writeTo);
+        }
+        return createHttpEntity(inactiveChunks.peek());
+    }
+
+    private void completeStreaming(StreamLoadResponse response) {
+        StreamingLoad load = streamingLoad;
+        cacheBytes.addAndGet(-load.rowBytes);
+        cacheRows.addAndGet(-load.numRows);
+        response.setFlushBytes(load.rowBytes);
+        response.setFlushRows(load.numRows);
+        if (!load.segments.isEmpty()) {
+            updateChunkSize(load.segments.get(0), response);
+        }
+        load.segments.forEach(Chunk::release);
+        manager.callback(response);
+        numRetries = 0;
+        firstException = null;
+
+        if (!inactiveChunks.isEmpty()) {
+            LOG.info("Stream load continue, db: {}, table: {}, label: {}, cacheBytes: {}, cacheRows: {}",
+                    database, table, label, cacheBytes, cacheRows);
+            streamingLoad = new StreamingLoad();
+            streamLoad(0);
+            return;
+        }
+        streamingLoad = null;
+        streamEndRequested = false;
+        if (state.compareAndSet(State.FLUSHING, State.ACTIVE)) {
+            LOG.info("Stream load completed, db: {}, table: {}, label: {}, cacheBytes: {}, cacheRows: {}",
+                    database, table, label, cacheBytes, cacheRows);
+        }
+    }
+
+    // wait for the next sealed segment, and return null if there is none in time
+    private Chunk pollSegment() throws IOException {
+        Chunk segment = inactiveChunks.poll();
+        if (segment != null || streamEndRequested) {
+            return segment;
+        }
+        segmentLock.lock();
+        try {
+            if (inactiveChunks.isEmpty() && !streamEndRequested) {
+                segmentAdded.await(SEGMENT_WAIT_MS, TimeUnit.MILLISECONDS);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while waiting for segments", e);
+        } finally {
+            segmentLock.unlock();
+        }
+        return inactiveChunks.poll();
+    }
+
     @Override
     public long getLastWriteTimeMillis() {
         throw new UnsupportedOperationException();
@@ -474,4 +954,326 @@ public class TransactionTableRegion implements TableRegion {
 
     @Override
     public boolean flush() { throw new UnsupportedOperationException(); }
+
+    /**
+     * A load in streaming mode. The first attempt sends the segments as they are sealed until the load
+     * reaches the size or the time limit, or the end is requested and there are no more sealed segments. A retry
+     * sends the segments of the first attempt again. The segments are released as soon as they are sent
+     * if there will be no retry, otherwise they are kept until the load finishes.
+     */
+    private class StreamingLoad {
+
+        private final List<Chunk> segments = new ArrayList<>();
+        private long rowBytes;
+        private long numRows;
+        private boolean firstAttempt = true;
+
+        long writeTo(OutputStream outputStream) throws IOException {
+            StreamLoadDataFormat format = properties.getDataFormat();
+            long size = format.first().length;
+            outputStream.write(format.first());
+            try {
+                if (firstAttempt) {
+                    long maxBytes = chunkSizer != null ? chunkSizer.getChunkBytes() : properties.getChunkLimit();
+                    long deadlineMs = System.currentTimeMillis() + streamingMaxDurationMs;
+                    while (rowBytes < maxBytes) {
+                        if (System.currentTimeMillis() >= deadlineMs) {
+                            LOG.info("Streaming load reaches the time limit {} ms, db: {}, table: {}, rowBytes: {}",
+                                    streamingMaxDurationMs, database, table, rowBytes);
+                            break;
+                        }
+                        Chunk segment = pollSegment();
+                        if (segment == null) {
+                            if (streamEndRequested && inactiveChunks.isEmpty()) {
+                                break;
+                            }
+                            // send the rows in the active chunk if no segment is sealed in time
+                            seal();
+                            continue;
+                        }
+                        // record the segment before sending it so that a retry will send it again
+                        boolean withDelimiter = !segments.isEmpty();
+                        segments.add(segment);
+                        rowBytes += segment.rowBytes();
+                        numRows += segment.numRows();
+                        size += writeSegment(outputStream, segment, withDelimiter);
+                        outputStream.flush();
+                        if (maxRetries == 0) {
+                            segment.release();
+                        }
+                    }
+                } else {
+                    for (int i = 0; i < segments.size(); i++) {
+                        size += writeSegment(outputStream, segments.get(i), i > 0);
+                    }
+                }
+            } finally {
+                firstAttempt = false;
+            }
+            outputStream.write(format.end());
+            return size + format.end().length;
+        }
+
+        private long writeSegment(OutputStream outputStream, Chunk segment, boolean withDelimiter) throws IOException {
+            StreamLoadDataFormat format = properties.getDataFormat();
+            long size = 0;
+            if (withDelimiter) {
+                outputStream.write(format.delimiter());
+                size += format.delimiter().length;
+            }
+            segment.writeContentTo(outputStream);
+            return size + segment.chunkBytes() - format.first().length - format.end().length;
+        }
+    }
+
+    /**
+     * A load of one chunk when loading multiple chunks of the region concurrently. It's passed to
+     * {@link StreamLoader#send(TableRegion, int)} as a region that only contains the chunk, so that
+     * the chunk is loaded with its own label, and the response is accounted for the chunk.
+     */
+    private class InflightLoad implements TableRegion {
+
+        private final Chunk chunk;
+        private volatile String label;
+        private volatile int numRetries;
+        private volatile Throwable firstException;
+        private volatile Future<?> responseFuture;
+
+        InflightLoad(Chunk chunk) {
+            this.chunk = chunk;
+        }
+
+        void streamLoad(int delayMs) {
+            try {
+                if (sendAfterCompression(chunk, () -> streamLoad(delayMs))) {
+                    return;
+                }
+                LOG.info("Stream load chunk, db: {}, table: {}, numRows: {}, rowBytes: {}, chunkBytes: {}, retries: {}",
+                        database, table, chunk.numRows(), chunk.rowBytes(), chunk.chunkBytes(), numRetries);
+                responseFuture = streamLoader.send(this, delayMs);
+            } catch (Exception e) {
+                failLoad(this, e);
+            }
+        }
+
+        @Override
+        public StreamLoadTableProperties getProperties() {
+            return properties;
+        }
+
+        @Override
+        public Map<String, String> getHeaders() {
+            return TransactionTableRegion.this.getHeaders(chunk);
+        }
+
+        @Override
+        public String getUniqueKey() {
+            return uniqueKey;
+        }
+
+        @Override
+        public String getDatabase() {
+            return database;
+        }
+
+        @Override
+        public String getTable() {
+            return table;
+        }
+
+        @Override
+        public LabelGenerator getLabelGenerator() {
+            return labelGenerator;
+        }
+
+        @Override
+        public void setLabel(String label) {
+            // Reuse the same label to avoid duplicate load if retry happens
+            if (numRetries > 0 && label != null) {
+                return;
+            }
+            this.label = label;
+            // the region is committed with the label of the last load
+            TransactionTableRegion.this.label = label;
+        }
+
+        @Override
+        public String getLabel() {
+            return label;
+        }
+
+        @Override
+        public HttpEntity getHttpEntity() {
+            return createHttpEntity(chunk);
+        }
+
+        @Override
+        public void complete(StreamLoadResponse response) {
+            completeLoad(this, response);
+        }
+
+        @Override
+        public void fail(Throwable e) {
+            failLoad(this, e);
+        }
+
+        @Override
+        public Future<?> getResult() {
+            return responseFuture;
+        }
+
+        @Override
+        public boolean isFlushing() {
+            return true;
+        }
+
+        @Override
+        public long getCacheBytes() {
+            return chunk.rowBytes();
+        }
+
+        @Override
+        public long getFlushBytes() {
+            return chunk.rowBytes();
+        }
+
+        @Override
+        public StreamLoadEntityMeta getEntityMeta() {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public long getLastWriteTimeMillis() {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void resetAge() {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public long getAndIncrementAge() {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public long getAge() {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public int write(byte[] row) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public byte[] read() {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public boolean testPrepare() {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public boolean prepare() {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public boolean flush() {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public boolean cancel() {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void callback(StreamLoadResponse response) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void setResult(Future<?> result) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public boolean isReadable() {
+            throw new UnsupportedOperationException();
+        }
+    }
+
+    /**
+     * The result of the concurrent loads of the region. It's done when there is no inflight load, and
+     * waits for the loads dispatched while waiting as well.
+     */
+    private class InflightLoadsFuture implements Future<Void> {
+
+        @Override
+        public boolean cancel(boolean mayInterruptIfRunning) {
+            return false;
+        }
+
+        @Override
+        public boolean isCancelled() {
+            return false;
+        }
+
+        @Override
+        public boolean isDone() {
+            synchronized (inflightLoads) {
+                return inflightLoads.isEmpty();
+            }
+        }
+
+        @Override
+        public Void get() throws InterruptedException, ExecutionException {
+            try {
+                return await(false, 0);
+            } catch (TimeoutException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+
+        @Override
+        public Void get(long timeout, TimeUnit unit) throws InterruptedException, ExecutionException, TimeoutException {
+            return await(true, unit.toNanos(timeout));
+        }
+
+        private Void await(boolean timed, long timeoutNanos)
+                throws InterruptedException, ExecutionException, TimeoutException {
+            long deadlineNanos = System.nanoTime() + timeoutNanos;
+            for (;;) {
+                List<Future<?>> futures = new ArrayList<>();
+                synchronized (inflightLoads) {
+                    for (InflightLoad load : inflightLoads) {
+                        if (load.responseFuture != null) {
+                            futures.add(load.responseFuture);
+                        }
+                    }
+                }
+                // A finished load dispatches the next chunks before its future is done, so wait for
+                // them in the next round. Stop when there is nothing left to wait for
+                boolean waited = false;
+                for (Future<?> future : futures) {
+                    if (!future.isDone()) {
+                        waited = true;
+                    }
+                    if (timed) {
+                        future.get(deadlineNanos - System.nanoTime(), TimeUnit.NANOSECONDS);
+                    } else {
+                        future.get();
+                    }
+                }
+                if (!waited) {
+                    return null;
+                }
+            }
+        }
+    }
 }
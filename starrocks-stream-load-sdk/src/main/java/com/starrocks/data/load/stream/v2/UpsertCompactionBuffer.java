@@ -0,0 +1,139 @@
+/*
+ * Copyright 2021-present StarRocks, Inc. All rights reserved.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.starrocks.data.load.stream.v2;
+
+import java.util.Arrays;
+
+/**
+ * Buffers the rows of a primary key table before they are added to a chunk, and keeps only the last
+ * row for each key. A key updated many times between two flushes is loaded only once. Both upsert and
+ * delete rows replace the previous one because StarRocks applies the last one anyway. The rows are
+ * kept in the order that their keys first appear, and the order of different keys does not matter.
+ *
+ * <p>The keys are indexed by an open addressing hash table of int slots, so the lookup does not create
+ * any object. It's not thread-safe, and should be guarded by the write lock of the region.
+ */
+class UpsertCompactionBuffer {
+
+    private static final int INITIAL_CAPACITY = 256;
+
+    private byte[][] keys = new byte[INITIAL_CAPACITY][];
+    private byte[][] rows = new byte[INITIAL_CAPACITY][];
+    private int[] hashes = new int[INITIAL_CAPACITY];
+    // index of the row plus 1 for each slot, and 0 if the slot is empty
+    private int[] slots = new int[INITIAL_CAPACITY * 2];
+    private int numRows;
+    private long rowBytes;
+    private long numCompactedRows;
+
+    /**
+     * Put the row of the key, and replace the previous row of the same key. The range of the array
+     * is copied. Returns the change of the buffered row bytes, which is negative if the row replaced
+     * is larger.
+     */
+    int put(byte[] key, byte[] data, int off, int len) {
+        int hash = hash(key);
+        int slot = findSlot(key, hash);
+        int idx = slots[slot] - 1;
+        byte[] row = Arrays.copyOfRange(data, off, off + len);
+        if (idx >= 0) {
+            int delta = len - rows[idx].length;
+            rows[idx] = row;
+            rowBytes += delta;
+            numCompactedRows += 1;
+            return delta;
+        }
+
+        if (numRows == rows.length) {
+            grow();
+            slot = findSlot(key, hash);
+        }
+        keys[numRows] = key;
+        rows[numRows] = row;
+        hashes[numRows] = hash;
+        numRows += 1;
+        slots[slot] = numRows;
+        rowBytes += len;
+        return len;
+    }
+
+    int numRows() {
+        return numRows;
+    }
+
+    long rowBytes() {
+        return rowBytes;
+    }
+
+    // number of rows replaced by a later one of the same key
+    long numCompactedRows() {
+        return numCompactedRows;
+    }
+
+    /**
+     * Get the buffered rows in order, and clear the buffer. The rows are not copied.
+     */
+    byte[][] drain() {
+        byte[][] result = Arrays.copyOf(rows, numRows);
+        Arrays.fill(keys, 0, numRows, null);
+        Arrays.fill(rows, 0, numRows, null);
+        Arrays.fill(slots, 0);
+        numRows = 0;
+        rowBytes = 0;
+        return result;
+    }
+
+    // the slot of the key, or the empty slot to put it
+    private int findSlot(byte[] key, int hash) {
+        int mask = slots.length - 1;
+        int slot = hash & mask;
+        for (;;) {
+            int idx = slots[slot] - 1;
+            if (idx < 0 || (hashes[idx] == hash && Arrays.equals(keys[idx], key))) {
+                return slot;
+            }
+            slot = (slot + 1) & mask;
+        }
+    }
+
+    private void grow() {
+        int capacity = rows.length * 2;
+        keys = Arrays.copyOf(keys, capacity);
+        rows = Arrays.copyOf(rows, capacity);
+        hashes = Arrays.copyOf(hashes, capacity);
+        // keep the load factor of the slots no more than 0.5
+        slots = new int[capacity * 2];
+        int mask = slots.length - 1;
+        for (int i = 0; i < numRows; i++) {
+            int slot = hashes[i] & mask;
+            while (slots[slot] != 0) {
+                slot = (slot + 1) & mask;
+            }
+            slots[slot] = i + 1;
+        }
+    }
+
+    private static int hash(byte[] key) {
+        int h = Arrays.hashCode(key);
+        // spread the high bits to the low ones which are used to locate the slot
+        return h ^ (h >>> 16);
+    }
+}
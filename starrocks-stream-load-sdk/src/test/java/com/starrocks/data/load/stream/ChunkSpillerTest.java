@@ -0,0 +1,172 @@
+/*
+ * Copyright 2021-present StarRocks, Inc. All rights reserved.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.starrocks.data.load.stream;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.stream.Stream;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class ChunkSpillerTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private ChunkSpiller spiller;
+
+    @Before
+    public void setUp() throws Exception {
+        spiller = new ChunkSpiller(folder.getRoot().getAbsolutePath(), 1024 * 1024);
+    }
+
+    @After
+    public void tearDown() {
+        spiller.close();
+    }
+
+    @Test
+    public void testSpillHeapChunk() throws Exception {
+        testSpillBase(new Chunk(StreamLoadDataFormat.JSON));
+    }
+
+    @Test
+    public void testSpillSlabChunk() throws Exception {
+        testSpillBase(new SlabPool(64, 1024 * 1024).allocate(StreamLoadDataFormat.CSV));
+    }
+
+    private void testSpillBase(Chunk chunk) throws Exception {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        for (int i = 0; i < 100; i++) {
+            byte[] row = new byte[random.nextInt(40) + 1];
+            random.nextBytes(row);
+            chunk.addRow(row);
+        }
+        byte[] expectedData = toBytes(chunk);
+        long rowBytes = chunk.rowBytes();
+
+        assertEquals(rowBytes, chunk.spill(spiller));
+        assertTrue(chunk.isSpilled());
+        assertEquals(0, chunk.allocatedBytes());
+        assertEquals(expectedData.length, spiller.getSpillBytes());
+        assertEquals(rowBytes, spiller.getSpillRowBytes());
+        assertEquals(1, spiller.getNumSpillFiles());
+        // spill again is a no-op
+        assertEquals(0, chunk.spill(spiller));
+
+        assertArrayEquals(expectedData, toBytes(chunk));
+        ByteArrayOutputStream iteratorOutput = new ByteArrayOutputStream();
+        Iterator<byte[]> iterator = chunk.iterator();
+        while (iterator.hasNext()) {
+            iteratorOutput.write(iterator.next());
+        }
+        assertArrayEquals(expectedData, iteratorOutput.toByteArray());
+
+        chunk.release();
+        assertEquals(0, spiller.getSpillBytes());
+        assertEquals(0, spiller.getSpillRowBytes());
+        assertEquals(0, spiller.getNumSpillFiles());
+        try (Stream<Path> files = Files.list(spiller.getDirectory())) {
+            assertEquals(0, files.count());
+        }
+    }
+
+    @Test
+    public void testPinBuffers() throws Exception {
+        for (Chunk chunk : new Chunk[] {new Chunk(StreamLoadDataFormat.JSON),
+                new SlabPool(16, 1024 * 1024).allocate(StreamLoadDataFormat.CSV),
+                new DirectChunk(StreamLoadDataFormat.JSON, new DirectSegmentPool(16))}) {
+            for (int i = 0; i < 10; i++) {
+                chunk.addRow(("row" + i).getBytes());
+            }
+            byte[] expectedData = toBytes(chunk);
+            assertArrayEquals(expectedData, toBytes(chunk.pinBuffers()));
+            // the pinned chunk can't be spilled
+            assertEquals(0, chunk.spill(spiller));
+            chunk.unpin();
+            assertEquals(chunk.rowBytes(), chunk.spill(spiller));
+            // the spilled chunk is streamed from the file rather than read into memory
+            assertNull(chunk.pinBuffers());
+            try (FileChannel channel = chunk.openSpillFile()) {
+                ByteBuffer buffer = ByteBuffer.allocate(expectedData.length);
+                while (buffer.hasRemaining() && channel.read(buffer) >= 0) {
+                    // read the whole file
+                }
+                assertArrayEquals(expectedData, buffer.array());
+                assertEquals(expectedData.length, channel.size());
+            }
+            chunk.unpin();
+            chunk.release();
+        }
+    }
+
+    @Test
+    public void testMaxSpillBytes() throws Exception {
+        try (ChunkSpiller smallSpiller = new ChunkSpiller(folder.getRoot().getAbsolutePath(), 16)) {
+            Chunk chunk = new Chunk(StreamLoadDataFormat.CSV);
+            chunk.addRow(new byte[32]);
+            assertEquals(0, chunk.spill(smallSpiller));
+            assertFalse(chunk.isSpilled());
+            assertEquals(0, smallSpiller.getNumSpillFiles());
+        }
+    }
+
+    @Test
+    public void testClose() throws Exception {
+        Chunk chunk = new Chunk(StreamLoadDataFormat.CSV);
+        chunk.addRow(new byte[] {'a', 'b'});
+        chunk.spill(spiller);
+        spiller.close();
+        assertFalse(Files.exists(spiller.getDirectory()));
+    }
+
+    private static byte[] toBytes(List<ByteBuffer> buffers) {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        for (ByteBuffer buffer : buffers) {
+            byte[] bytes = new byte[buffer.remaining()];
+            buffer.duplicate().get(bytes);
+            outputStream.write(bytes, 0, bytes.length);
+        }
+        return outputStream.toByteArray();
+    }
+
+    private byte[] toBytes(Chunk chunk) throws Exception {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        chunk.writeTo(outputStream);
+        return outputStream.toByteArray();
+    }
+}
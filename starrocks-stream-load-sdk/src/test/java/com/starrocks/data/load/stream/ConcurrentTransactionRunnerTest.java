@@ -0,0 +1,166 @@
+/*
+ * Copyright 2021-present StarRocks, Inc. All rights reserved.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.starrocks.data.load.stream;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class ConcurrentTransactionRunnerTest {
+
+    private ScheduledExecutorService executor;
+
+    @Before
+    public void setUp() {
+        executor = new ScheduledThreadPoolExecutor(4);
+    }
+
+    @After
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void testBoundedParallelism() throws Exception {
+        ConcurrentTransactionRunner runner = new ConcurrentTransactionRunner(executor, 3, 3, 10, 100);
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger maxRunning = new AtomicInteger();
+        List<StreamLoadSnapshot.Transaction> transactions = genTransactions(50);
+        List<StreamLoadSnapshot.Transaction> failed = runner.run("commit", transactions, transaction -> {
+            int num = running.incrementAndGet();
+            maxRunning.accumulateAndGet(num, Math::max);
+            try {
+                Thread.sleep(5);
+            } catch (InterruptedException e) {
+                throw new RuntimeException(e);
+            }
+            running.decrementAndGet();
+            transaction.setFinish(true);
+            return true;
+        });
+        assertTrue(failed.isEmpty());
+        assertTrue(maxRunning.get() <= 3);
+        for (StreamLoadSnapshot.Transaction transaction : transactions) {
+            assertTrue(transaction.isFinish());
+        }
+    }
+
+    @Test
+    public void testRetry() throws Exception {
+        ConcurrentTransactionRunner runner = new ConcurrentTransactionRunner(executor, 2, 3, 10, 100);
+        List<StreamLoadSnapshot.Transaction> transactions = genTransactions(10);
+        Map<String, AtomicInteger> numAttempts = new ConcurrentHashMap<>();
+        // label-0 never succeeds, label-1 succeeds at the last attempt, and others succeed at once
+        List<StreamLoadSnapshot.Transaction> failed = runner.run("prepare", transactions, transaction -> {
+            int attempts = numAttempts.computeIfAbsent(transaction.getLabel(), k -> new AtomicInteger()).incrementAndGet();
+            if (transaction.getLabel().equals("label-0")) {
+                return false;
+            }
+            return !transaction.getLabel().equals("label-1") || attempts == 3;
+        });
+        assertEquals(1, failed.size());
+        assertSame(transactions.get(0), failed.get(0));
+        assertEquals(3, numAttempts.get("label-0").get());
+        assertEquals(3, numAttempts.get("label-1").get());
+        assertEquals(1, numAttempts.get("label-2").get());
+    }
+
+    @Test
+    public void testException() throws Exception {
+        ConcurrentTransactionRunner runner = new ConcurrentTransactionRunner(executor, 2, 3, 10, 100);
+        List<StreamLoadSnapshot.Transaction> transactions = genTransactions(10);
+        AtomicInteger numCalls = new AtomicInteger();
+        try {
+            runner.run("prepare", transactions, transaction -> {
+                numCalls.incrementAndGet();
+                if (transaction.getLabel().equals("label-3")) {
+                    throw new IllegalStateException("prepare failed");
+                }
+                return true;
+            });
+            fail();
+        } catch (IllegalStateException e) {
+            assertEquals("prepare failed", e.getMessage());
+        }
+        // an exception is not retried, and does not stop other transactions
+        assertEquals(10, numCalls.get());
+    }
+
+    @Test
+    public void testInterrupt() throws Exception {
+        ConcurrentTransactionRunner runner = new ConcurrentTransactionRunner(executor, 1, 3, 10, 100);
+        List<StreamLoadSnapshot.Transaction> transactions = genTransactions(10);
+        AtomicInteger numCalls = new AtomicInteger();
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicReference<Throwable> error = new AtomicReference<>();
+        Thread thread = new Thread(() -> {
+            try {
+                runner.run("commit", transactions, transaction -> {
+                    numCalls.incrementAndGet();
+                    started.countDown();
+                    try {
+                        release.await();
+                    } catch (InterruptedException e) {
+                        throw new RuntimeException(e);
+                    }
+                    return true;
+                });
+            } catch (Throwable e) {
+                error.set(e);
+            }
+        });
+        thread.start();
+        assertTrue(started.await(10, TimeUnit.SECONDS));
+        thread.interrupt();
+        thread.join(10000);
+        assertTrue(error.get() instanceof InterruptedException);
+
+        // the attempt in progress finishes, but no more transactions are started after the interrupt
+        release.countDown();
+        Thread.sleep(100);
+        assertEquals(1, numCalls.get());
+    }
+
+    private static List<StreamLoadSnapshot.Transaction> genTransactions(int num) {
+        List<StreamLoadSnapshot.Transaction> transactions = new ArrayList<>();
+        for (int i = 0; i < num; i++) {
+            transactions.add(new StreamLoadSnapshot.Transaction("db", "tbl-" + i, "label-" + i));
+        }
+        return transactions;
+    }
+}
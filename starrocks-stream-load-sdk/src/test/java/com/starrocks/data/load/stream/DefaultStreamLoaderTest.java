@@ -0,0 +1,249 @@
+/*
+ * Copyright 2021-present StarRocks, Inc. All rights reserved.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.starrocks.data.load.stream;
+
+import com.starrocks.data.load.stream.properties.StreamLoadProperties;
+import com.starrocks.data.load.stream.v2.ChunkHttpEntity;
+import com.sun.net.httpserver.HttpServer;
+import org.apache.http.entity.ByteArrayEntity;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/** Tests for {@link DefaultStreamLoader}. */
+public class DefaultStreamLoaderTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private HttpServer feServer;
+    private HttpServer beServer;
+    private final AtomicInteger feRequests = new AtomicInteger();
+    private final AtomicInteger beRequests = new AtomicInteger();
+    private volatile String beStatus = "Success";
+    private volatile byte[] beBody;
+
+    @Before
+    public void setUp() throws Exception {
+        beServer = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        beServer.createContext("/", exchange -> {
+            beRequests.incrementAndGet();
+            ByteArrayOutputStream bodyOutput = new ByteArrayOutputStream();
+            byte[] buffer = new byte[1024];
+            for (int n; (n = exchange.getRequestBody().read(buffer)) != -1; ) {
+                bodyOutput.write(buffer, 0, n);
+            }
+            beBody = bodyOutput.toByteArray();
+            byte[] body = ("{\"Status\":\"" + beStatus + "\"}").getBytes(StandardCharsets.UTF_8);
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream os = exchange.getResponseBody()) {
+                os.write(body);
+            }
+        });
+        beServer.start();
+
+        feServer = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        feServer.createContext("/", exchange -> {
+            feRequests.incrementAndGet();
+            drain(exchange.getRequestBody());
+            exchange.getResponseHeaders().add("Location",
+                    "http://127.0.0.1:" + beServer.getAddress().getPort() + exchange.getRequestURI());
+            exchange.sendResponseHeaders(307, -1);
+            exchange.close();
+        });
+        feServer.start();
+    }
+
+    @After
+    public void tearDown() {
+        feServer.stop(0);
+        beServer.stop(0);
+    }
+
+    @Test
+    public void testDirectBeRouting() {
+        DefaultStreamLoader loader = startLoader(true);
+        // the loads of the same transaction go to the same BE
+        loader.enableTransaction();
+        TableRegion region = mockRegion();
+        try {
+            for (int i = 0; i < 3; i++) {
+                loader.sendToSR(region);
+            }
+            verify(region, times(3)).complete(any());
+            // only the first load goes through FE
+            assertEquals(1, feRequests.get());
+            assertEquals(3, beRequests.get());
+
+            // go back to FE after the failure
+            beStatus = "Fail";
+            loader.sendToSR(region);
+            verify(region, times(1)).fail(any());
+            beStatus = "Success";
+            loader.sendToSR(region);
+            verify(region, times(4)).complete(any());
+            assertEquals(2, feRequests.get());
+            assertEquals(5, beRequests.get());
+        } finally {
+            loader.close();
+        }
+    }
+
+    @Test
+    public void testNoDirectBeRoutingWithoutTransaction() {
+        DefaultStreamLoader loader = startLoader(true);
+        TableRegion region = mockRegion();
+        try {
+            // each load is a new transaction, so FE chooses the BE for each of them
+            loader.sendToSR(region);
+            loader.sendToSR(region);
+            verify(region, times(2)).complete(any());
+            assertEquals(2, feRequests.get());
+            assertEquals(2, beRequests.get());
+        } finally {
+            loader.close();
+        }
+    }
+
+    @Test
+    public void testRouteThroughFe() {
+        DefaultStreamLoader loader = startLoader(false);
+        TableRegion region = mockRegion();
+        try {
+            for (int i = 0; i < 3; i++) {
+                loader.sendToSR(region);
+            }
+            verify(region, times(3)).complete(any());
+            assertEquals(3, feRequests.get());
+            assertEquals(3, beRequests.get());
+        } finally {
+            loader.close();
+        }
+    }
+
+    @Test
+    public void testAsyncHttp() throws Exception {
+        DefaultStreamLoader loader = startLoader(true, true);
+        assertTrue(loader instanceof AsyncStreamLoader);
+        loader.enableTransaction();
+        TableRegion region = mockRegion();
+        try {
+            for (int i = 0; i < 3; i++) {
+                loader.send(region).get(10, TimeUnit.SECONDS);
+            }
+            verify(region, times(3)).complete(any());
+            assertEquals(1, feRequests.get());
+            assertEquals(3, beRequests.get());
+
+            beStatus = "Fail";
+            loader.send(region).get(10, TimeUnit.SECONDS);
+            verify(region, times(1)).fail(any());
+            beStatus = "Success";
+            loader.send(region, 10).get(10, TimeUnit.SECONDS);
+            verify(region, times(4)).complete(any());
+            assertEquals(2, feRequests.get());
+            assertEquals(5, beRequests.get());
+        } finally {
+            loader.close();
+        }
+    }
+
+    @Test
+    public void testAsyncHttpSpilledChunk() throws Exception {
+        Chunk chunk = new Chunk(StreamLoadDataFormat.CSV);
+        for (int i = 0; i < 1000; i++) {
+            chunk.addRow(("row" + i).getBytes(StandardCharsets.UTF_8));
+        }
+        ByteArrayOutputStream expectedData = new ByteArrayOutputStream();
+        chunk.writeTo(expectedData);
+        DefaultStreamLoader loader = startLoader(false, true);
+        try (ChunkSpiller spiller = new ChunkSpiller(folder.getRoot().getAbsolutePath(), 1024 * 1024)) {
+            assertEquals(chunk.rowBytes(), chunk.spill(spiller));
+            TableRegion region = mockRegion();
+            when(region.getHttpEntity()).thenReturn(new ChunkHttpEntity("db-tbl", chunk));
+            loader.send(region).get(10, TimeUnit.SECONDS);
+            verify(region, times(1)).complete(any());
+            // the body is streamed from the spill file, and sent again after the redirect
+            assertArrayEquals(expectedData.toByteArray(), beBody);
+            // the chunk is unpinned after the load
+            assertEquals(0, chunk.spill(spiller));
+            chunk.release();
+        } finally {
+            loader.close();
+        }
+    }
+
+    private DefaultStreamLoader startLoader(boolean directBeRouting) {
+        return startLoader(directBeRouting, false);
+    }
+
+    private DefaultStreamLoader startLoader(boolean directBeRouting, boolean asyncHttp) {
+        StreamLoadProperties properties = StreamLoadProperties.builder()
+                .loadUrls("http://127.0.0.1:" + feServer.getAddress().getPort())
+                .username("root")
+                .password("")
+                .ioThreadCount(1)
+                .directBeRouting(directBeRouting)
+                .asyncHttp(asyncHttp)
+                .build();
+        DefaultStreamLoader loader = asyncHttp ? new AsyncStreamLoader() : new DefaultStreamLoader();
+        loader.start(properties, mock(StreamLoadManager.class));
+        return loader;
+    }
+
+    private static TableRegion mockRegion() {
+        TableRegion region = mock(TableRegion.class);
+        when(region.getDatabase()).thenReturn("db");
+        when(region.getTable()).thenReturn("tbl");
+        when(region.getUniqueKey()).thenReturn("db-tbl");
+        when(region.getLabel()).thenReturn("label");
+        when(region.getLabelGenerator()).thenReturn(mock(LabelGenerator.class));
+        when(region.getHttpEntity()).thenReturn(new ByteArrayEntity("1,2".getBytes(StandardCharsets.UTF_8)));
+        return region;
+    }
+
+    private static void drain(InputStream inputStream) throws IOException {
+        byte[] buffer = new byte[1024];
+        while (inputStream.read(buffer) != -1) {
+            // discard
+        }
+    }
+}
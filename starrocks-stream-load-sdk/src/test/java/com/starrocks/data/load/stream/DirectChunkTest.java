@@ -0,0 +1,107 @@
+/*
+ * Copyright 2021-present StarRocks, Inc. All rights reserved.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.starrocks.data.load.stream;
+
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.util.Iterator;
+import java.util.concurrent.ThreadLocalRandom;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class DirectChunkTest {
+
+    @Test
+    public void testWriteChunk() throws Exception {
+        ChunkAllocator allocator = DirectSegmentPool.acquire(16, 1024 * 1024);
+        DirectSegmentPool pool = ((DirectSegmentPool.Handle) allocator).getPool();
+        try {
+            StreamLoadDataFormat format = StreamLoadDataFormat.JSON;
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            Chunk expectedChunk = new Chunk(format);
+            Chunk chunk = allocator.allocate(format);
+            for (int i = 0; i < 100; i++) {
+                byte[] row = new byte[random.nextInt(40) + 1];
+                random.nextBytes(row);
+                expectedChunk.addRow(row);
+                chunk.addRow(row);
+                assertEquals(expectedChunk.numRows(), chunk.numRows());
+                assertEquals(expectedChunk.rowBytes(), chunk.rowBytes());
+                assertEquals(expectedChunk.chunkBytes(), chunk.chunkBytes());
+            }
+
+            byte[] expectedData = toBytes(expectedChunk);
+            // can be written multiple times
+            assertArrayEquals(expectedData, toBytes(chunk));
+            assertArrayEquals(expectedData, toBytes(chunk));
+            ByteArrayOutputStream iteratorOutput = new ByteArrayOutputStream();
+            Iterator<byte[]> iterator = chunk.iterator();
+            while (iterator.hasNext()) {
+                iteratorOutput.write(iterator.next());
+            }
+            assertArrayEquals(expectedData, iteratorOutput.toByteArray());
+
+            assertEquals(chunk.allocatedBytes(), pool.getUsedBytes());
+            chunk.release();
+            assertEquals(0, pool.getUsedBytes());
+            assertTrue(pool.getNumFreeSegments() > 0);
+        } finally {
+            allocator.close();
+        }
+    }
+
+    @Test
+    public void testBudget() {
+        ChunkAllocator allocator1 = DirectSegmentPool.acquire(16, 64);
+        ChunkAllocator allocator2 = DirectSegmentPool.acquire(16, 64);
+        DirectSegmentPool pool = ((DirectSegmentPool.Handle) allocator1).getPool();
+        try {
+            assertEquals(128, pool.getBudgetBytes());
+            Chunk chunk = allocator1.allocate(StreamLoadDataFormat.CSV);
+            chunk.addRow(new byte[100]);
+            assertEquals(112, pool.getUsedBytes());
+            assertFalse(allocator2.isExhausted());
+            chunk.addRow(new byte[20]);
+            assertTrue(allocator1.isExhausted());
+            assertTrue(allocator2.isExhausted());
+
+            allocator2.close();
+            assertEquals(64, pool.getBudgetBytes());
+            chunk.release();
+            assertFalse(allocator1.isExhausted());
+            // free segments are trimmed to the budget
+            assertEquals(4, pool.getNumFreeSegments());
+        } finally {
+            allocator1.close();
+            allocator2.close();
+        }
+    }
+
+    private static byte[] toBytes(Chunk chunk) throws Exception {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        chunk.writeTo(outputStream);
+        return outputStream.toByteArray();
+    }
+}
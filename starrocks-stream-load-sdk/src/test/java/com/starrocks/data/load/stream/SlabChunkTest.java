@@ -0,0 +1,161 @@
+/*
+ * Copyright 2021-present StarRocks, Inc. All rights reserved.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.starrocks.data.load.stream;
+
+import com.starrocks.data.load.stream.v2.ChunkInputStream;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.concurrent.ThreadLocalRandom;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class SlabChunkTest {
+
+    @Test
+    public void testCsvChunk() throws Exception {
+        testChunkBase(StreamLoadDataFormat.CSV);
+    }
+
+    @Test
+    public void testJsonChunk() throws Exception {
+        testChunkBase(StreamLoadDataFormat.JSON);
+    }
+
+    @Test
+    public void testAddRowInRange() throws Exception {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        SlabPool pool = new SlabPool(16, 1024 * 1024);
+        Chunk expectedChunk = new Chunk(StreamLoadDataFormat.CSV);
+        Chunk copyChunk = new Chunk(StreamLoadDataFormat.CSV);
+        SlabChunk chunk = (SlabChunk) pool.allocate(StreamLoadDataFormat.CSV);
+        // the buffer is reused for each row
+        byte[] buffer = new byte[64];
+        for (int i = 0; i < 100; i++) {
+            int off = random.nextInt(16);
+            int len = random.nextInt(40) + 1;
+            random.nextBytes(buffer);
+            expectedChunk.addRow(Arrays.copyOfRange(buffer, off, off + len));
+            copyChunk.addRow(buffer, off, len);
+            chunk.addRow(buffer, off, len);
+            assertEquals(expectedChunk.chunkBytes(), chunk.chunkBytes());
+        }
+        byte[] expectedData = toBytes(expectedChunk);
+        assertArrayEquals(expectedData, toBytes(copyChunk));
+        assertArrayEquals(expectedData, toBytes(chunk));
+        chunk.release();
+    }
+
+    private void testChunkBase(StreamLoadDataFormat format) throws Exception {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        // small slabs so that rows span multiple slabs
+        SlabPool pool = new SlabPool(16, 1024 * 1024);
+        Chunk expectedChunk = new Chunk(format);
+        SlabChunk chunk = (SlabChunk) pool.allocate(format);
+        int numRows = 100;
+        for (int i = 0; i < numRows; i++) {
+            int len = random.nextInt(40) + 1;
+            byte[] row = new byte[len];
+            random.nextBytes(row);
+            assertEquals(expectedChunk.estimateChunkSize(row), chunk.estimateChunkSize(row));
+            expectedChunk.addRow(row);
+            chunk.addRow(row);
+            assertEquals(expectedChunk.chunkBytes() - format.end().length - row.length, chunk.rowOffset(i));
+            assertEquals(expectedChunk.numRows(), chunk.numRows());
+            assertEquals(expectedChunk.rowBytes(), chunk.rowBytes());
+            assertEquals(expectedChunk.chunkBytes(), chunk.chunkBytes());
+        }
+
+        byte[] expectedData = toBytes(expectedChunk);
+        assertEquals(expectedChunk.chunkBytes(), expectedData.length);
+        assertArrayEquals(expectedData, toBytes(chunk));
+        ByteArrayOutputStream iteratorOutput = new ByteArrayOutputStream();
+        Iterator<byte[]> iterator = chunk.iterator();
+        while (iterator.hasNext()) {
+            iteratorOutput.write(iterator.next());
+        }
+        assertArrayEquals(expectedData, iteratorOutput.toByteArray());
+        try (ChunkInputStream inputStream = new ChunkInputStream(chunk)) {
+            byte[] data = new byte[expectedData.length];
+            int pos = 0;
+            int len;
+            while ((len = inputStream.read(data, pos, data.length - pos)) > 0) {
+                pos += len;
+            }
+            assertArrayEquals(expectedData, data);
+        }
+
+        long numSlabs = (chunk.chunkBytes() - format.first().length - format.end().length + 15) / 16;
+        assertEquals(numSlabs * 16, chunk.allocatedBytes());
+        assertEquals(numSlabs, pool.getNumUsedSlabs());
+        chunk.release();
+        assertEquals(0, pool.getNumUsedSlabs());
+        assertEquals(numSlabs, pool.getNumFreeSlabs());
+
+        // slabs are reused by the next chunk
+        Chunk nextChunk = pool.allocate(format);
+        nextChunk.addRow(new byte[20]);
+        assertEquals(2, pool.getNumUsedSlabs());
+        assertEquals(numSlabs - 2, pool.getNumFreeSlabs());
+    }
+
+    @Test
+    public void testBudget() {
+        SlabPool pool = new SlabPool(16, 32);
+        Chunk chunk = pool.allocate(StreamLoadDataFormat.CSV);
+        chunk.addRow(new byte[100]);
+        assertEquals(7, pool.getNumUsedSlabs());
+        assertEquals(7 * 16, pool.getUsedBytes());
+        assertTrue(pool.isExhausted());
+        chunk.release();
+        chunk.release();
+        assertEquals(0, pool.getNumUsedSlabs());
+        // free slabs are kept within the budget
+        assertEquals(2, pool.getNumFreeSlabs());
+        assertFalse(pool.isExhausted());
+
+        // a partly filled slab is counted in full
+        Chunk chunk1 = pool.allocate(StreamLoadDataFormat.CSV);
+        chunk1.addRow(new byte[1]);
+        assertFalse(pool.isExhausted());
+        Chunk chunk2 = pool.allocate(StreamLoadDataFormat.CSV);
+        chunk2.addRow(new byte[1]);
+        assertEquals(32, pool.getUsedBytes());
+        assertTrue(pool.isExhausted());
+        assertEquals(0, pool.getNumFreeSlabs());
+        chunk1.release();
+        assertFalse(pool.isExhausted());
+        assertEquals(1, pool.getNumFreeSlabs());
+        chunk2.release();
+        assertEquals(2, pool.getNumFreeSlabs());
+    }
+
+    private static byte[] toBytes(Chunk chunk) throws Exception {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        chunk.writeTo(outputStream);
+        return outputStream.toByteArray();
+    }
+}
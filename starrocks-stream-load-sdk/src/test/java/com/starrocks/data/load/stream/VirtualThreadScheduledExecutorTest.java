@@ -0,0 +1,125 @@
+/*
+ * Copyright 2021-present StarRocks, Inc. All rights reserved.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.starrocks.data.load.stream;
+
+import org.junit.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class VirtualThreadScheduledExecutorTest {
+
+    @Test
+    public void testCreate() throws Exception {
+        VirtualThreadScheduledExecutor executor = VirtualThreadScheduledExecutor.create("test-", (t, e) -> { });
+        if (getJavaFeatureVersion() < 21) {
+            assertNull(executor);
+            return;
+        }
+
+        assertNotNull(executor);
+        try {
+            String name = executor.submit(() -> Thread.currentThread().getName()).get(10, TimeUnit.SECONDS);
+            assertTrue(name.startsWith("test-"));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testSchedule() throws Exception {
+        // the scheduling does not depend on virtual threads, so test it with platform threads
+        VirtualThreadScheduledExecutor executor =
+                new VirtualThreadScheduledExecutor(Executors.newCachedThreadPool(), "test-scheduler");
+        try {
+            long startTime = System.nanoTime();
+            ScheduledFuture<String> future = executor.schedule(
+                    () -> Thread.currentThread().getName(), 200, TimeUnit.MILLISECONDS);
+            assertTrue(future.getDelay(TimeUnit.MILLISECONDS) > 0);
+            String name = future.get(10, TimeUnit.SECONDS);
+            assertTrue(System.nanoTime() - startTime >= TimeUnit.MILLISECONDS.toNanos(200));
+            // runs on the executor rather than the scheduler thread
+            assertFalse(name.equals("test-scheduler"));
+
+            AtomicInteger counter = new AtomicInteger();
+            ScheduledFuture<?> cancelled = executor.schedule(counter::incrementAndGet, 10, TimeUnit.SECONDS);
+            assertTrue(cancelled.cancel(false));
+            assertTrue(cancelled.isCancelled());
+
+            CountDownLatch latch = new CountDownLatch(3);
+            ScheduledFuture<?> periodic = executor.scheduleWithFixedDelay(latch::countDown, 0, 10, TimeUnit.MILLISECONDS);
+            assertTrue(latch.await(10, TimeUnit.SECONDS));
+            periodic.cancel(false);
+            assertEquals(0, counter.get());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testScheduleAfterShutdown() throws Exception {
+        ScheduledExecutorService executor =
+                new VirtualThreadScheduledExecutor(Executors.newCachedThreadPool(), "test-scheduler");
+        executor.shutdown();
+        try {
+            executor.schedule(() -> 1, 10, TimeUnit.MILLISECONDS);
+            fail();
+        } catch (RejectedExecutionException e) {
+            // expected
+        }
+        assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+        assertTrue(executor.isTerminated());
+    }
+
+    @Test
+    public void testTaskFailure() throws Exception {
+        VirtualThreadScheduledExecutor executor =
+                new VirtualThreadScheduledExecutor(Executors.newCachedThreadPool(), "test-scheduler");
+        try {
+            ScheduledFuture<Object> future = executor.schedule(() -> {
+                throw new IllegalStateException("artificial failure");
+            }, 10, TimeUnit.MILLISECONDS);
+            future.get(10, TimeUnit.SECONDS);
+            fail();
+        } catch (ExecutionException e) {
+            assertEquals("artificial failure", e.getCause().getMessage());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static int getJavaFeatureVersion() {
+        String version = System.getProperty("java.specification.version");
+        return version.startsWith("1.") ? Integer.parseInt(version.substring(2)) : Integer.parseInt(version);
+    }
+}
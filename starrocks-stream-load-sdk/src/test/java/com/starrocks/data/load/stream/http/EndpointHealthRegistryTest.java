@@ -0,0 +1,118 @@
+/*
+ * Copyright 2021-present StarRocks, Inc. All rights reserved.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.starrocks.data.load.stream.http;
+
+import com.starrocks.data.load.stream.properties.StreamLoadProperties;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.net.ConnectException;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class EndpointHealthRegistryTest {
+
+    private ServerSocket liveServer;
+    private String liveHost;
+    private String deadHost;
+
+    @Before
+    public void setUp() throws Exception {
+        liveServer = new ServerSocket();
+        liveServer.bind(new InetSocketAddress("127.0.0.1", 0));
+        liveHost = "http://127.0.0.1:" + liveServer.getLocalPort();
+        try (ServerSocket socket = new ServerSocket(0)) {
+            deadHost = "http://127.0.0.1:" + socket.getLocalPort();
+        }
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        liveServer.close();
+    }
+
+    @Test
+    public void testSelectHealthyHost() {
+        for (EndpointHealthRegistry.SelectPolicy policy : EndpointHealthRegistry.SelectPolicy.values()) {
+            EndpointHealthRegistry registry = new EndpointHealthRegistry("test", new String[] {deadHost, liveHost},
+                    1000, 60000, policy);
+            registry.probeAll();
+            assertFalse(registry.isHealthy(deadHost));
+            assertTrue(registry.isHealthy(liveHost));
+            assertFalse(Double.isNaN(registry.getLatencyScore(liveHost)));
+            for (int i = 0; i < 10; i++) {
+                assertEquals(liveHost, registry.select());
+            }
+            registry.release();
+        }
+    }
+
+    @Test
+    public void testReportFailure() throws Exception {
+        EndpointHealthRegistry registry = new EndpointHealthRegistry("test", new String[] {liveHost},
+                1000, 60000, EndpointHealthRegistry.SelectPolicy.ROUND_ROBIN);
+        registry.probeAll();
+        assertEquals(1, registry.getNumHealthyHosts());
+
+        // failures that are not about connecting to the host do not change the state
+        registry.reportFailure(liveHost, new RuntimeException("load failed"));
+        assertTrue(registry.isHealthy(liveHost));
+
+        registry.reportFailure(liveHost, new RuntimeException(new ConnectException("Connection refused")));
+        assertFalse(registry.isHealthy(liveHost));
+
+        // fall back to probe synchronously if there is no healthy host
+        assertEquals(liveHost, registry.select());
+        assertTrue(registry.isHealthy(liveHost));
+
+        liveServer.close();
+        registry.reportFailure(liveHost, new ConnectException("Connection refused"));
+        assertNull(registry.select());
+        registry.release();
+    }
+
+    @Test
+    public void testShareRegistry() {
+        StreamLoadProperties properties = StreamLoadProperties.builder()
+                .loadUrls(liveHost)
+                .build();
+        EndpointHealthRegistry registry1 = EndpointHealthRegistry.acquire(properties);
+        EndpointHealthRegistry registry2 = EndpointHealthRegistry.acquire(properties);
+        try {
+            assertSame(registry1, registry2);
+            assertNotNull(registry1.select());
+        } finally {
+            registry1.release();
+            registry2.release();
+        }
+        EndpointHealthRegistry registry3 = EndpointHealthRegistry.acquire(properties);
+        registry3.release();
+        assertTrue(registry3 != registry1);
+    }
+}
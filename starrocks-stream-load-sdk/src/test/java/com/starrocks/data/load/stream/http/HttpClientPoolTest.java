@@ -0,0 +1,93 @@
+/*
+ * Copyright 2021-present StarRocks, Inc. All rights reserved.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.starrocks.data.load.stream.http;
+
+import com.starrocks.data.load.stream.properties.StreamLoadProperties;
+import com.sun.net.httpserver.HttpServer;
+import org.apache.http.client.methods.CloseableHttpResponse;
+import org.apache.http.client.methods.HttpGet;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.util.EntityUtils;
+import org.junit.Test;
+
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.junit.Assert.assertEquals;
+
+public class HttpClientPoolTest {
+
+    @Test
+    public void testDefaultPoolSize() {
+        StreamLoadProperties properties = StreamLoadProperties.builder()
+                .ioThreadCount(3)
+                .build();
+        assertEquals(3, properties.getMaxConnectionsPerRoute());
+        assertEquals(12, properties.getMaxConnections());
+
+        properties = StreamLoadProperties.builder()
+                .ioThreadCount(3)
+                .maxConnectionsPerRoute(5)
+                .maxConnections(7)
+                .build();
+        assertEquals(5, properties.getMaxConnectionsPerRoute());
+        assertEquals(7, properties.getMaxConnections());
+    }
+
+    @Test
+    public void testReuseConnection() throws Exception {
+        Set<InetSocketAddress> clientAddresses = ConcurrentHashMap.newKeySet();
+        HttpServer server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/", exchange -> {
+            clientAddresses.add(exchange.getRemoteAddress());
+            byte[] body = "OK".getBytes(StandardCharsets.UTF_8);
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream os = exchange.getResponseBody()) {
+                os.write(body);
+            }
+        });
+        server.start();
+
+        StreamLoadProperties properties = StreamLoadProperties.builder()
+                .ioThreadCount(1)
+                .build();
+        HttpClientPool pool = new HttpClientPool(properties);
+        try {
+            String url = "http://127.0.0.1:" + server.getAddress().getPort() + "/";
+            for (int i = 0; i < 5; i++) {
+                // clients built from the pool can be closed without closing the pooled connections
+                try (CloseableHttpClient client = pool.newClientBuilder().build();
+                     CloseableHttpResponse response = client.execute(new HttpGet(url))) {
+                    assertEquals("OK", EntityUtils.toString(response.getEntity()));
+                }
+                assertEquals(0, pool.getLeasedConnections());
+                assertEquals(1, pool.getAvailableConnections());
+            }
+            assertEquals(1, clientAddresses.size());
+        } finally {
+            pool.close();
+            server.stop(0);
+        }
+    }
+}
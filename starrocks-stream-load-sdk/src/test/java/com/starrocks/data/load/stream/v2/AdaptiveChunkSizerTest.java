@@ -0,0 +1,79 @@
+/*
+ * Copyright 2021-present StarRocks, Inc. All rights reserved.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.starrocks.data.load.stream.v2;
+
+import com.starrocks.data.load.stream.LoadMetrics;
+import com.starrocks.data.load.stream.StreamLoadResponse;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+public class AdaptiveChunkSizerTest {
+
+    @Test
+    public void testGrowAndShrink() {
+        LoadMetrics loadMetrics = new LoadMetrics();
+        AdaptiveChunkSizer sizer = new AdaptiveChunkSizer("db.tbl", 1024, 4096, 10000, loadMetrics);
+        assertEquals(1024, sizer.getChunkBytes());
+
+        // no feedback
+        assertEquals(AdaptiveChunkSizer.Decision.KEEP, sizer.update(100, null));
+        assertEquals(AdaptiveChunkSizer.Decision.KEEP, sizer.update(100, new StreamLoadResponse.StreamLoadResponseBody()));
+
+        // the fixed overhead dominates
+        assertEquals(AdaptiveChunkSizer.Decision.GROW, sizer.update(1000, body(800, 100, 100, 400)));
+        assertEquals(2048, sizer.getChunkBytes());
+        assertEquals(AdaptiveChunkSizer.Decision.GROW, sizer.update(1000, body(800, 100, 100, 400)));
+        assertEquals(4096, sizer.getChunkBytes());
+        // reach the max
+        assertEquals(AdaptiveChunkSizer.Decision.KEEP, sizer.update(1000, body(800, 100, 100, 400)));
+        assertEquals(4096, sizer.getChunkBytes());
+
+        // writing data dominates
+        assertEquals(AdaptiveChunkSizer.Decision.KEEP, sizer.update(5000, body(4000, 50, 50, 100)));
+
+        // latency exceeds the target
+        assertEquals(AdaptiveChunkSizer.Decision.SHRINK, sizer.update(12000, body(8000, 50, 50, 100)));
+        assertEquals(2048, sizer.getChunkBytes());
+        assertEquals(AdaptiveChunkSizer.Decision.SHRINK, sizer.update(12000, body(8000, 50, 50, 100)));
+        assertEquals(1024, sizer.getChunkBytes());
+        // reach the min
+        assertEquals(AdaptiveChunkSizer.Decision.KEEP, sizer.update(12000, body(8000, 50, 50, 100)));
+        assertEquals(1024, sizer.getChunkBytes());
+
+        // growing would push the latency past the target
+        assertEquals(AdaptiveChunkSizer.Decision.KEEP, sizer.update(6000, body(1000, 200, 200, 300)));
+        assertEquals(1024, sizer.getChunkBytes());
+
+        assertEquals(2, loadMetrics.getNumberAdaptiveChunkGrow());
+        assertEquals(2, loadMetrics.getNumberAdaptiveChunkShrink());
+    }
+
+    private static StreamLoadResponse.StreamLoadResponseBody body(
+            long loadTimeMs, long beginTxnTimeMs, long planTimeMs, long commitAndPublishTimeMs) {
+        StreamLoadResponse.StreamLoadResponseBody body = new StreamLoadResponse.StreamLoadResponseBody();
+        body.setLoadTimeMs(loadTimeMs);
+        body.setBeginTxnTimeMs(beginTxnTimeMs);
+        body.setStreamLoadPlanTimeMs(planTimeMs);
+        body.setCommitAndPublishTimeMs(commitAndPublishTimeMs);
+        return body;
+    }
+}
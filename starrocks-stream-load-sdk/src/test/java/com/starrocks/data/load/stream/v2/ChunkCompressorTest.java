@@ -0,0 +1,128 @@
+/*
+ * Copyright 2021-present StarRocks, Inc. All rights reserved.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.starrocks.data.load.stream.v2;
+
+import com.starrocks.data.load.stream.Chunk;
+import com.starrocks.data.load.stream.ChunkInputStreamTest;
+import com.starrocks.data.load.stream.StreamLoadDataFormat;
+import com.starrocks.data.load.stream.compress.GzipCompressionCodec;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class ChunkCompressorTest {
+
+    private ChunkCompressor compressor;
+
+    @Before
+    public void setUp() {
+        compressor = new ChunkCompressor(2, 1.1);
+    }
+
+    @After
+    public void tearDown() {
+        compressor.close();
+    }
+
+    @Test
+    public void testCompress() throws Exception {
+        Chunk chunk = new Chunk(StreamLoadDataFormat.CSV);
+        for (int i = 0; i < 1000; i++) {
+            chunk.addRow(("row-" + i + ",starrocks,starrocks,starrocks").getBytes(StandardCharsets.UTF_8));
+        }
+        ByteArrayOutputStream expected = new ByteArrayOutputStream();
+        chunk.writeTo(expected);
+
+        GzipCompressionCodec codec = GzipCompressionCodec.create(new HashMap<>());
+        ChunkCompressor.CompressedChunk compressedChunk = compressor.compress("db.tbl", chunk, codec).get();
+        assertTrue(compressedChunk.isCompressed());
+        assertEquals(chunk.chunkBytes(), compressedChunk.getRawSize());
+        assertTrue(compressedChunk.getLength() < chunk.chunkBytes());
+        assertArrayEquals(expected.toByteArray(), decompress(compressedChunk.getData(), compressedChunk.getLength()));
+        assertEquals(1, codec.getStats().getNumCompressions());
+        assertEquals(compressedChunk.getLength(), codec.getStats().getCompressedBytes());
+
+        // the compressed bytes are accounted until released
+        assertTrue(compressor.getBufferedBytes() >= compressedChunk.getLength());
+        compressedChunk.release();
+        assertEquals(0, compressor.getBufferedBytes());
+    }
+
+    @Test
+    public void testBufferedBytesLimit() throws Exception {
+        ChunkCompressor limitedCompressor = new ChunkCompressor(1, 1.1, 1);
+        try {
+            Chunk chunk = new Chunk(StreamLoadDataFormat.CSV);
+            for (int i = 0; i < 1000; i++) {
+                chunk.addRow(("row-" + i + ",starrocks,starrocks,starrocks").getBytes(StandardCharsets.UTF_8));
+            }
+            GzipCompressionCodec codec = GzipCompressionCodec.create(new HashMap<>());
+            CompletableFuture<ChunkCompressor.CompressedChunk> future = limitedCompressor.compress("db.tbl", chunk, codec);
+            ChunkCompressor.CompressedChunk compressedChunk = future.get();
+            assertTrue(compressedChunk.isCompressed());
+            // the buffered bytes reach the limit, and no more chunks are pre-compressed until it's released
+            assertNull(limitedCompressor.compress("db.tbl", chunk, codec));
+            ChunkCompressor.discard(future);
+            assertEquals(0, limitedCompressor.getBufferedBytes());
+            assertNotNull(limitedCompressor.compress("db.tbl", chunk, codec));
+        } finally {
+            limitedCompressor.close();
+        }
+    }
+
+    @Test
+    public void testCompressNotPayOff() throws Exception {
+        // random bytes can't be compressed
+        Chunk chunk = ChunkInputStreamTest.genChunk().chunk;
+        GzipCompressionCodec codec = GzipCompressionCodec.create(new HashMap<>());
+        ChunkCompressor.CompressedChunk compressedChunk = compressor.compress("db.tbl", chunk, codec).get();
+        assertFalse(compressedChunk.isCompressed());
+        assertEquals(1, codec.getStats().getNumCompressions());
+        assertEquals(0, compressor.getBufferedBytes());
+    }
+
+    private static byte[] decompress(byte[] data, int length) throws Exception {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        try (InputStream inputStream = new GZIPInputStream(new ByteArrayInputStream(data, 0, length))) {
+            byte[] buffer = new byte[4096];
+            int n;
+            while ((n = inputStream.read(buffer)) > 0) {
+                outputStream.write(buffer, 0, n);
+            }
+        }
+        return outputStream.toByteArray();
+    }
+}
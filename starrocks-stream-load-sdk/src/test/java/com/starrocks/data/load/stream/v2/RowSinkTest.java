@@ -0,0 +1,97 @@
+/*
+ * Copyright 2021-present StarRocks, Inc. All rights reserved.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.starrocks.data.load.stream.v2;
+
+import com.starrocks.data.load.stream.TableRegion;
+import org.junit.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.atLeast;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+public class RowSinkTest {
+
+    @Test
+    public void testWriteRows() {
+        StreamLoadManagerV2 manager = mock(StreamLoadManagerV2.class);
+        TableRegion region = mock(TableRegion.class);
+        List<String> rows = new ArrayList<>();
+        doAnswer(invocation -> {
+            byte[] buffer = invocation.getArgument(1);
+            int[] rowEnds = invocation.getArgument(2);
+            int numRows = invocation.getArgument(3);
+            int start = 0;
+            for (int i = 0; i < numRows; i++) {
+                rows.add(new String(buffer, start, rowEnds[i] - start, StandardCharsets.UTF_8));
+                start = rowEnds[i];
+            }
+            return null;
+        }).when(manager).write(eq(region), any(), any(), anyInt());
+
+        List<String> expectedRows = new ArrayList<>();
+        try (RowSink sink = new RowSink(manager, region, 32)) {
+            for (int i = 0; i < 20; i++) {
+                sink.write("row-" + i);
+                sink.write(',');
+                sink.write("starrocks".getBytes(StandardCharsets.UTF_8));
+                sink.endRow();
+                expectedRows.add("row-" + i + ",starrocks");
+                // the unfinished row should be kept when flushing
+                sink.write("partial");
+                sink.discardRow();
+            }
+            // a row larger than the batch size
+            String largeRow = String.join(",", expectedRows);
+            sink.write(largeRow);
+            sink.endRow();
+            expectedRows.add(largeRow);
+            assertEquals(0, sink.getNumBufferedRows());
+
+            sink.write("last");
+            sink.endRow();
+            sink.write("unfinished");
+            expectedRows.add("last");
+        }
+        assertEquals(expectedRows, rows);
+        // the rows are written in batches
+        verify(manager, atLeast(2)).write(eq(region), any(), any(), anyInt());
+    }
+
+    @Test
+    public void testFlushWithoutRows() {
+        StreamLoadManagerV2 manager = mock(StreamLoadManagerV2.class);
+        RowSink sink = new RowSink(manager, mock(TableRegion.class));
+        sink.write("unfinished".getBytes(StandardCharsets.UTF_8), 0, 4);
+        sink.flush();
+        verify(manager, never()).write(any(TableRegion.class), any(), any(), anyInt());
+        assertEquals(0, sink.getNumBufferedRows());
+    }
+}
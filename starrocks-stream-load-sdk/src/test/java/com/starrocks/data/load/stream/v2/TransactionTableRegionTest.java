@@ -0,0 +1,513 @@
+/*
+ * Copyright 2021-present StarRocks, Inc. All rights reserved.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.starrocks.data.load.stream.v2;
+
+import com.starrocks.data.load.stream.ChunkAllocator;
+import com.starrocks.data.load.stream.LabelGenerator;
+import com.starrocks.data.load.stream.SlabPool;
+import com.starrocks.data.load.stream.StreamLoadDataFormat;
+import com.starrocks.data.load.stream.StreamLoadManager;
+import com.starrocks.data.load.stream.StreamLoadResponse;
+import com.starrocks.data.load.stream.StreamLoader;
+import com.starrocks.data.load.stream.TableRegion;
+import com.starrocks.data.load.stream.exception.StreamLoadFailException;
+import com.starrocks.data.load.stream.properties.StreamLoadTableProperties;
+import org.apache.http.HttpEntity;
+import org.apache.http.entity.ByteArrayEntity;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+public class TransactionTableRegionTest {
+
+    @Test
+    public void testWriteWithConcurrentFlush() throws Exception {
+        StreamLoadTableProperties properties = StreamLoadTableProperties.builder()
+                .database("db")
+                .table("tbl")
+                .streamLoadDataFormat(StreamLoadDataFormat.CSV)
+                .chunkLimit(1024)
+                .maxBufferRows(Integer.MAX_VALUE)
+                .build();
+        TransactionTableRegion region = new TransactionTableRegion("db.tbl", "db", "tbl",
+                mock(StreamLoadManager.class), properties, mock(StreamLoader.class), null, 0, 0);
+
+        int numRows = 100000;
+        AtomicBoolean writeFinished = new AtomicBoolean(false);
+        AtomicReference<Throwable> error = new AtomicReference<>();
+        Thread writer = new Thread(() -> {
+            try {
+                for (int i = 0; i < numRows; i++) {
+                    region.write(("row-" + i).getBytes(StandardCharsets.UTF_8));
+                }
+            } catch (Throwable e) {
+                error.set(e);
+            } finally {
+                writeFinished.set(true);
+            }
+        });
+
+        // flush as frequently as possible while writing, and load the chunks in order
+        List<String> loadedRows = new ArrayList<>();
+        writer.start();
+        boolean finished = false;
+        while (!finished) {
+            finished = writeFinished.get();
+            while (region.flush(FlushReason.FORCE)) {
+                do {
+                    ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+                    region.getHttpEntity().writeTo(outputStream);
+                    loadedRows.addAll(Arrays.asList(outputStream.toString("UTF-8").split("\n")));
+                    region.complete(new StreamLoadResponse());
+                } while (region.isFlushing());
+            }
+        }
+        writer.join();
+
+        assertNull(error.get());
+        assertEquals(0, region.getCacheBytes());
+        assertEquals(numRows, loadedRows.size());
+        for (int i = 0; i < numRows; i++) {
+            assertEquals("row-" + i, loadedRows.get(i));
+        }
+    }
+
+    @Test
+    public void testUpsertCompaction() throws Exception {
+        StreamLoadTableProperties properties = StreamLoadTableProperties.builder()
+                .database("db")
+                .table("tbl")
+                .streamLoadDataFormat(StreamLoadDataFormat.CSV)
+                .chunkLimit(1024 * 1024)
+                .maxBufferRows(Integer.MAX_VALUE)
+                .build();
+        TransactionTableRegion region = new TransactionTableRegion("db.tbl", "db", "tbl",
+                mock(StreamLoadManager.class), properties, mock(StreamLoader.class), null, 0, 0);
+
+        // update 1000 keys 10 times, and delete the even ones at last
+        int numKeys = 1000;
+        long cacheBytes = 0;
+        for (int round = 0; round < 10; round++) {
+            for (int i = 0; i < numKeys; i++) {
+                byte[] row = (i + "\t" + round + "\t0").getBytes(StandardCharsets.UTF_8);
+                cacheBytes += region.write(String.valueOf(i).getBytes(StandardCharsets.UTF_8), row, 0, row.length);
+            }
+        }
+        for (int i = 0; i < numKeys; i += 2) {
+            byte[] row = (i + "\t9\t1").getBytes(StandardCharsets.UTF_8);
+            cacheBytes += region.write(String.valueOf(i).getBytes(StandardCharsets.UTF_8), row, 0, row.length);
+        }
+        // a row without key is loaded after the compacted rows
+        cacheBytes += region.write("end".getBytes(StandardCharsets.UTF_8));
+        assertEquals(cacheBytes, region.getCacheBytes());
+        assertEquals(numKeys * 10 - numKeys / 2, region.getNumCompactedRows());
+
+        assertTrue(region.flush(FlushReason.FORCE));
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        region.getHttpEntity().writeTo(outputStream);
+        String[] loadedRows = outputStream.toString("UTF-8").split("\n");
+        region.complete(new StreamLoadResponse());
+        assertEquals(0, region.getCacheBytes());
+        assertEquals(numKeys + 1, loadedRows.length);
+        for (int i = 0; i < numKeys; i++) {
+            assertEquals(i + "\t9\t" + (i % 2 == 0 ? 1 : 0), loadedRows[i]);
+        }
+        assertEquals("end", loadedRows[numKeys]);
+    }
+
+    @Test
+    public void testConcurrentLoads() throws Exception {
+        StreamLoadTableProperties properties = StreamLoadTableProperties.builder()
+                .database("db")
+                .table("tbl")
+                .streamLoadDataFormat(StreamLoadDataFormat.CSV)
+                .chunkLimit(16)
+                .maxBufferRows(Integer.MAX_VALUE)
+                .build();
+        AtomicInteger labelId = new AtomicInteger();
+        LabelGenerator labelGenerator = () -> "label-" + labelId.incrementAndGet();
+        List<TableRegion> sentLoads = new ArrayList<>();
+        StreamLoader streamLoader = mock(StreamLoader.class);
+        doAnswer(invocation -> {
+            TableRegion load = invocation.getArgument(0);
+            load.setLabel(load.getLabelGenerator().next());
+            sentLoads.add(load);
+            return null;
+        }).when(streamLoader).send(any(TableRegion.class), anyInt());
+        StreamLoadManager manager = mock(StreamLoadManager.class);
+        TransactionTableRegion region = new TransactionTableRegion("db.tbl", "db", "tbl", manager, properties,
+                streamLoader, labelGenerator, 1, 0, ChunkAllocator.HEAP, 3, null, 0, 0, null);
+
+        // each row takes a chunk
+        int numRows = 5;
+        for (int i = 0; i < numRows; i++) {
+            region.write(("row-" + i + "-0123456789").getBytes(StandardCharsets.UTF_8));
+        }
+        assertTrue(region.flush(FlushReason.FORCE));
+        assertEquals(3, sentLoads.size());
+        Set<String> labels = new HashSet<>();
+        for (TableRegion load : sentLoads) {
+            labels.add(load.getLabel());
+        }
+        assertEquals(3, labels.size());
+
+        // a finished load makes room for the next chunk
+        long cacheBytes = region.getCacheBytes();
+        long chunkBytes = sentLoads.get(1).getCacheBytes();
+        sentLoads.get(1).complete(new StreamLoadResponse());
+        assertEquals(cacheBytes - chunkBytes, region.getCacheBytes());
+        assertEquals(4, sentLoads.size());
+
+        // a failed load is retried with the same label
+        TableRegion failedLoad = sentLoads.get(0);
+        String failedLabel = failedLoad.getLabel();
+        failedLoad.fail(new StreamLoadFailException("fail"));
+        assertEquals(5, sentLoads.size());
+        assertTrue(failedLoad == sentLoads.get(4));
+        assertEquals(failedLabel, failedLoad.getLabel());
+        verify(manager, times(0)).callback(any(Throwable.class));
+
+        List<TableRegion> pendingLoads = new ArrayList<>(sentLoads);
+        pendingLoads.remove(4);
+        pendingLoads.remove(1);
+        for (TableRegion load : pendingLoads) {
+            assertTrue(region.isFlushing());
+            load.complete(new StreamLoadResponse());
+        }
+        assertEquals(6, sentLoads.size());
+        assertTrue(region.isFlushing());
+        assertFalse(region.getResult().isDone());
+        sentLoads.get(5).complete(new StreamLoadResponse());
+        assertFalse(region.isFlushing());
+        assertTrue(region.getResult().isDone());
+        assertEquals(0, region.getCacheBytes());
+        verify(manager, times(numRows)).callback(any(StreamLoadResponse.class));
+    }
+
+    @Test
+    public void testConcurrentLoadFailure() throws Exception {
+        StreamLoadTableProperties properties = StreamLoadTableProperties.builder()
+                .database("db")
+                .table("tbl")
+                .streamLoadDataFormat(StreamLoadDataFormat.CSV)
+                .chunkLimit(16)
+                .maxBufferRows(Integer.MAX_VALUE)
+                .build();
+        AtomicInteger labelId = new AtomicInteger();
+        LabelGenerator labelGenerator = () -> "label-" + labelId.incrementAndGet();
+        List<TableRegion> sentLoads = new ArrayList<>();
+        List<CompletableFuture<Void>> sentFutures = new ArrayList<>();
+        StreamLoader streamLoader = mock(StreamLoader.class);
+        doAnswer(invocation -> {
+            TableRegion load = invocation.getArgument(0);
+            load.setLabel(load.getLabelGenerator().next());
+            sentLoads.add(load);
+            CompletableFuture<Void> future = new CompletableFuture<>();
+            sentFutures.add(future);
+            return future;
+        }).when(streamLoader).send(any(TableRegion.class), anyInt());
+        StreamLoadManager manager = mock(StreamLoadManager.class);
+        TransactionTableRegion region = new TransactionTableRegion("db.tbl", "db", "tbl", manager, properties,
+                streamLoader, labelGenerator, 0, 0, ChunkAllocator.HEAP, 2, null, 0, 0, null);
+
+        for (int i = 0; i < 4; i++) {
+            region.write(("row-" + i + "-0123456789").getBytes(StandardCharsets.UTF_8));
+        }
+        assertTrue(region.flush(FlushReason.FORCE));
+        assertEquals(2, sentLoads.size());
+
+        // the result of the region is done only when all the loads finish
+        sentLoads.get(1).complete(new StreamLoadResponse());
+        sentFutures.get(1).complete(null);
+        assertEquals(3, sentLoads.size());
+        Future<?> result = region.getResult();
+        assertFalse(result.isDone());
+        try {
+            result.get(10, TimeUnit.MILLISECONDS);
+            fail();
+        } catch (TimeoutException e) {
+            // expected
+        }
+
+        // a load failed after the last retry stops the region from loading the rest chunks
+        sentLoads.get(0).fail(new StreamLoadFailException("fail"));
+        sentFutures.get(0).complete(null);
+        verify(manager, times(1)).callback(any(Throwable.class));
+        assertFalse(region.isFlushing());
+        assertFalse(region.flush(FlushReason.FORCE));
+        assertEquals(FlushReason.NONE, region.shouldFlush());
+        assertEquals(3, sentLoads.size());
+        assertFalse(result.isDone());
+
+        sentLoads.get(2).complete(new StreamLoadResponse());
+        sentFutures.get(2).complete(null);
+        assertTrue(result.isDone());
+        result.get();
+        assertEquals(3, sentLoads.size());
+    }
+
+    @Test
+    public void testNoConcurrentLoadsForUpserts() throws Exception {
+        StreamLoadTableProperties.Builder upsertDelete = StreamLoadTableProperties.builder()
+                .enableUpsertDelete(true);
+        StreamLoadTableProperties.Builder opColumn = StreamLoadTableProperties.builder()
+                .columns("`id`,`name`,`__op`");
+        for (StreamLoadTableProperties.Builder builder : Arrays.asList(upsertDelete, opColumn)) {
+            StreamLoadTableProperties properties = builder
+                    .database("db")
+                    .table("tbl")
+                    .streamLoadDataFormat(StreamLoadDataFormat.CSV)
+                    .chunkLimit(16)
+                    .maxBufferRows(Integer.MAX_VALUE)
+                    .build();
+            List<TableRegion> sentLoads = new ArrayList<>();
+            StreamLoader streamLoader = mock(StreamLoader.class);
+            doAnswer(invocation -> {
+                sentLoads.add(invocation.getArgument(0));
+                return null;
+            }).when(streamLoader).send(any(TableRegion.class), anyInt());
+            TransactionTableRegion region = new TransactionTableRegion("db.tbl", "db", "tbl",
+                    mock(StreamLoadManager.class), properties, streamLoader, () -> "label", 1, 0,
+                    ChunkAllocator.HEAP, 3, null, 0, 0, null);
+
+            // the chunks are loaded one by one in the order they are written
+            int numRows = 3;
+            for (int i = 0; i < numRows; i++) {
+                region.write(("row-" + i + "-0123456789").getBytes(StandardCharsets.UTF_8));
+            }
+            assertTrue(region.flush(FlushReason.FORCE));
+            for (int i = 0; i < numRows; i++) {
+                assertEquals(i + 1, sentLoads.size());
+                assertTrue(region == sentLoads.get(i));
+                ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+                region.getHttpEntity().writeTo(outputStream);
+                assertEquals("row-" + i + "-0123456789", outputStream.toString("UTF-8").trim());
+                region.complete(new StreamLoadResponse());
+            }
+            assertFalse(region.isFlushing());
+            assertEquals(numRows, sentLoads.size());
+        }
+    }
+
+    @Test
+    public void testStreamingLoad() throws Exception {
+        StreamLoadTableProperties properties = StreamLoadTableProperties.builder()
+                .database("db")
+                .table("tbl")
+                .streamLoadDataFormat(StreamLoadDataFormat.CSV)
+                .chunkLimit(1024 * 1024)
+                .maxBufferRows(Integer.MAX_VALUE)
+                .build();
+        StreamLoadManager manager = mock(StreamLoadManager.class);
+        TransactionTableRegion region = new TransactionTableRegion("db.tbl", "db", "tbl", manager, properties,
+                mock(StreamLoader.class), null, 0, 0, ChunkAllocator.HEAP, 1, null, 64, 0, null);
+
+        region.write("row-0".getBytes(StandardCharsets.UTF_8));
+        assertEquals(FlushReason.CHUNK_READY, region.shouldFlush());
+        assertTrue(region.flush(FlushReason.CHUNK_READY));
+
+        // send the body while the rows are being written
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        AtomicReference<Throwable> error = new AtomicReference<>();
+        Thread sender = new Thread(() -> {
+            try {
+                region.getHttpEntity().writeTo(outputStream);
+            } catch (Throwable e) {
+                error.set(e);
+            }
+        });
+        sender.start();
+
+        int numRows = 10000;
+        for (int i = 1; i < numRows; i++) {
+            region.write(("row-" + i).getBytes(StandardCharsets.UTF_8));
+        }
+        assertFalse(region.flush(FlushReason.FORCE));
+        sender.join();
+        assertNull(error.get());
+        region.complete(new StreamLoadResponse());
+
+        assertFalse(region.isFlushing());
+        assertEquals(0, region.getCacheBytes());
+        List<String> loadedRows = Arrays.asList(outputStream.toString("UTF-8").split("\n"));
+        assertEquals(numRows, loadedRows.size());
+        for (int i = 0; i < numRows; i++) {
+            assertEquals("row-" + i, loadedRows.get(i));
+        }
+        verify(manager, times(1)).callback(any(StreamLoadResponse.class));
+    }
+
+    @Test
+    public void testStreamingLoadTimeLimit() throws Exception {
+        StreamLoadTableProperties properties = StreamLoadTableProperties.builder()
+                .database("db")
+                .table("tbl")
+                .streamLoadDataFormat(StreamLoadDataFormat.CSV)
+                .chunkLimit(1024 * 1024)
+                .maxBufferRows(Integer.MAX_VALUE)
+                .build();
+        StreamLoadManager manager = mock(StreamLoadManager.class);
+        TransactionTableRegion region = new TransactionTableRegion("db.tbl", "db", "tbl", manager, properties,
+                mock(StreamLoader.class), null, 0, 0, ChunkAllocator.HEAP, 1, null, 64, 500, null);
+
+        region.write("row-0".getBytes(StandardCharsets.UTF_8));
+        assertTrue(region.flush(FlushReason.CHUNK_READY));
+
+        // the load ends by itself although the end is never requested and no more rows are written
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        AtomicReference<Throwable> error = new AtomicReference<>();
+        Thread sender = new Thread(() -> {
+            try {
+                region.getHttpEntity().writeTo(outputStream);
+            } catch (Throwable e) {
+                error.set(e);
+            }
+        });
+        long startTimeMs = System.currentTimeMillis();
+        sender.start();
+        sender.join(30000);
+        assertFalse(sender.isAlive());
+        assertTrue(System.currentTimeMillis() - startTimeMs >= 500);
+        assertNull(error.get());
+        region.complete(new StreamLoadResponse());
+
+        assertFalse(region.isFlushing());
+        assertEquals(0, region.getCacheBytes());
+        assertEquals("row-0", outputStream.toString("UTF-8").trim());
+    }
+
+    @Test
+    public void testPreCompression() throws Exception {
+        StreamLoadTableProperties properties = StreamLoadTableProperties.builder()
+                .database("db")
+                .table("tbl")
+                .streamLoadDataFormat(StreamLoadDataFormat.CSV)
+                .chunkLimit(1024 * 1024)
+                .maxBufferRows(Integer.MAX_VALUE)
+                .addProperty("compression", "gzip")
+                .build();
+        for (double minCompressionRatio : new double[] {1.1, 1000}) {
+            ChunkCompressor compressor = new ChunkCompressor(1, minCompressionRatio);
+            try {
+                // the chunk is sent after the pre-compression finishes
+                CountDownLatch sent = new CountDownLatch(1);
+                StreamLoader streamLoader = mock(StreamLoader.class);
+                doAnswer(invocation -> {
+                    sent.countDown();
+                    return null;
+                }).when(streamLoader).send(any(TableRegion.class), anyInt());
+                TransactionTableRegion region = new TransactionTableRegion("db.tbl", "db", "tbl",
+                        mock(StreamLoadManager.class), properties, streamLoader, null, 0, 0,
+                        ChunkAllocator.HEAP, 1, null, 0, 0, compressor);
+                for (int i = 0; i < 1000; i++) {
+                    region.write(("row-" + i + ",starrocks,starrocks").getBytes(StandardCharsets.UTF_8));
+                }
+                assertTrue(region.flush(FlushReason.FORCE));
+                assertTrue(sent.await(30, TimeUnit.SECONDS));
+                HttpEntity entity = region.getHttpEntity();
+                if (minCompressionRatio < 1000) {
+                    // the compressed bytes are sent with the exact content length
+                    assertTrue(entity instanceof ByteArrayEntity);
+                    assertTrue(entity.getContentLength() > 0);
+                    assertEquals("gzip", region.getHeaders().get("format"));
+                    assertEquals("gzip", region.getHeaders().get("compression"));
+                } else {
+                    assertTrue(entity instanceof ChunkHttpEntity);
+                    assertNull(region.getHeaders().get("format"));
+                    assertTrue(region.getHeaders().containsKey("compression"));
+                    assertNull(region.getHeaders().get("compression"));
+                }
+                region.complete(new StreamLoadResponse());
+                assertFalse(region.isFlushing());
+                assertEquals(0, compressor.getBufferedBytes());
+            } finally {
+                compressor.close();
+            }
+        }
+    }
+
+    @Test
+    public void testSlabMemoryOfManyTables() throws Exception {
+        int slabSize = 1024;
+        int numTables = 20;
+        SlabPool pool = new SlabPool(slabSize, 16 * slabSize);
+        List<TransactionTableRegion> regions = new ArrayList<>();
+        long rowBytes = 0;
+        for (int i = 0; i < numTables; i++) {
+            StreamLoadTableProperties properties = StreamLoadTableProperties.builder()
+                    .database("db")
+                    .table("tbl" + i)
+                    .streamLoadDataFormat(StreamLoadDataFormat.CSV)
+                    .chunkLimit(1024 * 1024)
+                    .maxBufferRows(Integer.MAX_VALUE)
+                    .build();
+            TransactionTableRegion region = new TransactionTableRegion("db.tbl" + i, "db", "tbl" + i,
+                    mock(StreamLoadManager.class), properties, mock(StreamLoader.class), null, 0, 0,
+                    pool, 1, null, 0, 0, null);
+            for (int j = 0; j < 5; j++) {
+                rowBytes += region.write(("row-" + j).getBytes(StandardCharsets.UTF_8));
+            }
+            regions.add(region);
+        }
+
+        // each table holds a partly filled slab which is counted in full
+        assertEquals(numTables, pool.getNumUsedSlabs());
+        assertEquals((long) numTables * slabSize, pool.getUsedBytes());
+        assertTrue(rowBytes < pool.getBudgetBytes());
+        assertTrue(pool.isExhausted());
+
+        for (TransactionTableRegion region : regions) {
+            assertTrue(region.flush(FlushReason.FORCE));
+            region.getHttpEntity().writeTo(new ByteArrayOutputStream());
+            region.complete(new StreamLoadResponse());
+            assertEquals(0, region.getCacheBytes());
+        }
+        assertEquals(0, pool.getUsedBytes());
+        assertFalse(pool.isExhausted());
+        assertEquals(16, pool.getNumFreeSlabs());
+    }
+}